@@ -458,6 +458,14 @@ public interface Toolkit {
    * <td >Use default value</td>
    * </tr>
    * <tr>
+   * <td>EVICTION_POLICY</td>
+   * <td >CLOCK</td>
+   * <td >{@code IllegalArgumentException} on mismatch</td>
+   * <td >Use existing value</td>
+   * <td >Use value passed in config</td>
+   * <td >Use default value</td>
+   * </tr>
+   * <tr bgcolor="#eeeeff">
    * <td>PINNING_STORE</td>
    * <td >NONE</td>
    * <td >{@code IllegalArgumentException} on mismatch</td>
@@ -19,10 +19,12 @@ package org.terracotta.toolkit;
 import org.terracotta.toolkit.api.ToolkitFactoryService;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A static factory class used for creating {@link Toolkit} instances.
@@ -37,13 +39,25 @@ import java.util.ServiceLoader;
  * 
  * where server is the host-name/ip of the Terracotta Server and port is the port number where Terracotta Server Array
  * is running.
+ * <p>
+ * The {@link ToolkitFactoryService}s found in the classpath are discovered once, and the service handling a given
+ * <em>type:subname</em> is remembered, see {@link #invalidateToolkitFactoryServices()}. Setting
+ * {@link #TOOLKIT_FACTORY_SERVICE_PROPERTY} in the properties or as a system property bypasses the discovery and uses
+ * the named service class directly.
  * 
  * @author Abhishek Sanoujam
  */
 public final class ToolkitFactory {
 
-  private static final String TOOLKIT_URI_DELIM  = ":";
-  private static final String TOOLKIT_URI_PREFIX = "toolkit" + TOOLKIT_URI_DELIM;
+  /**
+   * Name of the property, looked up in the properties passed to {@link #createToolkit(String, Properties)} then in the
+   * system properties, holding the class name of the {@link ToolkitFactoryService} to use. When set, the classpath is
+   * not scanned for other implementations.
+   */
+  public static final String  TOOLKIT_FACTORY_SERVICE_PROPERTY = "org.terracotta.toolkit.factoryService";
+
+  private static final String TOOLKIT_URI_DELIM                = ":";
+  private static final String TOOLKIT_URI_PREFIX               = "toolkit" + TOOLKIT_URI_DELIM;
 
   /**
    * Same as calling ToolkitFactory.createToolkit(toolkitURI, null)}.
@@ -97,29 +111,26 @@ public final class ToolkitFactory {
     return create(toolkitURI, properties);
   }
 
+  /**
+   * Forgets the discovered {@link ToolkitFactoryService}s and the service resolved for each toolkit type, so that the
+   * next {@link #createToolkit(String, Properties)} scans the classpath again.
+   */
+  public static void invalidateToolkitFactoryServices() {
+    ToolkitFactoryServiceLookup.invalidate();
+  }
+
   private static Toolkit create(String toolkitURI, Properties properties) throws ToolkitInstantiationException {
     ToolkitTypeSubNameTuple typeSubName = ToolkitTypeSubNameTuple.parseToolkitURI(toolkitURI);
-    // check for multiple toolkit implementations
-    List<ToolkitFactoryService> serviceList = new ArrayList<ToolkitFactoryService>();
-    for (ToolkitFactoryService toolkitFactoryService : ToolkitFactoryServiceLookup.getToolkitFactoryServices()) {
-      if (toolkitFactoryService.canHandleToolkitType(typeSubName.type, typeSubName.subName)) {
-        serviceList.add(toolkitFactoryService);
+    ToolkitFactoryService service = ToolkitFactoryServiceLookup.getPinnedService(properties);
+    if (service != null) {
+      if (!service.canHandleToolkitType(typeSubName.type, typeSubName.subName)) {
+        throw new ToolkitInstantiationException("Toolkit implementation " + service.getClass().getName()
+                                                + " cannot handle toolkitURI: " + toolkitURI);
       }
-    }
-    if (serviceList.size() == 0) {
-      throw new ToolkitInstantiationException("No Toolkit implementation found in classpath for toolkitURI: "
-                                              + toolkitURI);
-    } else if (serviceList.size() == 1) {
-      return serviceList.get(0).createToolkit(typeSubName.type, typeSubName.subName, properties);
     } else {
-      StringBuilder sb = new StringBuilder();
-      for (ToolkitFactoryService service : serviceList) {
-        sb.append(service.getClass().getName());
-        sb.append(", ");
-      }
-      throw new ToolkitInstantiationException("Multiple Toolkit implementation found in classpath for toolkitURI: "
-                                              + toolkitURI + " Services : " + sb.toString());
+      service = ToolkitFactoryServiceLookup.resolve(typeSubName, toolkitURI);
     }
+    return service.createToolkit(typeSubName.type, typeSubName.subName, properties);
   }
 
   private static class ToolkitTypeSubNameTuple {
@@ -149,17 +160,107 @@ public final class ToolkitFactory {
       return new ToolkitTypeSubNameTuple(tokens[1], tokens[2]);
     }
 
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + subName.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof ToolkitTypeSubNameTuple)) return false;
+      ToolkitTypeSubNameTuple other = (ToolkitTypeSubNameTuple) obj;
+      return type.equals(other.type) && subName.equals(other.subName);
+    }
   }
 
   private static class ToolkitFactoryServiceLookup {
-    private static Iterable<ToolkitFactoryService> getToolkitFactoryServices() {
-      return new Iterable<ToolkitFactoryService>() {
-        @Override
-        public Iterator<ToolkitFactoryService> iterator() {
-          return ServiceLoader.load(ToolkitFactoryService.class, ToolkitFactoryServiceLookup.class.getClassLoader())
-              .iterator();
+    // services discovered through ServiceLoader with the class loader of this class, on first use
+    private static volatile List<ToolkitFactoryService>                                services;
+    // service handling each type:subname, filled on first use
+    private static final ConcurrentMap<ToolkitTypeSubNameTuple, ToolkitFactoryService> RESOLVED = new ConcurrentHashMap<ToolkitTypeSubNameTuple, ToolkitFactoryService>();
+    // services pinned through TOOLKIT_FACTORY_SERVICE_PROPERTY, by class name
+    private static final ConcurrentMap<String, ToolkitFactoryService>                  PINNED   = new ConcurrentHashMap<String, ToolkitFactoryService>();
+
+    private static ClassLoader getClassLoader() {
+      return ToolkitFactoryServiceLookup.class.getClassLoader();
+    }
+
+    private static List<ToolkitFactoryService> getToolkitFactoryServices() {
+      List<ToolkitFactoryService> discovered = services;
+      if (discovered != null) { return discovered; }
+      synchronized (ToolkitFactoryServiceLookup.class) {
+        if (services == null) {
+          List<ToolkitFactoryService> loaded = new ArrayList<ToolkitFactoryService>();
+          for (ToolkitFactoryService service : ServiceLoader.load(ToolkitFactoryService.class, getClassLoader())) {
+            loaded.add(service);
+          }
+          services = Collections.unmodifiableList(loaded);
         }
-      };
+        return services;
+      }
+    }
+
+    private static ToolkitFactoryService resolve(ToolkitTypeSubNameTuple typeSubName, String toolkitURI)
+        throws ToolkitInstantiationException {
+      ToolkitFactoryService resolved = RESOLVED.get(typeSubName);
+      if (resolved != null) { return resolved; }
+      // check for multiple toolkit implementations
+      List<ToolkitFactoryService> serviceList = new ArrayList<ToolkitFactoryService>();
+      for (ToolkitFactoryService toolkitFactoryService : getToolkitFactoryServices()) {
+        if (toolkitFactoryService.canHandleToolkitType(typeSubName.type, typeSubName.subName)) {
+          serviceList.add(toolkitFactoryService);
+        }
+      }
+      if (serviceList.size() == 0) {
+        throw new ToolkitInstantiationException("No Toolkit implementation found in classpath for toolkitURI: "
+                                                + toolkitURI);
+      } else if (serviceList.size() == 1) {
+        resolved = serviceList.get(0);
+        RESOLVED.put(typeSubName, resolved);
+        return resolved;
+      } else {
+        StringBuilder sb = new StringBuilder();
+        for (ToolkitFactoryService service : serviceList) {
+          sb.append(service.getClass().getName());
+          sb.append(", ");
+        }
+        throw new ToolkitInstantiationException("Multiple Toolkit implementation found in classpath for toolkitURI: "
+                                                + toolkitURI + " Services : " + sb.toString());
+      }
+    }
+
+    private static ToolkitFactoryService getPinnedService(Properties properties) throws ToolkitInstantiationException {
+      String className = properties == null ? null : properties.getProperty(TOOLKIT_FACTORY_SERVICE_PROPERTY);
+      if (className == null) {
+        className = System.getProperty(TOOLKIT_FACTORY_SERVICE_PROPERTY);
+      }
+      if (className == null || className.trim().equals("")) { return null; }
+      className = className.trim();
+      ToolkitFactoryService service = PINNED.get(className);
+      if (service != null) { return service; }
+      try {
+        Class<?> clazz = Class.forName(className, true, getClassLoader());
+        service = (ToolkitFactoryService) clazz.newInstance();
+      } catch (ClassNotFoundException e) {
+        throw new ToolkitInstantiationException("Toolkit implementation not found: " + className, e);
+      } catch (InstantiationException e) {
+        throw new ToolkitInstantiationException("Cannot instantiate toolkit implementation: " + className, e);
+      } catch (IllegalAccessException e) {
+        throw new ToolkitInstantiationException("Cannot instantiate toolkit implementation: " + className, e);
+      } catch (ClassCastException e) {
+        throw new ToolkitInstantiationException(className + " is not a " + ToolkitFactoryService.class.getName(), e);
+      }
+      ToolkitFactoryService existing = PINNED.putIfAbsent(className, service);
+      return existing == null ? service : existing;
+    }
+
+    private static void invalidate() {
+      synchronized (ToolkitFactoryServiceLookup.class) {
+        services = null;
+      }
+      RESOLVED.clear();
+      PINNED.clear();
     }
   }
 }
@@ -19,6 +19,7 @@ package org.terracotta.toolkit;
 import org.terracotta.toolkit.feature.NonStopFeature;
 import org.terracotta.toolkit.feature.OffheapFeature;
 import org.terracotta.toolkit.feature.SearchFeature;
+import org.terracotta.toolkit.feature.StatisticsFeature;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -42,15 +43,19 @@ public final class ToolkitFeatureType<T extends ToolkitFeature> {
   /**
    * Offheap feature
    */
-  public static final ToolkitFeatureType<OffheapFeature> OFFHEAP = define(OffheapFeature.class);
+  public static final ToolkitFeatureType<OffheapFeature>    OFFHEAP    = define(OffheapFeature.class);
   /**
    * Search feature
    */
-  public static final ToolkitFeatureType<SearchFeature>  SEARCH  = define(SearchFeature.class);
+  public static final ToolkitFeatureType<SearchFeature>     SEARCH     = define(SearchFeature.class);
   /**
    * Nonstop feature
    */
-  public static final ToolkitFeatureType<NonStopFeature> NONSTOP = define(NonStopFeature.class);
+  public static final ToolkitFeatureType<NonStopFeature>    NONSTOP    = define(NonStopFeature.class);
+  /**
+   * Statistics feature
+   */
+  public static final ToolkitFeatureType<StatisticsFeature> STATISTICS = define(StatisticsFeature.class);
 
   /**
    * Returns list of all features that a toolkit can support.
@@ -37,6 +37,9 @@ abstract class AbstractToolkitStoreCacheConfigBuilder {
   private boolean                             offheapEnabled;
 
   private boolean                             compressionEnabled;
+  private String                              compressionCodec;
+  private int                                 compressionMinSize;
+  private String                              compressionDictionary;
   private boolean                             copyOnReadEnabled;
   private boolean                             pinnedInLocalMemory;
 
@@ -118,6 +121,33 @@ abstract class AbstractToolkitStoreCacheConfigBuilder {
     return compressionEnabled;
   }
 
+  /**
+   * Gets the compression codec
+   *
+   * @return the name of the compression codec
+   */
+  public String getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  /**
+   * Gets the minimum size of the values to compress
+   *
+   * @return the minimum serialized size in bytes
+   */
+  public int getCompressionMinSize() {
+    return compressionMinSize;
+  }
+
+  /**
+   * Gets the compression dictionary
+   *
+   * @return the compression dictionary
+   */
+  public String getCompressionDictionary() {
+    return compressionDictionary;
+  }
+
   /**
    * Sets whether entries should be pinned in local memory
    */
@@ -207,6 +237,32 @@ abstract class AbstractToolkitStoreCacheConfigBuilder {
     addFieldToApply(ToolkitConfigFields.COMPRESSION_ENABLED_FIELD_NAME, this.compressionEnabled);
   }
 
+  /**
+   * Sets the compression codec
+   */
+  protected void setCompressionCodec(String compressionCodecParam) {
+    this.compressionCodec = compressionCodecParam;
+    addFieldToApply(ToolkitConfigFields.COMPRESSION_CODEC_FIELD_NAME, this.compressionCodec);
+  }
+
+  /**
+   * Sets the minimum size of the values to compress
+   *
+   * @throws IllegalArgumentException for negative values
+   */
+  protected void setCompressionMinSize(int compressionMinSizeParam) throws IllegalArgumentException {
+    this.compressionMinSize = compressionMinSizeParam;
+    addFieldToApply(ToolkitConfigFields.COMPRESSION_MIN_SIZE_FIELD_NAME, this.compressionMinSize);
+  }
+
+  /**
+   * Sets the compression dictionary
+   */
+  protected void setCompressionDictionary(String compressionDictionaryParam) {
+    this.compressionDictionary = compressionDictionaryParam;
+    addFieldToApply(ToolkitConfigFields.COMPRESSION_DICTIONARY_FIELD_NAME, this.compressionDictionary);
+  }
+
   /**
    * Sets copy on read enabled
    */
@@ -20,6 +20,8 @@ import org.terracotta.toolkit.cache.ToolkitCache;
 import org.terracotta.toolkit.config.Configuration;
 import org.terracotta.toolkit.store.ToolkitConfigFields;
 import org.terracotta.toolkit.store.ToolkitConfigFields.Consistency;
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+import org.terracotta.toolkit.store.ToolkitConfigFields.ListenerQueueFullPolicy;
 
 import java.io.Serializable;
 
@@ -29,10 +31,22 @@ import java.io.Serializable;
  */
 public final class ToolkitCacheConfigBuilder extends AbstractToolkitStoreCacheConfigBuilder {
 
-  private int          maxTTISeconds;
-  private int          maxTTLSeconds;
-  private int          maxTotalCount;
-  private boolean      evictionEnabled;
+  private int                     maxTTISeconds;
+  private int                     maxTTLSeconds;
+  private int                     maxTotalCount;
+  private boolean                 evictionEnabled;
+  private EvictionPolicy          evictionPolicy;
+  private int                     listenerBatchSize;
+  private int                     listenerBatchMaxDelayMillis;
+  private int                     listenerQueueCapacity;
+  private ListenerQueueFullPolicy listenerQueueFullPolicy;
+  private String                  writeBehindWriter;
+  private int                     writeBehindBatchSize;
+  private int                     writeBehindIntervalMillis;
+  private int                     writeBehindMaxRetries;
+  private int                     writeBehindRetryDelayMillis;
+  private int                     refreshAheadPercent;
+  private int                     refreshAheadThreads;
 
   /**
    * Sets the concurrency config to the new value and returns {@code this}
@@ -123,6 +137,37 @@ public final class ToolkitCacheConfigBuilder extends AbstractToolkitStoreCacheCo
     return this;
   }
 
+  /**
+   * Sets the codec compressing the values, see {@link ToolkitConfigFields#COMPRESSION_CODEC_FIELD_NAME}
+   * 
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder compressionCodec(String compressionCodecParam) {
+    setCompressionCodec(compressionCodecParam);
+    return this;
+  }
+
+  /**
+   * Sets the minimum serialized size of the values to compress
+   * 
+   * @return same instance
+   * @throws IllegalArgumentException for negative values
+   */
+  public ToolkitCacheConfigBuilder compressionMinSize(int compressionMinSizeParam) throws IllegalArgumentException {
+    setCompressionMinSize(compressionMinSizeParam);
+    return this;
+  }
+
+  /**
+   * Sets the dictionary primed into the compression codec
+   * 
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder compressionDictionary(String compressionDictionaryParam) {
+    setCompressionDictionary(compressionDictionaryParam);
+    return this;
+  }
+
   /**
    * Sets copy on read enabled
    * 
@@ -226,6 +271,248 @@ public final class ToolkitCacheConfigBuilder extends AbstractToolkitStoreCacheCo
     return this;
   }
 
+  /**
+   * Returns the eviction policy
+   *
+   * @return eviction policy
+   */
+  public EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  /**
+   * Sets the {@link EvictionPolicy} of the cache
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder evictionPolicy(EvictionPolicy evictionPolicyParam) {
+    this.evictionPolicy = evictionPolicyParam;
+    addFieldToApply(ToolkitConfigFields.EVICTION_POLICY_FIELD_NAME, evictionPolicy.name());
+    return this;
+  }
+
+  /**
+   * Returns the listener batch size
+   *
+   * @return listener batch size
+   */
+  public int getListenerBatchSize() {
+    return listenerBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of keys delivered in one call to a batch listener
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder listenerBatchSize(int listenerBatchSizeParam) {
+    this.listenerBatchSize = listenerBatchSizeParam;
+    addFieldToApply(ToolkitConfigFields.LISTENER_BATCH_SIZE_FIELD_NAME, listenerBatchSize);
+    return this;
+  }
+
+  /**
+   * Returns the listener batch max delay in milliseconds
+   *
+   * @return listener batch max delay
+   */
+  public int getListenerBatchMaxDelayMillis() {
+    return listenerBatchMaxDelayMillis;
+  }
+
+  /**
+   * Sets the maximum time in milliseconds an event waits before it is delivered to the batch listeners
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder listenerBatchMaxDelayMillis(int listenerBatchMaxDelayMillisParam) {
+    this.listenerBatchMaxDelayMillis = listenerBatchMaxDelayMillisParam;
+    addFieldToApply(ToolkitConfigFields.LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME, listenerBatchMaxDelayMillis);
+    return this;
+  }
+
+  /**
+   * Returns the listener queue capacity
+   *
+   * @return listener queue capacity
+   */
+  public int getListenerQueueCapacity() {
+    return listenerQueueCapacity;
+  }
+
+  /**
+   * Sets the number of events that can wait to be delivered to the batch listeners
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder listenerQueueCapacity(int listenerQueueCapacityParam) {
+    this.listenerQueueCapacity = listenerQueueCapacityParam;
+    addFieldToApply(ToolkitConfigFields.LISTENER_QUEUE_CAPACITY_FIELD_NAME, listenerQueueCapacity);
+    return this;
+  }
+
+  /**
+   * Returns the listener queue full policy
+   *
+   * @return listener queue full policy
+   */
+  public ListenerQueueFullPolicy getListenerQueueFullPolicy() {
+    return listenerQueueFullPolicy;
+  }
+
+  /**
+   * Sets the {@link ListenerQueueFullPolicy} applied when the listener queue is full
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder listenerQueueFullPolicy(ListenerQueueFullPolicy listenerQueueFullPolicyParam) {
+    this.listenerQueueFullPolicy = listenerQueueFullPolicyParam;
+    addFieldToApply(ToolkitConfigFields.LISTENER_QUEUE_FULL_POLICY_FIELD_NAME, listenerQueueFullPolicy.name());
+    return this;
+  }
+
+  /**
+   * Returns the write-behind writer class name
+   *
+   * @return write-behind writer class name
+   */
+  public String getWriteBehindWriter() {
+    return writeBehindWriter;
+  }
+
+  /**
+   * Sets the class name of the {@link org.terracotta.toolkit.cache.ToolkitCacheWriter} mutations are written behind to,
+   * or the empty string to disable write-behind
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder writeBehindWriter(String writeBehindWriterParam) {
+    this.writeBehindWriter = writeBehindWriterParam;
+    addFieldToApply(ToolkitConfigFields.WRITE_BEHIND_WRITER_FIELD_NAME, writeBehindWriter);
+    return this;
+  }
+
+  /**
+   * Returns the write-behind batch size
+   *
+   * @return write-behind batch size
+   */
+  public int getWriteBehindBatchSize() {
+    return writeBehindBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of keys handed to the cache writer in one call
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder writeBehindBatchSize(int writeBehindBatchSizeParam) {
+    this.writeBehindBatchSize = writeBehindBatchSizeParam;
+    addFieldToApply(ToolkitConfigFields.WRITE_BEHIND_BATCH_SIZE_FIELD_NAME, writeBehindBatchSize);
+    return this;
+  }
+
+  /**
+   * Returns the write-behind interval in milliseconds
+   *
+   * @return write-behind interval in milliseconds
+   */
+  public int getWriteBehindIntervalMillis() {
+    return writeBehindIntervalMillis;
+  }
+
+  /**
+   * Sets the maximum time in milliseconds a mutation waits before it is written behind
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder writeBehindIntervalMillis(int writeBehindIntervalMillisParam) {
+    this.writeBehindIntervalMillis = writeBehindIntervalMillisParam;
+    addFieldToApply(ToolkitConfigFields.WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME, writeBehindIntervalMillis);
+    return this;
+  }
+
+  /**
+   * Returns the write-behind max retries
+   *
+   * @return write-behind max retries
+   */
+  public int getWriteBehindMaxRetries() {
+    return writeBehindMaxRetries;
+  }
+
+  /**
+   * Sets the number of times a failed write-behind call is retried
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder writeBehindMaxRetries(int writeBehindMaxRetriesParam) {
+    this.writeBehindMaxRetries = writeBehindMaxRetriesParam;
+    addFieldToApply(ToolkitConfigFields.WRITE_BEHIND_MAX_RETRIES_FIELD_NAME, writeBehindMaxRetries);
+    return this;
+  }
+
+  /**
+   * Returns the write-behind retry delay in milliseconds
+   *
+   * @return write-behind retry delay in milliseconds
+   */
+  public int getWriteBehindRetryDelayMillis() {
+    return writeBehindRetryDelayMillis;
+  }
+
+  /**
+   * Sets the time in milliseconds waited before a failed write-behind call is retried
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder writeBehindRetryDelayMillis(int writeBehindRetryDelayMillisParam) {
+    this.writeBehindRetryDelayMillis = writeBehindRetryDelayMillisParam;
+    addFieldToApply(ToolkitConfigFields.WRITE_BEHIND_RETRY_DELAY_MILLIS_FIELD_NAME, writeBehindRetryDelayMillis);
+    return this;
+  }
+
+  /**
+   * Returns the refresh-ahead percentage
+   *
+   * @return refresh-ahead percentage
+   */
+  public int getRefreshAheadPercent() {
+    return refreshAheadPercent;
+  }
+
+  /**
+   * Sets the percentage of its time-to-live after which an entry read through a loader is refreshed in the
+   * background, 0 to disable refresh-ahead
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder refreshAheadPercent(int refreshAheadPercentParam) {
+    this.refreshAheadPercent = refreshAheadPercentParam;
+    addFieldToApply(ToolkitConfigFields.REFRESH_AHEAD_PERCENT_FIELD_NAME, refreshAheadPercent);
+    return this;
+  }
+
+  /**
+   * Returns the number of refresh-ahead threads
+   *
+   * @return number of refresh-ahead threads
+   */
+  public int getRefreshAheadThreads() {
+    return refreshAheadThreads;
+  }
+
+  /**
+   * Sets the number of threads refreshing entries ahead of their expiration
+   *
+   * @return same instance
+   */
+  public ToolkitCacheConfigBuilder refreshAheadThreads(int refreshAheadThreadsParam) {
+    this.refreshAheadThreads = refreshAheadThreadsParam;
+    addFieldToApply(ToolkitConfigFields.REFRESH_AHEAD_THREADS_FIELD_NAME, refreshAheadThreads);
+    return this;
+  }
+
   public ToolkitCacheConfigBuilder configField(String fieldName, Serializable value) {
     setConfigField(fieldName, value);
     return this;
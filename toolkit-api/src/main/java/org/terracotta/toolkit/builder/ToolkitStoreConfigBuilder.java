@@ -127,6 +127,37 @@ public final class ToolkitStoreConfigBuilder extends AbstractToolkitStoreCacheCo
     return this;
   }
 
+  /**
+   * Sets the codec compressing the values, see {@link ToolkitConfigFields#COMPRESSION_CODEC_FIELD_NAME}
+   * 
+   * @return same instance
+   */
+  public ToolkitStoreConfigBuilder compressionCodec(String compressionCodecParam) {
+    setCompressionCodec(compressionCodecParam);
+    return this;
+  }
+
+  /**
+   * Sets the minimum serialized size of the values to compress
+   * 
+   * @return same instance
+   * @throws IllegalArgumentException for negative values
+   */
+  public ToolkitStoreConfigBuilder compressionMinSize(int compressionMinSizeParam) throws IllegalArgumentException {
+    setCompressionMinSize(compressionMinSizeParam);
+    return this;
+  }
+
+  /**
+   * Sets the dictionary primed into the compression codec
+   * 
+   * @return same instance
+   */
+  public ToolkitStoreConfigBuilder compressionDictionary(String compressionDictionaryParam) {
+    setCompressionDictionary(compressionDictionaryParam);
+    return this;
+  }
+
   /**
    * Sets copy on read enabled
    * 
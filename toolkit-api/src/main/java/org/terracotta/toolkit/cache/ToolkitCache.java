@@ -23,6 +23,7 @@ import org.terracotta.toolkit.object.Destroyable;
 import org.terracotta.toolkit.object.ToolkitObject;
 import org.terracotta.toolkit.object.serialization.NotSerializableRuntimeException;
 import org.terracotta.toolkit.search.SearchableMap;
+import org.terracotta.toolkit.store.AsyncToolkitStore;
 import org.terracotta.toolkit.store.ToolkitConfigFields;
 
 import java.io.Serializable;
@@ -58,6 +59,34 @@ public interface ToolkitCache<K, V> extends ConcurrentMap<K, V>, Destroyable, Se
    */
   void putNoReturn(K key, V value);
 
+  /**
+   * Behaves as {@link #putAll(Map)} except that implementations may apply the mappings in batches, for example taking
+   * each lock once for all the keys it guards instead of once per key. Mappings are not applied atomically: readers may
+   * see part of the batch, and if an exception is thrown part of it may have been applied.
+   * 
+   * @param map the mappings to store
+   */
+  void putAllNoReturn(Map<? extends K, ? extends V> map);
+
+  /**
+   * Similar to {@link ToolkitCache#putAllNoReturn(Map)} but with ability to specify creation time, tti, ttl etc, which
+   * apply to all the mappings
+   * 
+   * @param map the mappings to store
+   * @param createTimeInSecs creation time in seconds since epoch
+   * @param maxTTISeconds tti of the entries
+   * @param maxTTLSeconds ttl of the entries
+   */
+  void putAllNoReturn(Map<? extends K, ? extends V> map, long createTimeInSecs, int maxTTISeconds, int maxTTLSeconds);
+
+  /**
+   * Behaves as calling {@link #removeNoReturn(Object)} for each key, except that implementations may remove the
+   * mappings in batches. Removals are not applied atomically.
+   * 
+   * @param keys the keys of the mappings to remove
+   */
+  void removeAllNoReturn(Collection<?> keys);
+
   /**
    * Perform get for the given set of keys. Keys which are not present in the Cache will have null values associated
    * with them in the returned map. The returned map is unmodifiable.
@@ -132,14 +161,52 @@ public interface ToolkitCache<K, V> extends ConcurrentMap<K, V>, Destroyable, Se
    */
   V putIfAbsent(K key, V value, long createTimeInSecs, int maxTTISeconds, int maxTTLSeconds);
 
+  /**
+   * Returns the value mapped to {@code key}, loading it with {@code loader} and putting it with the
+   * {@link ToolkitConfigFields#MAX_TTI_SECONDS_FIELD_NAME} and {@link ToolkitConfigFields#MAX_TTL_SECONDS_FIELD_NAME}
+   * of the cache if the key is missing. Concurrent misses of the same key wait for a single load instead of loading it
+   * again. A value put while the key was being loaded wins over the loaded value.
+   *
+   * @param key the key
+   * @param loader loads the value of the key when it is missing
+   * @return the value mapped to the key, or null if it is missing and the loader returned null
+   * @throws ToolkitCacheLoaderException if the loader failed
+   */
+  V getOrLoad(K key, ToolkitCacheLoader<? super K, ? extends V> loader);
+
+  /**
+   * Same as {@link #getOrLoad(Object, ToolkitCacheLoader)} for all {@code keys}, the missing keys not already being
+   * loaded being loaded by a single call of {@code bulkLoader}. The returned map is unmodifiable and maps the keys
+   * without value to null, as {@link #getAll(Collection)} does.
+   *
+   * @param keys the keys
+   * @param bulkLoader loads the values of the missing keys
+   * @return a map of the keys to their values
+   * @throws ToolkitCacheLoaderException if the loader failed
+   */
+  Map<K, V> getAllOrLoad(Collection<? extends K> keys, ToolkitCacheBulkLoader<K, ? extends V> bulkLoader);
+
   /**
    * Adds a listener to this cache - the listener will not be added again if it's already registered. Listeners are
    * notified in the order they are added.
    */
   void addListener(ToolkitCacheListener<K> listener);
 
+  /**
+   * Same as {@link #addListener(ToolkitCacheListener)}, except that the listener is only notified of the events of the
+   * keys accepted by {@code keyFilter}. The filter is called before any event is built for the listener.
+   */
+  void addListener(ToolkitCacheListener<K> listener, ToolkitCacheKeyFilter<? super K> keyFilter);
+
   /**
    * Removes a registered listener from this cache. Does nothing if the {@code listener} is not registered already
    */
   void removeListener(ToolkitCacheListener<K> listener);
+
+  /**
+   * Returns the asynchronous view of this cache, whose operations return futures instead of blocking.
+   * 
+   * @return the asynchronous view of this cache
+   */
+  AsyncToolkitStore<K, V> async();
 }
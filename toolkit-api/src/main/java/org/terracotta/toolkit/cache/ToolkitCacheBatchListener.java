@@ -0,0 +1,44 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.Collection;
+
+/**
+ * A {@link ToolkitCacheListener} notified of evictions and expirations in batches, by a dispatcher of the cache rather
+ * than by the thread that caused them. It is registered with {@link ToolkitCache#addListener(ToolkitCacheListener)}
+ * like any other listener, but its single key methods are never called.
+ * <p>
+ * A batch is delivered once it holds {@link ToolkitConfigFields#LISTENER_BATCH_SIZE_FIELD_NAME} keys or its first key
+ * waited {@link ToolkitConfigFields#LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME}. Events wait for the dispatcher in a
+ * queue of {@link ToolkitConfigFields#LISTENER_QUEUE_CAPACITY_FIELD_NAME} events, and what happens when it is full is
+ * chosen by {@link ToolkitConfigFields#LISTENER_QUEUE_FULL_POLICY_FIELD_NAME}.
+ */
+public interface ToolkitCacheBatchListener<K> extends ToolkitCacheListener<K> {
+
+  /**
+   * Called with keys that got evicted from the cache, in the order they were evicted
+   */
+  public void onEvictions(Collection<K> keys);
+
+  /**
+   * Called with keys that got expired from the cache, in the order they were expired
+   */
+  public void onExpirations(Collection<K> keys);
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Loads the values of keys missing from a {@link ToolkitCache} in one call, see
+ * {@link ToolkitCache#getAllOrLoad(Collection, ToolkitCacheBulkLoader)}
+ */
+public interface ToolkitCacheBulkLoader<K, V> {
+
+  /**
+   * Returns the values of {@code keys}. Keys without a value can be left out of the returned map or mapped to null.
+   */
+  Map<K, V> loadAll(Collection<K> keys) throws Exception;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+/**
+ * A mutation of a {@link ToolkitCache}, passed to {@link ToolkitCacheMutationListener}s.
+ * <p>
+ * The values of the event are materialized, decompressed or copied like a {@code get} would, only when first asked
+ * for, so a listener that only needs the key does not pay for them.
+ */
+public interface ToolkitCacheEntryEvent<K, V> {
+
+  /**
+   * Returns the key of the mutated mapping
+   */
+  K getKey();
+
+  /**
+   * Returns the value the key was mapped to before the mutation, or null for a put of an absent key
+   */
+  V getOldValue();
+
+  /**
+   * Returns the value the key is mapped to by the mutation, or null for a removal
+   */
+  V getNewValue();
+}
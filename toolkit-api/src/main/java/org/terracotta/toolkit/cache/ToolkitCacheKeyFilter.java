@@ -0,0 +1,28 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+/**
+ * Selects the keys whose events a {@link ToolkitCacheListener} is notified of
+ */
+public interface ToolkitCacheKeyFilter<K> {
+
+  /**
+   * Returns true if the events of {@code key} should be notified
+   */
+  boolean accept(K key);
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+import org.terracotta.toolkit.ToolkitRuntimeException;
+
+/**
+ * Thrown by the loading methods of {@link ToolkitCache} when the loader failed, with the failure of the loader as its
+ * cause
+ */
+public class ToolkitCacheLoaderException extends ToolkitRuntimeException {
+
+  private static final long serialVersionUID = -3012846397640210785L;
+
+  public ToolkitCacheLoaderException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
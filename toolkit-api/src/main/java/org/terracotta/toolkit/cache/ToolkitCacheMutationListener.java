@@ -0,0 +1,39 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+/**
+ * A {@link ToolkitCacheListener} also notified when a key of the cache is put, updated or removed. Like evictions and
+ * expirations, these events are notified in the thread that caused them, after the mutation is done.
+ */
+public interface ToolkitCacheMutationListener<K, V> extends ToolkitCacheListener<K> {
+
+  /**
+   * Called when a key that had no mapping gets mapped to a value
+   */
+  public void onPut(ToolkitCacheEntryEvent<K, V> event);
+
+  /**
+   * Called when the value of a mapped key gets replaced
+   */
+  public void onUpdate(ToolkitCacheEntryEvent<K, V> event);
+
+  /**
+   * Called when the mapping of a key gets removed
+   */
+  public void onRemove(ToolkitCacheEntryEvent<K, V> event);
+}
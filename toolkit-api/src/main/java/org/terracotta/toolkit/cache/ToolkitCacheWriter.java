@@ -0,0 +1,44 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.cache;
+
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes the mutations of a {@link ToolkitCache} to the system of record behind it, asynchronously. The writer of a
+ * cache is named by its {@link ToolkitConfigFields#WRITE_BEHIND_WRITER_FIELD_NAME} and created with its public no-arg
+ * constructor.
+ * <p>
+ * Mutations are queued by the threads making them and handed to the writer in batches, from a single thread of the
+ * cache. A key mutated again before its previous mutation was written is only written once, with its latest value. A
+ * call that throws is retried as configured by {@link ToolkitConfigFields#WRITE_BEHIND_MAX_RETRIES_FIELD_NAME}.
+ */
+public interface ToolkitCacheWriter<K, V> {
+
+  /**
+   * Writes the mappings of {@code entries}, which were put in the cache
+   */
+  void writeAll(Map<K, V> entries) throws Exception;
+
+  /**
+   * Deletes the mappings of {@code keys}, which were removed from the cache
+   */
+  void deleteAll(Collection<K> keys) throws Exception;
+}
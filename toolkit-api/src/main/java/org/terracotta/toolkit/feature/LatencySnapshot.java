@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.feature;
+
+import java.io.Serializable;
+
+/**
+ * Immutable latency histogram, in nanoseconds. Latencies are counted in buckets of increasing width, so that
+ * percentiles are reported with a bounded relative error: the value reported for a percentile is the upper bound of
+ * the bucket it falls in, but never more than the largest latency recorded.
+ */
+public final class LatencySnapshot implements Serializable {
+
+  private static final long serialVersionUID = -5703281925817393340L;
+
+  private final long[]      upperBounds;
+  private final long[]      counts;
+  private final long        count;
+  private final long        totalNanos;
+  private final long        maxNanos;
+
+  /**
+   * @param upperBounds the ascending inclusive upper bounds of the buckets
+   * @param counts the number of latencies counted in each bucket
+   * @param totalNanos the sum of the latencies counted
+   * @param maxNanos the largest latency counted
+   */
+  public LatencySnapshot(long[] upperBounds, long[] counts, long totalNanos, long maxNanos) {
+    if (upperBounds.length != counts.length) { throw new IllegalArgumentException("Expecting as many counts as bounds"); }
+    this.upperBounds = upperBounds.clone();
+    this.counts = counts.clone();
+    long sum = 0;
+    for (long c : counts) {
+      sum += c;
+    }
+    this.count = sum;
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  /**
+   * Average latency, 0 if none was counted
+   */
+  public long getMeanNanos() {
+    return count == 0 ? 0 : totalNanos / count;
+  }
+
+  /**
+   * Returns the latency under which {@code percentile} percent of the latencies fall, 0 if none was counted
+   *
+   * @param percentile between 0 and 100
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) { throw new IllegalArgumentException("Invalid percentile: " + percentile); }
+    if (count == 0) { return 0; }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) { return Math.min(upperBounds[i], maxNanos); }
+    }
+    return maxNanos;
+  }
+
+  /**
+   * Returns the inclusive upper bounds of the buckets, in nanoseconds
+   */
+  public long[] getUpperBounds() {
+    return upperBounds.clone();
+  }
+
+  /**
+   * Returns the number of latencies counted in each bucket
+   */
+  public long[] getCounts() {
+    return counts.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "LatencySnapshot [count=" + count + ", mean=" + getMeanNanos() + ", p50=" + getValueAtPercentile(50)
+           + ", p99=" + getValueAtPercentile(99) + ", max=" + maxNanos + "]";
+  }
+}
@@ -19,8 +19,29 @@ package org.terracotta.toolkit.feature;
 import org.terracotta.toolkit.ToolkitFeature;
 
 /**
- * Offheap feature
+ * Offheap feature. The figures are summed over all the off-heap stores and caches of the toolkit.
  */
 public interface OffheapFeature extends ToolkitFeature {
-  //
+
+  /**
+   * Returns the number of bytes of off-heap memory currently allocated, whether in use or not
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Returns the number of allocated off-heap bytes holding live entries
+   */
+  long getOccupiedBytes();
+
+  /**
+   * Returns the fragmentation of the free allocated off-heap memory, between 0 and 1: the fraction of the free bytes
+   * that are not part of the largest free chunk. A value close to 1 means that large entries may not fit even though
+   * plenty of memory is free.
+   */
+  double getFragmentation();
+
+  /**
+   * Returns the size in bytes of the largest contiguous free chunk of allocated off-heap memory
+   */
+  long getLargestFreeChunk();
 }
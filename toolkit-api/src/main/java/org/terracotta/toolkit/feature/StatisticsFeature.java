@@ -0,0 +1,41 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.feature;
+
+import org.terracotta.toolkit.ToolkitFeature;
+import org.terracotta.toolkit.ToolkitObjectType;
+
+import java.util.Set;
+
+/**
+ * Statistics feature: operation counters and latency histograms of the stores and caches of the toolkit. Statistics
+ * are recorded without contention between the threads using an object, and taking a snapshot is cheap enough to be
+ * done every second.
+ */
+public interface StatisticsFeature extends ToolkitFeature {
+
+  /**
+   * Returns the names of the objects of {@code type} whose statistics are recorded
+   */
+  Set<String> getObjectNames(ToolkitObjectType type);
+
+  /**
+   * Returns a snapshot of the statistics of the object of {@code type} named {@code name}, or null if its statistics
+   * are not recorded
+   */
+  StatisticsSnapshot getStatistics(ToolkitObjectType type, String name);
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.feature;
+
+import java.io.Serializable;
+
+/**
+ * Immutable statistics of a store or cache, as returned by {@link StatisticsFeature#getStatistics}. Counters and
+ * histograms are read one after the other while the object is in use, so they may be slightly inconsistent with each
+ * other.
+ */
+public final class StatisticsSnapshot implements Serializable {
+
+  private static final long     serialVersionUID = 4154716268310498523L;
+
+  private final long            timestamp;
+  private final long            hitCount;
+  private final long            missCount;
+  private final long            putCount;
+  private final long            removeCount;
+  private final long            evictionCount;
+  private final long            expirationCount;
+  private final LatencySnapshot getLatency;
+  private final LatencySnapshot putLatency;
+  private final LatencySnapshot searchLatency;
+
+  public StatisticsSnapshot(long timestamp, long hitCount, long missCount, long putCount, long removeCount,
+                            long evictionCount, long expirationCount, LatencySnapshot getLatency,
+                            LatencySnapshot putLatency, LatencySnapshot searchLatency) {
+    this.timestamp = timestamp;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.putCount = putCount;
+    this.removeCount = removeCount;
+    this.evictionCount = evictionCount;
+    this.expirationCount = expirationCount;
+    this.getLatency = getLatency;
+    this.putLatency = putLatency;
+    this.searchLatency = searchLatency;
+  }
+
+  /**
+   * Time the snapshot was taken, in milliseconds since epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Number of lookups that found a live mapping
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Number of lookups that found no live mapping
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Fraction of the lookups that were hits, 0 if there was no lookup
+   */
+  public double getHitRatio() {
+    long lookups = hitCount + missCount;
+    return lookups == 0 ? 0 : (double) hitCount / lookups;
+  }
+
+  /**
+   * Number of mappings stored, whether new or replacing another one
+   */
+  public long getPutCount() {
+    return putCount;
+  }
+
+  /**
+   * Number of live mappings removed
+   */
+  public long getRemoveCount() {
+    return removeCount;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public long getExpirationCount() {
+    return expirationCount;
+  }
+
+  /**
+   * Latencies of the single key lookups
+   */
+  public LatencySnapshot getGetLatency() {
+    return getLatency;
+  }
+
+  /**
+   * Latencies of the single key puts
+   */
+  public LatencySnapshot getPutLatency() {
+    return putLatency;
+  }
+
+  /**
+   * Latencies of the search queries
+   */
+  public LatencySnapshot getSearchLatency() {
+    return searchLatency;
+  }
+
+  @Override
+  public String toString() {
+    return "StatisticsSnapshot [hits=" + hitCount + ", misses=" + missCount + ", puts=" + putCount + ", removes="
+           + removeCount + ", evictions=" + evictionCount + ", expirations=" + expirationCount + ", get=" + getLatency
+           + ", put=" + putLatency + ", search=" + searchLatency + "]";
+  }
+}
@@ -18,10 +18,30 @@ package org.terracotta.toolkit.search.expression;
 
 import org.terracotta.toolkit.search.SearchException;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the string form of an attribute against a case insensitive wildcard expression. The expression is compiled
+ * by the constructor into a matcher that can be shared between threads, expressions made of a single literal and
+ * '*' wildcards, such as {@code abc*}, {@code *abc} or {@code *abc*}, being checked without a regular expression.
+ */
 public class Matches extends BaseClause {
 
-  private final String attributeName;
-  private final String regex;
+  private enum Kind {
+    ANY, EXACT, PREFIX, SUFFIX, CONTAINS, PATTERN
+  }
+
+  private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL;
+
+  private final String  attributeName;
+  private final String  regex;
+  private final String  prefix;
+  private final Kind    kind;
+  // the literal of the expression for the kinds but ANY and PATTERN
+  private final String  literal;
+  private final Pattern pattern;
 
   /**
    * Construct a "like" criteria for the given expression. Expressions are <b>always case insensitive</b><br>
@@ -46,6 +66,96 @@ public class Matches extends BaseClause {
 
     this.attributeName = attributeName;
     this.regex = regex;
+
+    // the expression is split into the literals around its wildcards
+    List<String> literals = new ArrayList<String>();
+    StringBuilder compiled = new StringBuilder(regex.length() + 8);
+    StringBuilder current = new StringBuilder();
+    boolean single = false;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\' && i + 1 < regex.length()) {
+        current.append(regex.charAt(++i));
+      } else if (c == '*' || c == '?') {
+        literals.add(current.toString());
+        if (current.length() > 0) {
+          compiled.append(Pattern.quote(current.toString()));
+          current.setLength(0);
+        }
+        compiled.append(c == '*' ? ".*" : ".");
+        single |= c == '?';
+      } else {
+        current.append(c);
+      }
+    }
+    literals.add(current.toString());
+    if (current.length() > 0) {
+      compiled.append(Pattern.quote(current.toString()));
+    }
+
+    Kind kind = Kind.PATTERN;
+    String literal = null;
+    int last = literals.size() - 1;
+    if (last == 0) {
+      kind = Kind.EXACT;
+      literal = literals.get(0);
+    } else if (!single) {
+      int count = 0;
+      int position = -1;
+      for (int i = 0; i <= last; i++) {
+        if (literals.get(i).length() > 0) {
+          count++;
+          position = i;
+        }
+      }
+      if (count == 0) {
+        kind = Kind.ANY;
+      } else if (count == 1) {
+        literal = literals.get(position);
+        if (position == 0) {
+          kind = Kind.PREFIX;
+        } else if (position == last) {
+          kind = Kind.SUFFIX;
+        } else {
+          kind = Kind.CONTAINS;
+        }
+      }
+    }
+    this.prefix = literals.get(0);
+    this.kind = kind;
+    this.literal = literal;
+    this.pattern = kind == Kind.PATTERN ? Pattern.compile(compiled.toString(), FLAGS) : null;
+  }
+
+  /**
+   * Returns true if {@code value} matches the expression, ignoring case
+   */
+  public boolean matches(String value) {
+    switch (kind) {
+      case ANY:
+        return true;
+      case EXACT:
+        return value.equalsIgnoreCase(literal);
+      case PREFIX:
+        return value.regionMatches(true, 0, literal, 0, literal.length());
+      case SUFFIX:
+        return value.regionMatches(true, value.length() - literal.length(), literal, 0, literal.length());
+      case CONTAINS:
+        for (int i = 0; i <= value.length() - literal.length(); i++) {
+          if (value.regionMatches(true, i, literal, 0, literal.length())) { return true; }
+        }
+        return false;
+      default:
+        return pattern.matcher(value).matches();
+    }
+  }
+
+  /**
+   * Returns the literal characters before the first wildcard of the expression, which all the matching values start
+   * with ignoring case, or an empty string if the expression starts with a wildcard
+   */
+  public String getPrefix() {
+    return prefix;
   }
 
   public String getRegex() {
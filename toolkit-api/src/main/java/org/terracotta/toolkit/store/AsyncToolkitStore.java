@@ -0,0 +1,72 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.store;
+
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.nonstop.NonStopConfiguration;
+import org.terracotta.toolkit.nonstop.NonStopException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous view of a {@link ToolkitStore} or a {@link ToolkitCache}, as returned by {@link ToolkitStore#async()}
+ * and {@link ToolkitCache#async()}. Each operation behaves as its blocking counterpart but returns immediately, the
+ * outcome being delivered through the returned future, so that several operations can be in flight at once.
+ * <p>
+ * Operations that do not complete within the {@link NonStopConfiguration#getTimeoutMillis() NonStop timeout} that
+ * applies to them complete their future exceptionally with a {@link NonStopException}, or according to the configured
+ * timeout behavior, instead of blocking.
+ */
+public interface AsyncToolkitStore<K, V> {
+
+  /**
+   * Asynchronous {@link ToolkitStore#get(Object)}
+   *
+   * @return a future of the value mapped to the key, or null
+   */
+  CompletableFuture<V> getAsync(Object key);
+
+  /**
+   * Asynchronous {@link ToolkitStore#put(Object, Object)}
+   *
+   * @return a future of the previous value mapped to the key, or null
+   */
+  CompletableFuture<V> putAsync(K key, V value);
+
+  /**
+   * Asynchronous {@link ToolkitStore#remove(Object)}
+   *
+   * @return a future of the removed value, or null
+   */
+  CompletableFuture<V> removeAsync(Object key);
+
+  /**
+   * Asynchronous {@link ToolkitStore#getAll(Collection)}
+   *
+   * @return a future of the unmodifiable map of the keys to their values, or to null when they have no mapping
+   */
+  CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys);
+
+  /**
+   * Asynchronous {@link ToolkitStore#putIfAbsent(Object, Object)}
+   *
+   * @return a future of the value already mapped to the key, or null if the value was put
+   */
+  CompletableFuture<V> putIfAbsentAsync(K key, V value);
+}
@@ -48,6 +48,46 @@ public interface ToolkitConfigFields {
     EVENTUAL
   }
 
+  /**
+   * Enum type representing valid values for {@link ToolkitConfigFields#EVICTION_POLICY_FIELD_NAME} name mapping. Use
+   * {@link EvictionPolicy#name()}
+   */
+  public enum EvictionPolicy {
+    /**
+     * Evicts the entries in the order they are found by a hand sweeping over the cache, with no bookkeeping on access
+     */
+    CLOCK,
+    /**
+     * Evicts the least recently used entry
+     */
+    LRU,
+    /**
+     * Evicts the least frequently used entry, the least recently used one among equally frequent entries
+     */
+    LFU,
+    /**
+     * Admits new entries through a small LRU window into a segmented LRU main space, the window candidate replacing the
+     * main space victim only if a frequency sketch estimates it is accessed more often. Resists scans and suits skewed
+     * access patterns.
+     */
+    W_TINY_LFU
+  }
+
+  /**
+   * Enum type representing valid values for {@link ToolkitConfigFields#LISTENER_QUEUE_FULL_POLICY_FIELD_NAME} name
+   * mapping. Use {@link ListenerQueueFullPolicy#name()}
+   */
+  public enum ListenerQueueFullPolicy {
+    /**
+     * The thread that caused the event waits for room in the queue
+     */
+    BLOCK,
+    /**
+     * The event is dropped
+     */
+    DROP
+  }
+
   /**
    * Specifies concurrency of the key value Store. Valid values are positive integers. Default value is
    * {@link ToolkitConfigFields#DEFAULT_CONCURRENCY}. Paramater name in config
@@ -97,6 +137,27 @@ public interface ToolkitConfigFields {
   String  COMPRESSION_ENABLED_FIELD_NAME     = "compressionEnabled";
   boolean DEFAULT_COMPRESSION_ENABLED        = false;
 
+  /**
+   * Codec compressing the values when {@link #COMPRESSION_ENABLED_FIELD_NAME} is true: "lz" for a fast LZ77 codec,
+   * "deflate" for a Deflater based one, or the class name of a codec supported by the toolkit implementation
+   */
+  String  COMPRESSION_CODEC_FIELD_NAME       = "compressionCodec";
+  String  DEFAULT_COMPRESSION_CODEC          = "lz";
+
+  /**
+   * Values whose serialized form is smaller than this many bytes are not compressed. Valid values are non-negative
+   * integers
+   */
+  String  COMPRESSION_MIN_SIZE_FIELD_NAME    = "compressionMinSize";
+  int     DEFAULT_COMPRESSION_MIN_SIZE       = 512;
+
+  /**
+   * Text likely to occur in the serialized values, such as common field names, primed into the codec. Empty means no
+   * dictionary
+   */
+  String  COMPRESSION_DICTIONARY_FIELD_NAME  = "compressionDictionary";
+  String  DEFAULT_COMPRESSION_DICTIONARY     = "";
+
   /**
    * Valid value are true or false
    */
@@ -136,6 +197,89 @@ public interface ToolkitConfigFields {
   String EVICTION_ENABLED_FIELD_NAME = "evictionEnabled";
   boolean DEFAULT_EVICTION_ENABLED = true;
 
+  /**
+   * Policy choosing the entries a cache evicts to stay within its capacity.
+   * Valid value can only be one of the {@link EvictionPolicy#name()}
+   */
+  String EVICTION_POLICY_FIELD_NAME  = "evictionPolicy";
+  String DEFAULT_EVICTION_POLICY     = EvictionPolicy.CLOCK.name();
+
+  /**
+   * Maximum number of keys delivered in one call to a {@link org.terracotta.toolkit.cache.ToolkitCacheBatchListener}.
+   * Valid values are positive integers.
+   */
+  String LISTENER_BATCH_SIZE_FIELD_NAME              = "listenerBatchSize";
+  int    DEFAULT_LISTENER_BATCH_SIZE                 = 256;
+
+  /**
+   * Maximum time in milliseconds an event waits before it is delivered to the
+   * {@link org.terracotta.toolkit.cache.ToolkitCacheBatchListener}s, in a batch smaller than
+   * {@link #LISTENER_BATCH_SIZE_FIELD_NAME} if need be. Valid values are non-negative integers.
+   */
+  String LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME  = "listenerBatchMaxDelayMillis";
+  int    DEFAULT_LISTENER_BATCH_MAX_DELAY_MILLIS     = 100;
+
+  /**
+   * Number of events waiting to be delivered to the {@link org.terracotta.toolkit.cache.ToolkitCacheBatchListener}s
+   * beyond which {@link #LISTENER_QUEUE_FULL_POLICY_FIELD_NAME} applies. Valid values are positive integers.
+   */
+  String LISTENER_QUEUE_CAPACITY_FIELD_NAME          = "listenerQueueCapacity";
+  int    DEFAULT_LISTENER_QUEUE_CAPACITY             = 65536;
+
+  /**
+   * What happens to the events of a cache whose listener queue is full.
+   * Valid value can only be one of the {@link ListenerQueueFullPolicy#name()}
+   */
+  String LISTENER_QUEUE_FULL_POLICY_FIELD_NAME       = "listenerQueueFullPolicy";
+  String DEFAULT_LISTENER_QUEUE_FULL_POLICY          = ListenerQueueFullPolicy.BLOCK.name();
+
+  /**
+   * Class name of the {@link org.terracotta.toolkit.cache.ToolkitCacheWriter} the mutations of a cache are written
+   * behind to. Valid values are class names, or the empty string to disable write-behind.
+   */
+  String WRITE_BEHIND_WRITER_FIELD_NAME              = "writeBehindWriter";
+  String DEFAULT_WRITE_BEHIND_WRITER                 = "";
+
+  /**
+   * Maximum number of keys handed to the writer in one call. Valid values are positive integers.
+   */
+  String WRITE_BEHIND_BATCH_SIZE_FIELD_NAME          = "writeBehindBatchSize";
+  int    DEFAULT_WRITE_BEHIND_BATCH_SIZE             = 100;
+
+  /**
+   * Maximum time in milliseconds a mutation waits before it is written, in a batch smaller than
+   * {@link #WRITE_BEHIND_BATCH_SIZE_FIELD_NAME} if need be. Valid values are non-negative integers.
+   */
+  String WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME     = "writeBehindIntervalMillis";
+  int    DEFAULT_WRITE_BEHIND_INTERVAL_MILLIS        = 1000;
+
+  /**
+   * Number of times a failed write is retried before its batch is dropped. Valid values are non-negative integers.
+   */
+  String WRITE_BEHIND_MAX_RETRIES_FIELD_NAME         = "writeBehindMaxRetries";
+  int    DEFAULT_WRITE_BEHIND_MAX_RETRIES            = 3;
+
+  /**
+   * Time in milliseconds waited before a failed write is retried. Valid values are non-negative integers.
+   */
+  String WRITE_BEHIND_RETRY_DELAY_MILLIS_FIELD_NAME  = "writeBehindRetryDelayMillis";
+  int    DEFAULT_WRITE_BEHIND_RETRY_DELAY_MILLIS     = 1000;
+
+  /**
+   * Percentage of its time-to-live after which an entry read by
+   * {@link org.terracotta.toolkit.cache.ToolkitCache#getOrLoad(Object, org.terracotta.toolkit.cache.ToolkitCacheLoader)}
+   * is reloaded in the background, while its current value keeps being served. Valid values are integers from 0 to 99,
+   * 0 disabling refresh-ahead.
+   */
+  String REFRESH_AHEAD_PERCENT_FIELD_NAME            = "refreshAheadPercent";
+  int    DEFAULT_REFRESH_AHEAD_PERCENT               = 0;
+
+  /**
+   * Number of threads refreshing the entries of a cache ahead of their expiration. Valid values are positive integers.
+   */
+  String REFRESH_AHEAD_THREADS_FIELD_NAME            = "refreshAheadThreads";
+  int    DEFAULT_REFRESH_AHEAD_THREADS               = 1;
+
   /**
    * Whether cache entries should be pinned in local memory.
    */
@@ -67,6 +67,23 @@ public interface ToolkitStore<K, V> extends ConcurrentMap<K, V>, Destroyable, Se
    */
   void putNoReturn(K key, V value);
 
+  /**
+   * Behaves as {@link #putAll(Map)} except that implementations may apply the mappings in batches, for example taking
+   * each lock once for all the keys it guards instead of once per key. Mappings are not applied atomically: readers may
+   * see part of the batch, and if an exception is thrown part of it may have been applied.
+   * 
+   * @param map the mappings to store
+   */
+  void putAllNoReturn(Map<? extends K, ? extends V> map);
+
+  /**
+   * Behaves as calling {@link #removeNoReturn(Object)} for each key, except that implementations may remove the
+   * mappings in batches. Removals are not applied atomically.
+   * 
+   * @param keys the keys of the mappings to remove
+   */
+  void removeAllNoReturn(Collection<?> keys);
+
   /**
    * Perform get for the given set of keys. Keys which are not present in the Store will have null values associated
    * with them in the returned map. The returned map is unmodifiable.
@@ -101,4 +118,11 @@ public interface ToolkitStore<K, V> extends ConcurrentMap<K, V>, Destroyable, Se
    */
   ToolkitReadWriteLock createLockForKey(K key);
 
+  /**
+   * Returns the asynchronous view of this store, whose operations return futures instead of blocking.
+   * 
+   * @return the asynchronous view of this store
+   */
+  AsyncToolkitStore<K, V> async();
+
 }
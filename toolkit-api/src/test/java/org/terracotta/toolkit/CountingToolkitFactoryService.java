@@ -0,0 +1,48 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit;
+
+import org.terracotta.toolkit.api.ToolkitFactoryService;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ToolkitFactoryService} of the {@code counting} toolkit type, registered in the test resources, counting
+ * how many times it is instantiated and asked whether it handles a toolkit type. Its toolkits are not usable.
+ */
+public class CountingToolkitFactoryService implements ToolkitFactoryService {
+
+  static final String        TYPE          = "counting";
+  static final AtomicInteger INSTANCES     = new AtomicInteger();
+  static final AtomicInteger HANDLE_CHECKS = new AtomicInteger();
+
+  public CountingToolkitFactoryService() {
+    INSTANCES.incrementAndGet();
+  }
+
+  @Override
+  public boolean canHandleToolkitType(String type, String subName) {
+    HANDLE_CHECKS.incrementAndGet();
+    return TYPE.equals(type);
+  }
+
+  @Override
+  public Toolkit createToolkit(String type, String subName, Properties properties) {
+    return null;
+  }
+}
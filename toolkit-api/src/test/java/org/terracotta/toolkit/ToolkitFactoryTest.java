@@ -0,0 +1,59 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ToolkitFactoryTest {
+
+  @Before
+  public void setUp() {
+    ToolkitFactory.invalidateToolkitFactoryServices();
+    CountingToolkitFactoryService.INSTANCES.set(0);
+    CountingToolkitFactoryService.HANDLE_CHECKS.set(0);
+  }
+
+  @Test
+  public void testDiscoveryIsMemoized() throws Exception {
+    ToolkitFactory.createToolkit("toolkit:counting:a");
+    assertEquals(1, CountingToolkitFactoryService.INSTANCES.get());
+    assertEquals(1, CountingToolkitFactoryService.HANDLE_CHECKS.get());
+
+    ToolkitFactory.createToolkit("toolkit:counting:a");
+    assertEquals(1, CountingToolkitFactoryService.INSTANCES.get());
+    assertEquals(1, CountingToolkitFactoryService.HANDLE_CHECKS.get());
+
+    // another subname is resolved again, against the services already discovered
+    ToolkitFactory.createToolkit("toolkit:counting:b");
+    assertEquals(1, CountingToolkitFactoryService.INSTANCES.get());
+    assertEquals(2, CountingToolkitFactoryService.HANDLE_CHECKS.get());
+  }
+
+  @Test
+  public void testInvalidationForcesRescan() throws Exception {
+    ToolkitFactory.createToolkit("toolkit:counting:a");
+    assertEquals(1, CountingToolkitFactoryService.INSTANCES.get());
+
+    ToolkitFactory.invalidateToolkitFactoryServices();
+    ToolkitFactory.createToolkit("toolkit:counting:a");
+    assertEquals(2, CountingToolkitFactoryService.INSTANCES.get());
+    assertEquals(2, CountingToolkitFactoryService.HANDLE_CHECKS.get());
+  }
+}
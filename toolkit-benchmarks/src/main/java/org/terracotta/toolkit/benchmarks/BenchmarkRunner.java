@@ -0,0 +1,52 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count of the {@code toolkit.benchmark.threads} system property (comma separated,
+ * "1,4,16" by default), passing the command line to JMH. When the command line sets the thread count with
+ * {@code -t}, the benchmarks run once with it.
+ * 
+ * <pre>
+ * java -Dtoolkit.benchmark.threads=1,8 -jar benchmarks.jar StoreBenchmark -p toolkitUri=toolkit:local:bench
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+  public static final String THREADS_PROPERTY = "toolkit.benchmark.threads";
+
+  private BenchmarkRunner() {
+    //
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.getThreads().hasValue()) {
+      new Runner(commandLine).run();
+      return;
+    }
+    for (String threads : System.getProperty(THREADS_PROPERTY, "1,4,16").split(",")) {
+      new Runner(new OptionsBuilder().parent(commandLine).threads(Integer.parseInt(threads.trim())).build()).run();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFactory;
+import org.terracotta.toolkit.ToolkitInstantiationException;
+import org.terracotta.toolkit.cache.ToolkitCache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link ToolkitCache} specific operations on a cache holding every other key of the
+ * {@link KeySpace} at the start of each iteration. Half of the {@code getQuiet} and {@code getAllQuiet} lookups miss.
+ * {@code putIfAbsent} inserts the missing keys the first time it draws them and finds a mapping afterwards, so once
+ * its threads have drawn most of the key space it mostly measures calls that leave the cache untouched.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+
+    @Param({ "toolkit:local:benchmark" })
+    public String                toolkitUri;
+
+    @Param({ "60" })
+    public int                   ttiSeconds;
+
+    @Param({ "300" })
+    public int                   ttlSeconds;
+
+    Toolkit                      toolkit;
+    ToolkitCache<String, byte[]> cache;
+
+    @Setup(Level.Trial)
+    public void setUp(KeySpace keySpace) throws ToolkitInstantiationException {
+      toolkit = ToolkitFactory.createToolkit(toolkitUri);
+      cache = toolkit.getCache("benchmark", byte[].class);
+      long now = now();
+      for (int i = 0; i < keySpace.keys.length; i += 2) {
+        cache.putNoReturn(keySpace.keys[i], keySpace.value, now, ttiSeconds, ttlSeconds);
+      }
+    }
+
+    /**
+     * Removes the keys inserted by {@code putIfAbsent} during the previous iteration
+     */
+    @Setup(Level.Iteration)
+    public void removeInserted(KeySpace keySpace) {
+      for (int i = 1; i < keySpace.keys.length; i += 2) {
+        cache.removeNoReturn(keySpace.keys[i]);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      toolkit.shutdown();
+    }
+  }
+
+  @Benchmark
+  public byte[] getQuiet(CacheState state, ThreadKeys keys) {
+    return state.cache.getQuiet(keys.nextKey());
+  }
+
+  @Benchmark
+  public Map<String, byte[]> getAllQuiet(CacheState state, KeySpace keySpace, ThreadKeys keys) {
+    return state.cache.getAllQuiet(keys.nextKeys(keySpace.batchSize));
+  }
+
+  @Benchmark
+  public byte[] putIfAbsent(CacheState state, KeySpace keySpace, ThreadKeys keys) {
+    return state.cache.putIfAbsent(keys.nextKey(), keySpace.value, now(), state.ttiSeconds, state.ttlSeconds);
+  }
+
+  private static long now() {
+    return System.currentTimeMillis() / 1000;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import java.util.Random;
+
+/**
+ * How the benchmarks pick the keys they access, among {@code keyCount} keys numbered from 0.
+ */
+public enum KeyDistribution {
+
+  /**
+   * Every key is equally likely to be accessed.
+   */
+  UNIFORM {
+    @Override
+    int[] sample(int keyCount, int sampleCount, Random random) {
+      int[] sample = new int[sampleCount];
+      for (int i = 0; i < sampleCount; i++) {
+        sample[i] = random.nextInt(keyCount);
+      }
+      return sample;
+    }
+  },
+
+  /**
+   * A few hot keys get most of the accesses, following a zipfian distribution of constant {@link #ZIPFIAN_THETA} as
+   * generated by YCSB (Gray et al., "Quickly Generating Billion-Record Synthetic Databases").
+   */
+  ZIPFIAN {
+    @Override
+    int[] sample(int keyCount, int sampleCount, Random random) {
+      double zetan = zeta(keyCount, ZIPFIAN_THETA);
+      double zeta2 = zeta(2, ZIPFIAN_THETA);
+      double alpha = 1.0 / (1.0 - ZIPFIAN_THETA);
+      double eta = (1 - Math.pow(2.0 / keyCount, 1 - ZIPFIAN_THETA)) / (1 - zeta2 / zetan);
+      double threshold = 1 + Math.pow(0.5, ZIPFIAN_THETA);
+      int[] sample = new int[sampleCount];
+      for (int i = 0; i < sampleCount; i++) {
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        int key;
+        if (uz < 1.0) {
+          key = 0;
+        } else if (uz < threshold) {
+          key = 1;
+        } else {
+          key = (int) (keyCount * Math.pow(eta * u - eta + 1, alpha));
+        }
+        sample[i] = Math.min(key, keyCount - 1);
+      }
+      return sample;
+    }
+  };
+
+  static final double ZIPFIAN_THETA = 0.99;
+
+  /**
+   * Returns {@code sampleCount} key numbers drawn from this distribution
+   */
+  abstract int[] sample(int keyCount, int sampleCount, Random random);
+
+  private static double zeta(int n, double theta) {
+    double sum = 0;
+    for (int i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+}
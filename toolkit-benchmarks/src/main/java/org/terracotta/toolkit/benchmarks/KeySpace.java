@@ -0,0 +1,57 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * The keys and the value the benchmarks work with, shared by all the threads of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class KeySpace {
+
+  @Param({ "100000" })
+  public int             keyCount;
+
+  @Param({ "UNIFORM", "ZIPFIAN" })
+  public KeyDistribution distribution;
+
+  @Param({ "16", "1024" })
+  public int             valueSize;
+
+  @Param({ "32" })
+  public int             batchSize;
+
+  String[]               keys;
+  byte[]                 value;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    keys = new String[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = "key-" + i;
+    }
+    value = new byte[valueSize];
+    new Random(42).nextBytes(value);
+  }
+}
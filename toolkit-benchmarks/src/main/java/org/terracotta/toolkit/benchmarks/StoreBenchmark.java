@@ -0,0 +1,112 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFactory;
+import org.terracotta.toolkit.ToolkitInstantiationException;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link ToolkitStore} operations on a store filled with every key of the {@link KeySpace}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class StoreState {
+
+    @Param({ "toolkit:local:benchmark" })
+    public String                toolkitUri;
+
+    Toolkit                      toolkit;
+    ToolkitStore<String, byte[]> store;
+
+    @Setup(Level.Trial)
+    public void setUp(KeySpace keySpace) throws ToolkitInstantiationException {
+      toolkit = ToolkitFactory.createToolkit(toolkitUri);
+      store = toolkit.getStore("benchmark", byte[].class);
+      for (String key : keySpace.keys) {
+        store.putNoReturn(key, keySpace.value);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      toolkit.shutdown();
+    }
+  }
+
+  @Benchmark
+  public byte[] get(StoreState state, ThreadKeys keys) {
+    return state.store.get(keys.nextKey());
+  }
+
+  @Benchmark
+  public byte[] put(StoreState state, KeySpace keySpace, ThreadKeys keys) {
+    return state.store.put(keys.nextKey(), keySpace.value);
+  }
+
+  @Benchmark
+  public void putNoReturn(StoreState state, KeySpace keySpace, ThreadKeys keys) {
+    state.store.putNoReturn(keys.nextKey(), keySpace.value);
+  }
+
+  @Benchmark
+  public Map<String, byte[]> getAll(StoreState state, KeySpace keySpace, ThreadKeys keys) {
+    return state.store.getAll(keys.nextKeys(keySpace.batchSize));
+  }
+
+  /**
+   * Removals run against concurrent {@link #refill} threads putting keys back, so that the store does not drain
+   */
+  @Benchmark
+  @Group("removeNoReturn")
+  @GroupThreads(1)
+  public void removeNoReturn(StoreState state, ThreadKeys keys) {
+    state.store.removeNoReturn(keys.nextKey());
+  }
+
+  @Benchmark
+  @Group("removeNoReturn")
+  @GroupThreads(1)
+  public void refill(StoreState state, KeySpace keySpace, ThreadKeys keys) {
+    state.store.putNoReturn(keys.nextKey(), keySpace.value);
+  }
+}
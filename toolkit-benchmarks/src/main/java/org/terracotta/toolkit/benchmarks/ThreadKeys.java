@@ -0,0 +1,60 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The key sequence of a single benchmark thread, drawn upfront from the {@link KeySpace} distribution so that
+ * generating keys is not measured.
+ */
+@State(Scope.Thread)
+public class ThreadKeys {
+
+  private static final int SAMPLE_COUNT = 1 << 16;
+
+  private String[]         sample;
+  private int              next;
+
+  @Setup(Level.Trial)
+  public void setUp(KeySpace keySpace) {
+    int[] keyNumbers = keySpace.distribution.sample(keySpace.keyCount, SAMPLE_COUNT, new Random(System.nanoTime()));
+    sample = new String[SAMPLE_COUNT];
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      sample[i] = keySpace.keys[keyNumbers[i]];
+    }
+  }
+
+  public String nextKey() {
+    return sample[next++ & (SAMPLE_COUNT - 1)];
+  }
+
+  public List<String> nextKeys(int count) {
+    List<String> batch = new ArrayList<String>(count);
+    for (int i = 0; i < count; i++) {
+      batch.add(nextKey());
+    }
+    return batch;
+  }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local;
+
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFeature;
+import org.terracotta.toolkit.ToolkitFeatureType;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cluster.ClusterInfo;
+import org.terracotta.toolkit.collections.ToolkitBlockingQueue;
+import org.terracotta.toolkit.collections.ToolkitList;
+import org.terracotta.toolkit.collections.ToolkitMap;
+import org.terracotta.toolkit.collections.ToolkitSet;
+import org.terracotta.toolkit.collections.ToolkitSortedMap;
+import org.terracotta.toolkit.collections.ToolkitSortedSet;
+import org.terracotta.toolkit.concurrent.ToolkitBarrier;
+import org.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLong;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLockType;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.config.Configuration;
+import org.terracotta.toolkit.events.ToolkitNotifier;
+import org.terracotta.toolkit.feature.FeatureNotSupportedException;
+import org.terracotta.toolkit.local.cluster.LocalClusterInfo;
+import org.terracotta.toolkit.local.cluster.LocalClusterNode;
+import org.terracotta.toolkit.local.collections.LocalToolkitBlockingQueue;
+import org.terracotta.toolkit.local.collections.LocalToolkitList;
+import org.terracotta.toolkit.local.collections.LocalToolkitMap;
+import org.terracotta.toolkit.local.collections.LocalToolkitSet;
+import org.terracotta.toolkit.local.collections.LocalToolkitSortedMap;
+import org.terracotta.toolkit.local.collections.LocalToolkitSortedSet;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitAtomicLong;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitBarrier;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitLock;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitReadWriteLock;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.local.events.LocalToolkitNotifier;
+import org.terracotta.toolkit.local.feature.LocalNonStopFeature;
+import org.terracotta.toolkit.local.feature.LocalOffheapFeature;
+import org.terracotta.toolkit.local.feature.LocalSearchFeature;
+import org.terracotta.toolkit.local.feature.LocalStatisticsFeature;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+import org.terracotta.toolkit.local.sizeof.LayoutSizeOfEngine;
+import org.terracotta.toolkit.local.sizeof.SizeOfEngine;
+import org.terracotta.toolkit.local.store.LocalStoreContext;
+import org.terracotta.toolkit.local.store.LocalToolkitCache;
+import org.terracotta.toolkit.local.store.LocalToolkitStore;
+import org.terracotta.toolkit.monitoring.OperatorEventLevel;
+import org.terracotta.toolkit.object.Destroyable;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Toolkit} whose data structures all live in the current JVM. Each instance is independent: objects looked up
+ * by name on one local toolkit are not visible from another one.
+ */
+public class LocalToolkit implements Toolkit {
+
+  private static final Logger                                          LOGGER        = Logger
+                                                                                         .getLogger(LocalToolkit.class
+                                                                                             .getName());
+
+  private final String                                                 name;
+  private final LocalClusterInfo                                       clusterInfo;
+
+  private final ToolkitObjectRegistry<LocalToolkitList<?>>             lists         = new ToolkitObjectRegistry<LocalToolkitList<?>>();
+  private final ToolkitObjectRegistry<LocalToolkitStore<String, ?>>    stores        = new ToolkitObjectRegistry<LocalToolkitStore<String, ?>>();
+  private final ToolkitObjectRegistry<LocalToolkitCache<String, ?>>    caches        = new ToolkitObjectRegistry<LocalToolkitCache<String, ?>>();
+  private final ToolkitObjectRegistry<LocalToolkitMap<?, ?>>           maps          = new ToolkitObjectRegistry<LocalToolkitMap<?, ?>>();
+  private final ToolkitObjectRegistry<LocalToolkitSortedMap<?, ?>>     sortedMaps    = new ToolkitObjectRegistry<LocalToolkitSortedMap<?, ?>>();
+  private final ToolkitObjectRegistry<LocalToolkitBlockingQueue<?>>    queues        = new ToolkitObjectRegistry<LocalToolkitBlockingQueue<?>>();
+  private final ToolkitObjectRegistry<LocalToolkitNotifier<?>>         notifiers     = new ToolkitObjectRegistry<LocalToolkitNotifier<?>>();
+  private final ToolkitObjectRegistry<LocalToolkitAtomicLong>          atomicLongs   = new ToolkitObjectRegistry<LocalToolkitAtomicLong>();
+  private final ToolkitObjectRegistry<LocalToolkitBarrier>             barriers      = new ToolkitObjectRegistry<LocalToolkitBarrier>();
+  private final ToolkitObjectRegistry<LocalToolkitSortedSet<?>>        sortedSets    = new ToolkitObjectRegistry<LocalToolkitSortedSet<?>>();
+  private final ToolkitObjectRegistry<LocalToolkitSet<?>>              sets          = new ToolkitObjectRegistry<LocalToolkitSet<?>>();
+  private final ToolkitObjectRegistry<ReentrantReadWriteLock>          locks         = new ToolkitObjectRegistry<ReentrantReadWriteLock>();
+  private final ToolkitObjectRegistry<ReentrantReadWriteLock>          readWriteLocks = new ToolkitObjectRegistry<ReentrantReadWriteLock>();
+
+  private final LocalOffheapFeature                                    offheapFeature = new LocalOffheapFeature();
+  private final LocalStoreContext                                      storeContext;
+  private final LocalSearchFeature                                     searchFeature = new LocalSearchFeature();
+  private final LocalNonStopFeature                                    nonStopFeature = new LocalNonStopFeature();
+  private final LocalStatisticsFeature                                 statisticsFeature = new LocalStatisticsFeature();
+
+  private volatile boolean                                             shutdown;
+
+  public LocalToolkit(String name) {
+    this(name, new LayoutSizeOfEngine());
+  }
+
+  /**
+   * @param sizeOfEngine measures the mappings of the stores and caches bounded by
+   *        {@link org.terracotta.toolkit.store.ToolkitConfigFields#MAX_BYTES_LOCAL_HEAP_FIELD_NAME}
+   */
+  public LocalToolkit(String name, SizeOfEngine sizeOfEngine) {
+    if (sizeOfEngine == null) { throw new NullPointerException("sizeOfEngine cannot be null"); }
+    this.name = name;
+    this.clusterInfo = new LocalClusterInfo(new LocalClusterNode(name));
+    this.storeContext = new LocalStoreContext(name, offheapFeature, nonStopFeature, statisticsFeature,
+                                              sizeOfEngine);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> ToolkitList<E> getList(String listName, Class<E> klazz) {
+    checkNotShutdown();
+    return (ToolkitList<E>) lists.getOrCreate(listName, new ToolkitObjectRegistry.Factory<LocalToolkitList<?>>() {
+      @Override
+      public LocalToolkitList<?> create(String objectName) {
+        return new LocalToolkitList<E>(objectName, lists);
+      }
+    });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <V> ToolkitStore<String, V> getStore(String storeName, Configuration configuration, Class<V> klazz) {
+    checkNotShutdown();
+    final LocalConfiguration requested = LocalConfiguration.forStore(configuration);
+    LocalToolkitStore<String, ?> store = stores.getOrCreate(storeName,
+                                                            new ToolkitObjectRegistry.Factory<LocalToolkitStore<String, ?>>() {
+                                                              @Override
+                                                              public LocalToolkitStore<String, ?> create(String objectName) {
+                                                                return new LocalToolkitStore<String, V>(objectName,
+                                                                                                        requested,
+                                                                                                        storeContext,
+                                                                                                        stores);
+                                                              }
+                                                            });
+    if (store.getConfiguration() != requested) {
+      ((LocalConfiguration) store.getConfiguration()).checkCompatible(configuration);
+    }
+    return (ToolkitStore<String, V>) store;
+  }
+
+  @Override
+  public <V> ToolkitStore<String, V> getStore(String storeName, Class<V> klazz) {
+    return getStore(storeName, null, klazz);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <V> ToolkitCache<String, V> getCache(String cacheName, Configuration configuration, Class<V> klazz) {
+    checkNotShutdown();
+    final LocalConfiguration requested = LocalConfiguration.forCache(configuration);
+    LocalToolkitCache<String, ?> cache = caches.getOrCreate(cacheName,
+                                                            new ToolkitObjectRegistry.Factory<LocalToolkitCache<String, ?>>() {
+                                                              @Override
+                                                              public LocalToolkitCache<String, ?> create(String objectName) {
+                                                                return new LocalToolkitCache<String, V>(objectName,
+                                                                                                        requested,
+                                                                                                        storeContext,
+                                                                                                        caches);
+                                                              }
+                                                            });
+    if (cache.getConfiguration() != requested) {
+      ((LocalConfiguration) cache.getConfiguration()).checkCompatible(configuration);
+    }
+    return (ToolkitCache<String, V>) cache;
+  }
+
+  @Override
+  public <V> ToolkitCache<String, V> getCache(String cacheName, Class<V> klazz) {
+    return getCache(cacheName, null, klazz);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> ToolkitMap<K, V> getMap(String mapName, Class<K> keyKlazz, Class<V> valueKlazz) {
+    checkNotShutdown();
+    return (ToolkitMap<K, V>) maps.getOrCreate(mapName, new ToolkitObjectRegistry.Factory<LocalToolkitMap<?, ?>>() {
+      @Override
+      public LocalToolkitMap<?, ?> create(String objectName) {
+        return new LocalToolkitMap<K, V>(objectName, maps);
+      }
+    });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K extends Comparable<? super K>, V> ToolkitSortedMap<K, V> getSortedMap(String mapName, Class<K> keyKlazz,
+                                                                                  Class<V> valueKlazz) {
+    checkNotShutdown();
+    return (ToolkitSortedMap<K, V>) sortedMaps
+        .getOrCreate(mapName, new ToolkitObjectRegistry.Factory<LocalToolkitSortedMap<?, ?>>() {
+          @Override
+          public LocalToolkitSortedMap<?, ?> create(String objectName) {
+            return new LocalToolkitSortedMap<K, V>(objectName, sortedMaps);
+          }
+        });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> ToolkitBlockingQueue<E> getBlockingQueue(String queueName, final int capacity, Class<E> klazz) {
+    checkNotShutdown();
+    LocalToolkitBlockingQueue<?> queue = queues
+        .getOrCreate(queueName, new ToolkitObjectRegistry.Factory<LocalToolkitBlockingQueue<?>>() {
+          @Override
+          public LocalToolkitBlockingQueue<?> create(String objectName) {
+            return new LocalToolkitBlockingQueue<E>(objectName, capacity, queues);
+          }
+        });
+    if (queue.getCapacity() != capacity) { throw new IllegalArgumentException("A queue named '" + queueName
+                                                                              + "' already exists with a capacity of "
+                                                                              + queue.getCapacity()
+                                                                              + ", requested capacity: " + capacity); }
+    return (ToolkitBlockingQueue<E>) queue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> ToolkitBlockingQueue<E> getBlockingQueue(String queueName, Class<E> klazz) {
+    checkNotShutdown();
+    LocalToolkitBlockingQueue<?> queue = queues.get(queueName);
+    if (queue != null) { return (ToolkitBlockingQueue<E>) queue; }
+    return getBlockingQueue(queueName, Integer.MAX_VALUE, klazz);
+  }
+
+  @Override
+  public ClusterInfo getClusterInfo() {
+    return clusterInfo;
+  }
+
+  @Override
+  public ToolkitLock getLock(String lockName) {
+    checkNotShutdown();
+    return new LocalToolkitLock(lockName, locks.getOrCreate(lockName, LOCK_FACTORY), ToolkitLockType.WRITE);
+  }
+
+  @Override
+  public ToolkitReadWriteLock getReadWriteLock(String lockName) {
+    checkNotShutdown();
+    return new LocalToolkitReadWriteLock(lockName, readWriteLocks.getOrCreate(lockName, LOCK_FACTORY));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> ToolkitNotifier<E> getNotifier(String notifierName, Class<E> klazz) {
+    checkNotShutdown();
+    return (ToolkitNotifier<E>) notifiers.getOrCreate(notifierName,
+                                                      new ToolkitObjectRegistry.Factory<LocalToolkitNotifier<?>>() {
+                                                        @Override
+                                                        public LocalToolkitNotifier<?> create(String objectName) {
+                                                          return new LocalToolkitNotifier<E>(objectName, clusterInfo
+                                                              .getCurrentNode(), notifiers);
+                                                        }
+                                                      });
+  }
+
+  @Override
+  public ToolkitAtomicLong getAtomicLong(String atomicLongName) {
+    checkNotShutdown();
+    return atomicLongs.getOrCreate(atomicLongName, new ToolkitObjectRegistry.Factory<LocalToolkitAtomicLong>() {
+      @Override
+      public LocalToolkitAtomicLong create(String objectName) {
+        return new LocalToolkitAtomicLong(objectName, atomicLongs);
+      }
+    });
+  }
+
+  @Override
+  public ToolkitBarrier getBarrier(String barrierName, final int parties) {
+    checkNotShutdown();
+    LocalToolkitBarrier barrier = barriers.getOrCreate(barrierName,
+                                                       new ToolkitObjectRegistry.Factory<LocalToolkitBarrier>() {
+                                                         @Override
+                                                         public LocalToolkitBarrier create(String objectName) {
+                                                           return new LocalToolkitBarrier(objectName, parties, barriers);
+                                                         }
+                                                       });
+    if (barrier.getParties() != parties) { throw new IllegalArgumentException("A barrier named '" + barrierName
+                                                                              + "' already exists with "
+                                                                              + barrier.getParties()
+                                                                              + " parties, requested parties: "
+                                                                              + parties); }
+    return barrier;
+  }
+
+  @Override
+  public void fireOperatorEvent(OperatorEventLevel level, String applicationName, String eventMessage) {
+    LOGGER.log(toLogLevel(level), "[" + applicationName + "] " + eventMessage);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E extends Comparable<? super E>> ToolkitSortedSet<E> getSortedSet(String setName, Class<E> klazz) {
+    checkNotShutdown();
+    return (ToolkitSortedSet<E>) sortedSets.getOrCreate(setName,
+                                                        new ToolkitObjectRegistry.Factory<LocalToolkitSortedSet<?>>() {
+                                                          @Override
+                                                          public LocalToolkitSortedSet<?> create(String objectName) {
+                                                            return new LocalToolkitSortedSet<E>(objectName, sortedSets);
+                                                          }
+                                                        });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> ToolkitSet<E> getSet(String setName, Class<E> klazz) {
+    checkNotShutdown();
+    return (ToolkitSet<E>) sets.getOrCreate(setName, new ToolkitObjectRegistry.Factory<LocalToolkitSet<?>>() {
+      @Override
+      public LocalToolkitSet<?> create(String objectName) {
+        return new LocalToolkitSet<E>(objectName, sets);
+      }
+    });
+  }
+
+  /**
+   * Destroys every object created by this toolkit. Any further lookup throws {@code IllegalStateException}.
+   */
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    List<Destroyable> objects = new ArrayList<Destroyable>();
+    objects.addAll(lists.values());
+    objects.addAll(stores.values());
+    objects.addAll(caches.values());
+    objects.addAll(maps.values());
+    objects.addAll(sortedMaps.values());
+    objects.addAll(queues.values());
+    objects.addAll(notifiers.values());
+    objects.addAll(atomicLongs.values());
+    objects.addAll(barriers.values());
+    objects.addAll(sortedSets.values());
+    objects.addAll(sets.values());
+    for (Destroyable object : objects) {
+      object.destroy();
+    }
+    locks.clear();
+    readWriteLocks.clear();
+    storeContext.shutdown();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends ToolkitFeature> T getFeature(ToolkitFeatureType<T> type) {
+    if (ToolkitFeatureType.OFFHEAP.equals(type)) { return (T) offheapFeature; }
+    if (ToolkitFeatureType.SEARCH.equals(type)) { return (T) searchFeature; }
+    if (ToolkitFeatureType.NONSTOP.equals(type)) { return (T) nonStopFeature; }
+    if (ToolkitFeatureType.STATISTICS.equals(type)) { return (T) statisticsFeature; }
+    throw new FeatureNotSupportedException("Unknown feature: " + type);
+  }
+
+  @Override
+  public String toString() {
+    return "LocalToolkit [" + name + "]";
+  }
+
+  private void checkNotShutdown() {
+    if (shutdown) { throw new IllegalStateException("Toolkit '" + name + "' has been shut down"); }
+  }
+
+  private static Level toLogLevel(OperatorEventLevel level) {
+    switch (level) {
+      case DEBUG:
+        return Level.FINE;
+      case INFO:
+        return Level.INFO;
+      default:
+        return Level.WARNING;
+    }
+  }
+
+  private static final ToolkitObjectRegistry.Factory<ReentrantReadWriteLock> LOCK_FACTORY = new ToolkitObjectRegistry.Factory<ReentrantReadWriteLock>() {
+                                                                                            @Override
+                                                                                            public ReentrantReadWriteLock create(String lockName) {
+                                                                                              return new ReentrantReadWriteLock();
+                                                                                            }
+                                                                                          };
+}
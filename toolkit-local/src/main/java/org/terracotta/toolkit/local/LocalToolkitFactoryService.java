@@ -0,0 +1,65 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local;
+
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitInstantiationException;
+import org.terracotta.toolkit.api.ToolkitFactoryService;
+import org.terracotta.toolkit.local.sizeof.LayoutSizeOfEngine;
+import org.terracotta.toolkit.local.sizeof.SizeOfEngine;
+
+import java.util.Properties;
+
+/**
+ * Creates the {@link LocalToolkit}s for the "toolkit:local:" URIs, the sub name being the name of the toolkit. Every
+ * call creates a new independent toolkit.
+ * <p>
+ * The {@link SizeOfEngine} of the toolkit can be chosen with the {@value #SIZE_OF_ENGINE_PROPERTY} property, whose
+ * value is the name of a class with a public no-arg constructor. It defaults to {@link LayoutSizeOfEngine}.
+ */
+public class LocalToolkitFactoryService implements ToolkitFactoryService {
+
+  public static final String TOOLKIT_TYPE            = "local";
+  public static final String SIZE_OF_ENGINE_PROPERTY = "org.terracotta.toolkit.local.sizeOfEngine";
+
+  @Override
+  public boolean canHandleToolkitType(String type, String subName) {
+    return TOOLKIT_TYPE.equals(type);
+  }
+
+  @Override
+  public Toolkit createToolkit(String type, String subName, Properties properties)
+      throws ToolkitInstantiationException {
+    if (!canHandleToolkitType(type, subName)) { throw new ToolkitInstantiationException("Cannot create toolkit of type '"
+                                                                                       + type + "'"); }
+    return new LocalToolkit(subName, createSizeOfEngine(properties));
+  }
+
+  private static SizeOfEngine createSizeOfEngine(Properties properties) throws ToolkitInstantiationException {
+    String className = properties == null ? null : properties.getProperty(SIZE_OF_ENGINE_PROPERTY);
+    if (className == null) { return new LayoutSizeOfEngine(); }
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      if (loader == null) {
+        loader = LocalToolkitFactoryService.class.getClassLoader();
+      }
+      return Class.forName(className, true, loader).asSubclass(SizeOfEngine.class).newInstance();
+    } catch (Exception e) {
+      throw new ToolkitInstantiationException("Cannot create the SizeOfEngine '" + className + "'", e);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.cluster;
+
+import org.terracotta.toolkit.cluster.ClusterInfo;
+import org.terracotta.toolkit.cluster.ClusterListener;
+import org.terracotta.toolkit.cluster.ClusterNode;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * {@link ClusterInfo} of a local toolkit: a cluster made of the current node only, whose operations are always enabled.
+ * Listeners are accepted but never notified as the membership never changes.
+ */
+public class LocalClusterInfo implements ClusterInfo {
+
+  private final LocalClusterNode currentNode;
+
+  public LocalClusterInfo(LocalClusterNode currentNode) {
+    this.currentNode = currentNode;
+  }
+
+  @Override
+  public void addClusterListener(ClusterListener listener) {
+    //
+  }
+
+  @Override
+  public void removeClusterListener(ClusterListener listener) {
+    //
+  }
+
+  @Override
+  public ClusterNode getCurrentNode() {
+    return currentNode;
+  }
+
+  @Override
+  public boolean areOperationsEnabled() {
+    return true;
+  }
+
+  @Override
+  public Set<ClusterNode> getNodes() {
+    return Collections.<ClusterNode> singleton(currentNode);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.cluster;
+
+import org.terracotta.toolkit.cluster.ClusterNode;
+
+import java.net.InetAddress;
+
+/**
+ * The single node of a local toolkit "cluster".
+ */
+public class LocalClusterNode implements ClusterNode {
+
+  private static final long serialVersionUID = -2384610924183647350L;
+
+  private final String      id;
+
+  public LocalClusterNode(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public InetAddress getAddress() {
+    return InetAddress.getLoopbackAddress();
+  }
+
+  @Override
+  public int hashCode() {
+    return id.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof LocalClusterNode && id.equals(((LocalClusterNode) obj).id);
+  }
+
+  @Override
+  public String toString() {
+    return "LocalClusterNode [id=" + id + "]";
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.local.object.AbstractLockedToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A collection delegating to a thread-safe backing collection, with reads run under the read lock and mutations under
+ * the write lock. Iterators are the ones of the backing collection and are weakly consistent.
+ */
+abstract class AbstractLockedCollection<E> extends AbstractLockedToolkitObject implements Collection<E> {
+
+  protected AbstractLockedCollection(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  protected abstract Collection<E> delegate();
+
+  @Override
+  public int size() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return delegate().size();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return delegate().contains(o);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    checkDestroyed();
+    return delegate().iterator();
+  }
+
+  @Override
+  public Object[] toArray() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return delegate().toArray();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return delegate().toArray(a);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean add(E e) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(e);
+    writeLock().lock();
+    try {
+      return delegate().add(e);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return delegate().remove(o);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return delegate().containsAll(c);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    checkDestroyed();
+    for (E e : c) {
+      SerializationUtil.checkSerializable(e);
+    }
+    writeLock().lock();
+    try {
+      return delegate().addAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return delegate().removeAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return delegate().retainAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      delegate().clear();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || delegate().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return delegate().toString();
+  }
+
+  @Override
+  protected void doDestroy() {
+    delegate().clear();
+  }
+}
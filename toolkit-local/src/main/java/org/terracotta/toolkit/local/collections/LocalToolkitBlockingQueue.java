@@ -0,0 +1,364 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitBlockingQueue;
+import org.terracotta.toolkit.local.object.AbstractLockedToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * A bounded {@link ToolkitBlockingQueue} over an {@link ArrayDeque}. Every operation, reads included, runs under the
+ * write lock, whose conditions are used to wait for space or elements. Iterators work on a snapshot of the queue.
+ */
+public class LocalToolkitBlockingQueue<E> extends AbstractLockedToolkitObject implements ToolkitBlockingQueue<E> {
+
+  private final ArrayDeque<E> queue = new ArrayDeque<E>();
+  private final int           capacity;
+  private final Condition     notEmpty;
+  private final Condition     notFull;
+
+  public LocalToolkitBlockingQueue(String name, int capacity, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    if (capacity <= 0) { throw new IllegalArgumentException("capacity should be positive, value: " + capacity); }
+    this.capacity = capacity;
+    this.notEmpty = writeLock().newCondition();
+    this.notFull = writeLock().newCondition();
+  }
+
+  @Override
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (offer(e)) { return true; }
+    throw new IllegalStateException("Queue full");
+  }
+
+  @Override
+  public boolean offer(E e) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(e);
+    writeLock().lock();
+    try {
+      if (queue.size() == capacity) { return false; }
+      enqueue(e);
+      return true;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(e);
+    writeLock().lockInterruptibly();
+    try {
+      while (queue.size() == capacity) {
+        notFull.await();
+      }
+      enqueue(e);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(e);
+    long nanos = unit.toNanos(timeout);
+    writeLock().lockInterruptibly();
+    try {
+      while (queue.size() == capacity) {
+        if (nanos <= 0) { return false; }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(e);
+      return true;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    checkDestroyed();
+    writeLock().lockInterruptibly();
+    try {
+      while (queue.isEmpty()) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    checkDestroyed();
+    long nanos = unit.toNanos(timeout);
+    writeLock().lockInterruptibly();
+    try {
+      while (queue.isEmpty()) {
+        if (nanos <= 0) { return null; }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E poll() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return queue.isEmpty() ? null : dequeue();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E remove() {
+    E e = poll();
+    if (e == null) { throw new NoSuchElementException(); }
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return queue.peek();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E element() {
+    E e = peek();
+    if (e == null) { throw new NoSuchElementException(); }
+    return e;
+  }
+
+  @Override
+  public int remainingCapacity() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return capacity - queue.size();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      if (!queue.remove(o)) { return false; }
+      notFull.signal();
+      return true;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return queue.contains(o);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) { throw new IllegalArgumentException(); }
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      int n = 0;
+      while (n < maxElements && !queue.isEmpty()) {
+        c.add(queue.poll());
+        n++;
+      }
+      if (n > 0) {
+        notFull.signalAll();
+      }
+      return n;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return queue.size();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return snapshot().iterator();
+  }
+
+  @Override
+  public Object[] toArray() {
+    return snapshot().toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    return snapshot().toArray(a);
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return queue.containsAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    if (c == this) { throw new IllegalArgumentException(); }
+    boolean modified = false;
+    for (E e : c) {
+      modified |= add(e);
+    }
+    return modified;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      boolean modified = queue.removeAll(c);
+      if (modified) {
+        notFull.signalAll();
+      }
+      return modified;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      boolean modified = queue.retainAll(c);
+      if (modified) {
+        notFull.signalAll();
+      }
+      return modified;
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      queue.clear();
+      notFull.signalAll();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  @Override
+  protected void doDestroy() {
+    writeLock().lock();
+    try {
+      queue.clear();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  private Collection<E> snapshot() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return new ArrayList<E>(queue);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  private void enqueue(E e) {
+    queue.offer(e);
+    notEmpty.signal();
+  }
+
+  private E dequeue() {
+    E e = queue.poll();
+    notFull.signal();
+    return e;
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitList;
+import org.terracotta.toolkit.local.object.AbstractLockedToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link ToolkitList} backed by a {@link CopyOnWriteArrayList}. Iterators work on a snapshot of the list and do not
+ * support mutations.
+ */
+public class LocalToolkitList<E> extends AbstractLockedToolkitObject implements ToolkitList<E> {
+
+  private final CopyOnWriteArrayList<E> list = new CopyOnWriteArrayList<E>();
+
+  public LocalToolkitList(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  @Override
+  public int size() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.size();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.contains(o);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    checkDestroyed();
+    return list.iterator();
+  }
+
+  @Override
+  public Object[] toArray() {
+    checkDestroyed();
+    return list.toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    checkDestroyed();
+    return list.toArray(a);
+  }
+
+  @Override
+  public boolean add(E e) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(e);
+    writeLock().lock();
+    try {
+      return list.add(e);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return list.remove(o);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.containsAll(c);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    checkDestroyed();
+    checkAllSerializable(c);
+    writeLock().lock();
+    try {
+      return list.addAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends E> c) {
+    checkDestroyed();
+    checkAllSerializable(c);
+    writeLock().lock();
+    try {
+      return list.addAll(index, c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return list.removeAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return list.retainAll(c);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      list.clear();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E get(int index) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.get(index);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public E set(int index, E element) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(element);
+    writeLock().lock();
+    try {
+      return list.set(index, element);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void add(int index, E element) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(element);
+    writeLock().lock();
+    try {
+      list.add(index, element);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public E remove(int index) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return list.remove(index);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.indexOf(o);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public int lastIndexOf(Object o) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return list.lastIndexOf(o);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public ListIterator<E> listIterator() {
+    checkDestroyed();
+    return list.listIterator();
+  }
+
+  @Override
+  public ListIterator<E> listIterator(int index) {
+    checkDestroyed();
+    return list.listIterator(index);
+  }
+
+  @Override
+  public List<E> subList(int fromIndex, int toIndex) {
+    checkDestroyed();
+    return list.subList(fromIndex, toIndex);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || list.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return list.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return list.toString();
+  }
+
+  @Override
+  protected void doDestroy() {
+    list.clear();
+  }
+
+  private static void checkAllSerializable(Collection<?> c) {
+    for (Object o : c) {
+      SerializationUtil.checkSerializable(o);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitMap;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+import org.terracotta.toolkit.local.store.AbstractSegmentedMap;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+/**
+ * A {@link ToolkitMap} over {@link ToolkitConfigFields#DEFAULT_CONCURRENCY} lock-striped segments. The read-write lock
+ * of the map spans all its segments, so holding it excludes every operation of the map as the {@code ToolkitMap}
+ * contract requires, while the operations of the map only lock the segment of their key.
+ */
+public class LocalToolkitMap<K, V> extends AbstractSegmentedMap<K, V> implements ToolkitMap<K, V> {
+
+  private final ToolkitReadWriteLock lock;
+
+  public LocalToolkitMap(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, ToolkitConfigFields.DEFAULT_CONCURRENCY, registry);
+    this.lock = table.createTableLock();
+  }
+
+  @Override
+  public ToolkitReadWriteLock getReadWriteLock() {
+    return lock;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitSet;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ToolkitSet} backed by the key set of a {@link ConcurrentHashMap}.
+ */
+public class LocalToolkitSet<E> extends AbstractLockedCollection<E> implements ToolkitSet<E> {
+
+  private final Set<E> set = Collections.newSetFromMap(new ConcurrentHashMap<E, Boolean>());
+
+  public LocalToolkitSet(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  @Override
+  protected Collection<E> delegate() {
+    return set;
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitSortedMap;
+import org.terracotta.toolkit.local.object.AbstractLockedToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A {@link ToolkitSortedMap} backed by a {@link ConcurrentSkipListMap}. The collection and range views are views of the
+ * backing map and do not take the lock.
+ */
+public class LocalToolkitSortedMap<K extends Comparable<? super K>, V> extends AbstractLockedToolkitObject implements
+    ToolkitSortedMap<K, V> {
+
+  private final ConcurrentSkipListMap<K, V> map = new ConcurrentSkipListMap<K, V>();
+
+  public LocalToolkitSortedMap(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  @Override
+  public int size() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.size();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.containsKey(key);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.containsValue(value);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public V get(Object key) {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.get(key);
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public V put(K key, V value) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(key);
+    SerializationUtil.checkSerializable(value);
+    writeLock().lock();
+    try {
+      return map.put(key, value);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(key);
+    SerializationUtil.checkSerializable(value);
+    writeLock().lock();
+    try {
+      return map.putIfAbsent(key, value);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    checkDestroyed();
+    for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+      SerializationUtil.checkSerializable(e.getKey());
+      SerializationUtil.checkSerializable(e.getValue());
+    }
+    writeLock().lock();
+    try {
+      map.putAll(m);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return map.remove(key);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      return map.remove(key, value);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean replace(K key, V oldValue, V newValue) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(newValue);
+    writeLock().lock();
+    try {
+      return map.replace(key, oldValue, newValue);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public V replace(K key, V value) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(value);
+    writeLock().lock();
+    try {
+      return map.replace(key, value);
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkDestroyed();
+    writeLock().lock();
+    try {
+      map.clear();
+    } finally {
+      writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Comparator<? super K> comparator() {
+    return null;
+  }
+
+  @Override
+  public SortedMap<K, V> subMap(K fromKey, K toKey) {
+    checkDestroyed();
+    return map.subMap(fromKey, toKey);
+  }
+
+  @Override
+  public SortedMap<K, V> headMap(K toKey) {
+    checkDestroyed();
+    return map.headMap(toKey);
+  }
+
+  @Override
+  public SortedMap<K, V> tailMap(K fromKey) {
+    checkDestroyed();
+    return map.tailMap(fromKey);
+  }
+
+  @Override
+  public K firstKey() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.firstKey();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public K lastKey() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return map.lastKey();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public Set<K> keySet() {
+    checkDestroyed();
+    return map.keySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    checkDestroyed();
+    return map.values();
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    checkDestroyed();
+    return map.entrySet();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || map.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return map.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return map.toString();
+  }
+
+  @Override
+  protected void doDestroy() {
+    map.clear();
+  }
+}
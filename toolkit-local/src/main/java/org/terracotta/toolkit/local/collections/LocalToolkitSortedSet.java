@@ -0,0 +1,89 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.collections;
+
+import org.terracotta.toolkit.collections.ToolkitSortedSet;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A {@link ToolkitSortedSet} backed by a {@link ConcurrentSkipListSet}. The range views are views of the backing set
+ * and do not take the lock.
+ */
+public class LocalToolkitSortedSet<E extends Comparable<? super E>> extends AbstractLockedCollection<E> implements
+    ToolkitSortedSet<E> {
+
+  private final ConcurrentSkipListSet<E> set = new ConcurrentSkipListSet<E>();
+
+  public LocalToolkitSortedSet(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  @Override
+  protected Collection<E> delegate() {
+    return set;
+  }
+
+  @Override
+  public Comparator<? super E> comparator() {
+    return null;
+  }
+
+  @Override
+  public SortedSet<E> subSet(E fromElement, E toElement) {
+    checkDestroyed();
+    return set.subSet(fromElement, toElement);
+  }
+
+  @Override
+  public SortedSet<E> headSet(E toElement) {
+    checkDestroyed();
+    return set.headSet(toElement);
+  }
+
+  @Override
+  public SortedSet<E> tailSet(E fromElement) {
+    checkDestroyed();
+    return set.tailSet(fromElement);
+  }
+
+  @Override
+  public E first() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return set.first();
+    } finally {
+      readLock().unlock();
+    }
+  }
+
+  @Override
+  public E last() {
+    checkDestroyed();
+    readLock().lock();
+    try {
+      return set.last();
+    } finally {
+      readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import java.io.Serializable;
+
+/**
+ * The form in which a compressed value is held by a store: its serialized form, compressed
+ */
+public final class CompressedValue implements Serializable {
+
+  private static final long serialVersionUID = -2830514216419434187L;
+
+  private final byte[]      data;
+  private final int         originalLength;
+
+  public CompressedValue(byte[] data, int originalLength) {
+    this.data = data;
+    this.originalLength = originalLength;
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  /**
+   * Length of the serialized form
+   */
+  public int getOriginalLength() {
+    return originalLength;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+/**
+ * Compresses the serialized values of the stores and caches created with
+ * {@link org.terracotta.toolkit.store.ToolkitConfigFields#COMPRESSION_ENABLED_FIELD_NAME}. A codec is selected with
+ * {@link org.terracotta.toolkit.store.ToolkitConfigFields#COMPRESSION_CODEC_FIELD_NAME}, either by the name of a
+ * built-in codec or by the name of an implementing class with a public no-arg constructor.
+ * <p>
+ * Implementations must be thread safe.
+ */
+public interface CompressionCodec {
+
+  /**
+   * Compresses {@code input}.
+   *
+   * @param dictionary bytes likely to occur in the input, used as already seen data, or null
+   * @return the compressed bytes, or null if they would not be smaller than {@code input}
+   */
+  byte[] compress(byte[] input, byte[] dictionary);
+
+  /**
+   * Decompresses bytes returned by {@link #compress(byte[], byte[])} with the same dictionary.
+   *
+   * @param originalLength the length of the input they were compressed from
+   */
+  byte[] decompress(byte[] compressed, int originalLength, byte[] dictionary);
+}
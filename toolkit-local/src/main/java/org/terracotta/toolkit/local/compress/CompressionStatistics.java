@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the work done by a {@link ValueCompressor}. Times are measured around the codec calls on the calling
+ * thread and include serialization.
+ */
+public final class CompressionStatistics {
+
+  private final LongAdder compressed       = new LongAdder();
+  private final LongAdder skipped          = new LongAdder();
+  private final LongAdder decompressed     = new LongAdder();
+  private final LongAdder originalBytes    = new LongAdder();
+  private final LongAdder compressedBytes  = new LongAdder();
+  private final LongAdder compressNanos    = new LongAdder();
+  private final LongAdder decompressNanos  = new LongAdder();
+
+  void compressed(int originalLength, int compressedLength, long nanos) {
+    compressed.increment();
+    originalBytes.add(originalLength);
+    compressedBytes.add(compressedLength);
+    compressNanos.add(nanos);
+  }
+
+  void skipped(long nanos) {
+    skipped.increment();
+    compressNanos.add(nanos);
+  }
+
+  void decompressed(long nanos) {
+    decompressed.increment();
+    decompressNanos.add(nanos);
+  }
+
+  /**
+   * Number of values stored compressed
+   */
+  public long getCompressedCount() {
+    return compressed.sum();
+  }
+
+  /**
+   * Number of values stored as is, being too small or not compressible
+   */
+  public long getSkippedCount() {
+    return skipped.sum();
+  }
+
+  public long getDecompressedCount() {
+    return decompressed.sum();
+  }
+
+  /**
+   * Serialized size of the values stored compressed
+   */
+  public long getOriginalBytes() {
+    return originalBytes.sum();
+  }
+
+  /**
+   * Compressed size of the values stored compressed
+   */
+  public long getCompressedBytes() {
+    return compressedBytes.sum();
+  }
+
+  /**
+   * Ratio of the serialized size to the compressed size of the values stored compressed, 1 if there are none
+   */
+  public double getCompressionRatio() {
+    long out = compressedBytes.sum();
+    return out == 0 ? 1 : (double) originalBytes.sum() / out;
+  }
+
+  public long getCompressionTimeNanos() {
+    return compressNanos.sum();
+  }
+
+  public long getDecompressionTimeNanos() {
+    return decompressNanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "CompressionStatistics [compressed=" + getCompressedCount() + ", skipped=" + getSkippedCount()
+           + ", ratio=" + getCompressionRatio() + ", compressionTimeNanos=" + getCompressionTimeNanos()
+           + ", decompressionTimeNanos=" + getDecompressionTimeNanos() + "]";
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A codec backed by {@link Deflater}, slower than {@link LzCodec} but with a better ratio. Each thread reuses its own
+ * deflater and inflater.
+ */
+public class DeflateCodec implements CompressionCodec {
+
+  public static final String          NAME      = "deflate";
+
+  private final int                   level;
+  private final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>() {
+                                                  @Override
+                                                  protected Deflater initialValue() {
+                                                    return new Deflater(level, true);
+                                                  }
+                                                };
+  private final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+                                                  @Override
+                                                  protected Inflater initialValue() {
+                                                    return new Inflater(true);
+                                                  }
+                                                };
+
+  public DeflateCodec() {
+    this(Deflater.BEST_SPEED);
+  }
+
+  /**
+   * @param level the compression level, from 1 to 9
+   */
+  public DeflateCodec(int level) {
+    if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) { throw new IllegalArgumentException(
+                                                                                                              "Invalid level: "
+                                                                                                                  + level); }
+    this.level = level;
+  }
+
+  @Override
+  public byte[] compress(byte[] input, byte[] dictionary) {
+    Deflater deflater = deflaters.get();
+    deflater.reset();
+    if (dictionary != null && dictionary.length > 0) {
+      deflater.setDictionary(dictionary);
+    }
+    deflater.setInput(input);
+    deflater.finish();
+    byte[] out = new byte[input.length];
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == out.length) { return null; }
+      length += deflater.deflate(out, length, out.length - length);
+    }
+    return length >= input.length ? null : Arrays.copyOf(out, length);
+  }
+
+  @Override
+  public byte[] decompress(byte[] compressed, int originalLength, byte[] dictionary) {
+    Inflater inflater = inflaters.get();
+    inflater.reset();
+    if (dictionary != null && dictionary.length > 0) {
+      // raw deflate streams do not ask for their dictionary
+      inflater.setDictionary(dictionary);
+    }
+    // raw inflation may need an extra byte past the end of the data
+    inflater.setInput(Arrays.copyOf(compressed, compressed.length + 1));
+    byte[] out = new byte[originalLength];
+    int length = 0;
+    try {
+      while (length < originalLength) {
+        int inflated = inflater.inflate(out, length, originalLength - length);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) { throw new IllegalArgumentException(
+                                                                                                                  "Truncated input"); }
+        length += inflated;
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupted input", e);
+    }
+    return out;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import java.util.Arrays;
+
+/**
+ * A byte oriented LZ77 codec in the spirit of LZ4, favouring speed over ratio. The compressed form is a sequence of
+ * tokens, each made of a run of literals followed by a back reference of at least {@value #MIN_MATCH} bytes, at most
+ * 64KB back, into the output or the dictionary. The last token only has literals.
+ * <p>
+ * A token starts with a byte holding the literal count in its high nibble and the match length minus
+ * {@value #MIN_MATCH} in its low nibble, a nibble of 15 being continued by bytes added to it until one is not 255. It
+ * is followed by the literals, then by the little endian match offset and the match length continuation.
+ */
+public class LzCodec implements CompressionCodec {
+
+  public static final String NAME       = "lz";
+
+  private static final int   MIN_MATCH  = 4;
+  private static final int   MAX_OFFSET = 0xffff;
+  private static final int   HASH_LOG   = 12;
+  private static final int   SKIP_SHIFT = 6;
+
+  @Override
+  public byte[] compress(byte[] input, byte[] dictionary) {
+    int dictLength = dictionary == null ? 0 : Math.min(dictionary.length, MAX_OFFSET);
+    byte[] buf = input;
+    if (dictLength > 0) {
+      buf = new byte[dictLength + input.length];
+      System.arraycopy(dictionary, dictionary.length - dictLength, buf, 0, dictLength);
+      System.arraycopy(input, 0, buf, dictLength, input.length);
+    }
+    int end = buf.length;
+    // positions plus one, so that 0 means empty
+    int[] table = new int[1 << HASH_LOG];
+    for (int p = 0; p + MIN_MATCH <= dictLength; p++) {
+      table[hash(buf, p)] = p + 1;
+    }
+    byte[] out = new byte[input.length + input.length / 255 + 16];
+    int op = 0;
+    int anchor = dictLength;
+    int p = dictLength;
+    while (p + MIN_MATCH <= end) {
+      int h = hash(buf, p);
+      int ref = table[h] - 1;
+      table[h] = p + 1;
+      if (ref < 0 || p - ref > MAX_OFFSET || readInt(buf, ref) != readInt(buf, p)) {
+        p += 1 + ((p - anchor) >>> SKIP_SHIFT);
+        continue;
+      }
+      int matchLength = MIN_MATCH;
+      while (p + matchLength < end && buf[ref + matchLength] == buf[p + matchLength]) {
+        matchLength++;
+      }
+      op = writeSequence(buf, anchor, p - anchor, p - ref, matchLength, out, op);
+      if (op >= input.length) { return null; }
+      p += matchLength;
+      anchor = p;
+    }
+    op = writeSequence(buf, anchor, end - anchor, 0, 0, out, op);
+    if (op >= input.length) { return null; }
+    return Arrays.copyOf(out, op);
+  }
+
+  @Override
+  public byte[] decompress(byte[] compressed, int originalLength, byte[] dictionary) {
+    int dictLength = dictionary == null ? 0 : Math.min(dictionary.length, MAX_OFFSET);
+    byte[] out = new byte[dictLength + originalLength];
+    if (dictLength > 0) {
+      System.arraycopy(dictionary, dictionary.length - dictLength, out, 0, dictLength);
+    }
+    int ip = 0;
+    int op = dictLength;
+    try {
+      while (true) {
+        int token = compressed[ip++] & 0xff;
+        int literals = token >>> 4;
+        if (literals == 15) {
+          int b;
+          do {
+            b = compressed[ip++] & 0xff;
+            literals += b;
+          } while (b == 255);
+        }
+        System.arraycopy(compressed, ip, out, op, literals);
+        ip += literals;
+        op += literals;
+        if (op == out.length) {
+          break;
+        }
+        int offset = (compressed[ip] & 0xff) | ((compressed[ip + 1] & 0xff) << 8);
+        ip += 2;
+        int matchLength = token & 0xf;
+        if (matchLength == 15) {
+          int b;
+          do {
+            b = compressed[ip++] & 0xff;
+            matchLength += b;
+          } while (b == 255);
+        }
+        matchLength += MIN_MATCH;
+        int ref = op - offset;
+        if (offset == 0 || ref < 0 || op + matchLength > out.length) { throw new IllegalArgumentException(
+                                                                                                        "Corrupted input at "
+                                                                                                            + ip); }
+        // byte by byte, as the match may overlap the bytes it produces
+        for (int i = 0; i < matchLength; i++) {
+          out[op + i] = out[ref + i];
+        }
+        op += matchLength;
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Corrupted input", e);
+    }
+    return dictLength == 0 ? out : Arrays.copyOfRange(out, dictLength, out.length);
+  }
+
+  private static int writeSequence(byte[] buf, int literalStart, int literals, int offset, int matchLength,
+                                   byte[] out, int op) {
+    if (op + literals + literals / 255 + 8 > out.length) { return Integer.MAX_VALUE; }
+    int extraMatch = matchLength - MIN_MATCH;
+    int tokenPos = op++;
+    int token;
+    if (literals >= 15) {
+      token = 15 << 4;
+      op = writeLength(literals - 15, out, op);
+    } else {
+      token = literals << 4;
+    }
+    System.arraycopy(buf, literalStart, out, op, literals);
+    op += literals;
+    if (matchLength > 0) {
+      out[op++] = (byte) offset;
+      out[op++] = (byte) (offset >>> 8);
+      if (extraMatch >= 15) {
+        token |= 15;
+        if (op + extraMatch / 255 + 1 > out.length) { return Integer.MAX_VALUE; }
+        op = writeLength(extraMatch - 15, out, op);
+      } else {
+        token |= extraMatch;
+      }
+    }
+    out[tokenPos] = (byte) token;
+    return op;
+  }
+
+  private static int writeLength(int length, byte[] out, int op) {
+    while (length >= 255) {
+      out[op++] = (byte) 255;
+      length -= 255;
+    }
+    out[op++] = (byte) length;
+    return op;
+  }
+
+  private static int readInt(byte[] buf, int p) {
+    return (buf[p] & 0xff) | (buf[p + 1] & 0xff) << 8 | (buf[p + 2] & 0xff) << 16 | (buf[p + 3] & 0xff) << 24;
+  }
+
+  private static int hash(byte[] buf, int p) {
+    return (readInt(buf, p) * -1640531535) >>> (32 - HASH_LOG);
+  }
+}
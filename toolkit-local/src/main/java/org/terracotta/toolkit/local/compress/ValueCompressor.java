@@ -0,0 +1,108 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.nio.charset.Charset;
+
+/**
+ * Converts the values of a store to the form it holds them in and back. Values whose serialized form is at least
+ * {@link ToolkitConfigFields#COMPRESSION_MIN_SIZE_FIELD_NAME} bytes long and compresses to fewer bytes are held as
+ * {@link CompressedValue}s, and deserialized again on every read. Other values are held as is.
+ */
+public final class ValueCompressor {
+
+  private static final Charset        UTF_8      = Charset.forName("UTF-8");
+
+  private final CompressionCodec      codec;
+  private final int                   minSize;
+  private final byte[]                dictionary;
+  private final CompressionStatistics statistics = new CompressionStatistics();
+
+  public ValueCompressor(CompressionCodec codec, int minSize, byte[] dictionary) {
+    this.codec = codec;
+    this.minSize = minSize;
+    this.dictionary = dictionary == null || dictionary.length == 0 ? null : dictionary;
+  }
+
+  /**
+   * Returns the compressor configured by {@code config}, or null if compression is not enabled
+   *
+   * @throws IllegalArgumentException if the codec cannot be created
+   */
+  public static ValueCompressor forConfig(LocalConfiguration config) {
+    if (!config.getBoolean(ToolkitConfigFields.COMPRESSION_ENABLED_FIELD_NAME)) { return null; }
+    String dictionary = config.getString(ToolkitConfigFields.COMPRESSION_DICTIONARY_FIELD_NAME);
+    return new ValueCompressor(createCodec(config.getString(ToolkitConfigFields.COMPRESSION_CODEC_FIELD_NAME)),
+                               config.getInt(ToolkitConfigFields.COMPRESSION_MIN_SIZE_FIELD_NAME),
+                               dictionary == null ? null : dictionary.getBytes(UTF_8));
+  }
+
+  /**
+   * Creates the codec named {@code name}: a built-in codec name or a class name
+   */
+  public static CompressionCodec createCodec(String name) {
+    if (LzCodec.NAME.equals(name)) { return new LzCodec(); }
+    if (DeflateCodec.NAME.equals(name)) { return new DeflateCodec(); }
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      if (loader == null) {
+        loader = ValueCompressor.class.getClassLoader();
+      }
+      return Class.forName(name, true, loader).asSubclass(CompressionCodec.class).newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot create the compression codec '" + name + "'", e);
+    }
+  }
+
+  /**
+   * Returns the form in which {@code value} should be held
+   */
+  public Object compress(Object value) {
+    long start = System.nanoTime();
+    byte[] serialized = SerializationUtil.serialize(value);
+    if (serialized.length >= minSize) {
+      byte[] compressed = codec.compress(serialized, dictionary);
+      if (compressed != null) {
+        statistics.compressed(serialized.length, compressed.length, System.nanoTime() - start);
+        return new CompressedValue(compressed, serialized.length);
+      }
+    }
+    statistics.skipped(System.nanoTime() - start);
+    return value;
+  }
+
+  /**
+   * Returns the value held as {@code stored}
+   */
+  public Object decompress(Object stored) {
+    if (!(stored instanceof CompressedValue)) { return stored; }
+    long start = System.nanoTime();
+    CompressedValue compressed = (CompressedValue) stored;
+    byte[] serialized = codec.decompress(compressed.getData(), compressed.getOriginalLength(), dictionary);
+    Object value = SerializationUtil.deserialize(serialized, 0, serialized.length);
+    statistics.decompressed(System.nanoTime() - start);
+    return value;
+  }
+
+  public CompressionStatistics getStatistics() {
+    return statistics;
+  }
+}
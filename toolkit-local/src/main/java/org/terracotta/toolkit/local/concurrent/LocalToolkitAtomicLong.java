@@ -0,0 +1,130 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.concurrent;
+
+import org.terracotta.toolkit.concurrent.atomic.ToolkitAtomicLong;
+import org.terracotta.toolkit.local.object.AbstractLocalToolkitObject;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ToolkitAtomicLong} backed by a JVM local {@link AtomicLong}.
+ */
+public class LocalToolkitAtomicLong extends AbstractLocalToolkitObject implements ToolkitAtomicLong {
+
+  private final AtomicLong value = new AtomicLong();
+
+  public LocalToolkitAtomicLong(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+  }
+
+  @Override
+  public long addAndGet(long delta) {
+    checkDestroyed();
+    return value.addAndGet(delta);
+  }
+
+  @Override
+  public boolean compareAndSet(long expect, long update) {
+    checkDestroyed();
+    return value.compareAndSet(expect, update);
+  }
+
+  @Override
+  public long decrementAndGet() {
+    checkDestroyed();
+    return value.decrementAndGet();
+  }
+
+  @Override
+  public long get() {
+    checkDestroyed();
+    return value.get();
+  }
+
+  @Override
+  public long getAndAdd(long delta) {
+    checkDestroyed();
+    return value.getAndAdd(delta);
+  }
+
+  @Override
+  public long getAndDecrement() {
+    checkDestroyed();
+    return value.getAndDecrement();
+  }
+
+  @Override
+  public long getAndIncrement() {
+    checkDestroyed();
+    return value.getAndIncrement();
+  }
+
+  @Override
+  public long getAndSet(long newValue) {
+    checkDestroyed();
+    return value.getAndSet(newValue);
+  }
+
+  @Override
+  public long incrementAndGet() {
+    checkDestroyed();
+    return value.incrementAndGet();
+  }
+
+  @Override
+  public void set(long newValue) {
+    checkDestroyed();
+    value.set(newValue);
+  }
+
+  @Override
+  public byte byteValue() {
+    return (byte) get();
+  }
+
+  @Override
+  public short shortValue() {
+    return (short) get();
+  }
+
+  @Override
+  public int intValue() {
+    return (int) get();
+  }
+
+  @Override
+  public long longValue() {
+    return get();
+  }
+
+  @Override
+  public float floatValue() {
+    return get();
+  }
+
+  @Override
+  public double doubleValue() {
+    return get();
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(value.get());
+  }
+}
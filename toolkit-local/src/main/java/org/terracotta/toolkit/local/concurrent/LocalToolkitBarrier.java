@@ -0,0 +1,75 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.concurrent;
+
+import org.terracotta.toolkit.concurrent.ToolkitBarrier;
+import org.terracotta.toolkit.local.object.AbstractLocalToolkitObject;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link ToolkitBarrier} backed by a JVM local {@link CyclicBarrier}.
+ */
+public class LocalToolkitBarrier extends AbstractLocalToolkitObject implements ToolkitBarrier {
+
+  private final CyclicBarrier barrier;
+
+  public LocalToolkitBarrier(String name, int parties, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    if (parties < 1) { throw new IllegalArgumentException("parties should be at least 1, parties: " + parties); }
+    this.barrier = new CyclicBarrier(parties);
+  }
+
+  @Override
+  public int getParties() {
+    return barrier.getParties();
+  }
+
+  @Override
+  public boolean isBroken() {
+    checkDestroyed();
+    return barrier.isBroken();
+  }
+
+  @Override
+  public int await() throws InterruptedException, BrokenBarrierException {
+    checkDestroyed();
+    return barrier.await();
+  }
+
+  @Override
+  public int await(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException,
+      BrokenBarrierException {
+    checkDestroyed();
+    return barrier.await(timeout, unit);
+  }
+
+  @Override
+  public void reset() {
+    checkDestroyed();
+    barrier.reset();
+  }
+
+  @Override
+  protected void doDestroy() {
+    barrier.reset();
+  }
+}
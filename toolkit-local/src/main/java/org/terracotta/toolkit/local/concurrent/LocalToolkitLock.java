@@ -0,0 +1,108 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.concurrent;
+
+import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLockType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link ToolkitLock} over one side of a JVM local {@link ReentrantReadWriteLock}. Instances created over the same
+ * {@code ReentrantReadWriteLock} with the same {@link ToolkitLockType} behave as the same lock.
+ */
+public class LocalToolkitLock implements ToolkitLock {
+
+  private final String                 name;
+  private final ReentrantReadWriteLock lock;
+  private final ToolkitLockType        type;
+  private final Lock                   delegate;
+  private final Condition              condition;
+
+  public LocalToolkitLock(String name, ReentrantReadWriteLock lock, ToolkitLockType type) {
+    this.name = name;
+    this.lock = lock;
+    this.type = type;
+    if (type == ToolkitLockType.WRITE) {
+      this.delegate = lock.writeLock();
+      this.condition = delegate.newCondition();
+    } else {
+      this.delegate = lock.readLock();
+      this.condition = null;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void lock() {
+    delegate.lock();
+  }
+
+  @Override
+  public void lockInterruptibly() throws InterruptedException {
+    delegate.lockInterruptibly();
+  }
+
+  @Override
+  public boolean tryLock() {
+    return delegate.tryLock();
+  }
+
+  @Override
+  public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+    return delegate.tryLock(time, unit);
+  }
+
+  @Override
+  public void unlock() {
+    delegate.unlock();
+  }
+
+  @Override
+  public Condition newCondition() throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("Use getCondition() instead");
+  }
+
+  @Override
+  public Condition getCondition() {
+    if (condition == null) { throw new UnsupportedOperationException("Conditions are not supported for " + type
+                                                                     + " locks"); }
+    return condition;
+  }
+
+  @Override
+  public ToolkitLockType getLockType() {
+    return type;
+  }
+
+  @Override
+  public boolean isHeldByCurrentThread() {
+    return type == ToolkitLockType.WRITE ? lock.isWriteLockedByCurrentThread() : lock.getReadHoldCount() > 0;
+  }
+
+  @Override
+  public String toString() {
+    return "LocalToolkitLock [name=" + name + ", type=" + type + "]";
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.concurrent;
+
+import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLockType;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link ToolkitReadWriteLock} over a JVM local {@link ReentrantReadWriteLock}. The read and write locks returned by
+ * this lock have a null name.
+ */
+public class LocalToolkitReadWriteLock implements ToolkitReadWriteLock {
+
+  private final String           name;
+  private final LocalToolkitLock readLock;
+  private final LocalToolkitLock writeLock;
+
+  public LocalToolkitReadWriteLock(String name) {
+    this(name, new ReentrantReadWriteLock());
+  }
+
+  public LocalToolkitReadWriteLock(String name, ReentrantReadWriteLock lock) {
+    this.name = name;
+    this.readLock = new LocalToolkitLock(null, lock, ToolkitLockType.READ);
+    this.writeLock = new LocalToolkitLock(null, lock, ToolkitLockType.WRITE);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public ToolkitLock readLock() {
+    return readLock;
+  }
+
+  @Override
+  public ToolkitLock writeLock() {
+    return writeLock;
+  }
+
+  @Override
+  public String toString() {
+    return "LocalToolkitReadWriteLock [name=" + name + "]";
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.config;
+
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+/**
+ * Configuration fields of the stores and caches that only the local toolkit understands, in addition to
+ * {@link ToolkitConfigFields}. They are set through {@code configField(String, Serializable)} on the config builders.
+ */
+public interface LocalConfigFields {
+
+  /**
+   * Class name of the {@link org.terracotta.toolkit.local.copy.Copier} used when
+   * {@link ToolkitConfigFields#COPY_ON_READ_ENABLED_FIELD_NAME} is true. Empty means the
+   * {@link org.terracotta.toolkit.local.copy.DefaultCopier}
+   */
+  String COPIER_FIELD_NAME            = "copier";
+  String DEFAULT_COPIER               = "";
+
+  /**
+   * Comma separated names of the classes whose instances are never modified, which the
+   * {@link org.terracotta.toolkit.local.copy.DefaultCopier} does not copy
+   */
+  String IMMUTABLE_CLASSES_FIELD_NAME = "immutableClasses";
+  String DEFAULT_IMMUTABLE_CLASSES    = "";
+
+  /**
+   * Number of keys from which the bulk gets of a store look up their segments in parallel. 0 disables parallel lookups
+   */
+  String PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME = "parallelGetAllThreshold";
+  int    DEFAULT_PARALLEL_GET_ALL_THRESHOLD    = 1024;
+
+  /**
+   * Whether the operations of a store are counted and timed for the
+   * {@link org.terracotta.toolkit.feature.StatisticsFeature}
+   */
+  String  STATISTICS_ENABLED_FIELD_NAME = "statisticsEnabled";
+  boolean DEFAULT_STATISTICS_ENABLED    = true;
+
+  /**
+   * Number of keys the {@link org.terracotta.toolkit.local.store.MembershipFilter} of a store is sized for, which lets
+   * lookups of absent keys return without locking. 0, the default, gives the store no filter
+   */
+  String MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME = "membershipFilterCapacity";
+  int    DEFAULT_MEMBERSHIP_FILTER_CAPACITY    = 0;
+
+  /**
+   * Comma separated names of the search attributes whose postings are held in compressed bitmaps, which suits
+   * attributes with few distinct values such as enums and booleans
+   */
+  String BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME = "bitmapIndexedAttributes";
+  String DEFAULT_BITMAP_INDEXED_ATTRIBUTES    = "";
+
+  /**
+   * Comma separated names of the string search attributes whose values are also ordered ignoring case, so that
+   * {@code Matches} clauses whose expression starts with literal characters only look at the values starting with them
+   */
+  String PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME = "prefixIndexedAttributes";
+  String DEFAULT_PREFIX_INDEXED_ATTRIBUTES    = "";
+
+  /**
+   * Read-only, number of mappings held by a store pinned by
+   * {@link ToolkitConfigFields#PINNED_IN_LOCAL_MEMORY_FIELD_NAME}
+   */
+  String PINNED_LOCAL_COUNT_FIELD_NAME = "pinnedLocalCount";
+
+  /**
+   * Read-only, estimated size in bytes of the mappings held by a store pinned by
+   * {@link ToolkitConfigFields#PINNED_IN_LOCAL_MEMORY_FIELD_NAME}
+   */
+  String PINNED_LOCAL_BYTES_FIELD_NAME = "pinnedLocalBytes";
+}
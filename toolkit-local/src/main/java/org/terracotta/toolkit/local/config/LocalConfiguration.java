@@ -0,0 +1,343 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.config;
+
+import org.terracotta.toolkit.config.AbstractConfiguration;
+import org.terracotta.toolkit.config.Configuration;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitConfigFields.Consistency;
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+import org.terracotta.toolkit.store.ToolkitConfigFields.ListenerQueueFullPolicy;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The effective configuration of a local store or cache: the defaults from {@link ToolkitConfigFields} overlaid with
+ * the mappings the user passed in. Values are validated when they are set.
+ * <p>
+ * A store can also report its state through read-only fields backed by a {@link Gauge}. Such fields cannot be set, and
+ * are ignored when a configuration is overlaid with or compared to another one.
+ */
+public class LocalConfiguration extends AbstractConfiguration {
+
+  /**
+   * Computes the value of a read-only field each time it is read
+   */
+  public interface Gauge {
+    Serializable get();
+  }
+
+  private final ConcurrentHashMap<String, Serializable> map    = new ConcurrentHashMap<String, Serializable>();
+  private final ConcurrentHashMap<String, Gauge>        gauges = new ConcurrentHashMap<String, Gauge>();
+
+  private LocalConfiguration() {
+    //
+  }
+
+  /**
+   * Returns the effective configuration of a {@code ToolkitStore} created with {@code requested}, which can be null
+   */
+  public static LocalConfiguration forStore(Configuration requested) {
+    LocalConfiguration config = new LocalConfiguration();
+    config.internalSetConfigMapping(ToolkitConfigFields.CONCURRENCY_FIELD_NAME, ToolkitConfigFields.DEFAULT_CONCURRENCY);
+    config.internalSetConfigMapping(ToolkitConfigFields.CONSISTENCY_FIELD_NAME, ToolkitConfigFields.DEFAULT_CONSISTENCY);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_COUNT_LOCAL_HEAP_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_COUNT_LOCAL_HEAP);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_BYTES_LOCAL_HEAP);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_BYTES_LOCAL_OFFHEAP);
+    config.internalSetConfigMapping(ToolkitConfigFields.OFFHEAP_ENABLED_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_OFFHEAP_ENABLED);
+    config.internalSetConfigMapping(ToolkitConfigFields.LOCAL_CACHE_ENABLED_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_LOCAL_CACHE_ENABLED);
+    config.internalSetConfigMapping(ToolkitConfigFields.COMPRESSION_ENABLED_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_COMPRESSION_ENABLED);
+    config.internalSetConfigMapping(ToolkitConfigFields.COMPRESSION_CODEC_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_COMPRESSION_CODEC);
+    config.internalSetConfigMapping(ToolkitConfigFields.COMPRESSION_MIN_SIZE_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_COMPRESSION_MIN_SIZE);
+    config.internalSetConfigMapping(ToolkitConfigFields.COMPRESSION_DICTIONARY_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_COMPRESSION_DICTIONARY);
+    config.internalSetConfigMapping(ToolkitConfigFields.COPY_ON_READ_ENABLED_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_COPY_ON_READ_ENABLED);
+    config.internalSetConfigMapping(LocalConfigFields.COPIER_FIELD_NAME, LocalConfigFields.DEFAULT_COPIER);
+    config.internalSetConfigMapping(LocalConfigFields.IMMUTABLE_CLASSES_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_IMMUTABLE_CLASSES);
+    config.internalSetConfigMapping(LocalConfigFields.PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_PARALLEL_GET_ALL_THRESHOLD);
+    config.internalSetConfigMapping(LocalConfigFields.STATISTICS_ENABLED_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_STATISTICS_ENABLED);
+    config.internalSetConfigMapping(LocalConfigFields.MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_MEMBERSHIP_FILTER_CAPACITY);
+    config.internalSetConfigMapping(LocalConfigFields.BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_BITMAP_INDEXED_ATTRIBUTES);
+    config.internalSetConfigMapping(LocalConfigFields.PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME,
+                                    LocalConfigFields.DEFAULT_PREFIX_INDEXED_ATTRIBUTES);
+    config.internalSetConfigMapping(ToolkitConfigFields.PINNED_IN_LOCAL_MEMORY_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_PINNED_IN_LOCAL_MEMORY);
+    config.overlay(requested);
+    return config;
+  }
+
+  /**
+   * Returns the effective configuration of a {@code ToolkitCache} created with {@code requested}, which can be null
+   */
+  public static LocalConfiguration forCache(Configuration requested) {
+    LocalConfiguration config = forStore(null);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_TTI_SECONDS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_TTI_SECONDS);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_TTL_SECONDS);
+    config.internalSetConfigMapping(ToolkitConfigFields.MAX_TOTAL_COUNT_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_MAX_TOTAL_COUNT);
+    config.internalSetConfigMapping(ToolkitConfigFields.EVICTION_ENABLED_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_EVICTION_ENABLED);
+    config.internalSetConfigMapping(ToolkitConfigFields.EVICTION_POLICY_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_EVICTION_POLICY);
+    config.internalSetConfigMapping(ToolkitConfigFields.LISTENER_BATCH_SIZE_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_LISTENER_BATCH_SIZE);
+    config.internalSetConfigMapping(ToolkitConfigFields.LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_LISTENER_BATCH_MAX_DELAY_MILLIS);
+    config.internalSetConfigMapping(ToolkitConfigFields.LISTENER_QUEUE_CAPACITY_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_LISTENER_QUEUE_CAPACITY);
+    config.internalSetConfigMapping(ToolkitConfigFields.LISTENER_QUEUE_FULL_POLICY_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_LISTENER_QUEUE_FULL_POLICY);
+    config.internalSetConfigMapping(ToolkitConfigFields.WRITE_BEHIND_WRITER_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_WRITE_BEHIND_WRITER);
+    config.internalSetConfigMapping(ToolkitConfigFields.WRITE_BEHIND_BATCH_SIZE_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_WRITE_BEHIND_BATCH_SIZE);
+    config.internalSetConfigMapping(ToolkitConfigFields.WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_WRITE_BEHIND_INTERVAL_MILLIS);
+    config.internalSetConfigMapping(ToolkitConfigFields.WRITE_BEHIND_MAX_RETRIES_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_WRITE_BEHIND_MAX_RETRIES);
+    config.internalSetConfigMapping(ToolkitConfigFields.WRITE_BEHIND_RETRY_DELAY_MILLIS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_WRITE_BEHIND_RETRY_DELAY_MILLIS);
+    config.internalSetConfigMapping(ToolkitConfigFields.REFRESH_AHEAD_PERCENT_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_REFRESH_AHEAD_PERCENT);
+    config.internalSetConfigMapping(ToolkitConfigFields.REFRESH_AHEAD_THREADS_FIELD_NAME,
+                                    ToolkitConfigFields.DEFAULT_REFRESH_AHEAD_THREADS);
+    config.overlay(requested);
+    return config;
+  }
+
+  private void overlay(Configuration requested) {
+    if (requested == null) { return; }
+    for (String name : requested.getKeys()) {
+      Serializable value = requested.getObjectOrNull(name);
+      if (value != null && !isReadOnly(name)) {
+        validate(name, value);
+        internalSetConfigMapping(name, value);
+      }
+    }
+    if (getBoolean(ToolkitConfigFields.OFFHEAP_ENABLED_FIELD_NAME)
+        && getBytes(ToolkitConfigFields.MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME) <= 0) {
+      //
+      throw new IllegalArgumentException(ToolkitConfigFields.MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME
+                                         + " should be set when " + ToolkitConfigFields.OFFHEAP_ENABLED_FIELD_NAME
+                                         + " is true");
+    }
+  }
+
+  /**
+   * Checks that every mapping in {@code requested} agrees with this configuration, as required when an already
+   * existing store or cache is looked up again.
+   *
+   * @throws IllegalArgumentException on the first mismatching mapping
+   */
+  public void checkCompatible(Configuration requested) throws IllegalArgumentException {
+    if (requested == null) { return; }
+    for (String name : requested.getKeys()) {
+      Serializable value = requested.getObjectOrNull(name);
+      if (value != null && !isReadOnly(name) && !sameValue(value, getObjectOrNull(name))) {
+        //
+        throw new IllegalArgumentException("Config mismatch for '" + name + "' - existing value: "
+                                           + getObjectOrNull(name) + ", requested value: " + value);
+      }
+    }
+  }
+
+  /**
+   * Changes a single mapping after validating it. Callers are responsible for checking the field is dynamic.
+   */
+  public void setField(String name, Serializable value) {
+    if (value == null) { throw new NullPointerException("Value cannot be null"); }
+    if (gauges.containsKey(name)) { throw new IllegalArgumentException("Config field '" + name + "' is read-only"); }
+    validate(name, value);
+    internalSetConfigMapping(name, value);
+  }
+
+  /**
+   * Gets a size in bytes, the mapping being either a number or a String like "1024", "1024m" or "1g"
+   */
+  public long getBytes(String name) {
+    Serializable value = getObjectOrNull(name);
+    if (value instanceof String) { return parseBytes(name, (String) value); }
+    return getLong(name);
+  }
+
+  /**
+   * Adds the read-only field {@code name}, whose value is read from {@code gauge}
+   */
+  public void addGauge(String name, Gauge gauge) {
+    gauges.put(name, gauge);
+  }
+
+  @Override
+  public Serializable getObjectOrNull(String name) {
+    Gauge gauge = gauges.get(name);
+    return gauge == null ? map.get(name) : gauge.get();
+  }
+
+  @Override
+  protected void internalSetConfigMapping(String name, Serializable value) {
+    map.put(name, value);
+  }
+
+  @Override
+  public Set<String> getKeys() {
+    if (gauges.isEmpty()) { return Collections.unmodifiableSet(map.keySet()); }
+    Set<String> keys = new HashSet<String>(map.keySet());
+    keys.addAll(gauges.keySet());
+    return Collections.unmodifiableSet(keys);
+  }
+
+  @Override
+  public String toString() {
+    return "LocalConfiguration [" + map + "]";
+  }
+
+  private static boolean isReadOnly(String name) {
+    return LocalConfigFields.PINNED_LOCAL_COUNT_FIELD_NAME.equals(name)
+           || LocalConfigFields.PINNED_LOCAL_BYTES_FIELD_NAME.equals(name);
+  }
+
+  private static boolean sameValue(Serializable requested, Serializable existing) {
+    if (existing == null) { return false; }
+    if (requested instanceof Number && existing instanceof Number) { return ((Number) requested).longValue() == ((Number) existing)
+        .longValue(); }
+    return requested.equals(existing);
+  }
+
+  private static void validate(String name, Serializable value) {
+    if (ToolkitConfigFields.CONCURRENCY_FIELD_NAME.equals(name)) {
+      if (!(value instanceof Integer) || (Integer) value <= 0) { throw new IllegalArgumentException(
+                                                                                                    "concurrency should be a positive integer, value: "
+                                                                                                        + value); }
+    } else if (ToolkitConfigFields.CONSISTENCY_FIELD_NAME.equals(name)) {
+      try {
+        Consistency.valueOf(String.valueOf(value));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid consistency: " + value, e);
+      }
+    } else if (ToolkitConfigFields.EVICTION_POLICY_FIELD_NAME.equals(name)) {
+      try {
+        EvictionPolicy.valueOf(String.valueOf(value));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid eviction policy: " + value, e);
+      }
+    } else if (ToolkitConfigFields.LISTENER_QUEUE_FULL_POLICY_FIELD_NAME.equals(name)) {
+      try {
+        ListenerQueueFullPolicy.valueOf(String.valueOf(value));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid listener queue full policy: " + value, e);
+      }
+    } else if (ToolkitConfigFields.LISTENER_BATCH_SIZE_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.LISTENER_QUEUE_CAPACITY_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.WRITE_BEHIND_BATCH_SIZE_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.REFRESH_AHEAD_THREADS_FIELD_NAME.equals(name)) {
+      if (toLong(name, value) <= 0) { throw new IllegalArgumentException("'" + name + "' should be positive, value: "
+                                                                         + value); }
+    } else if (ToolkitConfigFields.REFRESH_AHEAD_PERCENT_FIELD_NAME.equals(name)) {
+      long percent = toLong(name, value);
+      if (percent < 0 || percent >= 100) { throw new IllegalArgumentException("'" + name
+                                                                             + "' should be between 0 and 99, value: "
+                                                                             + value); }
+    } else if (ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME.equals(name)) {
+      long bytes = value instanceof String ? parseBytes(name, (String) value) : toLong(name, value);
+      checkNotNegative(name, bytes);
+    } else if (ToolkitConfigFields.MAX_COUNT_LOCAL_HEAP_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.MAX_TTI_SECONDS_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.COMPRESSION_MIN_SIZE_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME.equals(name)
+               || LocalConfigFields.PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME.equals(name)
+               || LocalConfigFields.MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.WRITE_BEHIND_MAX_RETRIES_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.WRITE_BEHIND_RETRY_DELAY_MILLIS_FIELD_NAME.equals(name)) {
+      checkNotNegative(name, toLong(name, value));
+    } else if (ToolkitConfigFields.MAX_TOTAL_COUNT_FIELD_NAME.equals(name)) {
+      toLong(name, value);
+    } else if (ToolkitConfigFields.COMPRESSION_CODEC_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.COMPRESSION_DICTIONARY_FIELD_NAME.equals(name)
+               || ToolkitConfigFields.WRITE_BEHIND_WRITER_FIELD_NAME.equals(name)
+               || LocalConfigFields.COPIER_FIELD_NAME.equals(name)
+               || LocalConfigFields.IMMUTABLE_CLASSES_FIELD_NAME.equals(name)
+               || LocalConfigFields.BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME.equals(name)
+               || LocalConfigFields.PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME.equals(name)) {
+      if (!(value instanceof String)) { throw new IllegalArgumentException("Expecting a String for '" + name
+                                                                           + "', value: " + value); }
+    }
+  }
+
+  private static long toLong(String name, Serializable value) {
+    if (!(value instanceof Integer || value instanceof Long)) { throw new IllegalArgumentException(
+                                                                                                   "Expecting a numeric value for '"
+                                                                                                       + name
+                                                                                                       + "', value: "
+                                                                                                       + value); }
+    return ((Number) value).longValue();
+  }
+
+  private static void checkNotNegative(String name, long value) {
+    if (value < 0) { throw new IllegalArgumentException("'" + name + "' cannot be negative, value: " + value); }
+  }
+
+  private static long parseBytes(String name, String value) {
+    String trimmed = value.trim().toLowerCase();
+    if (trimmed.length() == 0) { throw new IllegalArgumentException("Invalid size for '" + name + "': " + value); }
+    long multiplier = 1;
+    switch (trimmed.charAt(trimmed.length() - 1)) {
+      case 'k':
+        multiplier = 1L << 10;
+        break;
+      case 'm':
+        multiplier = 1L << 20;
+        break;
+      case 'g':
+        multiplier = 1L << 30;
+        break;
+      case 't':
+        multiplier = 1L << 40;
+        break;
+      default:
+        break;
+    }
+    String digits = multiplier == 1 ? trimmed : trimmed.substring(0, trimmed.length() - 1);
+    try {
+      return Long.parseLong(digits) * multiplier;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid size for '" + name + "': " + value, e);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies plain beans field by field through method handles generated, once per class, for their no-arg constructor
+ * and their fields. Fields of immutable types are copied by reference, other reference fields are copied with the
+ * {@link DefaultCopier}, which preserves the sharing and the cycles among beans.
+ */
+final class BeanCopier implements ClassCopier {
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+  private static final MethodType GETTER_TYPE      = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE      = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final MethodHandle      constructor;
+  private final MethodHandle[]    getters;
+  private final MethodHandle[]    setters;
+  // whether each field needs a copy of its value
+  private final boolean[]         deep;
+  private final boolean           hasDeepFields;
+
+  private BeanCopier(MethodHandle constructor, MethodHandle[] getters, MethodHandle[] setters, boolean[] deep) {
+    this.constructor = constructor;
+    this.getters = getters;
+    this.setters = setters;
+    this.deep = deep;
+    boolean any = false;
+    for (boolean d : deep) {
+      any |= d;
+    }
+    this.hasDeepFields = any;
+  }
+
+  /**
+   * Returns a copier for {@code clazz}, or null if it is not a plain bean: it must have a no-arg constructor, no final
+   * instance fields and no custom serialization methods, and all its fields must be accessible.
+   */
+  static BeanCopier forClass(Class<?> clazz, DefaultCopier copier) {
+    if (clazz.isArray() || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) { return null; }
+    try {
+      Constructor<?> ctor = clazz.getDeclaredConstructor();
+      ctor.setAccessible(true);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      List<MethodHandle> getters = new ArrayList<MethodHandle>();
+      List<MethodHandle> setters = new ArrayList<MethodHandle>();
+      List<Boolean> deep = new ArrayList<Boolean>();
+      for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+        if (hasCustomSerialization(c)) { return null; }
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers)) {
+            continue;
+          }
+          if (Modifier.isFinal(modifiers)) { return null; }
+          field.setAccessible(true);
+          getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+          setters.add(lookup.unreflectSetter(field).asType(SETTER_TYPE));
+          deep.add(!copier.isImmutableType(field.getType()));
+        }
+      }
+      boolean[] deepFields = new boolean[deep.size()];
+      for (int i = 0; i < deepFields.length; i++) {
+        deepFields[i] = deep.get(i);
+      }
+      return new BeanCopier(lookup.unreflectConstructor(ctor).asType(CONSTRUCTOR_TYPE),
+                            getters.toArray(new MethodHandle[getters.size()]),
+                            setters.toArray(new MethodHandle[setters.size()]), deepFields);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (IllegalAccessException e) {
+      return null;
+    } catch (RuntimeException e) {
+      // the class or one of its fields cannot be made accessible
+      return null;
+    }
+  }
+
+  @Override
+  public Object copy(Object value, DefaultCopier copier, Map<Object, Object> copies) {
+    try {
+      if (hasDeepFields) {
+        if (copies == null) {
+          copies = new IdentityHashMap<Object, Object>();
+        } else {
+          Object existing = copies.get(value);
+          if (existing != null) { return existing; }
+        }
+      }
+      Object copy = (Object) constructor.invokeExact();
+      if (hasDeepFields) {
+        copies.put(value, copy);
+      }
+      for (int i = 0; i < getters.length; i++) {
+        Object field = (Object) getters[i].invokeExact(value);
+        if (deep[i] && field != null) {
+          field = copier.copy(field, copies);
+        }
+        setters[i].invokeExact(copy, field);
+      }
+      return copy;
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Cannot copy " + value.getClass().getName(), t);
+    }
+  }
+
+  private static boolean hasCustomSerialization(Class<?> c) {
+    return hasMethod(c, "writeObject", java.io.ObjectOutputStream.class)
+           || hasMethod(c, "readObject", java.io.ObjectInputStream.class) || hasMethod(c, "writeReplace")
+           || hasMethod(c, "readResolve");
+  }
+
+  private static boolean hasMethod(Class<?> c, String name, Class<?>... parameterTypes) {
+    try {
+      c.getDeclaredMethod(name, parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+}
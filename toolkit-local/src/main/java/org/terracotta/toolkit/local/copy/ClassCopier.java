@@ -0,0 +1,30 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+import java.util.Map;
+
+/**
+ * Copies the instances of a single class
+ */
+interface ClassCopier {
+
+  /**
+   * @param copies the copies already made during the current copy, by original, or null if none were recorded
+   */
+  Object copy(Object value, DefaultCopier copier, Map<Object, Object> copies);
+}
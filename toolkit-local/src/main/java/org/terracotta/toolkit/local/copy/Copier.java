@@ -0,0 +1,35 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+/**
+ * Copies the values read from the stores and caches created with
+ * {@link org.terracotta.toolkit.store.ToolkitConfigFields#COPY_ON_READ_ENABLED_FIELD_NAME}, so that callers cannot
+ * modify the stored values through the objects they get. A store uses a {@link DefaultCopier} unless the class name of
+ * another implementation, with a public no-arg constructor, is given in its
+ * {@link org.terracotta.toolkit.local.config.LocalConfigFields#COPIER_FIELD_NAME} config field.
+ * <p>
+ * Implementations must be thread safe.
+ */
+public interface Copier {
+
+  /**
+   * Returns an object equal to {@code value} that shares no mutable state with it, which can be {@code value} itself
+   * if it is immutable
+   */
+  Object copy(Object value);
+}
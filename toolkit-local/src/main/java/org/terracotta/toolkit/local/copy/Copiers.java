@@ -0,0 +1,64 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the {@link Copier} of a store from its configuration
+ */
+public final class Copiers {
+
+  private Copiers() {
+    //
+  }
+
+  /**
+   * Returns the copier configured by {@code config}, or null if copy on read is not enabled
+   *
+   * @throws IllegalArgumentException if the copier cannot be created
+   */
+  public static Copier forConfig(LocalConfiguration config) {
+    if (!config.getBoolean(ToolkitConfigFields.COPY_ON_READ_ENABLED_FIELD_NAME)) { return null; }
+    String className = config.getString(LocalConfigFields.COPIER_FIELD_NAME);
+    if (className.length() > 0) { return createCopier(className); }
+    List<String> immutableClassNames = new ArrayList<String>();
+    for (String name : config.getString(LocalConfigFields.IMMUTABLE_CLASSES_FIELD_NAME).split(",")) {
+      if (name.trim().length() > 0) {
+        immutableClassNames.add(name.trim());
+      }
+    }
+    return new DefaultCopier(immutableClassNames);
+  }
+
+  private static Copier createCopier(String className) {
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      if (loader == null) {
+        loader = Copiers.class.getClassLoader();
+      }
+      return Class.forName(className, true, loader).asSubclass(Copier.class).newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot create the copier '" + className + "'", e);
+    }
+  }
+}
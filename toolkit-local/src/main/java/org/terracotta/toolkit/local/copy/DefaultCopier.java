@@ -0,0 +1,165 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+import org.terracotta.toolkit.local.object.SerializationUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default {@link Copier}, which picks a strategy once per class:
+ * <ul>
+ * <li>immutable instances are returned as is: strings, boxed primitives and a few other JDK value types, enums,
+ * classes annotated with {@link Immutable} or declared immutable by name, and classes whose instance fields are all
+ * final and of immutable types;</li>
+ * <li>primitive arrays are cloned;</li>
+ * <li>plain beans, with a no-arg constructor and non-final fields, are copied field by field;</li>
+ * <li>anything else is serialized and deserialized.</li>
+ * </ul>
+ */
+public class DefaultCopier implements Copier {
+
+  private static final Set<Class<?>> KNOWN_IMMUTABLE_TYPES = new HashSet<Class<?>>(
+      Arrays.<Class<?>> asList(String.class, Boolean.class, Character.class, Byte.class, Short.class,
+                               Integer.class, Long.class, Float.class, Double.class, BigInteger.class,
+                               BigDecimal.class, UUID.class, Locale.class, Class.class));
+
+  private static final ClassCopier   IDENTITY              = new ClassCopier() {
+                                                             @Override
+                                                             public Object copy(Object value, DefaultCopier copier,
+                                                                                Map<Object, Object> copies) {
+                                                               return value;
+                                                             }
+                                                           };
+
+  private static final ClassCopier   CLONE_ARRAY           = new ClassCopier() {
+                                                             @Override
+                                                             public Object copy(Object value, DefaultCopier copier,
+                                                                                Map<Object, Object> copies) {
+                                                               int length = java.lang.reflect.Array.getLength(value);
+                                                               Object copy = java.lang.reflect.Array
+                                                                   .newInstance(value.getClass().getComponentType(),
+                                                                                length);
+                                                               System.arraycopy(value, 0, copy, 0, length);
+                                                               return copy;
+                                                             }
+                                                           };
+
+  private static final ClassCopier   SERIALIZATION         = new ClassCopier() {
+                                                             @Override
+                                                             public Object copy(Object value, DefaultCopier copier,
+                                                                                Map<Object, Object> copies) {
+                                                               byte[] bytes = SerializationUtil.serialize(value);
+                                                               return SerializationUtil.deserialize(bytes, 0,
+                                                                                                    bytes.length);
+                                                             }
+                                                           };
+
+  private final Set<String>                        immutableClassNames;
+  private final ConcurrentMap<Class<?>, ClassCopier> copiers  = new ConcurrentHashMap<Class<?>, ClassCopier>();
+  private final ConcurrentMap<Class<?>, Boolean>     immutable = new ConcurrentHashMap<Class<?>, Boolean>();
+
+  public DefaultCopier() {
+    this(Collections.<String> emptySet());
+  }
+
+  /**
+   * @param immutableClassNames names of classes whose instances are never modified
+   */
+  public DefaultCopier(Collection<String> immutableClassNames) {
+    this.immutableClassNames = new HashSet<String>(immutableClassNames);
+  }
+
+  @Override
+  public Object copy(Object value) {
+    return copy(value, null);
+  }
+
+  Object copy(Object value, Map<Object, Object> copies) {
+    if (value == null) { return null; }
+    Class<?> clazz = value.getClass();
+    ClassCopier copier = copiers.get(clazz);
+    if (copier == null) {
+      copier = copierFor(clazz);
+      copiers.putIfAbsent(clazz, copier);
+    }
+    return copier.copy(value, this, copies);
+  }
+
+  private ClassCopier copierFor(Class<?> clazz) {
+    if (clazz.isArray()) { return clazz.getComponentType().isPrimitive() ? CLONE_ARRAY : SERIALIZATION; }
+    if (isImmutable(clazz)) { return IDENTITY; }
+    BeanCopier bean = BeanCopier.forClass(clazz, this);
+    return bean != null ? bean : SERIALIZATION;
+  }
+
+  /**
+   * Returns true if every object assignable to a field of type {@code type} is immutable
+   */
+  boolean isImmutableType(Class<?> type) {
+    if (type.isPrimitive()) { return true; }
+    return (Modifier.isFinal(type.getModifiers()) || type.isEnum()) && isImmutable(type);
+  }
+
+  /**
+   * Returns true if the instances of {@code clazz} are immutable
+   */
+  boolean isImmutable(Class<?> clazz) {
+    Boolean cached = immutable.get(clazz);
+    if (cached == null) {
+      cached = isImmutable(clazz, new HashSet<Class<?>>());
+      immutable.putIfAbsent(clazz, cached);
+    }
+    return cached;
+  }
+
+  private boolean isImmutable(Class<?> clazz, Set<Class<?>> visiting) {
+    if (clazz.isArray()) { return false; }
+    if (KNOWN_IMMUTABLE_TYPES.contains(clazz) || Enum.class.isAssignableFrom(clazz)
+        || clazz.isAnnotationPresent(Immutable.class) || immutableClassNames.contains(clazz.getName())) { return true; }
+    if (clazz.isInterface() || !visiting.add(clazz)) {
+      // a class referencing itself is immutable if its other fields are
+      return !clazz.isInterface();
+    }
+    for (Class<?> c = clazz; c != Object.class && c != null; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers)) {
+          continue;
+        }
+        if (!Modifier.isFinal(modifiers)) { return false; }
+        Class<?> type = field.getType();
+        if (!type.isPrimitive()
+            && !((Modifier.isFinal(type.getModifiers()) || type.isEnum()) && isImmutable(type, visiting))) { return false; }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.events;
+
+import org.terracotta.toolkit.cluster.ClusterNode;
+import org.terracotta.toolkit.events.ToolkitNotificationEvent;
+import org.terracotta.toolkit.events.ToolkitNotificationListener;
+import org.terracotta.toolkit.events.ToolkitNotifier;
+import org.terracotta.toolkit.local.object.AbstractLocalToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link ToolkitNotifier} that delivers messages to its listeners synchronously, in the caller thread.
+ */
+public class LocalToolkitNotifier<T> extends AbstractLocalToolkitObject implements ToolkitNotifier<T> {
+
+  private final List<ToolkitNotificationListener<T>> listeners = new CopyOnWriteArrayList<ToolkitNotificationListener<T>>();
+  private final ClusterNode                          node;
+
+  public LocalToolkitNotifier(String name, ClusterNode node, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    this.node = node;
+  }
+
+  @Override
+  public void addNotificationListener(ToolkitNotificationListener<T> listener) {
+    checkDestroyed();
+    if (listener == null) { throw new NullPointerException("listener cannot be null"); }
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeNotificationListener(ToolkitNotificationListener<T> listener) {
+    checkDestroyed();
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void notifyListeners(T msg) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(msg);
+    ToolkitNotificationEvent<T> event = new LocalNotificationEvent<T>(msg, node);
+    for (ToolkitNotificationListener<T> listener : listeners) {
+      listener.onNotification(event);
+    }
+  }
+
+  @Override
+  public List<ToolkitNotificationListener<T>> getNotificationListeners() {
+    checkDestroyed();
+    return new ArrayList<ToolkitNotificationListener<T>>(listeners);
+  }
+
+  @Override
+  protected void doDestroy() {
+    listeners.clear();
+  }
+
+  private static class LocalNotificationEvent<T> implements ToolkitNotificationEvent<T> {
+    private final T           message;
+    private final ClusterNode node;
+
+    LocalNotificationEvent(T message, ClusterNode node) {
+      this.message = message;
+      this.node = node;
+    }
+
+    @Override
+    public T getMessage() {
+      return message;
+    }
+
+    @Override
+    public ClusterNode getRemoteNode() {
+      return node;
+    }
+  }
+}
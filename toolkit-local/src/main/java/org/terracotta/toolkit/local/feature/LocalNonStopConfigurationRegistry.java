@@ -0,0 +1,148 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.feature;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.nonstop.NonStopConfiguration;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationFields;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the NonStop configurations registered with a local toolkit. {@link #resolve(String, String, ToolkitObjectType)}
+ * picks the most specific one that applies to an operation.
+ */
+public class LocalNonStopConfigurationRegistry implements NonStopConfigurationRegistry {
+
+  private final ConcurrentMap<ToolkitObjectType, NonStopConfiguration> forType           = new ConcurrentHashMap<ToolkitObjectType, NonStopConfiguration>();
+  private final ConcurrentMap<String, NonStopConfiguration>            forInstance       = new ConcurrentHashMap<String, NonStopConfiguration>();
+  private final ConcurrentMap<String, NonStopConfiguration>            forTypeMethod     = new ConcurrentHashMap<String, NonStopConfiguration>();
+  private final ConcurrentMap<String, NonStopConfiguration>            forInstanceMethod = new ConcurrentHashMap<String, NonStopConfiguration>();
+  private final ConcurrentMap<String, Long>                            searchTimeouts    = new ConcurrentHashMap<String, Long>();
+
+  /**
+   * Returns the configuration that applies to {@code methodName} on the object {@code instanceName} of type
+   * {@code type}, from the most to the least specific registration, or null if there is none
+   */
+  public NonStopConfiguration resolve(String methodName, String instanceName, ToolkitObjectType type) {
+    NonStopConfiguration config = forInstanceMethod.get(key(type, instanceName, methodName));
+    if (config == null) {
+      config = forInstance.get(key(type, instanceName));
+    }
+    if (config == null) {
+      config = forTypeMethod.get(key(type, methodName));
+    }
+    if (config == null) {
+      config = forType.get(type);
+    }
+    return config;
+  }
+
+  @Override
+  public void registerForType(NonStopConfiguration config, ToolkitObjectType... types) {
+    for (ToolkitObjectType type : types) {
+      forType.put(type, config);
+    }
+  }
+
+  @Override
+  public void registerForInstance(NonStopConfiguration config, String toolkitTypeName, ToolkitObjectType type) {
+    forInstance.put(key(type, toolkitTypeName), config);
+  }
+
+  @Override
+  public void registerForTypeMethod(NonStopConfiguration config, String methodName, ToolkitObjectType type) {
+    forTypeMethod.put(key(type, methodName), config);
+  }
+
+  @Override
+  public void registerForInstanceMethod(NonStopConfiguration config, String methodName, String toolkitTypeName,
+                                        ToolkitObjectType type) {
+    forInstanceMethod.put(key(type, toolkitTypeName, methodName), config);
+  }
+
+  @Override
+  public void registerTimeoutForSearch(long timeout, String instanceName, ToolkitObjectType objectType) {
+    searchTimeouts.put(key(objectType, instanceName), timeout);
+  }
+
+  @Override
+  public NonStopConfiguration getConfigForType(ToolkitObjectType type) {
+    return forType.get(type);
+  }
+
+  @Override
+  public NonStopConfiguration getConfigForInstance(String toolkitTypeName, ToolkitObjectType type) {
+    return forInstance.get(key(type, toolkitTypeName));
+  }
+
+  @Override
+  public NonStopConfiguration getConfigForTypeMethod(String methodName, ToolkitObjectType type) {
+    return forTypeMethod.get(key(type, methodName));
+  }
+
+  @Override
+  public NonStopConfiguration getConfigForInstanceMethod(String methodName, String toolkitTypeName,
+                                                         ToolkitObjectType type) {
+    return forInstanceMethod.get(key(type, toolkitTypeName, methodName));
+  }
+
+  @Override
+  public long getTimeoutForSearch(String instanceName, ToolkitObjectType objectType) {
+    Long timeout = searchTimeouts.get(key(objectType, instanceName));
+    if (timeout != null) { return timeout; }
+    NonStopConfiguration config = resolve(null, instanceName, objectType);
+    return config == null ? NonStopConfigurationFields.DEFAULT_SEARCH_TIMEOUT_MILLIS : config.getSearchTimeoutMillis();
+  }
+
+  @Override
+  public NonStopConfiguration deregisterForType(ToolkitObjectType type) {
+    return forType.remove(type);
+  }
+
+  @Override
+  public NonStopConfiguration deregisterForInstance(String toolkitTypeName, ToolkitObjectType type) {
+    return forInstance.remove(key(type, toolkitTypeName));
+  }
+
+  @Override
+  public NonStopConfiguration deregisterForTypeMethod(String methodName, ToolkitObjectType type) {
+    return forTypeMethod.remove(key(type, methodName));
+  }
+
+  @Override
+  public NonStopConfiguration deregisterForInstanceMethod(String methodName, String toolkitTypeName,
+                                                          ToolkitObjectType type) {
+    return forInstanceMethod.remove(key(type, toolkitTypeName, methodName));
+  }
+
+  @Override
+  public long deregisterTimeoutForSearch(String instanceName, ToolkitObjectType objectType) {
+    Long timeout = searchTimeouts.remove(key(objectType, instanceName));
+    return timeout == null ? -1 : timeout;
+  }
+
+  private static String key(ToolkitObjectType type, String... names) {
+    StringBuilder sb = new StringBuilder(type.name());
+    for (String name : names) {
+      sb.append('\u0000').append(name);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.feature;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.feature.NonStopFeature;
+import org.terracotta.toolkit.nonstop.NonStopConfiguration;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationRegistry;
+
+/**
+ * A local toolkit never loses its connection to a server, so blocking operations never time out. NonStop
+ * configurations only bound the time the asynchronous views of stores and caches wait for their operations: the
+ * configuration started by the calling thread with {@link #start(NonStopConfiguration)}, otherwise the most specific
+ * configuration registered with {@link #getNonStopConfigurationRegistry()}.
+ */
+public class LocalNonStopFeature implements NonStopFeature {
+
+  private final LocalNonStopConfigurationRegistry registry = new LocalNonStopConfigurationRegistry();
+  private final ThreadLocal<NonStopConfiguration> started  = new ThreadLocal<NonStopConfiguration>();
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public void start(NonStopConfiguration nonStopConfig) {
+    started.set(nonStopConfig);
+  }
+
+  @Override
+  public void finish() {
+    started.remove();
+  }
+
+  @Override
+  public boolean isTimedOut() {
+    return false;
+  }
+
+  @Override
+  public NonStopConfigurationRegistry getNonStopConfigurationRegistry() {
+    return registry;
+  }
+
+  /**
+   * Returns the configuration that applies to {@code methodName} on the object {@code instanceName} of type
+   * {@code type} in the calling thread, or null if none does
+   */
+  public NonStopConfiguration configFor(String methodName, String instanceName, ToolkitObjectType type) {
+    NonStopConfiguration config = started.get();
+    return config != null ? config : registry.resolve(methodName, instanceName, type);
+  }
+}
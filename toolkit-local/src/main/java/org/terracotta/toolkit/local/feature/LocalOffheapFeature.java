@@ -0,0 +1,87 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.feature;
+
+import org.terracotta.toolkit.feature.OffheapFeature;
+import org.terracotta.toolkit.local.offheap.OffheapMemory;
+
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Off-heap storage of the local toolkit: every store or cache created with off-heap enabled gets its own
+ * {@link OffheapMemory}, created by this feature, which sums their statistics.
+ */
+public class LocalOffheapFeature implements OffheapFeature {
+
+  private final CopyOnWriteArraySet<OffheapMemory> memories = new CopyOnWriteArraySet<OffheapMemory>();
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Creates the memory of a store, reported by this feature until it is {@link OffheapMemory#destroy() destroyed}
+   */
+  public OffheapMemory createMemory(String name, long maxBytes, int segmentCount) {
+    OffheapMemory memory = new OffheapMemory(this, name, maxBytes, segmentCount);
+    memories.add(memory);
+    return memory;
+  }
+
+  public void unregister(OffheapMemory memory) {
+    memories.remove(memory);
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    long allocated = 0;
+    for (OffheapMemory memory : memories) {
+      allocated += memory.getAllocatedBytes();
+    }
+    return allocated;
+  }
+
+  @Override
+  public long getOccupiedBytes() {
+    long occupied = 0;
+    for (OffheapMemory memory : memories) {
+      occupied += memory.getOccupiedBytes();
+    }
+    return occupied;
+  }
+
+  @Override
+  public double getFragmentation() {
+    long free = 0;
+    long largest = 0;
+    for (OffheapMemory memory : memories) {
+      free += memory.getFreeBytes();
+      largest = Math.max(largest, memory.getLargestFreeChunk());
+    }
+    return free == 0 ? 0 : 1 - (double) largest / free;
+  }
+
+  @Override
+  public long getLargestFreeChunk() {
+    long largest = 0;
+    for (OffheapMemory memory : memories) {
+      largest = Math.max(largest, memory.getLargestFreeChunk());
+    }
+    return largest;
+  }
+}
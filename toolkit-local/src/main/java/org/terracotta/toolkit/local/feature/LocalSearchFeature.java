@@ -0,0 +1,31 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.feature;
+
+import org.terracotta.toolkit.feature.SearchFeature;
+
+/**
+ * Stores and caches of the local toolkit are searched in process, against secondary indexes of the attributes of
+ * their entries, see {@link org.terracotta.toolkit.local.search.SearchIndex}.
+ */
+public class LocalSearchFeature implements SearchFeature {
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.feature;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.feature.StatisticsFeature;
+import org.terracotta.toolkit.feature.StatisticsSnapshot;
+import org.terracotta.toolkit.local.statistics.StoreStatistics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Statistics of the local toolkit: every store or cache created with
+ * {@link org.terracotta.toolkit.local.config.LocalConfigFields#STATISTICS_ENABLED_FIELD_NAME} set registers its
+ * {@link StoreStatistics} here until it is destroyed.
+ */
+public class LocalStatisticsFeature implements StatisticsFeature {
+
+  private final Map<ToolkitObjectType, ConcurrentMap<String, StoreStatistics>> statistics = new EnumMap<ToolkitObjectType, ConcurrentMap<String, StoreStatistics>>(
+                                                                                              ToolkitObjectType.class);
+
+  public LocalStatisticsFeature() {
+    for (ToolkitObjectType type : ToolkitObjectType.values()) {
+      statistics.put(type, new ConcurrentHashMap<String, StoreStatistics>());
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Creates the statistics of an object, reported by this feature until they are {@link #unregister unregistered}
+   */
+  public StoreStatistics register(ToolkitObjectType type, String name) {
+    StoreStatistics created = new StoreStatistics();
+    statistics.get(type).put(name, created);
+    return created;
+  }
+
+  public void unregister(ToolkitObjectType type, String name, StoreStatistics objectStatistics) {
+    statistics.get(type).remove(name, objectStatistics);
+  }
+
+  @Override
+  public Set<String> getObjectNames(ToolkitObjectType type) {
+    return Collections.unmodifiableSet(new HashSet<String>(statistics.get(type).keySet()));
+  }
+
+  @Override
+  public StatisticsSnapshot getStatistics(ToolkitObjectType type, String name) {
+    StoreStatistics objectStatistics = statistics.get(type).get(name);
+    return objectStatistics == null ? null : objectStatistics.snapshot();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.object;
+
+import org.terracotta.toolkit.object.Destroyable;
+import org.terracotta.toolkit.object.ToolkitObject;
+
+/**
+ * Base class for the destroyable objects handed out by the local toolkit. Once destroyed, the object unregisters itself
+ * from the {@link ToolkitObjectRegistry} it was created by so that the same name can be reused, and every subsequent
+ * operation other than {@link #getName()} throws {@code IllegalStateException}.
+ */
+public abstract class AbstractLocalToolkitObject implements ToolkitObject, Destroyable {
+
+  private final String                   name;
+  private final ToolkitObjectRegistry<?> registry;
+  private volatile boolean               destroyed;
+
+  protected AbstractLocalToolkitObject(String name, ToolkitObjectRegistry<?> registry) {
+    this.name = name;
+    this.registry = registry;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public boolean isDestroyed() {
+    return destroyed;
+  }
+
+  @Override
+  public void destroy() {
+    synchronized (this) {
+      if (destroyed) { return; }
+      destroyed = true;
+    }
+    try {
+      doDestroy();
+    } finally {
+      if (registry != null) {
+        registry.remove(name, this);
+      }
+    }
+  }
+
+  /**
+   * Releases the resources held by this object. Called at most once, after the object has been marked destroyed.
+   */
+  protected void doDestroy() {
+    //
+  }
+
+  /**
+   * Throws {@code IllegalStateException} if this object has already been destroyed
+   */
+  protected final void checkDestroyed() {
+    if (destroyed) { throw new IllegalStateException(getClass().getSimpleName() + " '" + name
+                                                     + "' has already been destroyed"); }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.object;
+
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitReadWriteLock;
+import org.terracotta.toolkit.object.ToolkitLockedObject;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Base class for the local {@link ToolkitLockedObject}s, which run their reads under the read lock and their mutations
+ * under the write lock of the {@link ToolkitReadWriteLock} they expose.
+ */
+public abstract class AbstractLockedToolkitObject extends AbstractLocalToolkitObject implements ToolkitLockedObject {
+
+  private final ReentrantReadWriteLock    lock = new ReentrantReadWriteLock();
+  private final LocalToolkitReadWriteLock toolkitLock;
+
+  protected AbstractLockedToolkitObject(String name, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    this.toolkitLock = new LocalToolkitReadWriteLock(null, lock);
+  }
+
+  @Override
+  public ToolkitReadWriteLock getReadWriteLock() {
+    return toolkitLock;
+  }
+
+  protected Lock readLock() {
+    return lock.readLock();
+  }
+
+  protected Lock writeLock() {
+    return lock.writeLock();
+  }
+}
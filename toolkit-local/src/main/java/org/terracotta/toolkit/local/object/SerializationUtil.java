@@ -0,0 +1,164 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.object;
+
+import org.terracotta.toolkit.local.compress.CompressedValue;
+import org.terracotta.toolkit.object.serialization.NotSerializableRuntimeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Serialization related checks and helpers shared by the local toolkit data structures.
+ * <p>
+ * {@link #serialize(Object)} writes a one byte tag followed by the object: strings, byte arrays and compressed values are
+ * written as is, anything else with Java serialization.
+ */
+public final class SerializationUtil {
+
+  private static final byte JAVA_SERIALIZATION = 0;
+  private static final byte STRING             = 1;
+  private static final byte BYTE_ARRAY         = 2;
+  private static final byte COMPRESSED         = 3;
+
+  private SerializationUtil() {
+    //
+  }
+
+  /**
+   * Throws {@link NotSerializableRuntimeException} if {@code object} is not {@link Serializable}, and
+   * {@code NullPointerException} if it is null.
+   */
+  public static void checkSerializable(Object object) {
+    if (object == null) { throw new NullPointerException(); }
+    if (!(object instanceof Serializable)) { throw new NotSerializableRuntimeException(object.getClass().getName()
+                                                                                       + " is not Serializable"); }
+  }
+
+  /**
+   * Returns the serialized form of {@code object}
+   *
+   * @throws NotSerializableRuntimeException if the object cannot be serialized
+   */
+  public static byte[] serialize(Object object) {
+    if (object instanceof String) {
+      String string = (String) object;
+      int length = string.length();
+      byte[] bytes = new byte[1 + length * 2];
+      bytes[0] = STRING;
+      for (int i = 0, j = 1; i < length; i++) {
+        char c = string.charAt(i);
+        bytes[j++] = (byte) (c >>> 8);
+        bytes[j++] = (byte) c;
+      }
+      return bytes;
+    }
+    if (object instanceof byte[]) {
+      byte[] array = (byte[]) object;
+      byte[] bytes = new byte[1 + array.length];
+      bytes[0] = BYTE_ARRAY;
+      System.arraycopy(array, 0, bytes, 1, array.length);
+      return bytes;
+    }
+    if (object instanceof CompressedValue) {
+      CompressedValue compressed = (CompressedValue) object;
+      byte[] data = compressed.getData();
+      byte[] bytes = new byte[5 + data.length];
+      bytes[0] = COMPRESSED;
+      int length = compressed.getOriginalLength();
+      bytes[1] = (byte) (length >>> 24);
+      bytes[2] = (byte) (length >>> 16);
+      bytes[3] = (byte) (length >>> 8);
+      bytes[4] = (byte) length;
+      System.arraycopy(data, 0, bytes, 5, data.length);
+      return bytes;
+    }
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(128);
+    bout.write(JAVA_SERIALIZATION);
+    try {
+      ObjectOutputStream out = new ObjectOutputStream(bout);
+      out.writeObject(object);
+      out.close();
+    } catch (IOException e) {
+      throw new NotSerializableRuntimeException("Cannot serialize " + object.getClass().getName(), e);
+    }
+    return bout.toByteArray();
+  }
+
+  /**
+   * Reads back an object written by {@link #serialize(Object)}
+   */
+  public static Object deserialize(byte[] bytes, int offset, int length) {
+    switch (bytes[offset]) {
+      case STRING: {
+        char[] chars = new char[(length - 1) / 2];
+        for (int i = 0, j = offset + 1; i < chars.length; i++, j += 2) {
+          chars[i] = (char) (((bytes[j] & 0xff) << 8) | (bytes[j + 1] & 0xff));
+        }
+        return new String(chars);
+      }
+      case BYTE_ARRAY:
+        return Arrays.copyOfRange(bytes, offset + 1, offset + length);
+      case COMPRESSED: {
+        int originalLength = (bytes[offset + 1] & 0xff) << 24 | (bytes[offset + 2] & 0xff) << 16
+                             | (bytes[offset + 3] & 0xff) << 8 | (bytes[offset + 4] & 0xff);
+        return new CompressedValue(Arrays.copyOfRange(bytes, offset + 5, offset + length), originalLength);
+      }
+      default:
+        try {
+          ObjectInputStream in = new ContextObjectInputStream(new ByteArrayInputStream(bytes, offset + 1, length - 1));
+          try {
+            return in.readObject();
+          } finally {
+            in.close();
+          }
+        } catch (IOException e) {
+          throw new NotSerializableRuntimeException("Cannot deserialize object", e);
+        } catch (ClassNotFoundException e) {
+          throw new NotSerializableRuntimeException("Cannot deserialize object", e);
+        }
+    }
+  }
+
+  /**
+   * Resolves classes with the thread context class loader when the default resolution fails
+   */
+  private static final class ContextObjectInputStream extends ObjectInputStream {
+
+    ContextObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      try {
+        return super.resolveClass(desc);
+      } catch (ClassNotFoundException e) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) { throw e; }
+        return Class.forName(desc.getName(), false, loader);
+      }
+    }
+  }
+}
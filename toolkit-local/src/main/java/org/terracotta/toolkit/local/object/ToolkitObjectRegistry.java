@@ -0,0 +1,81 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.object;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Name keyed registry of the objects of a single {@link org.terracotta.toolkit.ToolkitObjectType} created by a local
+ * toolkit. Lookups of existing objects are lock free, creation of a missing object is serialized so that an object is
+ * never created twice for the same name.
+ */
+public final class ToolkitObjectRegistry<T> {
+
+  /**
+   * Creates the object registered under a name that has no mapping yet
+   */
+  public interface Factory<T> {
+    T create(String name);
+  }
+
+  private final ConcurrentMap<String, T> objects = new ConcurrentHashMap<String, T>();
+
+  /**
+   * Returns the object registered for {@code name}, creating it with {@code factory} if there is none
+   */
+  public T getOrCreate(String name, Factory<T> factory) {
+    if (name == null) { throw new NullPointerException("name cannot be null"); }
+    T object = objects.get(name);
+    if (object != null) { return object; }
+    synchronized (this) {
+      object = objects.get(name);
+      if (object == null) {
+        object = factory.create(name);
+        objects.put(name, object);
+      }
+      return object;
+    }
+  }
+
+  /**
+   * Returns the object registered for {@code name} or null
+   */
+  public T get(String name) {
+    return objects.get(name);
+  }
+
+  /**
+   * Removes the mapping for {@code name} only if it is still mapped to {@code object}
+   */
+  public boolean remove(String name, Object object) {
+    return objects.remove(name, object);
+  }
+
+  /**
+   * Returns a snapshot of the registered objects
+   */
+  public Collection<T> values() {
+    return new ArrayList<T>(objects.values());
+  }
+
+  public void clear() {
+    objects.clear();
+  }
+}
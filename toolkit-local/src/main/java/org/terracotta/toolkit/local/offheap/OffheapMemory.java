@@ -0,0 +1,162 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.offheap;
+
+import org.terracotta.toolkit.local.feature.LocalOffheapFeature;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The direct memory budget of one off-heap store, shared by its segments. Pages and hash tables are allocated with
+ * {@link ByteBuffer#allocateDirect(int)} as long as the total stays under the configured maximum; the JVM must be
+ * started with a {@code -XX:MaxDirectMemorySize} large enough for all the off-heap stores.
+ * <p>
+ * Released buffers are given back to the budget right away, their memory being reclaimed by the JVM once they are
+ * garbage collected.
+ */
+public final class OffheapMemory {
+
+  private static final int                          MIN_PAGE_SIZE = 4 * 1024;
+  private static final int                          MAX_PAGE_SIZE = 8 * 1024 * 1024;
+
+  private final LocalOffheapFeature                 owner;
+  private final String                              name;
+  private final long                                maxBytes;
+  private final int                                 maxPageSize;
+  private final AtomicLong                          allocated     = new AtomicLong();
+  private final AtomicLong                          occupied      = new AtomicLong();
+  private final CopyOnWriteArrayList<PageAllocator> allocators    = new CopyOnWriteArrayList<PageAllocator>();
+  private volatile boolean                          evictionEnabled;
+
+  /**
+   * @param owner the feature reporting on this memory, can be null
+   * @param maxBytes the maximum number of bytes allocated
+   * @param segmentCount the number of segments sharing this memory, used to size their pages
+   */
+  public OffheapMemory(LocalOffheapFeature owner, String name, long maxBytes, int segmentCount) {
+    if (maxBytes <= 0) { throw new IllegalArgumentException("maxBytes should be positive: " + maxBytes); }
+    this.owner = owner;
+    this.name = name;
+    this.maxBytes = maxBytes;
+    long share = maxBytes / Math.max(1, segmentCount) / 4;
+    this.maxPageSize = (int) Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, Long.highestOneBit(Math.max(1, share))));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Whether segments evict entries when they run out of memory. If not, storing an entry fails instead.
+   */
+  public boolean isEvictionEnabled() {
+    return evictionEnabled;
+  }
+
+  public void setEvictionEnabled(boolean evictionEnabled) {
+    this.evictionEnabled = evictionEnabled;
+  }
+
+  /**
+   * Allocates a direct buffer of {@code size} bytes, or returns null if that would exceed the budget
+   */
+  ByteBuffer allocate(int size) {
+    long current;
+    do {
+      current = allocated.get();
+      if (current + size > maxBytes) { return null; }
+    } while (!allocated.compareAndSet(current, current + size));
+    try {
+      return ByteBuffer.allocateDirect(size);
+    } catch (OutOfMemoryError e) {
+      allocated.addAndGet(-size);
+      return null;
+    }
+  }
+
+  /**
+   * Gives the capacity of {@code buffer}, which must not be used anymore, back to the budget
+   */
+  void release(ByteBuffer buffer) {
+    allocated.addAndGet(-buffer.capacity());
+  }
+
+  void occupied(long delta) {
+    occupied.addAndGet(delta);
+  }
+
+  int minPageSize() {
+    return MIN_PAGE_SIZE;
+  }
+
+  int maxPageSize() {
+    return maxPageSize;
+  }
+
+  void register(PageAllocator allocator) {
+    allocators.add(allocator);
+  }
+
+  public long getAllocatedBytes() {
+    return allocated.get();
+  }
+
+  public long getOccupiedBytes() {
+    return occupied.get();
+  }
+
+  /**
+   * Returns the number of free bytes in the allocated pages
+   */
+  public long getFreeBytes() {
+    long free = 0;
+    for (PageAllocator allocator : allocators) {
+      free += allocator.freeBytes();
+    }
+    return free;
+  }
+
+  public long getLargestFreeChunk() {
+    long largest = 0;
+    for (PageAllocator allocator : allocators) {
+      largest = Math.max(largest, allocator.largestFreeChunk());
+    }
+    return largest;
+  }
+
+  /**
+   * Stops reporting this memory through the offheap feature. The segments must have been cleared beforehand.
+   */
+  public void destroy() {
+    allocators.clear();
+    if (owner != null) {
+      owner.unregister(this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "OffheapMemory [name=" + name + ", maxBytes=" + maxBytes + ", allocated=" + allocated + ", occupied="
+           + occupied + "]";
+  }
+}
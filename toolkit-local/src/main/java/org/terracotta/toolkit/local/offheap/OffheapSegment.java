@@ -0,0 +1,489 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.offheap;
+
+import org.terracotta.toolkit.ToolkitRuntimeException;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.store.HashEntry;
+import org.terracotta.toolkit.local.store.Segment;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link Segment} keeping its entries serialized in direct memory. Records are allocated by a {@link PageAllocator}
+ * and indexed by an open addressing hash table, itself in direct memory, so that no Java object is retained per entry.
+ * Lookups serialize the key they look for and compare it to the key bytes of the records of the same hash, only
+ * deserializing a stored key whose bytes differ, for keys whose equal instances may serialize differently. The entries
+ * handed out are copies of the records, holding the key that was looked up.
+ * <p>
+ * Record layout: chunk size (int), hash (int), create time (long), last access time (long), time-to-idle (int),
+ * time-to-live (int), key length (int), value length (int), the links of the {@link RecordWheel} in the segments that
+ * schedule expirations, key bytes, value bytes.
+ * <p>
+ * A segment created with a wheel time schedules the records that can expire in a {@link RecordWheel}, so that they are
+ * removed, and their memory freed, as their time comes rather than when they are next read.
+ * <p>
+ * When the memory budget is exhausted the segment evicts its own entries, in clock order, if the
+ * {@link OffheapMemory#isEvictionEnabled() memory allows it}; otherwise the put fails with a
+ * {@link ToolkitRuntimeException}.
+ */
+public final class OffheapSegment<K, V> extends Segment<K, V> {
+
+  private static final long  serialVersionUID  = -7416375264420547263L;
+
+  private static final int   CHUNK_SIZE        = 0;
+  private static final int   HASH              = 4;
+  private static final int   CREATE_TIME       = 8;
+  private static final int   LAST_ACCESS_TIME  = 16;
+  private static final int   TTI               = 24;
+  private static final int   TTL               = 28;
+  private static final int   KEY_LENGTH        = 32;
+  private static final int   VALUE_LENGTH      = 36;
+  private static final int   HEADER_SIZE       = 40;
+
+  private static final int   INITIAL_CAPACITY  = 16;
+  private static final float LOAD_FACTOR       = 0.75f;
+  private static final float MAX_LOAD_FACTOR   = 0.9f;
+
+  /**
+   * Returns a factory of segments sharing {@code memory}, and scheduling the expiration of their records if
+   * {@code timed}
+   */
+  public static <K, V> Segment.Factory<K, V> factory(final OffheapMemory memory, final boolean timed) {
+    return new Segment.Factory<K, V>() {
+      @Override
+      public Segment<K, V> create() {
+        return timed ? new OffheapSegment<K, V>(memory, System.currentTimeMillis()) : new OffheapSegment<K, V>(memory);
+      }
+    };
+  }
+
+  private final transient OffheapMemory memory;
+  private final transient PageAllocator allocator;
+  private final transient RecordWheel   wheel;
+  private final int                     headerSize;
+  // slot i holds the record address + 1 at index i * 8 (0 for an empty slot) and its hash at index i * 4
+  private transient ByteBuffer          addresses;
+  private transient ByteBuffer          hashes;
+  private int                           capacity;
+  private int                           clockHand;
+  private volatile int                  count;
+
+  public OffheapSegment(OffheapMemory memory) {
+    this.memory = memory;
+    this.allocator = new PageAllocator(memory);
+    this.wheel = null;
+    this.headerSize = HEADER_SIZE;
+  }
+
+  /**
+   * Creates a segment scheduling the expiration of its records in a {@link RecordWheel} starting at {@code wheelTime}
+   */
+  OffheapSegment(OffheapMemory memory, long wheelTime) {
+    this.memory = memory;
+    this.allocator = new PageAllocator(memory);
+    this.wheel = new RecordWheel(allocator, HEADER_SIZE, wheelTime);
+    this.headerSize = HEADER_SIZE + RecordWheel.LINKS_SIZE;
+  }
+
+  @Override
+  public HashEntry<K, V> get(Object key, int hash) {
+    if (count == 0) { return null; }
+    int slot = findSlot(key, SerializationUtil.serialize(key), hash);
+    return slot < 0 ? null : read(address(slot), key);
+  }
+
+  @Override
+  public HashEntry<K, V> put(HashEntry<K, V> entry) {
+    byte[] key = SerializationUtil.serialize(entry.getKey());
+    byte[] value = SerializationUtil.serialize(entry.getValue());
+    int size = PageAllocator.align(headerSize + key.length + value.length);
+    if (size < 0 || size > memory.getMaxBytes()) { throw new ToolkitRuntimeException("Entry of " + size
+                                                                                     + " bytes does not fit in '"
+                                                                                     + memory.getName() + "'"); }
+    int existingSlot = findSlot(entry.getKey(), key, entry.getHash());
+    long existing = existingSlot < 0 ? -1 : address(existingSlot);
+    if (existing < 0) {
+      // reserved before the record is allocated, so that a full table does not leave the record behind
+      ensureSlotAvailable();
+    }
+    long address = allocate(size, existing);
+    write(address, size, entry, key, value);
+    if (wheel != null && entry.canExpire()) {
+      wheel.schedule(address, entry.expirationTime());
+    }
+    if (existing >= 0) {
+      // evictions may have moved the existing mapping to another slot
+      existingSlot = slotOf(existing, entry.getHash());
+      HashEntry<K, V> replaced = read(existing, entry.getKey());
+      setSlot(existingSlot, address, entry.getHash());
+      freeRecord(existing);
+      return replaced;
+    }
+    insert(address, entry.getHash());
+    count++;
+    return null;
+  }
+
+  @Override
+  public HashEntry<K, V> remove(Object key, int hash) {
+    if (count == 0) { return null; }
+    int slot = findSlot(key, SerializationUtil.serialize(key), hash);
+    if (slot < 0) { return null; }
+    long address = address(slot);
+    HashEntry<K, V> removed = read(address, key);
+    deleteSlot(slot);
+    freeRecord(address);
+    count--;
+    return removed;
+  }
+
+  @Override
+  public boolean removeEntry(HashEntry<K, V> entry) {
+    if (!(entry instanceof OffheapEntry)) { return false; }
+    long address = ((OffheapEntry<K, V>) entry).address;
+    int slot = slotOf(address, entry.getHash());
+    if (slot < 0) { return false; }
+    deleteSlot(slot);
+    freeRecord(address);
+    count--;
+    return true;
+  }
+
+  @Override
+  public void accessed(HashEntry<K, V> entry, long now) {
+    entry.accessed(now);
+    if (entry.getMaxTTISeconds() > 0 && entry instanceof OffheapEntry) {
+      long address = ((OffheapEntry<K, V>) entry).address;
+      allocator.page(address).putLong(PageAllocator.offset(address) + LAST_ACCESS_TIME, now);
+    }
+  }
+
+  @Override
+  public void clear() {
+    if (wheel != null) {
+      wheel.clear();
+    }
+    allocator.clear();
+    releaseTable();
+    count = 0;
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  @Override
+  public void snapshot(Collection<? super HashEntry<K, V>> into) {
+    for (int slot = 0; slot < capacity; slot++) {
+      long address = address(slot);
+      if (address >= 0) {
+        into.add(read(address));
+      }
+    }
+  }
+
+  @Override
+  public boolean hasScheduledExpiries() {
+    return wheel != null && wheel.size() > 0;
+  }
+
+  @Override
+  public List<HashEntry<K, V>> expire(final long now) {
+    if (wheel == null) { return null; }
+    final List<HashEntry<K, V>> expired = new ArrayList<HashEntry<K, V>>();
+    wheel.advance(now, new RecordWheel.Visitor() {
+      @Override
+      public void due(long address) {
+        long expiration = expirationTime(address);
+        if (now < expiration) {
+          // accessed since it was scheduled, or due in a later bucket
+          wheel.schedule(address, expiration);
+          return;
+        }
+        HashEntry<K, V> entry = read(address);
+        deleteSlot(slotOf(address, entry.getHash()));
+        freeRecord(address);
+        count--;
+        expired.add(entry);
+      }
+    });
+    return expired.isEmpty() ? null : expired;
+  }
+
+  /**
+   * Returns the expiration time of the record at {@code address}, as {@link HashEntry#expirationTime()} without
+   * reading the key and value
+   */
+  private long expirationTime(long address) {
+    ByteBuffer page = allocator.page(address);
+    int offset = PageAllocator.offset(address);
+    int tti = page.getInt(offset + TTI);
+    int ttl = page.getInt(offset + TTL);
+    long expiration = Long.MAX_VALUE;
+    if (ttl > 0) {
+      expiration = page.getLong(offset + CREATE_TIME) + ttl * 1000L;
+    }
+    if (tti > 0) {
+      expiration = Math.min(expiration, page.getLong(offset + LAST_ACCESS_TIME) + tti * 1000L);
+    }
+    return expiration;
+  }
+
+  private long allocate(int size, long keep) {
+    while (true) {
+      long address = allocator.allocate(size);
+      if (address >= 0) { return address; }
+      if (!memory.isEvictionEnabled()) { throw new ToolkitRuntimeException("Off-heap storage of '" + memory.getName()
+                                                                           + "' is full"); }
+      if (!evictOne(keep)) { throw new ToolkitRuntimeException("Off-heap storage of '" + memory.getName()
+                                                               + "' has no room left for this segment"); }
+    }
+  }
+
+  /**
+   * Evicts the next entry under the clock hand, other than the record at {@code keep}
+   */
+  private boolean evictOne(long keep) {
+    for (int i = 0; i < capacity; i++) {
+      int slot = clockHand;
+      clockHand = (clockHand + 1) & (capacity - 1);
+      long address = address(slot);
+      if (address >= 0 && address != keep) {
+        evicted(read(address));
+        deleteSlot(slot);
+        freeRecord(address);
+        count--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void ensureSlotAvailable() {
+    if (capacity == 0) {
+      if (!resize(INITIAL_CAPACITY)) { throw new ToolkitRuntimeException("Off-heap storage of '" + memory.getName()
+                                                                         + "' is full"); }
+      return;
+    }
+    if (count + 1 <= capacity * LOAD_FACTOR || resize(capacity << 1)) { return; }
+    // the table cannot grow, allow a higher load before making room
+    while (count + 1 > capacity * MAX_LOAD_FACTOR) {
+      if (!memory.isEvictionEnabled() || !evictOne(-1)) { throw new ToolkitRuntimeException(
+                                                                                            "Off-heap storage of '"
+                                                                                                + memory.getName()
+                                                                                                + "' is full"); }
+    }
+  }
+
+  /**
+   * Returns the slot of the record of {@code key}, serialized as {@code keyBytes}, or -1
+   */
+  private int findSlot(Object key, byte[] keyBytes, int hash) {
+    if (count == 0) { return -1; }
+    int mask = capacity - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+      long address = address(slot);
+      if (address < 0) { return -1; }
+      if (hashes.getInt(slot << 2) == hash
+          && (keyBytesEqual(address, keyBytes) || key.equals(readKey(address)))) { return slot; }
+    }
+  }
+
+  private boolean keyBytesEqual(long address, byte[] keyBytes) {
+    ByteBuffer page = allocator.page(address);
+    int offset = PageAllocator.offset(address);
+    if (page.getInt(offset + KEY_LENGTH) != keyBytes.length) { return false; }
+    ByteBuffer stored = page.duplicate();
+    stored.limit(offset + headerSize + keyBytes.length).position(offset + headerSize);
+    return stored.equals(ByteBuffer.wrap(keyBytes));
+  }
+
+  /**
+   * Returns the slot holding {@code address}, or -1
+   */
+  private int slotOf(long recordAddress, int hash) {
+    if (capacity == 0) { return -1; }
+    int mask = capacity - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+      long address = address(slot);
+      if (address < 0) { return -1; }
+      if (address == recordAddress) { return slot; }
+    }
+  }
+
+  private long address(int slot) {
+    return addresses.getLong(slot << 3) - 1;
+  }
+
+  private void setSlot(int slot, long address, int hash) {
+    addresses.putLong(slot << 3, address + 1);
+    hashes.putInt(slot << 2, hash);
+  }
+
+  private void insert(long address, int hash) {
+    int mask = capacity - 1;
+    int slot = hash & mask;
+    while (address(slot) >= 0) {
+      slot = (slot + 1) & mask;
+    }
+    setSlot(slot, address, hash);
+  }
+
+  /**
+   * Empties {@code slot}, shifting back the following entries of the probe sequence so that no tombstone is needed
+   */
+  private void deleteSlot(int slot) {
+    int mask = capacity - 1;
+    int hole = slot;
+    for (int next = (hole + 1) & mask;; next = (next + 1) & mask) {
+      long address = address(next);
+      if (address < 0) {
+        break;
+      }
+      int hash = hashes.getInt(next << 2);
+      int home = hash & mask;
+      boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+      if (movable) {
+        setSlot(hole, address, hash);
+        hole = next;
+      }
+    }
+    addresses.putLong(hole << 3, 0);
+    hashes.putInt(hole << 2, 0);
+  }
+
+  private boolean resize(int newCapacity) {
+    ByteBuffer newAddresses = memory.allocate(newCapacity << 3);
+    if (newAddresses == null) { return false; }
+    ByteBuffer newHashes = memory.allocate(newCapacity << 2);
+    if (newHashes == null) {
+      memory.release(newAddresses);
+      return false;
+    }
+    ByteBuffer oldAddresses = addresses;
+    ByteBuffer oldHashes = hashes;
+    int oldCapacity = capacity;
+    addresses = newAddresses;
+    hashes = newHashes;
+    capacity = newCapacity;
+    clockHand = 0;
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      long address = oldAddresses.getLong(slot << 3) - 1;
+      if (address >= 0) {
+        insert(address, oldHashes.getInt(slot << 2));
+      }
+    }
+    if (oldAddresses != null) {
+      memory.release(oldAddresses);
+      memory.release(oldHashes);
+    }
+    return true;
+  }
+
+  private void releaseTable() {
+    if (addresses != null) {
+      memory.release(addresses);
+      memory.release(hashes);
+    }
+    addresses = null;
+    hashes = null;
+    capacity = 0;
+    clockHand = 0;
+  }
+
+  private void write(long address, int size, HashEntry<K, V> entry, byte[] key, byte[] value) {
+    ByteBuffer page = allocator.page(address).duplicate();
+    page.position(PageAllocator.offset(address));
+    page.putInt(size).putInt(entry.getHash()).putLong(entry.getCreateTime()).putLong(entry.getLastAccessTime())
+        .putInt(entry.getMaxTTISeconds()).putInt(entry.getMaxTTLSeconds()).putInt(key.length).putInt(value.length);
+    if (wheel != null) {
+      // not scheduled
+      page.putLong(0).putLong(0).putLong(0);
+    }
+    page.put(key).put(value);
+  }
+
+  private void freeRecord(long address) {
+    if (wheel != null) {
+      wheel.remove(address);
+    }
+    allocator.free(address, allocator.page(address).getInt(PageAllocator.offset(address) + CHUNK_SIZE));
+  }
+
+  private Object readKey(long address) {
+    ByteBuffer page = allocator.page(address);
+    int offset = PageAllocator.offset(address);
+    return SerializationUtil.deserialize(readBytes(page, offset + headerSize, page.getInt(offset + KEY_LENGTH)), 0,
+                                         page.getInt(offset + KEY_LENGTH));
+  }
+
+  private HashEntry<K, V> read(long address) {
+    return read(address, null);
+  }
+
+  /**
+   * Returns a copy of the record at {@code address}, holding {@code lookedUp}, the key it was found for, rather than a
+   * copy of its key if not null
+   */
+  @SuppressWarnings("unchecked")
+  private HashEntry<K, V> read(long address, Object lookedUp) {
+    ByteBuffer page = allocator.page(address);
+    int offset = PageAllocator.offset(address);
+    int keyLength = page.getInt(offset + KEY_LENGTH);
+    int valueLength = page.getInt(offset + VALUE_LENGTH);
+    K key;
+    V value;
+    if (lookedUp == null) {
+      byte[] bytes = readBytes(page, offset + headerSize, keyLength + valueLength);
+      key = (K) SerializationUtil.deserialize(bytes, 0, keyLength);
+      value = (V) SerializationUtil.deserialize(bytes, keyLength, valueLength);
+    } else {
+      key = (K) lookedUp;
+      value = (V) SerializationUtil.deserialize(readBytes(page, offset + headerSize + keyLength, valueLength), 0,
+                                                valueLength);
+    }
+    return new OffheapEntry<K, V>(key, page.getInt(offset + HASH), value, page.getLong(offset + CREATE_TIME),
+                                  page.getLong(offset + LAST_ACCESS_TIME), page.getInt(offset + TTI),
+                                  page.getInt(offset + TTL), address);
+  }
+
+  private static byte[] readBytes(ByteBuffer page, int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer source = page.duplicate();
+    source.position(offset);
+    source.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * A copy of a record, which remembers where the record lives while the lock of the segment is held
+   */
+  private static final class OffheapEntry<K, V> extends HashEntry<K, V> {
+    final long address;
+
+    OffheapEntry(K key, int hash, V value, long createTime, long lastAccessTime, int maxTTISeconds,
+                 int maxTTLSeconds, long address) {
+      super(key, hash, value, createTime, lastAccessTime, maxTTISeconds, maxTTLSeconds);
+      this.address = address;
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Allocates the records of one off-heap segment in pages of direct memory obtained from the {@link OffheapMemory} of
+ * the store. Free chunks are kept in a best fit index and coalesced with their free neighbours when released; a page
+ * that becomes entirely free is given back to the memory, unless it is the last page of the segment.
+ * <p>
+ * An address is the page index in the upper 32 bits and the offset within the page in the lower 32 bits. All sizes are
+ * multiples of {@link #ALIGNMENT}. Mutations happen under the write lock of the segment; the methods are synchronized
+ * so that statistics can be read from any thread.
+ */
+final class PageAllocator {
+
+  static final int                                ALIGNMENT    = 8;
+
+  private final OffheapMemory                     memory;
+  private final List<ByteBuffer>                  pages        = new ArrayList<ByteBuffer>();
+  private final List<TreeMap<Integer, FreeChunk>> freeByOffset = new ArrayList<TreeMap<Integer, FreeChunk>>();
+  private final TreeSet<FreeChunk>                freeBySize   = new TreeSet<FreeChunk>();
+  private final ArrayDeque<Integer>               unusedPages  = new ArrayDeque<Integer>();
+  private int                                     pageCount;
+  private long                                    freeBytes;
+  private int                                     nextPageSize;
+
+  PageAllocator(OffheapMemory memory) {
+    this.memory = memory;
+    this.nextPageSize = memory.minPageSize();
+    memory.register(this);
+  }
+
+  static int align(int size) {
+    return (size + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  static int pageIndex(long address) {
+    return (int) (address >>> 32);
+  }
+
+  static int offset(long address) {
+    return (int) address;
+  }
+
+  /**
+   * Returns the page an address points into. Safe to call under the read lock of the segment.
+   */
+  ByteBuffer page(long address) {
+    return pages.get(pageIndex(address));
+  }
+
+  /**
+   * Allocates {@code size} bytes, already aligned, and returns their address or -1 if the memory budget is exhausted
+   */
+  synchronized long allocate(int size) {
+    FreeChunk chunk = freeBySize.ceiling(new FreeChunk(-1, -1, size));
+    if (chunk == null) {
+      chunk = newPage(size);
+      if (chunk == null) { return -1; }
+    }
+    removeFree(chunk);
+    if (chunk.size > size) {
+      addFree(new FreeChunk(chunk.page, chunk.offset + size, chunk.size - size));
+    }
+    freeBytes -= size;
+    memory.occupied(size);
+    return ((long) chunk.page << 32) | chunk.offset;
+  }
+
+  /**
+   * Frees the {@code size} bytes allocated at {@code address}
+   */
+  synchronized void free(long address, int size) {
+    int page = pageIndex(address);
+    int offset = offset(address);
+    int chunkSize = size;
+    freeBytes += size;
+    memory.occupied(-size);
+    TreeMap<Integer, FreeChunk> pageChunks = freeByOffset.get(page);
+    Map.Entry<Integer, FreeChunk> lower = pageChunks.lowerEntry(offset);
+    if (lower != null && lower.getValue().offset + lower.getValue().size == offset) {
+      removeFree(lower.getValue());
+      offset = lower.getValue().offset;
+      chunkSize += lower.getValue().size;
+    }
+    FreeChunk higher = pageChunks.get(offset + chunkSize);
+    if (higher != null) {
+      removeFree(higher);
+      chunkSize += higher.size;
+    }
+    ByteBuffer buffer = pages.get(page);
+    if (chunkSize == buffer.capacity() && pageCount > 1) {
+      releasePage(page, buffer);
+    } else {
+      addFree(new FreeChunk(page, offset, chunkSize));
+    }
+  }
+
+  /**
+   * Gives every page back to the memory
+   */
+  synchronized void clear() {
+    for (ByteBuffer page : pages) {
+      if (page != null) {
+        memory.release(page);
+      }
+    }
+    memory.occupied(-(allocatedBytes() - freeBytes));
+    pages.clear();
+    freeByOffset.clear();
+    freeBySize.clear();
+    unusedPages.clear();
+    pageCount = 0;
+    freeBytes = 0;
+    nextPageSize = memory.minPageSize();
+  }
+
+  synchronized long freeBytes() {
+    return freeBytes;
+  }
+
+  synchronized long largestFreeChunk() {
+    return freeBySize.isEmpty() ? 0 : freeBySize.last().size;
+  }
+
+  private long allocatedBytes() {
+    long allocated = 0;
+    for (ByteBuffer page : pages) {
+      if (page != null) {
+        allocated += page.capacity();
+      }
+    }
+    return allocated;
+  }
+
+  private FreeChunk newPage(int size) {
+    int pageSize = Math.max(nextPageSize, size);
+    ByteBuffer buffer = memory.allocate(pageSize);
+    if (buffer == null && pageSize > size) {
+      pageSize = size;
+      buffer = memory.allocate(pageSize);
+    }
+    if (buffer == null) { return null; }
+    nextPageSize = Math.min(nextPageSize << 1, memory.maxPageSize());
+    int page;
+    if (unusedPages.isEmpty()) {
+      page = pages.size();
+      pages.add(buffer);
+      freeByOffset.add(new TreeMap<Integer, FreeChunk>());
+    } else {
+      page = unusedPages.pop();
+      pages.set(page, buffer);
+      freeByOffset.set(page, new TreeMap<Integer, FreeChunk>());
+    }
+    pageCount++;
+    freeBytes += pageSize;
+    FreeChunk chunk = new FreeChunk(page, 0, pageSize);
+    addFree(chunk);
+    return chunk;
+  }
+
+  private void releasePage(int page, ByteBuffer buffer) {
+    pages.set(page, null);
+    freeByOffset.set(page, null);
+    unusedPages.push(page);
+    pageCount--;
+    freeBytes -= buffer.capacity();
+    memory.release(buffer);
+  }
+
+  private void addFree(FreeChunk chunk) {
+    freeBySize.add(chunk);
+    freeByOffset.get(chunk.page).put(chunk.offset, chunk);
+  }
+
+  private void removeFree(FreeChunk chunk) {
+    freeBySize.remove(chunk);
+    freeByOffset.get(chunk.page).remove(chunk.offset);
+  }
+
+  /**
+   * A free range of a page, ordered by size first so that the best fit is a ceiling lookup
+   */
+  private static final class FreeChunk implements Comparable<FreeChunk> {
+    final int page;
+    final int offset;
+    final int size;
+
+    FreeChunk(int page, int offset, int size) {
+      this.page = page;
+      this.offset = offset;
+      this.size = size;
+    }
+
+    @Override
+    public int compareTo(FreeChunk other) {
+      if (size != other.size) { return size < other.size ? -1 : 1; }
+      if (page != other.page) { return page < other.page ? -1 : 1; }
+      return offset < other.offset ? -1 : (offset == other.offset ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof FreeChunk)) { return false; }
+      FreeChunk other = (FreeChunk) obj;
+      return page == other.page && offset == other.offset && size == other.size;
+    }
+
+    @Override
+    public int hashCode() {
+      return (page * 31 + offset) * 31 + size;
+    }
+  }
+}
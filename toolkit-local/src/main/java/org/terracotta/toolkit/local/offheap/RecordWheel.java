@@ -0,0 +1,183 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hierarchical timer wheel of the records of an {@link OffheapSegment} that can expire, with the geometry of the
+ * timer wheel of the heap segments: 64 buckets of about a second, each following level bucketing as much time as the
+ * whole previous level, and an overflow bucket past about 50 days. The buckets are lists linked through the records
+ * themselves, at {@link #PREVIOUS}, {@link #NEXT} and {@link #SLOT} past the start of the wheel links of their header,
+ * so that scheduling a record retains no Java object.
+ * <p>
+ * A record is scheduled at the expiration time it had when it was written. When {@link #advance(long, Visitor)} reaches
+ * its bucket, the record is handed to the segment, which either expires it or schedules it again at its current
+ * expiration time.
+ * <p>
+ * Only used under the write lock of the segment.
+ */
+final class RecordWheel {
+
+  /**
+   * Offsets of the links of a record, relative to the start of its wheel links: the previous and next records of its
+   * bucket, plus one and 0 for none, then its slot plus one, 0 while it is not scheduled
+   */
+  static final int           PREVIOUS   = 0;
+  static final int           NEXT       = 8;
+  static final int           SLOT       = 16;
+  static final int           LINKS_SIZE = 24;
+
+  private static final int[] BUCKETS    = { 64, 64, 32, 32, 1 };
+  private static final int[] SHIFTS     = { 10, 16, 22, 27, 32 };
+  private static final int[] OFFSETS    = { 0, 64, 128, 160, 192 };
+  private static final int   SLOTS      = 193;
+
+  /**
+   * Receives the records whose bucket was reached, already unscheduled
+   */
+  interface Visitor {
+    void due(long address);
+  }
+
+  private final PageAllocator allocator;
+  private final int           links;
+  private long[]              heads;
+  private long                time;
+  private volatile int        size;
+
+  /**
+   * @param links offset of the wheel links in the records
+   */
+  RecordWheel(PageAllocator allocator, int links, long time) {
+    this.allocator = allocator;
+    this.links = links;
+    this.time = time;
+  }
+
+  /**
+   * Number of scheduled records, readable without the lock
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Schedules the record at {@code address}, whose links must be zeroed, to expire at {@code expiration}
+   */
+  void schedule(long address, long expiration) {
+    if (heads == null) {
+      heads = new long[SLOTS];
+    }
+    int slot = slotFor(Math.max(expiration, time));
+    long head = heads[slot] - 1;
+    setLink(address, PREVIOUS, -1);
+    setLink(address, NEXT, head);
+    if (head >= 0) {
+      setLink(head, PREVIOUS, address);
+    }
+    heads[slot] = address + 1;
+    page(address).putInt(offset(address) + SLOT, slot + 1);
+    size++;
+  }
+
+  /**
+   * Unschedules the record at {@code address}, if it is scheduled
+   */
+  void remove(long address) {
+    int slot = page(address).getInt(offset(address) + SLOT) - 1;
+    if (slot < 0) { return; }
+    long previous = link(address, PREVIOUS);
+    long next = link(address, NEXT);
+    if (previous < 0) {
+      heads[slot] = next + 1;
+    } else {
+      setLink(previous, NEXT, next);
+    }
+    if (next >= 0) {
+      setLink(next, PREVIOUS, previous);
+    }
+    unlinked(address);
+  }
+
+  /**
+   * Moves the wheel to {@code now}, handing to {@code visitor} the records of the buckets passed
+   */
+  void advance(long now, Visitor visitor) {
+    long previous = time;
+    if (now <= previous) { return; }
+    time = now;
+    if (size == 0) { return; }
+    for (int level = 0; level < BUCKETS.length; level++) {
+      long previousTicks = previous >>> SHIFTS[level];
+      long delta = (now >>> SHIFTS[level]) - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      int steps = (int) Math.min(delta + 1, BUCKETS[level]);
+      int mask = BUCKETS[level] - 1;
+      for (int i = 0; i < steps; i++) {
+        int slot = OFFSETS[level] + (int) ((previousTicks + i) & mask);
+        long address = heads[slot] - 1;
+        heads[slot] = 0;
+        while (address >= 0) {
+          long next = link(address, NEXT);
+          unlinked(address);
+          visitor.due(address);
+          address = next;
+        }
+      }
+    }
+  }
+
+  void clear() {
+    heads = null;
+    size = 0;
+  }
+
+  private void unlinked(long address) {
+    setLink(address, PREVIOUS, -1);
+    setLink(address, NEXT, -1);
+    page(address).putInt(offset(address) + SLOT, 0);
+    size--;
+  }
+
+  private long link(long address, int field) {
+    return page(address).getLong(offset(address) + field) - 1;
+  }
+
+  private void setLink(long address, int field, long target) {
+    page(address).putLong(offset(address) + field, target + 1);
+  }
+
+  private ByteBuffer page(long address) {
+    return allocator.page(address);
+  }
+
+  private int offset(long address) {
+    return PageAllocator.offset(address) + links;
+  }
+
+  private int slotFor(long expiration) {
+    long delay = expiration - time;
+    for (int level = 0; level < BUCKETS.length - 1; level++) {
+      if (delay < 1L << SHIFTS[level + 1]) { return OFFSETS[level]
+                                                     + (int) ((expiration >>> SHIFTS[level]) & (BUCKETS[level] - 1)); }
+    }
+    return OFFSETS[BUCKETS.length - 1];
+  }
+}
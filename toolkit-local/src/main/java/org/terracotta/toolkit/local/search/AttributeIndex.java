@@ -0,0 +1,200 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.expression.Matches;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The secondary indexes of one attribute: the ordinals of the entries holding each of its values, hashed by value for
+ * {@code Equals} and {@code OneOf} clauses and, for attributes of a comparable type, ordered by value in an
+ * {@link OrderedIndex} for range clauses, and the ordinals of the entries holding any value for {@code Exists}
+ * clauses. All the values of an attribute are of the class of its first value, the declaring class for enums.
+ * <p>
+ * The postings of bitmap indexed attributes are {@link CompressedBitmap}s, and {@link PostingSet}s otherwise. The
+ * values of prefix indexed string attributes are also ordered ignoring case in a {@link PrefixIndex}, for the
+ * {@code Matches} clauses whose expression starts with literal characters.
+ */
+final class AttributeIndex {
+
+  private final Class<?>                valueClass;
+  private final Map<Object, Postings> postings = new HashMap<Object, Postings>();
+  private final OrderedIndex            ordered;
+  private final boolean                 bitmap;
+  private final PrefixIndex             prefixes;
+  private final BitSet                  present  = new BitSet();
+
+  AttributeIndex(Class<?> valueClass, boolean comparable, boolean bitmap, boolean prefix) {
+    this.valueClass = valueClass;
+    this.ordered = comparable ? new OrderedIndex() : null;
+    this.bitmap = bitmap;
+    this.prefixes = prefix && valueClass == String.class ? new PrefixIndex() : null;
+  }
+
+  /**
+   * Returns the class of the values of {@code value}'s type, its declaring class for an enum
+   */
+  static Class<?> classOf(Object value) {
+    return value instanceof Enum ? ((Enum<?>) value).getDeclaringClass() : value.getClass();
+  }
+
+  Class<?> valueClass() {
+    return valueClass;
+  }
+
+  boolean isBitmap() {
+    return bitmap;
+  }
+
+  boolean accepts(Object value) {
+    return classOf(value) == valueClass;
+  }
+
+  void add(Object value, int ordinal) {
+    Postings set = postings.get(value);
+    if (set == null) {
+      set = bitmap ? new CompressedBitmap() : new PostingSet();
+      postings.put(value, set);
+      if (ordered != null) {
+        ordered.put(value, set);
+      }
+      if (prefixes != null) {
+        prefixes.add((String) value);
+      }
+    }
+    set.add(ordinal);
+    present.set(ordinal);
+  }
+
+  void remove(Object value, int ordinal) {
+    Postings set = postings.get(value);
+    if (set == null) { return; }
+    set.remove(ordinal);
+    if (set.isEmpty()) {
+      postings.remove(value);
+      if (ordered != null) {
+        ordered.remove(value);
+      }
+      if (prefixes != null) {
+        prefixes.remove((String) value);
+      }
+    }
+    present.clear(ordinal);
+  }
+
+  /**
+   * Returns the ordinals of the entries holding {@code value}, or null if there are none
+   */
+  Postings postingsOf(Object value) {
+    return postings.get(value);
+  }
+
+  /**
+   * Returns the distinct values held by the indexed entries along with their ordinals
+   */
+  Map<Object, Postings> values() {
+    return postings;
+  }
+
+  /**
+   * Sets in {@code into} the ordinals of the entries holding a value in a range, from the ordered index when the
+   * attribute has one
+   */
+  void range(Comparable<Object> min, boolean minInclusive, Comparable<Object> max, boolean maxInclusive, BitSet into) {
+    if (ordered != null) {
+      ordered.collect(min, minInclusive, max, maxInclusive, into);
+      return;
+    }
+    for (Map.Entry<Object, Postings> value : postings.entrySet()) {
+      Object candidate = value.getKey();
+      if (min != null) {
+        int c = min.compareTo(candidate);
+        if (c > 0 || (c == 0 && !minInclusive)) {
+          continue;
+        }
+      }
+      if (max != null) {
+        int c = max.compareTo(candidate);
+        if (c < 0 || (c == 0 && !maxInclusive)) {
+          continue;
+        }
+      }
+      value.getValue().addTo(into);
+    }
+  }
+
+  /**
+   * Estimates the number of entries holding a value in a range, counted from the ordered index when the attribute has
+   * one and the range holds at most {@code maxValues} distinct values, and {@code limit} otherwise
+   */
+  int estimateRange(Comparable<Object> min, boolean minInclusive, Comparable<Object> max, boolean maxInclusive,
+                    int maxValues, int limit) {
+    if (ordered == null) { return limit; }
+    return ordered.count(min, minInclusive, max, maxInclusive, maxValues, limit);
+  }
+
+  /**
+   * Returns true if the values matching {@code matches} are looked for among the values starting with its prefix
+   */
+  boolean isPrefixIndexed(Matches matches) {
+    return prefixes != null && matches.getPrefix().length() > 0;
+  }
+
+  /**
+   * Sets in {@code into} the ordinals of the entries whose value matches {@code matches}, looked for among the values
+   * starting with its prefix when the attribute has a prefix index
+   */
+  void matches(Matches matches, BitSet into) {
+    if (isPrefixIndexed(matches)) {
+      for (String value : prefixes.startingWith(matches.getPrefix(), Integer.MAX_VALUE)) {
+        if (matches.matches(value)) {
+          postings.get(value).addTo(into);
+        }
+      }
+      return;
+    }
+    for (Map.Entry<Object, Postings> value : postings.entrySet()) {
+      if (matches.matches(value.getKey().toString())) {
+        value.getValue().addTo(into);
+      }
+    }
+  }
+
+  /**
+   * Estimates the number of entries whose value matches {@code matches} by the number of entries holding a value
+   * starting with its prefix, if the attribute has a prefix index and there are at most {@code maxValues} such
+   * values, and {@code limit} otherwise
+   */
+  int estimateMatches(Matches matches, int maxValues, int limit) {
+    if (!isPrefixIndexed(matches)) { return limit; }
+    List<String> values = prefixes.startingWith(matches.getPrefix(), maxValues);
+    if (values == null) { return limit; }
+    int count = 0;
+    for (String value : values) {
+      count += postings.get(value).size();
+    }
+    return Math.min(count, limit);
+  }
+
+  BitSet present() {
+    return present;
+  }
+}
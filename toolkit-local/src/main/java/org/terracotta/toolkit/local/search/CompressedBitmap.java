@@ -0,0 +1,401 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Postings compressed in chunks of the 65536 ordinals sharing their high 16 bits: a chunk of up to
+ * {@value #ARRAY_MAX} ordinals is a sorted array of their low 16 bits, a fuller chunk a bitmap of 1024 words. An
+ * attribute with few distinct values thus takes about 2 bytes per entry for sparse values and 1 bit per ordinal for
+ * dense ones, and the postings of its values are intersected, merged and subtracted chunk by chunk, word by word for
+ * bitmap chunks, without expanding them.
+ */
+final class CompressedBitmap extends Postings {
+
+  private static final int ARRAY_MAX    = 4096;
+  private static final int BITMAP_WORDS = 1024;
+
+  // high 16 bits of the chunks in order, chunks as char[] or long[], and number of ordinals of each chunk
+  private char[]           keys          = new char[4];
+  private Object[]         chunks        = new Object[4];
+  private int[]            cardinalities = new int[4];
+  private int              chunkCount;
+
+  @Override
+  void add(int ordinal) {
+    char key = (char) (ordinal >>> 16);
+    char low = (char) ordinal;
+    int i = find(key);
+    if (i < 0) {
+      i = -i - 1;
+      insertChunk(i, key, new char[4], 0);
+    }
+    int cardinality = cardinalities[i];
+    if (chunks[i] instanceof long[]) {
+      long[] words = (long[]) chunks[i];
+      if ((words[low >>> 6] & (1L << low)) == 0) {
+        words[low >>> 6] |= 1L << low;
+        cardinalities[i]++;
+      }
+      return;
+    }
+    char[] array = (char[]) chunks[i];
+    int j = Arrays.binarySearch(array, 0, cardinality, low);
+    if (j >= 0) { return; }
+    j = -j - 1;
+    if (cardinality == ARRAY_MAX) {
+      long[] words = toBitmap(array, cardinality);
+      words[low >>> 6] |= 1L << low;
+      chunks[i] = words;
+    } else {
+      if (cardinality == array.length) {
+        array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality << 1));
+        chunks[i] = array;
+      }
+      System.arraycopy(array, j, array, j + 1, cardinality - j);
+      array[j] = low;
+    }
+    cardinalities[i] = cardinality + 1;
+  }
+
+  @Override
+  void remove(int ordinal) {
+    char low = (char) ordinal;
+    int i = find((char) (ordinal >>> 16));
+    if (i < 0) { return; }
+    int cardinality = cardinalities[i];
+    if (chunks[i] instanceof long[]) {
+      long[] words = (long[]) chunks[i];
+      if ((words[low >>> 6] & (1L << low)) == 0) { return; }
+      words[low >>> 6] &= ~(1L << low);
+      // back to an array well below the limit, so that a chunk does not flip at each add and remove
+      if (--cardinality < ARRAY_MAX / 2) {
+        chunks[i] = toArray(words, cardinality);
+      }
+    } else {
+      char[] array = (char[]) chunks[i];
+      int j = Arrays.binarySearch(array, 0, cardinality, low);
+      if (j < 0) { return; }
+      System.arraycopy(array, j + 1, array, j, cardinality - j - 1);
+      cardinality--;
+    }
+    if (cardinality == 0) {
+      removeChunk(i);
+    } else {
+      cardinalities[i] = cardinality;
+    }
+  }
+
+  @Override
+  boolean contains(int ordinal) {
+    char low = (char) ordinal;
+    int i = find((char) (ordinal >>> 16));
+    if (i < 0) { return false; }
+    if (chunks[i] instanceof long[]) { return (((long[]) chunks[i])[low >>> 6] & (1L << low)) != 0; }
+    return Arrays.binarySearch((char[]) chunks[i], 0, cardinalities[i], low) >= 0;
+  }
+
+  @Override
+  int size() {
+    int size = 0;
+    for (int i = 0; i < chunkCount; i++) {
+      size += cardinalities[i];
+    }
+    return size;
+  }
+
+  @Override
+  boolean isEmpty() {
+    return chunkCount == 0;
+  }
+
+  @Override
+  void addTo(BitSet bits) {
+    for (int i = 0; i < chunkCount; i++) {
+      int base = keys[i] << 16;
+      if (chunks[i] instanceof long[]) {
+        long[] words = (long[]) chunks[i];
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          for (long word = words[w]; word != 0; word &= word - 1) {
+            bits.set(base + (w << 6) + Long.numberOfTrailingZeros(word));
+          }
+        }
+      } else {
+        char[] array = (char[]) chunks[i];
+        for (int j = 0; j < cardinalities[i]; j++) {
+          bits.set(base | array[j]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the ordinals of both this bitmap and {@code other}
+   */
+  CompressedBitmap and(CompressedBitmap other) {
+    CompressedBitmap result = new CompressedBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < chunkCount && j < other.chunkCount) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        result.append(keys[i], and(chunks[i], cardinalities[i], other.chunks[j], other.cardinalities[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ordinals of this bitmap or {@code other}
+   */
+  CompressedBitmap or(CompressedBitmap other) {
+    CompressedBitmap result = new CompressedBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < chunkCount || j < other.chunkCount) {
+      if (j == other.chunkCount || (i < chunkCount && keys[i] < other.keys[j])) {
+        result.append(keys[i], copy(chunks[i], cardinalities[i]));
+        i++;
+      } else if (i == chunkCount || keys[i] > other.keys[j]) {
+        result.append(other.keys[j], copy(other.chunks[j], other.cardinalities[j]));
+        j++;
+      } else {
+        result.append(keys[i], or(chunks[i], cardinalities[i], other.chunks[j], other.cardinalities[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ordinals of this bitmap not in {@code other}
+   */
+  CompressedBitmap andNot(CompressedBitmap other) {
+    CompressedBitmap result = new CompressedBitmap();
+    int j = 0;
+    for (int i = 0; i < chunkCount; i++) {
+      while (j < other.chunkCount && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.chunkCount && other.keys[j] == keys[i]) {
+        result.append(keys[i], andNot(chunks[i], cardinalities[i], other.chunks[j], other.cardinalities[j]));
+      } else {
+        result.append(keys[i], copy(chunks[i], cardinalities[i]));
+      }
+    }
+    return result;
+  }
+
+  private static Object and(Object a, int cardinalityA, Object b, int cardinalityB) {
+    if (a instanceof long[] && b instanceof long[]) {
+      long[] wordsA = (long[]) a;
+      long[] wordsB = (long[]) b;
+      long[] words = new long[BITMAP_WORDS];
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] = wordsA[w] & wordsB[w];
+      }
+      return compact(words);
+    }
+    if (a instanceof long[]) { return filter((char[]) b, cardinalityB, (long[]) a, true); }
+    if (b instanceof long[]) { return filter((char[]) a, cardinalityA, (long[]) b, true); }
+    char[] arrayA = (char[]) a;
+    char[] arrayB = (char[]) b;
+    char[] array = new char[Math.min(cardinalityA, cardinalityB)];
+    int count = 0;
+    for (int i = 0, j = 0; i < cardinalityA && j < cardinalityB;) {
+      if (arrayA[i] < arrayB[j]) {
+        i++;
+      } else if (arrayA[i] > arrayB[j]) {
+        j++;
+      } else {
+        array[count++] = arrayA[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(array, count);
+  }
+
+  private static Object or(Object a, int cardinalityA, Object b, int cardinalityB) {
+    if (a instanceof long[] || b instanceof long[]) {
+      long[] words = a instanceof long[] ? ((long[]) a).clone() : toBitmap((char[]) a, cardinalityA);
+      if (b instanceof long[]) {
+        long[] wordsB = (long[]) b;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          words[w] |= wordsB[w];
+        }
+      } else {
+        char[] arrayB = (char[]) b;
+        for (int j = 0; j < cardinalityB; j++) {
+          words[arrayB[j] >>> 6] |= 1L << arrayB[j];
+        }
+      }
+      return words;
+    }
+    char[] arrayA = (char[]) a;
+    char[] arrayB = (char[]) b;
+    char[] array = new char[cardinalityA + cardinalityB];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < cardinalityA || j < cardinalityB) {
+      if (j == cardinalityB || (i < cardinalityA && arrayA[i] < arrayB[j])) {
+        array[count++] = arrayA[i++];
+      } else if (i == cardinalityA || arrayA[i] > arrayB[j]) {
+        array[count++] = arrayB[j++];
+      } else {
+        array[count++] = arrayA[i++];
+        j++;
+      }
+    }
+    return count > ARRAY_MAX ? toBitmap(array, count) : Arrays.copyOf(array, count);
+  }
+
+  private static Object andNot(Object a, int cardinalityA, Object b, int cardinalityB) {
+    if (a instanceof long[]) {
+      long[] words = ((long[]) a).clone();
+      if (b instanceof long[]) {
+        long[] wordsB = (long[]) b;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          words[w] &= ~wordsB[w];
+        }
+      } else {
+        char[] arrayB = (char[]) b;
+        for (int j = 0; j < cardinalityB; j++) {
+          words[arrayB[j] >>> 6] &= ~(1L << arrayB[j]);
+        }
+      }
+      return compact(words);
+    }
+    if (b instanceof long[]) { return filter((char[]) a, cardinalityA, (long[]) b, false); }
+    char[] arrayA = (char[]) a;
+    char[] arrayB = (char[]) b;
+    char[] array = new char[cardinalityA];
+    int count = 0;
+    for (int i = 0, j = 0; i < cardinalityA; i++) {
+      while (j < cardinalityB && arrayB[j] < arrayA[i]) {
+        j++;
+      }
+      if (j == cardinalityB || arrayB[j] != arrayA[i]) {
+        array[count++] = arrayA[i];
+      }
+    }
+    return Arrays.copyOf(array, count);
+  }
+
+  /**
+   * Returns the values of {@code array} whose bit in {@code words} is set, or clear if not {@code set}
+   */
+  private static char[] filter(char[] array, int cardinality, long[] words, boolean set) {
+    char[] filtered = new char[cardinality];
+    int count = 0;
+    for (int i = 0; i < cardinality; i++) {
+      char low = array[i];
+      if (((words[low >>> 6] & (1L << low)) != 0) == set) {
+        filtered[count++] = low;
+      }
+    }
+    return Arrays.copyOf(filtered, count);
+  }
+
+  private static Object copy(Object chunk, int cardinality) {
+    return chunk instanceof long[] ? ((long[]) chunk).clone() : Arrays.copyOf((char[]) chunk, cardinality);
+  }
+
+  /**
+   * Returns {@code words} as an array if it has few enough bits set
+   */
+  private static Object compact(long[] words) {
+    int cardinality = 0;
+    for (long word : words) {
+      cardinality += Long.bitCount(word);
+    }
+    return cardinality <= ARRAY_MAX ? toArray(words, cardinality) : words;
+  }
+
+  private static long[] toBitmap(char[] array, int cardinality) {
+    long[] words = new long[BITMAP_WORDS];
+    for (int i = 0; i < cardinality; i++) {
+      words[array[i] >>> 6] |= 1L << array[i];
+    }
+    return words;
+  }
+
+  private static char[] toArray(long[] words, int cardinality) {
+    char[] array = new char[cardinality];
+    int count = 0;
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      for (long word = words[w]; word != 0; word &= word - 1) {
+        array[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Appends a chunk, of an exact size when it is an array, following the chunks of this bitmap
+   */
+  private void append(char key, Object chunk) {
+    int cardinality;
+    if (chunk instanceof long[]) {
+      cardinality = 0;
+      for (long word : (long[]) chunk) {
+        cardinality += Long.bitCount(word);
+      }
+    } else {
+      cardinality = ((char[]) chunk).length;
+    }
+    if (cardinality > 0) {
+      insertChunk(chunkCount, key, chunk, cardinality);
+    }
+  }
+
+  private int find(char key) {
+    return Arrays.binarySearch(keys, 0, chunkCount, key);
+  }
+
+  private void insertChunk(int i, char key, Object chunk, int cardinality) {
+    if (chunkCount == keys.length) {
+      keys = Arrays.copyOf(keys, chunkCount << 1);
+      chunks = Arrays.copyOf(chunks, chunkCount << 1);
+      cardinalities = Arrays.copyOf(cardinalities, chunkCount << 1);
+    }
+    System.arraycopy(keys, i, keys, i + 1, chunkCount - i);
+    System.arraycopy(chunks, i, chunks, i + 1, chunkCount - i);
+    System.arraycopy(cardinalities, i, cardinalities, i + 1, chunkCount - i);
+    keys[i] = key;
+    chunks[i] = chunk;
+    cardinalities[i] = cardinality;
+    chunkCount++;
+  }
+
+  private void removeChunk(int i) {
+    chunkCount--;
+    System.arraycopy(keys, i + 1, keys, i, chunkCount - i);
+    System.arraycopy(chunks, i + 1, chunks, i, chunkCount - i);
+    System.arraycopy(cardinalities, i + 1, cardinalities, i, chunkCount - i);
+    chunks[chunkCount] = null;
+  }
+}
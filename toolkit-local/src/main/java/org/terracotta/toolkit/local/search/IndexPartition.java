@@ -0,0 +1,534 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.attribute.ToolkitAttributeType;
+import org.terracotta.toolkit.search.expression.Always;
+import org.terracotta.toolkit.search.expression.BooleanClause;
+import org.terracotta.toolkit.search.expression.Clause;
+import org.terracotta.toolkit.search.expression.Equals;
+import org.terracotta.toolkit.search.expression.Exists;
+import org.terracotta.toolkit.search.expression.Matches;
+import org.terracotta.toolkit.search.expression.OneOf;
+import org.terracotta.toolkit.search.expression.Range;
+import org.terracotta.toolkit.search.expression.RelationalClause;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The secondary indexes of the entries of one segment of a searchable store, part of its {@link SearchIndex}. Each
+ * indexed entry is given an ordinal, and each attribute an {@link AttributeIndex} of the ordinals holding each of its
+ * values, so that clauses are evaluated to sets of ordinals without visiting the entries. The segment updates its
+ * partition under its write lock, and queries read the partition under its read lock, so that a query sees each entry
+ * of the segment either before or after a mutation.
+ */
+final class IndexPartition {
+
+  // the most distinct values of a range or a prefix counted to estimate its selectivity, more are deemed unselective
+  private static final int                  ESTIMATED_RANGE_VALUES = 64;
+
+  private final ReentrantReadWriteLock      lock            = new ReentrantReadWriteLock();
+  private final Map<Object, Integer>        ordinals        = new HashMap<Object, Integer>();
+  private final Map<String, AttributeIndex> attributes      = new HashMap<String, AttributeIndex>();
+  // the value classes of the attributes, shared by the partitions of the index
+  private final Map<String, Class<?>>       valueClasses;
+  private final Set<String>                 bitmapAttributes;
+  private final Set<String>                 prefixAttributes;
+  // the indexed entries, by ordinal
+  private final BitSet                      live            = new BitSet();
+  private Object[]                          keys            = new Object[16];
+  private Map<?, ?>[]                       entryAttributes = new Map<?, ?>[16];
+  private int[]                             free            = new int[16];
+  private int                               freeCount;
+  private int                               nextOrdinal;
+
+  IndexPartition(Map<String, Class<?>> valueClasses, Set<String> bitmapAttributes, Set<String> prefixAttributes) {
+    this.valueClasses = valueClasses;
+    this.bitmapAttributes = bitmapAttributes;
+    this.prefixAttributes = prefixAttributes;
+  }
+
+  /**
+   * Indexes {@code key} with the attributes returned by {@link SearchIndex#extract}, replacing those it had. A null
+   * {@code attrs} removes it.
+   */
+  void update(Object key, Map<String, Object> attrs) {
+    if (attrs == null) {
+      remove(key);
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      Integer existing = ordinals.get(key);
+      int ordinal;
+      if (existing != null) {
+        ordinal = existing;
+        unindex(ordinal);
+      } else {
+        ordinal = allocate();
+        ordinals.put(key, ordinal);
+        keys[ordinal] = key;
+        live.set(ordinal);
+      }
+      entryAttributes[ordinal] = attrs;
+      for (Map.Entry<String, Object> attr : attrs.entrySet()) {
+        String name = attr.getKey();
+        Object value = attr.getValue();
+        AttributeIndex index = attributes.get(name);
+        if (index == null) {
+          // registered by the extraction of the attributes
+          index = new AttributeIndex(valueClasses.get(name), ToolkitAttributeType.typeFor(name, value)
+              .isComparable(), bitmapAttributes.contains(name), prefixAttributes.contains(name));
+          attributes.put(name, index);
+        }
+        index.add(value, ordinal);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(Object key) {
+    lock.writeLock().lock();
+    try {
+      Integer ordinal = ordinals.remove(key);
+      if (ordinal == null) { return; }
+      unindex(ordinal);
+      keys[ordinal] = null;
+      entryAttributes[ordinal] = null;
+      live.clear(ordinal);
+      if (freeCount == free.length) {
+        free = grow(free);
+      }
+      free[freeCount++] = ordinal;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void clear() {
+    lock.writeLock().lock();
+    try {
+      ordinals.clear();
+      attributes.clear();
+      live.clear();
+      keys = new Object[16];
+      entryAttributes = new Map<?, ?>[16];
+      free = new int[16];
+      freeCount = 0;
+      nextOrdinal = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Number of indexed entries
+   */
+  int size() {
+    lock.readLock().lock();
+    try {
+      return ordinals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds to {@code into} the keys and attributes of the indexed entries matching {@code clause}
+   *
+   * @throws SearchException if the clause cannot be evaluated
+   */
+  void search(Clause clause, List<SearchIndex.Match> into) {
+    lock.readLock().lock();
+    try {
+      BitSet matching = evaluate(clause);
+      for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+        into.add(new SearchIndex.Match(keys[i], attributesOf(i)));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> attributesOf(int ordinal) {
+    return (Map<String, Object>) entryAttributes[ordinal];
+  }
+
+  private BitSet evaluate(Clause clause) {
+    if (isBitmapIndexed(clause)) {
+      BitSet result = new BitSet();
+      evaluateBitmap(clause).addTo(result);
+      return result;
+    }
+    if (clause instanceof Always) { return (BitSet) live.clone(); }
+    if (clause instanceof Equals) {
+      Equals equals = (Equals) clause;
+      return postings(equals.getAttributeName(), Collections.singleton(equals.getValue()));
+    }
+    if (clause instanceof OneOf) {
+      OneOf oneOf = (OneOf) clause;
+      return postings(oneOf.getAttributeName(), oneOf.values());
+    }
+    if (clause instanceof Exists) {
+      AttributeIndex index = attributes.get(((Exists) clause).getAttributeName());
+      return index == null ? new BitSet() : (BitSet) index.present().clone();
+    }
+    if (clause instanceof Range) {
+      Range range = (Range) clause;
+      return range(range.getAttributeName(), range.getMin(), range.isMinInclusive(), range.getMax(),
+                   range.isMaxInclusive());
+    }
+    if (clause instanceof RelationalClause) {
+      RelationalClause relational = (RelationalClause) clause;
+      Comparable value = relational.getValue();
+      String name = relational.getAttributeName();
+      if (clause instanceof RelationalClause.LessThan) { return range(name, null, false, value, false); }
+      if (clause instanceof RelationalClause.LessThanOrEqual) { return range(name, null, false, value, true); }
+      if (clause instanceof RelationalClause.GreaterThan) { return range(name, value, false, null, false); }
+      if (clause instanceof RelationalClause.GreaterThanOrEqual) { return range(name, value, true, null, false); }
+    }
+    if (clause instanceof Matches) {
+      Matches matches = (Matches) clause;
+      AttributeIndex index = attributes.get(matches.getAttributeName());
+      BitSet result = new BitSet();
+      if (index != null) {
+        index.matches(matches, result);
+      }
+      return result;
+    }
+    if (clause instanceof BooleanClause) {
+      BooleanClause bool = (BooleanClause) clause;
+      Clause[] members = bool.getMembers();
+      switch (bool.type()) {
+        case AND:
+          return evaluateConjunction(members);
+        case OR: {
+          BitSet result = evaluate(members[0]);
+          for (int i = 1; i < members.length; i++) {
+            result.or(evaluate(members[i]));
+          }
+          return result;
+        }
+        case NOT: {
+          BitSet result = (BitSet) live.clone();
+          result.andNot(evaluate(members[0]));
+          return result;
+        }
+        default:
+          break;
+      }
+    }
+    throw new SearchException("Unsupported clause: " + clause);
+  }
+
+  /**
+   * Intersects the positive conjuncts from the most to the least selective, {@code Matches} clauses last, then
+   * subtracts the negated ones. Once few entries are left, {@code Matches} conjuncts are checked against their
+   * attributes rather than against all the distinct values of their attribute.
+   */
+  private BitSet evaluateConjunction(Clause[] members) {
+    List<Clause> positives = new ArrayList<Clause>(members.length);
+    List<Clause> negatives = new ArrayList<Clause>();
+    for (Clause member : members) {
+      if (isNegation(member)) {
+        negatives.add(((BooleanClause) member).getMembers()[0]);
+      } else {
+        positives.add(member);
+      }
+    }
+    BitSet result;
+    if (positives.isEmpty()) {
+      result = (BitSet) live.clone();
+    } else {
+      final Map<Clause, Integer> estimates = new HashMap<Clause, Integer>();
+      for (Clause positive : positives) {
+        estimates.put(positive, isScanned(positive) ? Integer.MAX_VALUE : estimate(positive));
+      }
+      Collections.sort(positives, new Comparator<Clause>() {
+        @Override
+        public int compare(Clause c1, Clause c2) {
+          return Integer.compare(estimates.get(c1), estimates.get(c2));
+        }
+      });
+      result = evaluate(positives.get(0));
+      for (int i = 1; i < positives.size() && !result.isEmpty(); i++) {
+        Clause positive = positives.get(i);
+        if (positive instanceof Matches && filter(result, (Matches) positive, true)) {
+          continue;
+        }
+        result.and(evaluate(positive));
+      }
+    }
+    for (int i = 0; i < negatives.size() && !result.isEmpty(); i++) {
+      Clause negative = negatives.get(i);
+      if (negative instanceof Matches && filter(result, (Matches) negative, false)) {
+        continue;
+      }
+      result.andNot(evaluate(negative));
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if {@code clause} is a {@code Matches} clause checked against all the values of its attribute
+   */
+  private boolean isScanned(Clause clause) {
+    if (!(clause instanceof Matches)) { return false; }
+    AttributeIndex index = attributes.get(((Matches) clause).getAttributeName());
+    return index != null && !index.isPrefixIndexed((Matches) clause);
+  }
+
+  /**
+   * Keeps in {@code candidates} the entries whose attribute matches, or does not match if {@code keep} is false, the
+   * expression of {@code matches}. Returns false without checking them if there are more candidates than distinct
+   * values of the attribute, cheaper to match.
+   */
+  private boolean filter(BitSet candidates, Matches matches, boolean keep) {
+    String name = matches.getAttributeName();
+    AttributeIndex index = attributes.get(name);
+    if (index != null && candidates.cardinality() > index.values().size()) { return false; }
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      Object value = attributesOf(i).get(name);
+      if ((value != null && matches.matches(value.toString())) != keep) {
+        candidates.clear(i);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Estimates the number of entries matching {@code clause} from the sizes of the postings, without evaluating it
+   */
+  private int estimate(Clause clause) {
+    int size = ordinals.size();
+    if (clause instanceof Equals) {
+      Equals equals = (Equals) clause;
+      return count(equals.getAttributeName(), Collections.singleton(equals.getValue()));
+    }
+    if (clause instanceof OneOf) {
+      OneOf oneOf = (OneOf) clause;
+      return count(oneOf.getAttributeName(), oneOf.values());
+    }
+    if (clause instanceof Exists) {
+      AttributeIndex index = attributes.get(((Exists) clause).getAttributeName());
+      return index == null ? 0 : index.present().cardinality();
+    }
+    if (clause instanceof Range) {
+      Range range = (Range) clause;
+      return estimateRange(range.getAttributeName(), range.getMin(), range.isMinInclusive(), range.getMax(),
+                           range.isMaxInclusive());
+    }
+    if (clause instanceof RelationalClause) {
+      RelationalClause relational = (RelationalClause) clause;
+      Comparable value = relational.getValue();
+      String name = relational.getAttributeName();
+      if (clause instanceof RelationalClause.LessThan) { return estimateRange(name, null, false, value, false); }
+      if (clause instanceof RelationalClause.LessThanOrEqual) { return estimateRange(name, null, false, value, true); }
+      if (clause instanceof RelationalClause.GreaterThan) { return estimateRange(name, value, false, null, false); }
+      return estimateRange(name, value, true, null, false);
+    }
+    if (clause instanceof Matches) {
+      AttributeIndex index = attributes.get(((Matches) clause).getAttributeName());
+      return index == null ? 0 : index.estimateMatches((Matches) clause, ESTIMATED_RANGE_VALUES, size);
+    }
+    if (clause instanceof BooleanClause) {
+      BooleanClause bool = (BooleanClause) clause;
+      if (bool.type() == BooleanClause.Operator.NOT) { return size - Math.min(size, estimate(bool.getMembers()[0])); }
+      boolean and = bool.type() == BooleanClause.Operator.AND;
+      long estimate = and ? size : 0;
+      for (Clause member : bool.getMembers()) {
+        estimate = and ? Math.min(estimate, estimate(member)) : estimate + estimate(member);
+      }
+      return (int) Math.min(estimate, size);
+    }
+    return size;
+  }
+
+  private int count(String name, Collection<?> candidates) {
+    AttributeIndex index = attributes.get(name);
+    if (index == null) { return 0; }
+    int count = 0;
+    for (Object candidate : candidates) {
+      Postings postings = index.postingsOf(candidate);
+      if (postings != null) {
+        count += postings.size();
+      }
+    }
+    return count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int estimateRange(String name, Comparable min, boolean minInclusive, Comparable max, boolean maxInclusive) {
+    AttributeIndex index = attributes.get(name);
+    if (index == null) { return 0; }
+    // a mistyped bound is reported by the evaluation
+    if (!index.accepts(min != null ? min : max)) { return 0; }
+    return index.estimateRange(min, minInclusive, max, maxInclusive, ESTIMATED_RANGE_VALUES, ordinals.size());
+  }
+
+  /**
+   * Returns true if {@code clause} can be evaluated by {@link #evaluateBitmap(Clause)}
+   */
+  private boolean isBitmapIndexed(Clause clause) {
+    if (clause instanceof Equals) { return isBitmapIndexed(((Equals) clause).getAttributeName()); }
+    if (clause instanceof OneOf) { return isBitmapIndexed(((OneOf) clause).getAttributeName()); }
+    if (!(clause instanceof BooleanClause)) { return false; }
+    BooleanClause bool = (BooleanClause) clause;
+    // the complement of a bitmap is taken from the other conjuncts, there is no bitmap of all the entries
+    if (bool.type() == BooleanClause.Operator.NOT) { return false; }
+    boolean positive = false;
+    for (Clause member : bool.getMembers()) {
+      if (bool.type() == BooleanClause.Operator.AND && isNegation(member)) {
+        member = ((BooleanClause) member).getMembers()[0];
+      } else {
+        positive = true;
+      }
+      if (!isBitmapIndexed(member)) { return false; }
+    }
+    return positive;
+  }
+
+  private boolean isBitmapIndexed(String name) {
+    AttributeIndex index = attributes.get(name);
+    return index != null && index.isBitmap();
+  }
+
+  private static boolean isNegation(Clause clause) {
+    return clause instanceof BooleanClause && ((BooleanClause) clause).type() == BooleanClause.Operator.NOT;
+  }
+
+  /**
+   * Evaluates a clause accepted by {@link #isBitmapIndexed(Clause)} on the compressed postings, intersecting the
+   * smallest conjuncts first and subtracting the negated ones last
+   */
+  private CompressedBitmap evaluateBitmap(Clause clause) {
+    if (clause instanceof Equals) {
+      Equals equals = (Equals) clause;
+      return bitmapPostings(equals.getAttributeName(), Collections.singleton(equals.getValue()));
+    }
+    if (clause instanceof OneOf) {
+      OneOf oneOf = (OneOf) clause;
+      return bitmapPostings(oneOf.getAttributeName(), oneOf.values());
+    }
+    BooleanClause bool = (BooleanClause) clause;
+    List<CompressedBitmap> positives = new ArrayList<CompressedBitmap>();
+    List<Clause> negatives = new ArrayList<Clause>();
+    for (Clause member : bool.getMembers()) {
+      if (isNegation(member)) {
+        negatives.add(((BooleanClause) member).getMembers()[0]);
+      } else {
+        positives.add(evaluateBitmap(member));
+      }
+    }
+    if (bool.type() == BooleanClause.Operator.OR) {
+      CompressedBitmap result = positives.get(0);
+      for (int i = 1; i < positives.size(); i++) {
+        result = result.or(positives.get(i));
+      }
+      return result;
+    }
+    Collections.sort(positives, new Comparator<CompressedBitmap>() {
+      @Override
+      public int compare(CompressedBitmap b1, CompressedBitmap b2) {
+        return Integer.compare(b1.size(), b2.size());
+      }
+    });
+    CompressedBitmap result = positives.get(0);
+    for (int i = 1; i < positives.size() && !result.isEmpty(); i++) {
+      result = result.and(positives.get(i));
+    }
+    for (int i = 0; i < negatives.size() && !result.isEmpty(); i++) {
+      result = result.andNot(evaluateBitmap(negatives.get(i)));
+    }
+    return result;
+  }
+
+  private CompressedBitmap bitmapPostings(String name, Collection<?> candidates) {
+    AttributeIndex index = attributes.get(name);
+    CompressedBitmap result = new CompressedBitmap();
+    for (Object candidate : candidates) {
+      SearchIndex.checkValueClass(index.valueClass(), name, candidate);
+      Postings postings = index.postingsOf(candidate);
+      if (postings != null) {
+        result = result.isEmpty() ? (CompressedBitmap) postings : result.or((CompressedBitmap) postings);
+      }
+    }
+    return result;
+  }
+
+  private BitSet postings(String name, Iterable<?> candidates) {
+    BitSet result = new BitSet();
+    AttributeIndex index = attributes.get(name);
+    if (index == null) { return result; }
+    for (Object candidate : candidates) {
+      SearchIndex.checkValueClass(index.valueClass(), name, candidate);
+      Postings set = index.postingsOf(candidate);
+      if (set != null) {
+        set.addTo(result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Evaluates a range, unbounded on the sides of the null bounds
+   */
+  @SuppressWarnings("unchecked")
+  private BitSet range(String name, Comparable min, boolean minInclusive, Comparable max, boolean maxInclusive) {
+    BitSet result = new BitSet();
+    AttributeIndex index = attributes.get(name);
+    if (index == null) { return result; }
+    SearchIndex.checkValueClass(index.valueClass(), name, min != null ? min : max);
+    index.range(min, minInclusive, max, maxInclusive, result);
+    return result;
+  }
+
+  private void unindex(int ordinal) {
+    for (Map.Entry<String, Object> attr : attributesOf(ordinal).entrySet()) {
+      AttributeIndex index = attributes.get(attr.getKey());
+      if (index != null) {
+        index.remove(attr.getValue(), ordinal);
+      }
+    }
+  }
+
+  private int allocate() {
+    if (freeCount > 0) { return free[--freeCount]; }
+    if (nextOrdinal == keys.length) {
+      keys = Arrays.copyOf(keys, keys.length << 1);
+      entryAttributes = Arrays.copyOf(entryAttributes, entryAttributes.length << 1);
+    }
+    return nextOrdinal++;
+  }
+
+  private static int[] grow(int[] array) {
+    return Arrays.copyOf(array, array.length << 1);
+  }
+}
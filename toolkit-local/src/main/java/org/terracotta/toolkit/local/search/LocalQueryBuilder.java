@@ -0,0 +1,128 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.AggregateFunction;
+import org.terracotta.toolkit.search.Attribute;
+import org.terracotta.toolkit.search.QueryBuilder;
+import org.terracotta.toolkit.search.SortDirection;
+import org.terracotta.toolkit.search.ToolkitSearchQuery;
+import org.terracotta.toolkit.search.expression.Always;
+import org.terracotta.toolkit.search.expression.BooleanClause;
+import org.terracotta.toolkit.search.expression.Clause;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds queries evaluated against the {@link SearchIndex} of a store. The clauses added to the builder are all
+ * required to match, and a builder without clauses matches every indexed entry. Results are never paged, so the
+ * page size is ignored.
+ */
+public class LocalQueryBuilder<K, V> implements QueryBuilder {
+
+  private final SearchSource<K, V>      source;
+  private final Set<Attribute<?>>       attributes      = new LinkedHashSet<Attribute<?>>();
+  private final Set<Attribute<?>>       groupBy         = new LinkedHashSet<Attribute<?>>();
+  private final List<Attribute<?>>      orderBy         = new ArrayList<Attribute<?>>();
+  private final List<SortDirection>     orderDirections = new ArrayList<SortDirection>();
+  private final List<AggregateFunction> aggregators     = new ArrayList<AggregateFunction>();
+  private final List<Clause>            clauses         = new ArrayList<Clause>();
+  private boolean                       includeKeys;
+  private boolean                       includeValues;
+  private int                           maxResults      = -1;
+  private int                           pageSize;
+
+  public LocalQueryBuilder(SearchSource<K, V> source) {
+    this.source = source;
+  }
+
+  @Override
+  public QueryBuilder includeKeys(boolean choice) {
+    this.includeKeys = choice;
+    return this;
+  }
+
+  @Override
+  public QueryBuilder includeValues(boolean choice) {
+    this.includeValues = choice;
+    return this;
+  }
+
+  @Override
+  public QueryBuilder maxResults(int max) {
+    this.maxResults = max;
+    return this;
+  }
+
+  @Override
+  public QueryBuilder includeAttribute(Attribute<?>... attr) {
+    attributes.addAll(Arrays.asList(attr));
+    return this;
+  }
+
+  @Override
+  public QueryBuilder addGroupBy(Attribute<?>... attr) {
+    groupBy.addAll(Arrays.asList(attr));
+    return this;
+  }
+
+  @Override
+  public QueryBuilder addOrderBy(Attribute<?> attr, SortDirection dir) {
+    if (attr == null || dir == null) { throw new NullPointerException(); }
+    orderBy.add(attr);
+    orderDirections.add(dir);
+    return this;
+  }
+
+  @Override
+  public QueryBuilder includeAggregator(AggregateFunction... aggregator) {
+    aggregators.addAll(Arrays.asList(aggregator));
+    return this;
+  }
+
+  @Override
+  public QueryBuilder resultPageSize(int size) {
+    this.pageSize = size;
+    return this;
+  }
+
+  @Override
+  public QueryBuilder addClause(Clause clause) {
+    if (clause == null) { throw new NullPointerException(); }
+    clauses.add(clause);
+    return this;
+  }
+
+  @Override
+  public ToolkitSearchQuery build() {
+    Clause clause;
+    if (clauses.isEmpty()) {
+      clause = new Always();
+    } else if (clauses.size() == 1) {
+      clause = clauses.get(0);
+    } else {
+      clause = new BooleanClause(BooleanClause.Operator.AND, clauses.toArray(new Clause[clauses.size()]));
+    }
+    clause = QueryOptimizer.optimize(clause);
+    return new LocalSearchQuery<K, V>(source, clause, includeKeys, includeValues, maxResults, pageSize, attributes,
+                                      groupBy, orderBy, orderDirections, aggregators);
+  }
+}
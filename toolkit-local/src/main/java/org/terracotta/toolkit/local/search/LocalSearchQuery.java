@@ -0,0 +1,301 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.local.search.SearchIndex.Match;
+import org.terracotta.toolkit.search.AggregateFunction;
+import org.terracotta.toolkit.search.Attribute;
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.SearchQueryResultSet;
+import org.terracotta.toolkit.search.SearchResult;
+import org.terracotta.toolkit.search.SortDirection;
+import org.terracotta.toolkit.search.ToolkitSearchQuery;
+import org.terracotta.toolkit.search.expression.Clause;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A query built by a {@link LocalQueryBuilder}. Executing it evaluates its clause against the index of the store,
+ * then looks up the values of the matching entries if they were asked for, or if some of the entries may have
+ * expired, leaving out the entries that are gone. Results are grouped, aggregated, sorted with missing attributes last
+ * and truncated to the maximum number of results in that order.
+ */
+final class LocalSearchQuery<K, V> implements ToolkitSearchQuery {
+
+  private final SearchSource<K, V>      source;
+  private final Clause                  clause;
+  private final boolean                 includeKeys;
+  private final boolean                 includeValues;
+  private final int                     maxResults;
+  private final int                     pageSize;
+  private final Set<Attribute<?>>       attributes;
+  private final Set<Attribute<?>>       groupBy;
+  private final List<Attribute<?>>      orderBy;
+  private final List<SortDirection>     orderDirections;
+  private final List<AggregateFunction> aggregators;
+
+  LocalSearchQuery(SearchSource<K, V> source, Clause clause, boolean includeKeys, boolean includeValues,
+                   int maxResults, int pageSize, Set<Attribute<?>> attributes, Set<Attribute<?>> groupBy,
+                   List<Attribute<?>> orderBy, List<SortDirection> orderDirections,
+                   List<AggregateFunction> aggregators) {
+    this.source = source;
+    this.clause = clause;
+    this.includeKeys = includeKeys;
+    this.includeValues = includeValues;
+    this.maxResults = maxResults;
+    this.pageSize = pageSize;
+    this.attributes = Collections.unmodifiableSet(new LinkedHashSet<Attribute<?>>(attributes));
+    this.groupBy = Collections.unmodifiableSet(new LinkedHashSet<Attribute<?>>(groupBy));
+    this.orderBy = Collections.unmodifiableList(new ArrayList<Attribute<?>>(orderBy));
+    this.orderDirections = Collections.unmodifiableList(new ArrayList<SortDirection>(orderDirections));
+    this.aggregators = Collections.unmodifiableList(new ArrayList<AggregateFunction>(aggregators));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Set<T> getAttributes() {
+    return (Set<T>) attributes;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Set<T> getGroupByAttributes() {
+    return (Set<T>) groupBy;
+  }
+
+  /**
+   * Returns the attributes to order by, as entries mapping them to their {@link SortDirection}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getSortAttributes() {
+    List<Map.Entry<Attribute<?>, SortDirection>> sort = new ArrayList<Map.Entry<Attribute<?>, SortDirection>>();
+    for (int i = 0; i < orderBy.size(); i++) {
+      sort.add(new AbstractMap.SimpleImmutableEntry<Attribute<?>, SortDirection>(orderBy.get(i), orderDirections
+          .get(i)));
+    }
+    return (List<T>) Collections.unmodifiableList(sort);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getAggregators() {
+    return (List<T>) aggregators;
+  }
+
+  @Override
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  @Override
+  public boolean requestsKeys() {
+    return includeKeys;
+  }
+
+  @Override
+  public boolean requestsValues() {
+    return includeValues;
+  }
+
+  @Override
+  public int getResultPageSize() {
+    return pageSize;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public SearchQueryResultSet execute() throws SearchException {
+    long start = System.nanoTime();
+    SearchIndex<K> index = source.getSearchIndex();
+    if (index == null) { throw new SearchException("No attribute extractor was set on the searched store"); }
+    List<Match> matches = index.search(clause);
+    List<Object> values = null;
+    if (includeValues || source.mayHoldExpiredEntries()) {
+      List<Match> live = new ArrayList<Match>(matches.size());
+      values = new ArrayList<Object>(matches.size());
+      for (Match match : matches) {
+        V value = source.lookup((K) match.key);
+        if (value != null) {
+          live.add(match);
+          values.add(value);
+        }
+      }
+      matches = live;
+    }
+
+    List<SearchResult> results = new ArrayList<SearchResult>();
+    List<Object> aggregates = Collections.emptyList();
+    if (groupBy.isEmpty()) {
+      aggregates = aggregate(matches);
+      if (includeKeys || includeValues || !attributes.isEmpty() || aggregators.isEmpty()) {
+        for (int i = 0; i < matches.size(); i++) {
+          Match match = matches.get(i);
+          results.add(new LocalSearchResult(includeKeys ? match.key : LocalSearchResult.NOT_INCLUDED,
+                                            includeValues ? values.get(i) : LocalSearchResult.NOT_INCLUDED,
+                                            select(match.attributes, attributes), sortValues(match.attributes),
+                                            Collections.<String, Object> emptyMap(),
+                                            Collections.emptyList()));
+        }
+      }
+    } else {
+      Map<List<Object>, List<Match>> groups = new LinkedHashMap<List<Object>, List<Match>>();
+      for (Match match : matches) {
+        List<Object> group = new ArrayList<Object>(groupBy.size());
+        for (Attribute<?> attribute : groupBy) {
+          group.add(match.attributes.get(attribute.getAttributeName()));
+        }
+        List<Match> members = groups.get(group);
+        if (members == null) {
+          members = new ArrayList<Match>();
+          groups.put(group, members);
+        }
+        members.add(match);
+      }
+      for (List<Match> members : groups.values()) {
+        Map<String, Object> first = members.get(0).attributes;
+        results.add(new LocalSearchResult(LocalSearchResult.NOT_INCLUDED, LocalSearchResult.NOT_INCLUDED,
+                                          select(first, attributes), sortValues(first), select(first, groupBy),
+                                          aggregate(members)));
+      }
+    }
+
+    if (!orderBy.isEmpty()) {
+      Collections.sort(results, new Comparator<SearchResult>() {
+        @Override
+        public int compare(SearchResult r1, SearchResult r2) {
+          for (int i = 0; i < orderBy.size(); i++) {
+            int c = compareValues(((LocalSearchResult) r1).sortAttribute(i), ((LocalSearchResult) r2).sortAttribute(i),
+                                  orderDirections.get(i));
+            if (c != 0) { return c; }
+          }
+          return 0;
+        }
+      });
+    }
+    if (maxResults >= 0 && results.size() > maxResults) {
+      results = new ArrayList<SearchResult>(results.subList(0, maxResults));
+    }
+    source.searched(System.nanoTime() - start);
+    return new LocalSearchResultSet(Collections.unmodifiableList(results), aggregates, !matches.isEmpty());
+  }
+
+  /**
+   * Compares the sort values of two results, missing values last whatever the direction
+   */
+  @SuppressWarnings("unchecked")
+  private static int compareValues(Object v1, Object v2, SortDirection direction) {
+    if (v1 == null) { return v2 == null ? 0 : 1; }
+    if (v2 == null) { return -1; }
+    int c = ((Comparable<Object>) v1).compareTo(v2);
+    return direction == SortDirection.DESCENDING ? -c : c;
+  }
+
+  private Object[] sortValues(Map<String, Object> attrs) {
+    Object[] sort = new Object[orderBy.size()];
+    for (int i = 0; i < sort.length; i++) {
+      sort[i] = attrs.get(orderBy.get(i).getAttributeName());
+    }
+    return sort;
+  }
+
+  private static Map<String, Object> select(Map<String, Object> attrs, Set<Attribute<?>> selected) {
+    if (selected.isEmpty()) { return Collections.emptyMap(); }
+    Map<String, Object> values = new HashMap<String, Object>();
+    for (Attribute<?> attribute : selected) {
+      values.put(attribute.getAttributeName(), attrs.get(attribute.getAttributeName()));
+    }
+    return Collections.unmodifiableMap(values);
+  }
+
+  private List<Object> aggregate(List<Match> matches) {
+    if (aggregators.isEmpty()) { return Collections.emptyList(); }
+    List<Object> results = new ArrayList<Object>(aggregators.size());
+    for (AggregateFunction aggregator : aggregators) {
+      results.add(aggregate(aggregator, matches));
+    }
+    return Collections.unmodifiableList(results);
+  }
+
+  /**
+   * Returns the count of the entries as an {@code Integer}, the smallest or largest value of the attribute, its sum as
+   * a {@code Long}, or a {@code Double} for floating point attributes, or its average as a {@code Double}. The entries
+   * without the attribute are ignored, and null is returned if none has it.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object aggregate(AggregateFunction aggregator, List<Match> matches) {
+    if (aggregator.getType() == AggregateFunction.Type.COUNT) { return matches.size(); }
+    String name = aggregator.getAttributeName();
+    Comparable<Object> extreme = null;
+    long longSum = 0;
+    double doubleSum = 0;
+    boolean floating = false;
+    int count = 0;
+    for (Match match : matches) {
+      Object value = match.attributes.get(name);
+      if (value == null) {
+        continue;
+      }
+      count++;
+      switch (aggregator.getType()) {
+        case MIN:
+          if (extreme == null || extreme.compareTo(value) > 0) {
+            extreme = (Comparable<Object>) value;
+          }
+          break;
+        case MAX:
+          if (extreme == null || extreme.compareTo(value) < 0) {
+            extreme = (Comparable<Object>) value;
+          }
+          break;
+        default:
+          if (!(value instanceof Number)) { throw new SearchException("Cannot " + aggregator.getType()
+                                                                      + " non numeric attribute [" + name + "]"); }
+          Number number = (Number) value;
+          floating |= value instanceof Double || value instanceof Float;
+          longSum += number.longValue();
+          doubleSum += number.doubleValue();
+          break;
+      }
+    }
+    if (count == 0) { return null; }
+    switch (aggregator.getType()) {
+      case MIN:
+      case MAX:
+        return extreme;
+      case SUM:
+        if (floating) { return doubleSum; }
+        return longSum;
+      default:
+        return doubleSum / count;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SearchQuery[" + clause + "]";
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.SearchResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A result of a {@link LocalSearchQuery}: an entry, or a group of entries when the query groups its results
+ */
+final class LocalSearchResult implements SearchResult {
+
+  // key or value the query did not ask for
+  static final Object               NOT_INCLUDED = new Object();
+
+  private final Object              key;
+  private final Object              value;
+  private final Map<String, Object> attributes;
+  private final Object[]            sortAttributes;
+  private final Map<String, Object> groupByValues;
+  private final List<Object>        aggregatorResults;
+
+  LocalSearchResult(Object key, Object value, Map<String, Object> attributes, Object[] sortAttributes,
+                    Map<String, Object> groupByValues, List<Object> aggregatorResults) {
+    this.key = key;
+    this.value = value;
+    this.attributes = attributes;
+    this.sortAttributes = sortAttributes;
+    this.groupByValues = groupByValues;
+    this.aggregatorResults = aggregatorResults;
+  }
+
+  /**
+   * Returns the key of the entry, as a string when it is not one
+   *
+   * @throws SearchException if the query did not include keys, or grouped its results
+   */
+  @Override
+  public String getKey() {
+    if (key == NOT_INCLUDED) { throw new SearchException("Keys were not included in the query"); }
+    return key instanceof String ? (String) key : String.valueOf(key);
+  }
+
+  /**
+   * @throws SearchException if the query did not include values, or grouped its results
+   */
+  @Override
+  public Object getValue() {
+    if (value == NOT_INCLUDED) { throw new SearchException("Values were not included in the query"); }
+    return value;
+  }
+
+  @Override
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public Object[] getSortAttributes() {
+    return sortAttributes.clone();
+  }
+
+  Object sortAttribute(int index) {
+    return sortAttributes[index];
+  }
+
+  @Override
+  public Map<String, Object> getGroupByValues() {
+    return groupByValues;
+  }
+
+  @Override
+  public List<Object> getAggregatorResults() {
+    return aggregatorResults;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchResult[key=" + (key == NOT_INCLUDED ? "" : key) + ", attributes=" + attributes + ", groupBy="
+           + groupByValues + ", aggregates=" + aggregatorResults + "]";
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.ResultsUnavailableException;
+import org.terracotta.toolkit.search.SearchQueryResultSet;
+import org.terracotta.toolkit.search.SearchResult;
+
+import java.util.List;
+
+/**
+ * The results of a {@link LocalSearchQuery}, computed when the query was executed
+ */
+final class LocalSearchResultSet implements SearchQueryResultSet {
+
+  private final List<SearchResult> results;
+  private final List<Object>       aggregatorResults;
+  private final boolean            anyCriteriaMatched;
+  private volatile boolean         closed;
+
+  LocalSearchResultSet(List<SearchResult> results, List<Object> aggregatorResults, boolean anyCriteriaMatched) {
+    this.results = results;
+    this.aggregatorResults = aggregatorResults;
+    this.anyCriteriaMatched = anyCriteriaMatched;
+  }
+
+  @Override
+  public List<Object> getAggregatorResults() {
+    checkOpen();
+    return aggregatorResults;
+  }
+
+  @Override
+  public List<SearchResult> getResults() {
+    checkOpen();
+    return results;
+  }
+
+  @Override
+  public boolean anyCriteriaMatched() {
+    return anyCriteriaMatched;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  private void checkOpen() {
+    if (closed) { throw new ResultsUnavailableException("The result set is closed"); }
+  }
+}
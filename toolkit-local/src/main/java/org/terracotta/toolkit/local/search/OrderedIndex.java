@@ -0,0 +1,76 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The distinct values of a comparable attribute in order, each with the ordinals of the entries holding it, so that
+ * the entries of a range of values are found in O(log n + k) for n distinct values and k values in the range.
+ */
+final class OrderedIndex {
+
+  private final ConcurrentSkipListMap<Object, Postings> values = new ConcurrentSkipListMap<Object, Postings>();
+
+  void put(Object value, Postings postings) {
+    values.put(value, postings);
+  }
+
+  void remove(Object value) {
+    values.remove(value);
+  }
+
+  /**
+   * Sets in {@code into} the ordinals of the entries holding a value between {@code min} and {@code max}, a null bound
+   * leaving the range open on its side
+   */
+  void collect(Comparable<Object> min, boolean minInclusive, Comparable<Object> max, boolean maxInclusive, BitSet into) {
+    for (Postings postings : range(min, minInclusive, max, maxInclusive).values()) {
+      postings.addTo(into);
+    }
+  }
+
+  /**
+   * Returns the number of entries holding a value in a range, or {@code limit} if it holds more than
+   * {@code maxValues} distinct values or at least {@code limit} entries
+   */
+  int count(Comparable<Object> min, boolean minInclusive, Comparable<Object> max, boolean maxInclusive, int maxValues,
+            int limit) {
+    int count = 0;
+    int distinct = 0;
+    for (Postings postings : range(min, minInclusive, max, maxInclusive).values()) {
+      count += postings.size();
+      if (++distinct > maxValues || count >= limit) { return limit; }
+    }
+    return count;
+  }
+
+  private NavigableMap<Object, Postings> range(Comparable<Object> min, boolean minInclusive, Comparable<Object> max,
+                                               boolean maxInclusive) {
+    if (min != null && max != null) {
+      int c = min.compareTo(max);
+      if (c > 0 || (c == 0 && !(minInclusive && maxInclusive))) { return Collections.emptyNavigableMap(); }
+      return values.subMap(min, minInclusive, max, maxInclusive);
+    }
+    if (min != null) { return values.tailMap(min, minInclusive); }
+    if (max != null) { return values.headMap(max, maxInclusive); }
+    return values;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import java.util.BitSet;
+
+/**
+ * Postings in an open addressing hash set of ints, so that entries are added and removed in constant time whatever
+ * the number of entries sharing the value.
+ */
+final class PostingSet extends Postings {
+
+  private static final int MIN_CAPACITY = 4;
+
+  // ordinals plus one, 0 marking a free slot
+  private int[]            slots        = new int[MIN_CAPACITY];
+  private int              size;
+
+  @Override
+  int size() {
+    return size;
+  }
+
+  @Override
+  void add(int ordinal) {
+    if ((size + 1) * 4 > slots.length * 3) {
+      resize(slots.length << 1);
+    }
+    int mask = slots.length - 1;
+    int value = ordinal + 1;
+    for (int i = mix(value) & mask;; i = (i + 1) & mask) {
+      if (slots[i] == value) { return; }
+      if (slots[i] == 0) {
+        slots[i] = value;
+        size++;
+        return;
+      }
+    }
+  }
+
+  @Override
+  boolean contains(int ordinal) {
+    int mask = slots.length - 1;
+    int value = ordinal + 1;
+    for (int i = mix(value) & mask;; i = (i + 1) & mask) {
+      if (slots[i] == value) { return true; }
+      if (slots[i] == 0) { return false; }
+    }
+  }
+
+  @Override
+  void remove(int ordinal) {
+    int mask = slots.length - 1;
+    int value = ordinal + 1;
+    int i = mix(value) & mask;
+    while (slots[i] != value) {
+      if (slots[i] == 0) { return; }
+      i = (i + 1) & mask;
+    }
+    // shift back the following slots of the cluster so that lookups never stop at the freed slot
+    for (int j = (i + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+      int home = mix(slots[j]) & mask;
+      if (((j - home) & mask) >= ((j - i) & mask)) {
+        slots[i] = slots[j];
+        i = j;
+      }
+    }
+    slots[i] = 0;
+    size--;
+    if (size * 8 < slots.length && slots.length > MIN_CAPACITY) {
+      resize(slots.length >>> 1);
+    }
+  }
+
+  @Override
+  void addTo(BitSet bits) {
+    for (int slot : slots) {
+      if (slot != 0) {
+        bits.set(slot - 1);
+      }
+    }
+  }
+
+  private void resize(int capacity) {
+    int[] old = slots;
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int value : old) {
+      if (value != 0) {
+        int i = mix(value) & mask;
+        while (slots[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = value;
+      }
+    }
+  }
+
+  private static int mix(int value) {
+    int h = value * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import java.util.BitSet;
+
+/**
+ * The ordinals of the entries holding one value of an attribute
+ */
+abstract class Postings {
+
+  abstract void add(int ordinal);
+
+  abstract void remove(int ordinal);
+
+  abstract boolean contains(int ordinal);
+
+  abstract int size();
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Sets the bits of the ordinals of this set in {@code bits}
+   */
+  abstract void addTo(BitSet bits);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The distinct values of a string attribute ordered by their case folded form, so that the values matching a
+ * {@code Matches} expression starting with literal characters are looked for among the values starting with them
+ * ignoring case, found in O(log n + k) for n distinct values and k values with the prefix, rather than among all the
+ * values.
+ */
+final class PrefixIndex {
+
+  // the values by folded form, several values folding to the same form
+  private final NavigableMap<String, Set<String>> values = new TreeMap<String, Set<String>>();
+
+  /**
+   * Returns the case folded form of {@code value}, where two characters are the same if they are equal ignoring case
+   * as {@link String#regionMatches(boolean, int, String, int, int)} compares them
+   */
+  static String fold(String value) {
+    char[] chars = new char[value.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+    }
+    return new String(chars);
+  }
+
+  void add(String value) {
+    String folded = fold(value);
+    Set<String> same = values.get(folded);
+    if (same == null) {
+      same = new HashSet<String>(2);
+      values.put(folded, same);
+    }
+    same.add(value);
+  }
+
+  void remove(String value) {
+    String folded = fold(value);
+    Set<String> same = values.get(folded);
+    if (same != null && same.remove(value) && same.isEmpty()) {
+      values.remove(folded);
+    }
+  }
+
+  /**
+   * Returns the values starting with {@code prefix} ignoring case, or null if there are more than {@code maxValues}
+   */
+  List<String> startingWith(String prefix, int maxValues) {
+    String folded = fold(prefix);
+    List<String> result = new ArrayList<String>();
+    for (Map.Entry<String, Set<String>> value : values.tailMap(folded, true).entrySet()) {
+      if (!value.getKey().startsWith(folded)) {
+        break;
+      }
+      result.addAll(value.getValue());
+      if (result.size() > maxValues) { return null; }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.expression.Always;
+import org.terracotta.toolkit.search.expression.BooleanClause;
+import org.terracotta.toolkit.search.expression.BooleanClause.Operator;
+import org.terracotta.toolkit.search.expression.Clause;
+import org.terracotta.toolkit.search.expression.Equals;
+import org.terracotta.toolkit.search.expression.OneOf;
+import org.terracotta.toolkit.search.expression.Range;
+import org.terracotta.toolkit.search.expression.RelationalClause;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites the clause of a query into an equivalent clause cheaper to evaluate, before the {@link SearchIndex}
+ * orders the conjuncts of each conjunction by their estimated number of matches:
+ * <ul>
+ * <li>nested conjunctions and disjunctions are flattened, so that all their members are ordered together</li>
+ * <li>{@code Always} members are folded into their conjunction or disjunction</li>
+ * <li>negations are pushed down to the other clauses with De Morgan's laws, double negations cancelled, so that
+ * negated conjuncts are subtracted from the other conjuncts rather than complemented</li>
+ * <li>the {@code Range} and {@code RelationalClause} conjuncts of the same attribute are merged in one range</li>
+ * <li>the {@code Equals} and {@code OneOf} disjuncts of the same attribute are merged in one {@code OneOf}</li>
+ * </ul>
+ * A negation matches the indexed entries its member does not match, so a rewritten clause matches the same entries.
+ */
+final class QueryOptimizer {
+
+  private QueryOptimizer() {
+    //
+  }
+
+  static Clause optimize(Clause clause) {
+    if (!(clause instanceof BooleanClause)) { return clause; }
+    BooleanClause bool = (BooleanClause) clause;
+    if (bool.type() == Operator.NOT) { return negate(optimize(bool.getMembers()[0])); }
+    boolean and = bool.type() == Operator.AND;
+    List<Clause> members = new ArrayList<Clause>();
+    for (Clause member : bool.getMembers()) {
+      Clause optimized = optimize(member);
+      if (optimized instanceof BooleanClause && ((BooleanClause) optimized).type() == bool.type()) {
+        for (Clause nested : ((BooleanClause) optimized).getMembers()) {
+          members.add(nested);
+        }
+      } else if (isNever(optimized)) {
+        if (and) { return optimized; }
+      } else if (optimized instanceof Always) {
+        if (!and) { return optimized; }
+      } else {
+        members.add(optimized);
+      }
+    }
+    if (members.isEmpty()) { return and ? new Always() : never(); }
+    members = and ? mergeRanges(members) : mergeEquals(members);
+    if (members.size() == 1) { return members.get(0); }
+    return new BooleanClause(bool.type(), members.toArray(new Clause[members.size()]));
+  }
+
+  /**
+   * Returns the negation of an optimized clause, pushed down to its members
+   */
+  private static Clause negate(Clause clause) {
+    if (clause instanceof Always) { return never(); }
+    if (!(clause instanceof BooleanClause)) { return new BooleanClause(Operator.NOT, clause); }
+    BooleanClause bool = (BooleanClause) clause;
+    Clause[] members = bool.getMembers();
+    if (bool.type() == Operator.NOT) { return members[0]; }
+    Clause[] negated = new Clause[members.length];
+    for (int i = 0; i < members.length; i++) {
+      negated[i] = negate(members[i]);
+    }
+    // optimized again, as negated members may flatten into the dual operator
+    return optimize(new BooleanClause(bool.type() == Operator.AND ? Operator.OR : Operator.AND, negated));
+  }
+
+  private static Clause never() {
+    return new BooleanClause(Operator.NOT, new Always());
+  }
+
+  private static boolean isNever(Clause clause) {
+    return clause instanceof BooleanClause && ((BooleanClause) clause).type() == Operator.NOT
+           && ((BooleanClause) clause).getMembers()[0] instanceof Always;
+  }
+
+  /**
+   * Merges the range conjuncts of each attribute whose bounds are all of the same class into the first of them
+   */
+  private static List<Clause> mergeRanges(List<Clause> members) {
+    Map<String, Bounds> ranges = new LinkedHashMap<String, Bounds>();
+    for (Clause member : members) {
+      Bounds bounds = Bounds.of(member);
+      if (bounds != null) {
+        Bounds merged = ranges.get(bounds.name);
+        ranges.put(bounds.name, merged == null ? bounds : merged.intersect(bounds));
+      }
+    }
+    List<Clause> merged = new ArrayList<Clause>(members.size());
+    for (Clause member : members) {
+      Bounds bounds = Bounds.of(member);
+      if (bounds == null) {
+        merged.add(member);
+      } else {
+        Bounds range = ranges.get(bounds.name);
+        if (range == Bounds.UNMERGEABLE || range.count == 1) {
+          merged.add(member);
+        } else if (range.clause == null) {
+          range.clause = range.toClause();
+          merged.add(range.clause);
+        }
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Merges the equality disjuncts of each attribute whose values are all of the same class into one {@code OneOf}
+   * in place of the first of them
+   */
+  private static List<Clause> mergeEquals(List<Clause> members) {
+    Map<String, Set<Object>> values = new LinkedHashMap<String, Set<Object>>();
+    Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+    for (Clause member : members) {
+      String name = equalityAttribute(member);
+      if (name == null) {
+        continue;
+      }
+      Set<Object> merged = values.get(name);
+      if (merged == null) {
+        merged = new LinkedHashSet<Object>();
+        values.put(name, merged);
+        counts.put(name, 0);
+      }
+      merged.addAll(equalityValues(member));
+      counts.put(name, counts.get(name) + 1);
+    }
+    List<Clause> merged = new ArrayList<Clause>(members.size());
+    for (Clause member : members) {
+      String name = equalityAttribute(member);
+      if (name == null || counts.get(name) == 1) {
+        merged.add(member);
+      } else if (values.containsKey(name)) {
+        Set<Object> oneOf = values.get(name);
+        if (sameClass(oneOf)) {
+          merged.add(new OneOf(name, oneOf));
+          // the following disjuncts of the attribute were merged in this one
+          values.remove(name);
+        } else {
+          merged.add(member);
+        }
+      }
+    }
+    return merged;
+  }
+
+  private static String equalityAttribute(Clause clause) {
+    if (clause instanceof Equals) { return ((Equals) clause).getAttributeName(); }
+    if (clause instanceof OneOf) { return ((OneOf) clause).getAttributeName(); }
+    return null;
+  }
+
+  private static List<?> equalityValues(Clause clause) {
+    if (clause instanceof Equals) { return Collections.singletonList(((Equals) clause).getValue()); }
+    return new ArrayList<Object>(((OneOf) clause).values());
+  }
+
+  private static boolean sameClass(Set<Object> values) {
+    Class<?> valueClass = null;
+    for (Object value : values) {
+      if (valueClass == null) {
+        valueClass = AttributeIndex.classOf(value);
+      } else if (AttributeIndex.classOf(value) != valueClass) { return false; }
+    }
+    return true;
+  }
+
+  /**
+   * The bounds of the range conjuncts of an attribute, a null bound leaving the range open on its side
+   */
+  private static final class Bounds {
+    static final Bounds UNMERGEABLE = new Bounds(null, null, false, null, false);
+
+    final String        name;
+    Comparable<Object>  min;
+    boolean             minInclusive;
+    Comparable<Object>  max;
+    boolean             maxInclusive;
+    int                 count        = 1;
+    Clause              clause;
+
+    Bounds(String name, Comparable<Object> min, boolean minInclusive, Comparable<Object> max, boolean maxInclusive) {
+      this.name = name;
+      this.min = min;
+      this.minInclusive = minInclusive;
+      this.max = max;
+      this.maxInclusive = maxInclusive;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Bounds of(Clause clause) {
+      if (clause instanceof Range) {
+        Range range = (Range) clause;
+        return new Bounds(range.getAttributeName(), range.getMin(), range.isMinInclusive(), range.getMax(),
+                          range.isMaxInclusive());
+      }
+      if (!(clause instanceof RelationalClause)) { return null; }
+      RelationalClause relational = (RelationalClause) clause;
+      String name = relational.getAttributeName();
+      Comparable<Object> value = relational.getValue();
+      if (clause instanceof RelationalClause.LessThan) { return new Bounds(name, null, false, value, false); }
+      if (clause instanceof RelationalClause.LessThanOrEqual) { return new Bounds(name, null, false, value, true); }
+      if (clause instanceof RelationalClause.GreaterThan) { return new Bounds(name, value, false, null, false); }
+      return new Bounds(name, value, true, null, false);
+    }
+
+    Object bound() {
+      return min != null ? min : max;
+    }
+
+    /**
+     * Narrows these bounds to {@code other}, or returns {@link #UNMERGEABLE} if their values are of different classes
+     */
+    Bounds intersect(Bounds other) {
+      if (this == UNMERGEABLE || AttributeIndex.classOf(bound()) != AttributeIndex.classOf(other.bound())) { return UNMERGEABLE; }
+      if (other.min != null) {
+        int c = min == null ? -1 : min.compareTo(other.min);
+        if (c < 0 || (c == 0 && !other.minInclusive)) {
+          min = other.min;
+          minInclusive = other.minInclusive;
+        }
+      }
+      if (other.max != null) {
+        int c = max == null ? 1 : max.compareTo(other.max);
+        if (c > 0 || (c == 0 && !other.maxInclusive)) {
+          max = other.max;
+          maxInclusive = other.maxInclusive;
+        }
+      }
+      count++;
+      return this;
+    }
+
+    Clause toClause() {
+      if (min != null && max != null) { return new Range(name, min, max, minInclusive, maxInclusive); }
+      if (min != null) { return minInclusive ? RelationalClause.gte(name, min) : RelationalClause.gt(name, min); }
+      return maxInclusive ? RelationalClause.lte(name, max) : RelationalClause.lt(name, max);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
+import org.terracotta.toolkit.search.attribute.ToolkitAttributeType;
+import org.terracotta.toolkit.search.expression.Clause;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The secondary indexes of the attributes of the entries of a searchable store. Each indexed entry is given an
+ * ordinal, and each attribute an {@link AttributeIndex} of the ordinals holding each of its values, so that clauses
+ * are evaluated to sets of ordinals without visiting the entries: {@code Equals}, {@code OneOf} and {@code Exists}
+ * from the postings of their values, {@code Range} and {@code RelationalClause} from the values of their attribute
+ * in order, {@code Matches} from the distinct values of its attribute, and {@code BooleanClause} by intersecting,
+ * merging or complementing the sets of its members. Range clauses are answered from the {@link OrderedIndex} of their
+ * attribute, and {@code Matches} clauses on the attributes chosen for prefix indexing from the values starting with
+ * the literal prefix of their expression in the {@link PrefixIndex} of their attribute.
+ * <p>
+ * The postings of the attributes chosen for bitmap indexing are {@link CompressedBitmap}s. Clauses made of
+ * {@code Equals} and {@code OneOf} clauses on those attributes, and of their conjunctions, disjunctions and negated
+ * conjuncts, are evaluated on the compressed bitmaps, which are only expanded for the result.
+ * <p>
+ * Queries are rewritten by the {@link QueryOptimizer} before they are evaluated, and the conjuncts of each
+ * conjunction are intersected in the order of the number of entries they are estimated to match from the sizes of
+ * the postings, the {@code Matches} conjuncts last, on the entries left by the others.
+ * <p>
+ * All the values of an attribute are of the same type, the type of the first value extracted for it, which is kept
+ * until the index is dropped: {@link #extract} rejects mappings with an attribute of another type, and so do clauses
+ * comparing an attribute to a value of another type.
+ * <p>
+ * The index is made of an {@link IndexPartition} per segment of the store, which the segment updates under its write
+ * lock, so that indexing a mapping only serializes it with the mutations of its own segment. Queries read each
+ * partition under its read lock: they see each entry either before or after a mutation, and the entries of a segment
+ * as of a single point in time, but not the whole store as of a single point in time.
+ */
+public final class SearchIndex<K> {
+
+  // the value classes of the attributes, registered by the extractions before the segments are locked
+  private final ConcurrentMap<String, Class<?>> valueClasses = new ConcurrentHashMap<String, Class<?>>();
+  private final IndexPartition[]                partitions;
+
+  /**
+   * Creates an index of {@code partitionCount} partitions holding the postings of {@code bitmapAttributes} in
+   * compressed bitmaps, and the values of the string attributes of {@code prefixAttributes} in prefix indexes
+   */
+  public SearchIndex(int partitionCount, Collection<String> bitmapAttributes, Collection<String> prefixAttributes) {
+    Set<String> bitmaps = new HashSet<String>(bitmapAttributes);
+    Set<String> prefixes = new HashSet<String>(prefixAttributes);
+    this.partitions = new IndexPartition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new IndexPartition(valueClasses, bitmaps, prefixes);
+    }
+  }
+
+  /**
+   * Returns the attributes to index for a mapping, or null if the extractor asked not to index it. Null attribute
+   * values are left out, and the others are checked to be of a searchable type, the type of the values already
+   * extracted for their attribute. The type of the first value of an attribute is registered here, so that of two
+   * mappings racing on the first value of an attribute with values of different types, one is rejected.
+   *
+   * @throws SearchException if an attribute is of a type that cannot be searched, or the extractor failed
+   */
+  public <V> Map<String, Object> extract(ToolkitAttributeExtractor<K, V> extractor, K key, V value) {
+    Map<String, Object> extracted = extractor.attributesFor(key, value);
+    if (extracted == null || extracted == ToolkitAttributeExtractor.DO_NOT_INDEX) { return null; }
+    Map<String, Object> attrs = new HashMap<String, Object>(extracted.size() * 2);
+    for (Map.Entry<String, Object> attr : extracted.entrySet()) {
+      if (attr.getValue() != null) {
+        ToolkitAttributeType.typeFor(attr.getKey(), attr.getValue());
+        checkValueClass(valueClasses.get(attr.getKey()), attr.getKey(), attr.getValue());
+        attrs.put(attr.getKey(), attr.getValue());
+      }
+    }
+    for (Map.Entry<String, Object> attr : attrs.entrySet()) {
+      checkValueClass(valueClasses.putIfAbsent(attr.getKey(), AttributeIndex.classOf(attr.getValue())), attr.getKey(),
+                      attr.getValue());
+    }
+    return Collections.unmodifiableMap(attrs);
+  }
+
+  /**
+   * Indexes {@code key} in {@code partition} with the attributes returned by {@link #extract}, replacing those it
+   * had. A null {@code attrs} removes it.
+   */
+  public void update(int partition, K key, Map<String, Object> attrs) {
+    partitions[partition].update(key, attrs);
+  }
+
+  public void remove(int partition, Object key) {
+    partitions[partition].remove(key);
+  }
+
+  /**
+   * Removes all the entries of the index. The types of the attributes are kept, as mappings may have been extracted
+   * against them.
+   */
+  public void clear() {
+    for (IndexPartition partition : partitions) {
+      partition.clear();
+    }
+  }
+
+  /**
+   * Number of indexed entries
+   */
+  public int size() {
+    int size = 0;
+    for (IndexPartition partition : partitions) {
+      size += partition.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the keys and attributes of the indexed entries matching {@code clause}
+   *
+   * @throws SearchException if the clause cannot be evaluated
+   */
+  List<Match> search(Clause clause) {
+    List<Match> matches = new ArrayList<Match>();
+    for (IndexPartition partition : partitions) {
+      partition.search(clause, matches);
+    }
+    return matches;
+  }
+
+  static void checkValueClass(Class<?> expected, String name, Object value) {
+    if (expected != null && AttributeIndex.classOf(value) != expected) { throw new SearchException(
+        "Expecting a " + expected.getName() + " value for attribute [" + name + "] but was "
+            + value.getClass().getName()); }
+  }
+
+  /**
+   * An indexed entry matching a query
+   */
+  static final class Match {
+    final Object              key;
+    final Map<String, Object> attributes;
+
+    Match(Object key, Map<String, Object> attributes) {
+      this.key = key;
+      this.attributes = attributes;
+    }
+  }
+}
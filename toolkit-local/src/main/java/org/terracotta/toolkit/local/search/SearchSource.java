@@ -0,0 +1,43 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+/**
+ * The store searched by the queries of a {@link LocalQueryBuilder}
+ */
+public interface SearchSource<K, V> {
+
+  /**
+   * Returns the index of the store, or null if no attribute extractor was set on it
+   */
+  SearchIndex<K> getSearchIndex();
+
+  /**
+   * Returns true if the index may still hold entries that expired but were not removed from the store yet
+   */
+  boolean mayHoldExpiredEntries();
+
+  /**
+   * Returns the value mapped to {@code key} without updating its access time, or null if it is missing or expired
+   */
+  V lookup(K key);
+
+  /**
+   * Called once a query was executed in {@code nanos}
+   */
+  void searched(long nanos);
+}
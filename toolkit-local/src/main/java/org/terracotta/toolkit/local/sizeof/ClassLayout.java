@@ -0,0 +1,148 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.sizeof;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The heap layout of the instances of a class: their shallow size and how to reach the objects they reference. Layouts
+ * are computed once per class by {@link LayoutSizeOfEngine}.
+ */
+final class ClassLayout {
+
+  static final int     OBJECT_HEADER_SIZE;
+  static final int     ARRAY_HEADER_SIZE;
+  static final int     REFERENCE_SIZE;
+  static final int     ALIGNMENT = 8;
+
+  static {
+    if (UnsafeAccess.AVAILABLE) {
+      REFERENCE_SIZE = UnsafeAccess.arrayIndexScale(Object[].class);
+      ARRAY_HEADER_SIZE = UnsafeAccess.arrayBaseOffset(Object[].class);
+      OBJECT_HEADER_SIZE = (int) UnsafeAccess.objectFieldOffset(probeField());
+    } else {
+      // assume a 64 bit JVM with compressed oops, the most common setting
+      REFERENCE_SIZE = 4;
+      ARRAY_HEADER_SIZE = 16;
+      OBJECT_HEADER_SIZE = 12;
+    }
+  }
+
+  final long           shallowSize;
+  // offsets of the reference fields when Unsafe is available, otherwise the readable reference fields
+  private final long[] referenceOffsets;
+  private final Field[] referenceFields;
+
+  private ClassLayout(long shallowSize, long[] referenceOffsets, Field[] referenceFields) {
+    this.shallowSize = shallowSize;
+    this.referenceOffsets = referenceOffsets;
+    this.referenceFields = referenceFields;
+  }
+
+  /**
+   * The field of {@link HeaderProbe}, laid out right after the object header whether class pointers are compressed or
+   * not, unlike the length of an array
+   */
+  private static Field probeField() {
+    try {
+      return HeaderProbe.class.getDeclaredField("probe");
+    } catch (NoSuchFieldException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  static ClassLayout of(Class<?> clazz) {
+    long end = OBJECT_HEADER_SIZE;
+    long declaredSize = OBJECT_HEADER_SIZE;
+    List<Long> offsets = new ArrayList<Long>();
+    List<Field> fields = new ArrayList<Field>();
+    for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        int size = fieldSize(field.getType());
+        declaredSize += size;
+        if (UnsafeAccess.AVAILABLE) {
+          long offset = UnsafeAccess.objectFieldOffset(field);
+          end = Math.max(end, offset + size);
+          if (!field.getType().isPrimitive()) {
+            offsets.add(offset);
+          }
+        } else if (!field.getType().isPrimitive() && makeAccessible(field)) {
+          fields.add(field);
+        }
+      }
+    }
+    long[] referenceOffsets = new long[offsets.size()];
+    for (int i = 0; i < referenceOffsets.length; i++) {
+      referenceOffsets[i] = offsets.get(i);
+    }
+    return new ClassLayout(align(UnsafeAccess.AVAILABLE ? end : declaredSize), referenceOffsets,
+                           fields.toArray(new Field[fields.size()]));
+  }
+
+  /**
+   * Adds the objects referenced by {@code object} to {@code into}
+   */
+  void addReferences(Object object, ObjectStack into) {
+    for (long offset : referenceOffsets) {
+      into.push(UnsafeAccess.getObject(object, offset));
+    }
+    for (Field field : referenceFields) {
+      try {
+        into.push(field.get(object));
+      } catch (IllegalAccessException e) {
+        // unreadable, count the object shallowly
+      }
+    }
+  }
+
+  static long arraySize(Class<?> arrayClass, int length) {
+    return align(ARRAY_HEADER_SIZE + (long) length * fieldSize(arrayClass.getComponentType()));
+  }
+
+  static int fieldSize(Class<?> type) {
+    if (!type.isPrimitive()) { return REFERENCE_SIZE; }
+    if (type == long.class || type == double.class) { return 8; }
+    if (type == int.class || type == float.class) { return 4; }
+    if (type == short.class || type == char.class) { return 2; }
+    return 1;
+  }
+
+  static long align(long size) {
+    return (size + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  private static boolean makeAccessible(Field field) {
+    try {
+      field.setAccessible(true);
+      return true;
+    } catch (RuntimeException e) {
+      // e.g. a field of a JDK class in a module that is not open
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static final class HeaderProbe {
+    private byte probe;
+  }
+}
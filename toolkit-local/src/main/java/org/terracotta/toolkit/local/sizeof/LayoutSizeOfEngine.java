@@ -0,0 +1,100 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.sizeof;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default {@link SizeOfEngine}: walks the object graph of a mapping, summing the shallow sizes of the objects it
+ * reaches. The shallow size and the reference fields of each class are computed once and cached, from the field
+ * offsets of the running JVM when {@code sun.misc.Unsafe} is available, otherwise from the declared field types.
+ * <p>
+ * Classes, class loaders, threads and enum constants are shared by nature and are neither counted nor walked. A walk
+ * stops after {@link #DEFAULT_MAX_OBJECTS} objects, so that a mapping referencing a huge graph by mistake does not stall
+ * the store; its size is then underestimated.
+ */
+public class LayoutSizeOfEngine implements SizeOfEngine {
+
+  public static final int                          DEFAULT_MAX_OBJECTS = 100000;
+
+  private final ConcurrentMap<Class<?>, ClassLayout> layouts           = new ConcurrentHashMap<Class<?>, ClassLayout>();
+  private final int                                  maxObjects;
+
+  public LayoutSizeOfEngine() {
+    this(DEFAULT_MAX_OBJECTS);
+  }
+
+  public LayoutSizeOfEngine(int maxObjects) {
+    if (maxObjects <= 0) { throw new IllegalArgumentException("maxObjects should be positive: " + maxObjects); }
+    this.maxObjects = maxObjects;
+  }
+
+  @Override
+  public long sizeOf(Object key, Object value, Object container) {
+    long size = container == null ? 0 : shallowSizeOf(container);
+    IdentityHashMap<Object, Object> visited = new IdentityHashMap<Object, Object>();
+    ObjectStack stack = new ObjectStack();
+    stack.push(key);
+    stack.push(value);
+    while (!stack.isEmpty() && visited.size() < maxObjects) {
+      Object object = stack.pop();
+      if (isShared(object) || visited.put(object, object) != null) {
+        continue;
+      }
+      Class<?> clazz = object.getClass();
+      if (clazz.isArray()) {
+        int length = java.lang.reflect.Array.getLength(object);
+        size += ClassLayout.arraySize(clazz, length);
+        if (!clazz.getComponentType().isPrimitive()) {
+          for (Object element : (Object[]) object) {
+            stack.push(element);
+          }
+        }
+      } else {
+        ClassLayout layout = layout(clazz);
+        size += layout.shallowSize;
+        layout.addReferences(object, stack);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the size of {@code object} alone, not counting the objects it references
+   */
+  public long shallowSizeOf(Object object) {
+    Class<?> clazz = object.getClass();
+    if (clazz.isArray()) { return ClassLayout.arraySize(clazz, java.lang.reflect.Array.getLength(object)); }
+    return layout(clazz).shallowSize;
+  }
+
+  private ClassLayout layout(Class<?> clazz) {
+    ClassLayout layout = layouts.get(clazz);
+    if (layout == null) {
+      layout = ClassLayout.of(clazz);
+      layouts.putIfAbsent(clazz, layout);
+    }
+    return layout;
+  }
+
+  private static boolean isShared(Object object) {
+    return object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+           || object instanceof Enum;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.sizeof;
+
+import java.util.Arrays;
+
+/**
+ * A growable stack of the objects left to visit while walking an object graph
+ */
+final class ObjectStack {
+
+  private Object[] elements = new Object[16];
+  private int      size;
+
+  void push(Object object) {
+    if (object == null) { return; }
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size << 1);
+    }
+    elements[size++] = object;
+  }
+
+  Object pop() {
+    Object object = elements[--size];
+    elements[size] = null;
+    return object;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.sizeof;
+
+/**
+ * Estimates how many bytes of Java heap the mappings of a local store retain, in order to enforce
+ * {@link org.terracotta.toolkit.store.ToolkitConfigFields#MAX_BYTES_LOCAL_HEAP_FIELD_NAME}.
+ * <p>
+ * Implementations must be thread safe and should be cheap, as they are called on every put to a byte bounded store. A
+ * custom engine is plugged in by passing its class name, which must have a public no-arg constructor, in the
+ * {@code org.terracotta.toolkit.local.sizeOfEngine} property when creating the toolkit.
+ */
+public interface SizeOfEngine {
+
+  /**
+   * Returns the size in bytes of a mapping: the deep size of {@code key} and {@code value}, counting the objects they
+   * share only once, plus the shallow size of {@code container}, the object holding them in the store.
+   */
+  long sizeOf(Object key, Object value, Object container);
+}
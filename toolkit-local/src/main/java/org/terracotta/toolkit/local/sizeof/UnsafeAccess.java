@@ -0,0 +1,101 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.sizeof;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Access to the {@code sun.misc.Unsafe} methods needed to read the exact layout of objects, resolved reflectively so
+ * that the code neither links against nor requires it. When it is not available, {@link #AVAILABLE} is false and sizes
+ * are derived from the declared fields.
+ */
+final class UnsafeAccess {
+
+  static final boolean              AVAILABLE;
+  private static final MethodHandle OBJECT_FIELD_OFFSET;
+  private static final MethodHandle GET_OBJECT;
+  private static final MethodHandle ARRAY_BASE_OFFSET;
+  private static final MethodHandle ARRAY_INDEX_SCALE;
+
+  static {
+    MethodHandle objectFieldOffset = null;
+    MethodHandle getObject = null;
+    MethodHandle arrayBaseOffset = null;
+    MethodHandle arrayIndexScale = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      objectFieldOffset = lookup.unreflect(unsafeClass.getMethod("objectFieldOffset", Field.class)).bindTo(unsafe)
+          .asType(MethodType.methodType(long.class, Field.class));
+      getObject = lookup.unreflect(unsafeClass.getMethod("getObject", Object.class, long.class)).bindTo(unsafe)
+          .asType(MethodType.methodType(Object.class, Object.class, long.class));
+      arrayBaseOffset = lookup.unreflect(unsafeClass.getMethod("arrayBaseOffset", Class.class)).bindTo(unsafe)
+          .asType(MethodType.methodType(int.class, Class.class));
+      arrayIndexScale = lookup.unreflect(unsafeClass.getMethod("arrayIndexScale", Class.class)).bindTo(unsafe)
+          .asType(MethodType.methodType(int.class, Class.class));
+    } catch (Throwable t) {
+      objectFieldOffset = null;
+    }
+    AVAILABLE = objectFieldOffset != null;
+    OBJECT_FIELD_OFFSET = objectFieldOffset;
+    GET_OBJECT = getObject;
+    ARRAY_BASE_OFFSET = arrayBaseOffset;
+    ARRAY_INDEX_SCALE = arrayIndexScale;
+  }
+
+  private UnsafeAccess() {
+    //
+  }
+
+  static long objectFieldOffset(Field field) {
+    try {
+      return (long) OBJECT_FIELD_OFFSET.invokeExact(field);
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  static Object getObject(Object object, long offset) {
+    try {
+      return (Object) GET_OBJECT.invokeExact(object, offset);
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  static int arrayBaseOffset(Class<?> arrayClass) {
+    try {
+      return (int) ARRAY_BASE_OFFSET.invokeExact(arrayClass);
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  static int arrayIndexScale(Class<?> arrayClass) {
+    try {
+      return (int) ARRAY_INDEX_SCALE.invokeExact(arrayClass);
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.statistics;
+
+import org.terracotta.toolkit.feature.LatencySnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size histogram of latencies in nanoseconds, in the manner of HdrHistogram: each power of two is split in
+ * {@value #SUB_BUCKETS} buckets of equal width, so that a latency is counted with a relative error under 1/16th.
+ * Latencies from 2^{@value #MAX_MAGNITUDE} nanoseconds, about 69 seconds, are counted in the last bucket.
+ * <p>
+ * The buckets are striped by thread over a few copies of the counts, summed by {@link #snapshot()}, so that threads
+ * recording the same latencies do not contend on the same counters.
+ */
+public final class LatencyHistogram {
+
+  private static final int    SUB_BUCKET_BITS = 4;
+  private static final int    SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+  private static final int    MAX_MAGNITUDE   = 36;
+  private static final long   MAX_VALUE       = (1L << MAX_MAGNITUDE) - 1;
+  static final int            BUCKET_COUNT    = bucketIndex(MAX_VALUE) + 1;
+  private static final long[] UPPER_BOUNDS    = upperBounds();
+  private static final int    STRIPES         = Math.min(4, Integer.highestOneBit(Runtime.getRuntime()
+                                                  .availableProcessors()));
+
+  private final AtomicLongArray counts        = new AtomicLongArray(STRIPES * BUCKET_COUNT);
+  private final LongAdder       totalNanos    = new LongAdder();
+  private final AtomicLong      maxNanos      = new AtomicLong();
+
+  /**
+   * Counts a latency of {@code nanos}, negative latencies being counted as 0
+   */
+  public void record(long nanos) {
+    long value = nanos < 0 ? 0 : nanos;
+    counts.incrementAndGet(stripe() * BUCKET_COUNT + bucketIndex(Math.min(value, MAX_VALUE)));
+    totalNanos.add(value);
+    long max = maxNanos.get();
+    while (value > max && !maxNanos.compareAndSet(max, value)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /**
+   * Returns the counts of the histogram so far, summing the stripes of each bucket
+   */
+  public LatencySnapshot snapshot() {
+    long[] sums = new long[BUCKET_COUNT];
+    for (int s = 0; s < STRIPES; s++) {
+      int offset = s * BUCKET_COUNT;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        sums[i] += counts.get(offset + i);
+      }
+    }
+    return new LatencySnapshot(UPPER_BOUNDS, sums, totalNanos.sum(), maxNanos.get());
+  }
+
+  private static int stripe() {
+    long id = Thread.currentThread().getId();
+    return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+  }
+
+  /**
+   * Values under 2 * {@value #SUB_BUCKETS} have a bucket each; above, the bucket of a value is given by the position of
+   * its highest bit and the {@value #SUB_BUCKET_BITS} bits that follow it
+   */
+  static int bucketIndex(long value) {
+    int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  static long upperBound(int index) {
+    int shift = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+    long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  private static long[] upperBounds() {
+    long[] bounds = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bounds[i] = upperBound(i);
+    }
+    bounds[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+    return bounds;
+  }
+}
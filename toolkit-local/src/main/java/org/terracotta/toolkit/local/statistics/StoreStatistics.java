@@ -0,0 +1,91 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.statistics;
+
+import org.terracotta.toolkit.feature.StatisticsSnapshot;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics recorded for a store or cache, reported by the
+ * {@link org.terracotta.toolkit.local.feature.LocalStatisticsFeature}
+ */
+public final class StoreStatistics {
+
+  private final LongAdder        hits          = new LongAdder();
+  private final LongAdder        misses        = new LongAdder();
+  private final LongAdder        puts          = new LongAdder();
+  private final LongAdder        removes       = new LongAdder();
+  private final LongAdder        evictions     = new LongAdder();
+  private final LongAdder        expirations   = new LongAdder();
+  private final LatencyHistogram getLatency    = new LatencyHistogram();
+  private final LatencyHistogram putLatency    = new LatencyHistogram();
+  private final LatencyHistogram searchLatency = new LatencyHistogram();
+
+  /**
+   * Records a single key lookup
+   */
+  public void get(boolean hit, long nanos) {
+    (hit ? hits : misses).increment();
+    getLatency.record(nanos);
+  }
+
+  /**
+   * Records the {@code hitCount} hits and {@code missCount} misses of a bulk lookup, whose latency is not recorded
+   */
+  public void getAll(int hitCount, int missCount) {
+    hits.add(hitCount);
+    misses.add(missCount);
+  }
+
+  /**
+   * Records the latency of a single key put, which is counted by {@link #mutated(int, int)} if it stored a mapping
+   */
+  public void putLatency(long nanos) {
+    putLatency.record(nanos);
+  }
+
+  /**
+   * Records {@code putCount} mappings stored and {@code removeCount} live mappings removed
+   */
+  public void mutated(int putCount, int removeCount) {
+    if (putCount != 0) {
+      puts.add(putCount);
+    }
+    if (removeCount != 0) {
+      removes.add(removeCount);
+    }
+  }
+
+  public void eviction() {
+    evictions.increment();
+  }
+
+  public void expiration() {
+    expirations.increment();
+  }
+
+  public void search(long nanos) {
+    searchLatency.record(nanos);
+  }
+
+  public StatisticsSnapshot snapshot() {
+    return new StatisticsSnapshot(System.currentTimeMillis(), hits.sum(), misses.sum(), puts.sum(), removes.sum(),
+                                  evictions.sum(), expirations.sum(), getLatency.snapshot(), putLatency.snapshot(),
+                                  searchLatency.snapshot());
+  }
+}
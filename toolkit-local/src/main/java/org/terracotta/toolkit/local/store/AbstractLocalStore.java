@@ -0,0 +1,641 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.bulkload.ToolkitBulkLoadObject;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.config.Configuration;
+import org.terracotta.toolkit.local.compress.CompressedValue;
+import org.terracotta.toolkit.local.compress.CompressionStatistics;
+import org.terracotta.toolkit.local.compress.ValueCompressor;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.local.copy.Copier;
+import org.terracotta.toolkit.local.copy.Copiers;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+import org.terracotta.toolkit.local.offheap.OffheapMemory;
+import org.terracotta.toolkit.local.offheap.OffheapSegment;
+import org.terracotta.toolkit.local.search.LocalQueryBuilder;
+import org.terracotta.toolkit.local.search.SearchIndex;
+import org.terracotta.toolkit.local.search.SearchSource;
+import org.terracotta.toolkit.local.statistics.StoreStatistics;
+import org.terracotta.toolkit.search.QueryBuilder;
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.SearchableMap;
+import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
+import org.terracotta.toolkit.store.AsyncToolkitStore;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key-value store shared by {@link LocalToolkitStore} and {@link LocalToolkitCache}. Mappings live in a
+ * {@link SegmentedTable} with as many segments as the configured {@link ToolkitConfigFields#CONCURRENCY_FIELD_NAME}.
+ * When {@link ToolkitConfigFields#OFFHEAP_ENABLED_FIELD_NAME} is set, the segments are {@link OffheapSegment}s sharing
+ * {@link ToolkitConfigFields#MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME} bytes of direct memory, otherwise they are
+ * {@link HeapSegment}s bounded by {@link ToolkitConfigFields#MAX_COUNT_LOCAL_HEAP_FIELD_NAME} or
+ * {@link ToolkitConfigFields#MAX_BYTES_LOCAL_HEAP_FIELD_NAME}, see {@link HeapCapacity}, and for caches by
+ * {@link ToolkitConfigFields#MAX_TOTAL_COUNT_FIELD_NAME}. Heap segments evict according to the
+ * {@link ToolkitConfigFields#EVICTION_POLICY_FIELD_NAME} of the store. A store without eviction rejects the puts that
+ * would exceed its bounds with a {@code ToolkitRuntimeException}.
+ * <p>
+ * A store with {@link ToolkitConfigFields#PINNED_IN_LOCAL_MEMORY_FIELD_NAME} set keeps all its mappings on heap, in
+ * read-optimized {@link PinnedSegment}s that never evict, whatever its heap and off-heap settings. Its memory use is
+ * reported by the read-only {@link LocalConfigFields#PINNED_LOCAL_COUNT_FIELD_NAME} and
+ * {@link LocalConfigFields#PINNED_LOCAL_BYTES_FIELD_NAME} fields of its configuration.
+ * <p>
+ * When {@link ToolkitConfigFields#COMPRESSION_ENABLED_FIELD_NAME} is set, values are held in the form given by a
+ * {@link ValueCompressor}, so that reads of compressed values return copies. Other values are copied on read by the
+ * {@link Copier} of the store when {@link ToolkitConfigFields#COPY_ON_READ_ENABLED_FIELD_NAME} is set, unless they
+ * are held off-heap, reads of which always return copies.
+ * <p>
+ * Unless {@link LocalConfigFields#STATISTICS_ENABLED_FIELD_NAME} is unset, the operations of the store are counted,
+ * and its single key gets and puts timed, in {@link StoreStatistics} reported by the
+ * {@link org.terracotta.toolkit.local.feature.LocalStatisticsFeature}.
+ * <p>
+ * A store with a {@link LocalConfigFields#MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME} answers lookups of absent keys from
+ * its {@link MembershipFilter}. The filter is emptied by {@link #clear()}, and rebuilt from the mappings of the store
+ * when a bulk load ends or on {@link #rebuildMembershipFilter()}.
+ * <p>
+ * Once an attribute extractor is set, the attributes of the mappings are kept in a {@link SearchIndex} that the
+ * queries of {@link #createQueryBuilder()} are evaluated against. Attributes are extracted before the segment of the
+ * mapping is locked, and indexed under its lock in the partition of the index of the segment, so that the index
+ * follows the mappings of the store without serializing the segments. The attributes listed in
+ * {@link LocalConfigFields#BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME} are indexed in compressed bitmaps, and those listed
+ * in {@link LocalConfigFields#PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME} in prefix indexes.
+ */
+public abstract class AbstractLocalStore<K, V> extends AbstractSegmentedMap<K, V> implements SearchableMap<K, V>,
+    ToolkitBulkLoadObject {
+
+  // how often the timer wheels of the segments are advanced, about their resolution
+  private static final long                        EXPIRY_PERIOD_MILLIS = 1000;
+
+  protected final LocalConfiguration               config;
+  private final PinnedMemory                       pinnedMemory;
+  private final OffheapMemory                      offheapMemory;
+  private final HeapCapacity                       heapCapacity;
+  private final ValueCompressor                    compressor;
+  private final Copier                             copier;
+  private final LocalStoreContext                  context;
+  private final int                                parallelGetAllThreshold;
+  private final StoreStatistics                    statistics;
+  private final int                                membershipFilterCapacity;
+  private final List<String>                       bitmapIndexedAttributes;
+  private final List<String>                       prefixIndexedAttributes;
+  private volatile AsyncToolkitStore<K, V>         async;
+  private volatile ScheduledFuture<?>              expiryTask;
+
+  private volatile boolean                         nodeBulkLoadEnabled;
+  private volatile ToolkitAttributeExtractor<K, V> attributeExtractor;
+  private volatile SearchIndex<K>                  searchIndex;
+
+  protected AbstractLocalStore(String name, LocalConfiguration config, LocalStoreContext context,
+                               ToolkitObjectRegistry<?> registry) {
+    this(name, config, context, createPinnedMemory(config, context), createOffheapMemory(name, config, context),
+         createHeapCapacity(name, config, context), registry);
+  }
+
+  private AbstractLocalStore(String name, LocalConfiguration config, LocalStoreContext context,
+                             PinnedMemory pinnedMemory, OffheapMemory offheapMemory, HeapCapacity heapCapacity,
+                             ToolkitObjectRegistry<?> registry) {
+    super(name, config.getInt(ToolkitConfigFields.CONCURRENCY_FIELD_NAME), AbstractLocalStore
+        .<K, V> segmentFactory(config, pinnedMemory, offheapMemory, heapCapacity), registry);
+    this.config = config;
+    this.context = context;
+    this.pinnedMemory = pinnedMemory;
+    this.offheapMemory = offheapMemory;
+    this.heapCapacity = heapCapacity;
+    if (pinnedMemory != null) {
+      config.addGauge(LocalConfigFields.PINNED_LOCAL_COUNT_FIELD_NAME, new LocalConfiguration.Gauge() {
+        @Override
+        public Serializable get() {
+          return getPinnedCount();
+        }
+      });
+      config.addGauge(LocalConfigFields.PINNED_LOCAL_BYTES_FIELD_NAME, new LocalConfiguration.Gauge() {
+        @Override
+        public Serializable get() {
+          return getPinnedBytes();
+        }
+      });
+    }
+    this.compressor = ValueCompressor.forConfig(config);
+    this.copier = offheapMemory == null ? Copiers.forConfig(config) : null;
+    this.parallelGetAllThreshold = config.getInt(LocalConfigFields.PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME);
+    this.statistics = config.getBoolean(LocalConfigFields.STATISTICS_ENABLED_FIELD_NAME) ? context
+        .getStatisticsFeature().register(getObjectType(), name) : null;
+    this.membershipFilterCapacity = config.getInt(LocalConfigFields.MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME);
+    if (membershipFilterCapacity > 0) {
+      rebuildMembershipFilter(membershipFilterCapacity);
+    }
+    this.bitmapIndexedAttributes = attributeNames(LocalConfigFields.BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME);
+    this.prefixIndexedAttributes = attributeNames(LocalConfigFields.PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME);
+    configChanged();
+  }
+
+  /**
+   * Returns the attribute names listed in the comma separated config field {@code name}
+   */
+  private List<String> attributeNames(String name) {
+    List<String> names = new ArrayList<String>();
+    for (String attribute : config.getString(name).split(",")) {
+      if (attribute.trim().length() > 0) {
+        names.add(attribute.trim());
+      }
+    }
+    return names;
+  }
+
+  private static <K, V> Segment.Factory<K, V> segmentFactory(LocalConfiguration config, PinnedMemory pinnedMemory,
+                                                             OffheapMemory offheapMemory, HeapCapacity heapCapacity) {
+    // only caches have entries that expire
+    boolean timed = config.hasField(ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME);
+    if (pinnedMemory != null) { return SegmentedTable.pinnedSegments(pinnedMemory, timed); }
+    if (offheapMemory != null) { return OffheapSegment.factory(offheapMemory, timed); }
+    EvictionPolicy policy = config.hasField(ToolkitConfigFields.EVICTION_POLICY_FIELD_NAME) ? EvictionPolicy
+        .valueOf(config.getString(ToolkitConfigFields.EVICTION_POLICY_FIELD_NAME)) : EvictionPolicy.CLOCK;
+    return SegmentedTable.heapSegments(heapCapacity, policy, timed);
+  }
+
+  private static boolean isPinned(LocalConfiguration config) {
+    return config.getBoolean(ToolkitConfigFields.PINNED_IN_LOCAL_MEMORY_FIELD_NAME);
+  }
+
+  private static PinnedMemory createPinnedMemory(LocalConfiguration config, LocalStoreContext context) {
+    return isPinned(config) ? new PinnedMemory(context.getSizeOfEngine()) : null;
+  }
+
+  private static OffheapMemory createOffheapMemory(String name, LocalConfiguration config, LocalStoreContext context) {
+    if (isPinned(config) || !config.getBoolean(ToolkitConfigFields.OFFHEAP_ENABLED_FIELD_NAME)) { return null; }
+    return context.getOffheapFeature()
+        .createMemory(name, config.getBytes(ToolkitConfigFields.MAX_BYTES_LOCAL_OFFHEAP_FIELD_NAME),
+                      config.getInt(ToolkitConfigFields.CONCURRENCY_FIELD_NAME));
+  }
+
+  private static HeapCapacity createHeapCapacity(String name, LocalConfiguration config, LocalStoreContext context) {
+    if (isPinned(config) || config.getBoolean(ToolkitConfigFields.OFFHEAP_ENABLED_FIELD_NAME)) { return null; }
+    return new HeapCapacity(name, context.getSizeOfEngine());
+  }
+
+  /**
+   * Returns true if the field {@code name} can be changed through {@link #setConfigField(String, Serializable)}
+   */
+  protected abstract boolean isDynamicField(String name);
+
+  /**
+   * Returns true if entries may be evicted to make room for new ones
+   */
+  protected abstract boolean isEvictionEnabled();
+
+  /**
+   * Returns the type of this object, under which NonStop configurations are registered for it
+   */
+  protected abstract ToolkitObjectType getObjectType();
+
+  public Configuration getConfiguration() {
+    return config;
+  }
+
+  public void setConfigField(String name, Serializable value) {
+    checkDestroyed();
+    if (!isDynamicField(name)) { throw new IllegalArgumentException("Config field '" + name
+                                                                    + "' cannot be changed at runtime"); }
+    config.setField(name, value);
+    configChanged();
+  }
+
+  /**
+   * Called after the configuration changed, to refresh the settings derived from it
+   */
+  protected void configChanged() {
+    int tti = config.hasField(ToolkitConfigFields.MAX_TTI_SECONDS_FIELD_NAME) ? config
+        .getInt(ToolkitConfigFields.MAX_TTI_SECONDS_FIELD_NAME) : ToolkitConfigFields.NO_MAX_TTI_SECONDS;
+    int ttl = config.hasField(ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME) ? config
+        .getInt(ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME) : ToolkitConfigFields.NO_MAX_TTL_SECONDS;
+    setDefaultExpiry(tti, ttl);
+    if (offheapMemory != null) {
+      offheapMemory.setEvictionEnabled(isEvictionEnabled());
+    }
+    long maxCount = config.getInt(ToolkitConfigFields.MAX_COUNT_LOCAL_HEAP_FIELD_NAME);
+    if (config.hasField(ToolkitConfigFields.MAX_TOTAL_COUNT_FIELD_NAME)) {
+      // all of a local cache is local, so its total count bounds its heap
+      long maxTotalCount = config.getInt(ToolkitConfigFields.MAX_TOTAL_COUNT_FIELD_NAME);
+      if (maxTotalCount > 0 && (maxCount <= 0 || maxTotalCount < maxCount)) {
+        maxCount = maxTotalCount;
+      }
+    }
+    if (heapCapacity != null
+        && heapCapacity.configure(maxCount,
+                                  config.getBytes(ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME),
+                                  isEvictionEnabled())) {
+      for (int i = 0; i < table.segmentCount(); i++) {
+        HeapSegment<K, V> segment = (HeapSegment<K, V>) table.segmentAt(i);
+        segment.writeLock().lock();
+        try {
+          segment.measureAll();
+        } finally {
+          segment.writeLock().unlock();
+        }
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected HashEntry<K, V> newEntry(K key, int hash, V value, long createTime, int ttiSeconds, int ttlSeconds) {
+    SearchIndex<K> index = searchIndex;
+    ToolkitAttributeExtractor<K, V> extractor = index == null ? null : attributeExtractor;
+    Map<String, Object> attributes = extractor == null ? null : index.extract(extractor, key, value);
+    V stored = compressor == null ? value : (V) compressor.compress(value);
+    HashEntry<K, V> entry = extractor == null ? super.newEntry(key, hash, stored, createTime, ttiSeconds, ttlSeconds)
+        : new IndexedEntry<K, V>(key, hash, stored, createTime, ttiSeconds, ttlSeconds);
+    if (heapCapacity != null) {
+      heapCapacity.measure(entry);
+    } else if (pinnedMemory != null) {
+      pinnedMemory.measure(entry);
+    }
+    if (extractor != null) {
+      // held after the entry is measured, as they are released once indexed
+      ((IndexedEntry<K, V>) entry).hold(extractor, attributes);
+    }
+    if (expiryTask == null && entry.canExpire()) {
+      startExpiryTask();
+    }
+    return entry;
+  }
+
+  /**
+   * Starts expiring entries as they become due, once the first entry that can expire is stored
+   */
+  private synchronized void startExpiryTask() {
+    if (expiryTask != null || isDestroyed()) { return; }
+    expiryTask = context.getScheduler().scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        if (!isDestroyed()) {
+          expireDue();
+        }
+      }
+    }, EXPIRY_PERIOD_MILLIS, EXPIRY_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected V doGet(Object key, boolean updateAccessTime) {
+    if (statistics == null) { return super.doGet(key, updateAccessTime); }
+    long start = System.nanoTime();
+    V value = super.doGet(key, updateAccessTime);
+    statistics.get(value != null, System.nanoTime() - start);
+    return value;
+  }
+
+  @Override
+  protected V doPut(K key, V value, long createTime, int ttiSeconds, int ttlSeconds, boolean onlyIfAbsent) {
+    if (statistics == null) { return super.doPut(key, value, createTime, ttiSeconds, ttlSeconds, onlyIfAbsent); }
+    long start = System.nanoTime();
+    try {
+      return super.doPut(key, value, createTime, ttiSeconds, ttlSeconds, onlyIfAbsent);
+    } finally {
+      statistics.putLatency(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  protected void onMutations(int puts, int removals) {
+    if (statistics != null) {
+      statistics.mutated(puts, removals);
+    }
+  }
+
+  @Override
+  protected void onEviction(K key) {
+    if (statistics != null) {
+      statistics.eviction();
+    }
+  }
+
+  @Override
+  protected void onExpiration(K key) {
+    if (statistics != null) {
+      statistics.expiration();
+    }
+  }
+
+  @Override
+  protected void onLinked(HashEntry<K, V> previous, HashEntry<K, V> entry) {
+    SearchIndex<K> index = searchIndex;
+    if (index == null) { return; }
+    Map<String, Object> attributes;
+    if (entry instanceof IndexedEntry && ((IndexedEntry<K, V>) entry).extractor == attributeExtractor) {
+      attributes = ((IndexedEntry<K, V>) entry).attributes;
+    } else {
+      // created before the extractor was set, or with the attributes of a replaced extractor: the mapping is already
+      // stored, so that it is left out of the index if the new extractor rejects it
+      try {
+        attributes = index.extract(attributeExtractor, entry.key, valueOf(entry));
+      } catch (SearchException e) {
+        attributes = null;
+      }
+    }
+    if (entry instanceof IndexedEntry) {
+      ((IndexedEntry<K, V>) entry).release();
+    }
+    index.update(table.segmentIndex(entry.hash), entry.key, attributes);
+  }
+
+  @Override
+  protected void onUnlinked(HashEntry<K, V> entry) {
+    SearchIndex<K> index = searchIndex;
+    if (index != null) {
+      index.remove(table.segmentIndex(entry.hash), entry.key);
+    }
+  }
+
+  @Override
+  protected boolean clearsExclusively() {
+    return searchIndex != null;
+  }
+
+  @Override
+  protected void onCleared() {
+    SearchIndex<K> index = searchIndex;
+    if (index != null) {
+      index.clear();
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected V valueOf(HashEntry<K, V> entry) {
+    Object value = entry.value;
+    if (value instanceof CompressedValue && compressor != null) { return (V) compressor.decompress(value); }
+    return copier == null ? (V) value : (V) copier.copy(value);
+  }
+
+  /**
+   * Returns the compression counters of this store, or null if compression is not enabled
+   */
+  public CompressionStatistics getCompressionStatistics() {
+    return compressor == null ? null : compressor.getStatistics();
+  }
+
+  /**
+   * Returns the membership filter of this store, or null if it has none
+   */
+  @Override
+  public MembershipFilter getMembershipFilter() {
+    return super.getMembershipFilter();
+  }
+
+  /**
+   * Rebuilds the membership filter of this store from its mappings, sized for its configured capacity or its current
+   * size if larger. Mutations of the store wait for the rebuild to complete. Does nothing if the store has no filter.
+   */
+  public void rebuildMembershipFilter() {
+    checkDestroyed();
+    if (membershipFilterCapacity > 0) {
+      rebuildMembershipFilter(Math.max(membershipFilterCapacity, table.size()));
+    }
+  }
+
+  /**
+   * Number of mappings held on heap, as accounted against {@link ToolkitConfigFields#MAX_COUNT_LOCAL_HEAP_FIELD_NAME}
+   */
+  public long getLocalHeapCount() {
+    return heapCapacity == null ? 0 : heapCapacity.getCount();
+  }
+
+  /**
+   * Estimated size of the mappings held on heap, as accounted against
+   * {@link ToolkitConfigFields#MAX_BYTES_LOCAL_HEAP_FIELD_NAME}, or 0 when the store is not bounded by bytes
+   */
+  public long getLocalHeapBytes() {
+    return heapCapacity == null ? 0 : heapCapacity.getBytes();
+  }
+
+  /**
+   * Number of mappings held by this store when it is pinned, also reported by the
+   * {@link LocalConfigFields#PINNED_LOCAL_COUNT_FIELD_NAME} field of its configuration
+   */
+  public long getPinnedCount() {
+    return pinnedMemory == null ? 0 : pinnedMemory.getCount();
+  }
+
+  /**
+   * Estimated size of the mappings held by this store when it is pinned, also reported by the
+   * {@link LocalConfigFields#PINNED_LOCAL_BYTES_FIELD_NAME} field of its configuration
+   */
+  public long getPinnedBytes() {
+    return pinnedMemory == null ? 0 : pinnedMemory.getBytes();
+  }
+
+  public ToolkitReadWriteLock createLockForKey(K key) {
+    checkDestroyed();
+    if (key == null) { throw new NullPointerException("key cannot be null"); }
+    return table.createLockForKey(key);
+  }
+
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    return doGetAll(keys, true);
+  }
+
+  /**
+   * Looks up {@code keys} segment by segment, in parallel from
+   * {@link LocalConfigFields#PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME} keys
+   */
+  protected Map<K, V> doGetAll(Collection<? extends K> keys, boolean updateAccessTime) {
+    checkDestroyed();
+    boolean parallel = parallelGetAllThreshold > 0 && keys.size() >= parallelGetAllThreshold
+                       && table.segmentCount() > 1;
+    Map<K, V> values = lookupAll(keys, updateAccessTime, parallel ? context.getForkJoinPool() : null);
+    if (statistics != null) {
+      int hits = 0;
+      for (V value : values.values()) {
+        if (value != null) {
+          hits++;
+        }
+      }
+      statistics.getAll(hits, values.size() - hits);
+    }
+    return values;
+  }
+
+  public AsyncToolkitStore<K, V> async() {
+    checkDestroyed();
+    AsyncToolkitStore<K, V> view = async;
+    if (view == null) {
+      view = new LocalAsyncStore<K, V>(this, getObjectType(), context);
+      async = view;
+    }
+    return view;
+  }
+
+  public void putNoReturn(K key, V value) {
+    put(key, value);
+  }
+
+  public void removeNoReturn(Object key) {
+    checkDestroyed();
+    removeEntry(key, null);
+  }
+
+  public void putAllNoReturn(Map<? extends K, ? extends V> map) {
+    putAll(map);
+  }
+
+  public void removeAllNoReturn(Collection<?> keys) {
+    doRemoveAll(keys);
+  }
+
+  /**
+   * Sets the extractor of the attributes of the mappings and indexes all the mappings with it, or drops the index if
+   * {@code attrExtractor} is null. Mutations of the store wait for the index to be built.
+   *
+   * @throws SearchException if the extractor fails on a mapping, in which case the previous extractor is kept
+   */
+  @Override
+  public void setAttributeExtractor(final ToolkitAttributeExtractor<K, V> attrExtractor) {
+    checkDestroyed();
+    runExclusively(new Runnable() {
+      @Override
+      public void run() {
+        SearchIndex<K> index = null;
+        if (attrExtractor != null) {
+          index = new SearchIndex<K>(table.segmentCount(), bitmapIndexedAttributes, prefixIndexedAttributes);
+          List<HashEntry<K, V>> entries = new ArrayList<HashEntry<K, V>>();
+          for (int i = 0; i < table.segmentCount(); i++) {
+            entries.clear();
+            table.segmentAt(i).snapshot(entries);
+            for (HashEntry<K, V> entry : entries) {
+              index.update(i, entry.key, index.extract(attrExtractor, entry.key, valueOf(entry)));
+            }
+          }
+        }
+        searchIndex = index;
+        attributeExtractor = attrExtractor;
+      }
+    });
+  }
+
+  protected ToolkitAttributeExtractor<K, V> getAttributeExtractor() {
+    return attributeExtractor;
+  }
+
+  /**
+   * Creates a builder of queries evaluated against the {@link SearchIndex} of this store, which fail if no attribute
+   * extractor was set
+   */
+  @Override
+  public QueryBuilder createQueryBuilder() {
+    checkDestroyed();
+    return new LocalQueryBuilder<K, V>(new SearchSource<K, V>() {
+      @Override
+      public SearchIndex<K> getSearchIndex() {
+        checkDestroyed();
+        return searchIndex;
+      }
+
+      @Override
+      public boolean mayHoldExpiredEntries() {
+        return config.hasField(ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME);
+      }
+
+      @Override
+      public V lookup(K key) {
+        HashEntry<K, V> entry = getEntry(key, false);
+        return entry == null ? null : valueOf(entry);
+      }
+
+      @Override
+      public void searched(long nanos) {
+        if (statistics != null) {
+          statistics.search(nanos);
+        }
+      }
+    });
+  }
+
+  @Override
+  public boolean isBulkLoadEnabled() {
+    return nodeBulkLoadEnabled;
+  }
+
+  @Override
+  public boolean isNodeBulkLoadEnabled() {
+    return nodeBulkLoadEnabled;
+  }
+
+  @Override
+  public void setNodeBulkLoadEnabled(boolean enabledBulkLoad) {
+    checkDestroyed();
+    boolean ended = nodeBulkLoadEnabled && !enabledBulkLoad;
+    this.nodeBulkLoadEnabled = enabledBulkLoad;
+    if (ended) {
+      rebuildMembershipFilter();
+    }
+  }
+
+  @Override
+  public void waitUntilBulkLoadComplete() {
+    // a local store has no other node to wait for
+  }
+
+  @Override
+  protected void doDestroy() {
+    super.doDestroy();
+    synchronized (this) {
+      if (expiryTask != null) {
+        expiryTask.cancel(false);
+      }
+    }
+    if (offheapMemory != null) {
+      offheapMemory.destroy();
+    }
+    if (statistics != null) {
+      context.getStatisticsFeature().unregister(getObjectType(), getName(), statistics);
+    }
+  }
+
+  /**
+   * An entry created while the store had an attribute extractor, holding its attributes until it is indexed
+   */
+  private static final class IndexedEntry<K, V> extends HashEntry<K, V> {
+    private ToolkitAttributeExtractor<K, V> extractor;
+    private Map<String, Object>             attributes;
+
+    IndexedEntry(K key, int hash, V value, long createTime, int maxTTISeconds, int maxTTLSeconds) {
+      super(key, hash, value, createTime, maxTTISeconds, maxTTLSeconds);
+    }
+
+    void hold(ToolkitAttributeExtractor<K, V> attributeExtractor, Map<String, Object> extracted) {
+      this.extractor = attributeExtractor;
+      this.attributes = extracted;
+    }
+
+    void release() {
+      extractor = null;
+      attributes = null;
+    }
+  }
+}
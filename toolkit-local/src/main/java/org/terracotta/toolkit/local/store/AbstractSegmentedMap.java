@@ -0,0 +1,1166 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.local.object.AbstractLocalToolkitObject;
+import org.terracotta.toolkit.local.object.SerializationUtil;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A {@link ConcurrentMap} over a {@link SegmentedTable}: every operation locks the one segment its key hashes to, in
+ * read mode for lookups and write mode for mutations. Entries with a time-to-idle or time-to-live are expired when an
+ * operation finds them expired, and by {@link #expireDue()} for segments that schedule their expiration.
+ * <p>
+ * A map can be given a {@link MembershipFilter} by {@link #rebuildMembershipFilter(int)}, which lookups check before
+ * locking the segment of their key. The filter is updated under the write lock of the segment a key is linked to or
+ * unlinked from, and replaced while all the segments are write locked, so that it never misses a live key.
+ */
+public abstract class AbstractSegmentedMap<K, V> extends AbstractLocalToolkitObject implements ConcurrentMap<K, V> {
+
+  // fewer keys are looked up by the current thread rather than split across the pool
+  private static final int             MIN_FORKED_KEYS = 256;
+
+  protected final SegmentedTable<K, V> table;
+
+  private volatile int                 maxTTISeconds;
+  private volatile int                 maxTTLSeconds;
+  private volatile MembershipFilter    membershipFilter;
+
+  private Set<K>                       keySet;
+  private Collection<V>                values;
+  private Set<Map.Entry<K, V>>         entrySet;
+
+  protected AbstractSegmentedMap(String name, int concurrency, ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    this.table = new SegmentedTable<K, V>(concurrency);
+  }
+
+  protected AbstractSegmentedMap(String name, int concurrency, Segment.Factory<K, V> segmentFactory,
+                                 ToolkitObjectRegistry<?> registry) {
+    super(name, registry);
+    this.table = new SegmentedTable<K, V>(concurrency, segmentFactory);
+  }
+
+  /**
+   * Sets the time-to-idle and time-to-live given to entries put without explicit expiry settings
+   */
+  protected void setDefaultExpiry(int ttiSeconds, int ttlSeconds) {
+    this.maxTTISeconds = ttiSeconds;
+    this.maxTTLSeconds = ttlSeconds;
+  }
+
+  /**
+   * Called, outside of any lock, after {@code key} was found expired and removed
+   */
+  protected void onExpiration(K key) {
+    //
+  }
+
+  /**
+   * Called, outside of any lock, after {@code key} was evicted by its segment to make room for another entry
+   */
+  protected void onEviction(K key) {
+    //
+  }
+
+  /**
+   * Whether {@link #onMutation(Object, HashEntry, HashEntry)} must be called. Checked by every mutation before any work
+   * is done for the notification, so that a map nobody listens to does not pay for it.
+   */
+  protected boolean notifiesMutations() {
+    return false;
+  }
+
+  /**
+   * Called, outside of any lock, after the live mapping of {@code key} changed from {@code previous} to
+   * {@code current}, either of which is null when the key had or has no mapping. Only called when
+   * {@link #notifiesMutations()} returned true.
+   */
+  protected void onMutation(K key, HashEntry<K, V> previous, HashEntry<K, V> current) {
+    //
+  }
+
+  /**
+   * Called under the write lock of the segment of {@code key} after its live mapping changed from {@code previous} to
+   * {@code current}, so that the mutations of a key are seen in the order they were applied. Unlike
+   * {@link #onMutation(Object, HashEntry, HashEntry)} it is always called, and must not block.
+   */
+  protected void onMutationLocked(K key, HashEntry<K, V> previous, HashEntry<K, V> current) {
+    //
+  }
+
+  /**
+   * Called, outside of any lock, with the number of mappings stored and of live mappings removed by a mutation, whether
+   * or not {@link #notifiesMutations()} returned true
+   */
+  protected void onMutations(int puts, int removals) {
+    //
+  }
+
+  protected long now() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public V get(Object key) {
+    return doGet(key, true);
+  }
+
+  protected V doGet(Object key, boolean updateAccessTime) {
+    checkDestroyed();
+    HashEntry<K, V> entry = getEntry(key, updateAccessTime);
+    return entry == null ? null : valueOf(entry);
+  }
+
+  /**
+   * Returns the live entry mapped to {@code key}, expiring it if needed
+   */
+  protected HashEntry<K, V> getEntry(Object key, boolean updateAccessTime) {
+    int hash = SegmentedTable.hash(key);
+    MembershipFilter filter = membershipFilter;
+    if (filter != null && !filter.mightContain(hash)) {
+      filter.rejected();
+      return null;
+    }
+    Segment<K, V> segment = table.segmentFor(hash);
+    HashEntry<K, V> entry;
+    segment.readLock().lock();
+    try {
+      entry = segment.get(key, hash);
+      if (entry == null) {
+        if (filter != null) {
+          filter.falsePositive();
+        }
+        return null;
+      }
+      if (!entry.canExpire()) {
+        if (updateAccessTime) {
+          segment.recordRead(entry);
+        }
+        return entry;
+      }
+      long now = now();
+      if (!entry.isExpired(now)) {
+        if (updateAccessTime) {
+          segment.accessed(entry, now);
+        }
+        return entry;
+      }
+    } finally {
+      segment.readLock().unlock();
+    }
+    expire(segment, entry);
+    return null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    checkDestroyed();
+    return getEntry(key, false) != null;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    checkDestroyed();
+    if (value == null) { throw new NullPointerException(); }
+    long now = now();
+    for (Iterator<HashEntry<K, V>> it = table.entryIterator(); it.hasNext();) {
+      HashEntry<K, V> entry = it.next();
+      if (!entry.isExpired(now) && value.equals(valueOf(entry))) { return true; }
+    }
+    return false;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    return doPut(key, value, expiringNow(), maxTTISeconds, maxTTLSeconds, false);
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    return doPut(key, value, expiringNow(), maxTTISeconds, maxTTLSeconds, true);
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) {
+    doPutAll(map, expiringNow(), maxTTISeconds, maxTTLSeconds);
+  }
+
+  /**
+   * Maps all the keys of {@code map} to their values with the given expiry settings. The entries are grouped by
+   * segment, and each segment is locked once for all its entries.
+   */
+  @SuppressWarnings("unchecked")
+  protected void doPutAll(Map<? extends K, ? extends V> map, long createTime, int ttiSeconds, int ttlSeconds) {
+    checkDestroyed();
+    HashEntry<K, V>[] entries = new HashEntry[map.size()];
+    int[] segmentIndexes = new int[entries.length];
+    int count = 0;
+    for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+      K key = e.getKey();
+      V value = e.getValue();
+      SerializationUtil.checkSerializable(key);
+      SerializationUtil.checkSerializable(value);
+      if (count == entries.length) {
+        // the map grew while being iterated
+        entries = Arrays.copyOf(entries, count * 2 + 1);
+        segmentIndexes = Arrays.copyOf(segmentIndexes, entries.length);
+      }
+      int hash = SegmentedTable.hash(key);
+      segmentIndexes[count] = table.segmentIndex(hash);
+      entries[count++] = newEntry(key, hash, value, createTime, ttiSeconds, ttlSeconds);
+    }
+    int[] bounds = new int[table.segmentCount() + 1];
+    HashEntry<K, V>[] grouped = groupBySegment(entries, segmentIndexes, count, bounds);
+    HashEntry<K, V>[] replaced = notifiesMutations() ? new HashEntry[count] : null;
+    for (int s = 0; s < bounds.length - 1; s++) {
+      if (bounds[s] == bounds[s + 1]) {
+        continue;
+      }
+      Segment<K, V> segment = table.segmentAt(s);
+      List<K> expired = null;
+      List<HashEntry<K, V>> evicted = null;
+      segment.writeLock().lock();
+      try {
+        long now = now();
+        for (int i = bounds[s]; i < bounds[s + 1]; i++) {
+          HashEntry<K, V> entry = grouped[i];
+          HashEntry<K, V> previous = segment.get(entry.key, entry.hash);
+          if (previous != null && previous.canExpire() && previous.isExpired(now)) {
+            segment.removeEntry(previous);
+            unlinked(previous);
+            if (expired == null) {
+              expired = new ArrayList<K>();
+            }
+            expired.add(previous.key);
+            previous = null;
+          }
+          try {
+            segment.put(entry);
+            linked(previous, entry);
+            onMutationLocked(entry.key, previous, entry);
+            if (replaced != null) {
+              replaced[i] = previous;
+            }
+          } finally {
+            List<HashEntry<K, V>> drained = segment.drainEvicted();
+            unlinked(drained);
+            if (drained != null) {
+              if (evicted == null) {
+                evicted = drained;
+              } else {
+                evicted.addAll(drained);
+              }
+            }
+          }
+        }
+      } finally {
+        segment.writeLock().unlock();
+        notifyExpired(expired);
+        notifyEvicted(evicted);
+      }
+      evictFromOtherSegments(s);
+      onMutations(bounds[s + 1] - bounds[s], 0);
+      if (replaced != null) {
+        for (int i = bounds[s]; i < bounds[s + 1]; i++) {
+          onMutation(grouped[i].key, replaced[i], grouped[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes the mappings of all {@code keys}, locking each segment once for all its keys
+   */
+  @SuppressWarnings("unchecked")
+  protected void doRemoveAll(Collection<?> keys) {
+    checkDestroyed();
+    Object[] grouped = new Object[keys.size()];
+    int[] hashes = new int[grouped.length];
+    int[] bounds = new int[table.segmentCount() + 1];
+    int count = 0;
+    for (Object key : keys) {
+      if (count == grouped.length) {
+        grouped = Arrays.copyOf(grouped, count * 2 + 1);
+        hashes = Arrays.copyOf(hashes, grouped.length);
+      }
+      hashes[count] = SegmentedTable.hash(key);
+      grouped[count++] = key;
+    }
+    int[] segmentIndexes = new int[count];
+    for (int i = 0; i < count; i++) {
+      segmentIndexes[i] = table.segmentIndex(hashes[i]);
+    }
+    int[] order = sortBySegment(segmentIndexes, count, bounds);
+    HashEntry<K, V>[] removed = notifiesMutations() ? new HashEntry[count] : null;
+    for (int s = 0; s < bounds.length - 1; s++) {
+      if (bounds[s] == bounds[s + 1]) {
+        continue;
+      }
+      Segment<K, V> segment = table.segmentAt(s);
+      List<K> expired = null;
+      int removals = 0;
+      segment.writeLock().lock();
+      try {
+        long now = now();
+        for (int i = bounds[s]; i < bounds[s + 1]; i++) {
+          int k = order[i];
+          HashEntry<K, V> current = segment.get(grouped[k], hashes[k]);
+          if (current == null || !segment.removeEntry(current)) {
+            continue;
+          }
+          unlinked(current);
+          if (current.canExpire() && current.isExpired(now)) {
+            if (expired == null) {
+              expired = new ArrayList<K>();
+            }
+            expired.add(current.key);
+            continue;
+          }
+          removals++;
+          onMutationLocked(current.key, current, null);
+          if (removed != null) {
+            removed[i] = current;
+          }
+        }
+      } finally {
+        segment.writeLock().unlock();
+        notifyExpired(expired);
+      }
+      if (removals > 0) {
+        onMutations(0, removals);
+      }
+      if (removed != null) {
+        for (int i = bounds[s]; i < bounds[s + 1]; i++) {
+          if (removed[i] != null) {
+            onMutation(removed[i].key, removed[i], null);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the live values of {@code keys}, null for the keys without one, in an unmodifiable map presized for them.
+   * The keys are grouped by segment and each segment is read locked once for all its keys. When {@code pool} is not
+   * null, the segments are looked up in parallel in it.
+   */
+  @SuppressWarnings("unchecked")
+  protected Map<K, V> lookupAll(Collection<? extends K> keys, boolean updateAccessTime, ForkJoinPool pool) {
+    checkDestroyed();
+    Object[] all = keys.toArray();
+    int count = all.length;
+    int[] hashes = new int[count];
+    int[] segmentIndexes = new int[count];
+    for (int i = 0; i < count; i++) {
+      hashes[i] = SegmentedTable.hash(all[i]);
+      segmentIndexes[i] = table.segmentIndex(hashes[i]);
+    }
+    int[] bounds = new int[table.segmentCount() + 1];
+    int[] order = sortBySegment(segmentIndexes, count, bounds);
+    Object[] values = new Object[count];
+    BulkLookup lookup = new BulkLookup(all, hashes, order, bounds, values, updateAccessTime, 0, table.segmentCount());
+    if (pool == null) {
+      lookup.lookupSegments();
+    } else {
+      pool.invoke(lookup);
+    }
+    Map<K, V> result = new HashMap<K, V>((int) (count / 0.75f) + 1);
+    for (int i = 0; i < count; i++) {
+      result.put((K) all[i], (V) values[i]);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Returns the indexes of the first {@code count} segment indexes sorted by segment, in linear time, filling
+   * {@code bounds} with the start of the indexes of each segment followed by the end of the last one
+   */
+  private static int[] sortBySegment(int[] segmentIndexes, int count, int[] bounds) {
+    for (int i = 0; i < count; i++) {
+      bounds[segmentIndexes[i] + 1]++;
+    }
+    for (int s = 0; s < bounds.length - 1; s++) {
+      bounds[s + 1] += bounds[s];
+    }
+    int[] order = new int[count];
+    int[] next = Arrays.copyOf(bounds, bounds.length - 1);
+    for (int i = 0; i < count; i++) {
+      order[next[segmentIndexes[i]]++] = i;
+    }
+    return order;
+  }
+
+  /**
+   * Sorts the first {@code count} entries by segment index, in linear time, filling {@code bounds} with the start of
+   * the entries of each segment followed by the end of the last one
+   */
+  @SuppressWarnings("unchecked")
+  private static <K, V> HashEntry<K, V>[] groupBySegment(HashEntry<K, V>[] entries, int[] segmentIndexes, int count,
+                                                         int[] bounds) {
+    for (int i = 0; i < count; i++) {
+      bounds[segmentIndexes[i] + 1]++;
+    }
+    for (int s = 0; s < bounds.length - 1; s++) {
+      bounds[s + 1] += bounds[s];
+    }
+    int[] next = Arrays.copyOf(bounds, bounds.length - 1);
+    HashEntry<K, V>[] grouped = new HashEntry[count];
+    for (int i = 0; i < count; i++) {
+      grouped[next[segmentIndexes[i]]++] = entries[i];
+    }
+    return grouped;
+  }
+
+  protected long expiringNow() {
+    return maxTTISeconds > 0 || maxTTLSeconds > 0 ? now() : 0;
+  }
+
+  /**
+   * Maps {@code key} to {@code value} with the given expiry settings.
+   *
+   * @param createTime creation time in milliseconds since epoch
+   * @param onlyIfAbsent if true an existing live mapping is left untouched
+   * @return the value previously mapped to the key, or null
+   */
+  protected V doPut(K key, V value, long createTime, int ttiSeconds, int ttlSeconds, boolean onlyIfAbsent) {
+    checkDestroyed();
+    SerializationUtil.checkSerializable(key);
+    SerializationUtil.checkSerializable(value);
+    int hash = SegmentedTable.hash(key);
+    Segment<K, V> segment = table.segmentFor(hash);
+    HashEntry<K, V> entry = newEntry(key, hash, value, createTime, ttiSeconds, ttlSeconds);
+    HashEntry<K, V> expired = null;
+    HashEntry<K, V> previous;
+    boolean stored = false;
+    List<HashEntry<K, V>> evicted = null;
+    segment.writeLock().lock();
+    try {
+      previous = segment.get(key, hash);
+      if (previous != null && previous.canExpire() && previous.isExpired(now())) {
+        segment.removeEntry(previous);
+        unlinked(previous);
+        expired = previous;
+        previous = null;
+      }
+      if (previous == null || !onlyIfAbsent) {
+        try {
+          segment.put(entry);
+          stored = true;
+          linked(previous, entry);
+          onMutationLocked(key, previous, entry);
+        } finally {
+          evicted = segment.drainEvicted();
+          unlinked(evicted);
+        }
+      }
+    } finally {
+      segment.writeLock().unlock();
+    }
+    if (expired != null) {
+      onExpiration(expired.key);
+    }
+    notifyEvicted(evicted);
+    evictFromOtherSegments(table.segmentIndex(hash));
+    if (stored) {
+      onMutations(1, 0);
+      if (notifiesMutations()) {
+        onMutation(key, previous, entry);
+      }
+    }
+    return previous == null ? null : valueOf(previous);
+  }
+
+  /**
+   * Creates the entry of a new mapping. Called before the segment lock is taken, so that subclasses can do costly work
+   * on the entry there.
+   */
+  protected HashEntry<K, V> newEntry(K key, int hash, V value, long createTime, int ttiSeconds, int ttlSeconds) {
+    return new HashEntry<K, V>(key, hash, value, createTime, ttiSeconds, ttlSeconds);
+  }
+
+  /**
+   * Returns the value of {@code entry}, as seen by the user of the map
+   */
+  protected V valueOf(HashEntry<K, V> entry) {
+    return entry.value;
+  }
+
+  @Override
+  public V remove(Object key) {
+    checkDestroyed();
+    HashEntry<K, V> removed = removeEntry(key, null);
+    return removed == null ? null : valueOf(removed);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    checkDestroyed();
+    if (value == null) { throw new NullPointerException(); }
+    return removeEntry(key, value) != null;
+  }
+
+  /**
+   * Removes the live mapping of {@code key}, only if it maps to {@code expected} when that is not null
+   */
+  protected HashEntry<K, V> removeEntry(Object key, Object expected) {
+    int hash = SegmentedTable.hash(key);
+    Segment<K, V> segment = table.segmentFor(hash);
+    HashEntry<K, V> expired = null;
+    HashEntry<K, V> removed = null;
+    segment.writeLock().lock();
+    try {
+      HashEntry<K, V> current = segment.get(key, hash);
+      if (current != null && current.canExpire() && current.isExpired(now())) {
+        segment.removeEntry(current);
+        unlinked(current);
+        expired = current;
+      } else if (current != null && (expected == null || expected.equals(valueOf(current)))) {
+        segment.removeEntry(current);
+        unlinked(current);
+        removed = current;
+        onMutationLocked(current.key, current, null);
+      }
+    } finally {
+      segment.writeLock().unlock();
+    }
+    if (expired != null) {
+      onExpiration(expired.key);
+    }
+    if (removed != null) {
+      onMutations(0, 1);
+      if (notifiesMutations()) {
+        onMutation(removed.key, removed, null);
+      }
+    }
+    return removed;
+  }
+
+  @Override
+  public V replace(K key, V value) {
+    checkDestroyed();
+    HashEntry<K, V> replaced = replaceEntry(key, null, value);
+    return replaced == null ? null : valueOf(replaced);
+  }
+
+  @Override
+  public boolean replace(K key, V oldValue, V newValue) {
+    checkDestroyed();
+    if (oldValue == null) { throw new NullPointerException(); }
+    return replaceEntry(key, oldValue, newValue) != null;
+  }
+
+  private HashEntry<K, V> replaceEntry(K key, V expected, V value) {
+    SerializationUtil.checkSerializable(key);
+    SerializationUtil.checkSerializable(value);
+    int hash = SegmentedTable.hash(key);
+    Segment<K, V> segment = table.segmentFor(hash);
+    HashEntry<K, V> entry = newEntry(key, hash, value, expiringNow(), maxTTISeconds, maxTTLSeconds);
+    HashEntry<K, V> expired = null;
+    HashEntry<K, V> replaced = null;
+    List<HashEntry<K, V>> evicted = null;
+    segment.writeLock().lock();
+    try {
+      HashEntry<K, V> current = segment.get(key, hash);
+      if (current != null && current.canExpire() && current.isExpired(now())) {
+        segment.removeEntry(current);
+        unlinked(current);
+        expired = current;
+      } else if (current != null && (expected == null || expected.equals(valueOf(current)))) {
+        try {
+          segment.put(entry);
+          linked(current, entry);
+          onMutationLocked(key, current, entry);
+        } finally {
+          evicted = segment.drainEvicted();
+          unlinked(evicted);
+        }
+        replaced = current;
+      }
+    } finally {
+      segment.writeLock().unlock();
+    }
+    if (expired != null) {
+      onExpiration(expired.key);
+    }
+    notifyEvicted(evicted);
+    evictFromOtherSegments(table.segmentIndex(hash));
+    if (replaced != null) {
+      onMutations(1, 0);
+      if (notifiesMutations()) {
+        onMutation(key, replaced, entry);
+      }
+    }
+    return replaced;
+  }
+
+  /**
+   * Removes the mapping of the key of {@code entry} if it is still expired, and notifies its expiration
+   */
+  protected void expire(Segment<K, V> segment, HashEntry<K, V> entry) {
+    boolean removed = false;
+    segment.writeLock().lock();
+    try {
+      HashEntry<K, V> current = segment.get(entry.key, entry.hash);
+      if (current != null && current.isExpired(now())) {
+        removed = segment.removeEntry(current);
+        if (removed) {
+          unlinked(current);
+        }
+      }
+    } finally {
+      segment.writeLock().unlock();
+    }
+    if (removed) {
+      onExpiration(entry.key);
+    }
+  }
+
+  /**
+   * Removes the entries whose segments scheduled their expiration and that expired by now, one segment at a time, and
+   * notifies their expiration
+   */
+  protected void expireDue() {
+    for (int i = 0; i < table.segmentCount(); i++) {
+      Segment<K, V> segment = table.segmentAt(i);
+      if (!segment.hasScheduledExpiries()) {
+        continue;
+      }
+      List<HashEntry<K, V>> expired;
+      segment.writeLock().lock();
+      try {
+        expired = segment.expire(now());
+        unlinked(expired);
+      } finally {
+        segment.writeLock().unlock();
+      }
+      if (expired != null) {
+        for (HashEntry<K, V> entry : expired) {
+          onExpiration(entry.key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Called under the write lock of the segment of {@code entry}, just mapped in place of the live entry
+   * {@code previous}, null if its key had no mapping
+   */
+  protected void onLinked(HashEntry<K, V> previous, HashEntry<K, V> entry) {
+    //
+  }
+
+  /**
+   * Called under the write lock of the segment of {@code entry}, just removed, evicted or expired
+   */
+  protected void onUnlinked(HashEntry<K, V> entry) {
+    //
+  }
+
+  /**
+   * Whether {@link #clear()} must write lock all the segments at once and call {@link #onCleared()}
+   */
+  protected boolean clearsExclusively() {
+    return false;
+  }
+
+  /**
+   * Called by {@link #clear()} while all the segments are write locked and empty, when {@link #clearsExclusively()}
+   * returned true
+   */
+  protected void onCleared() {
+    //
+  }
+
+  private void linked(HashEntry<K, V> previous, HashEntry<K, V> entry) {
+    MembershipFilter filter = membershipFilter;
+    if (filter != null && previous == null) {
+      filter.add(entry.hash);
+    }
+    onLinked(previous, entry);
+  }
+
+  private void unlinked(HashEntry<K, V> entry) {
+    MembershipFilter filter = membershipFilter;
+    if (filter != null) {
+      filter.remove(entry.hash);
+    }
+    onUnlinked(entry);
+  }
+
+  private void unlinked(List<HashEntry<K, V>> entries) {
+    if (entries == null) { return; }
+    for (HashEntry<K, V> entry : entries) {
+      unlinked(entry);
+    }
+  }
+
+  /**
+   * Returns the membership filter of this map, or null if it has none
+   */
+  protected MembershipFilter getMembershipFilter() {
+    return membershipFilter;
+  }
+
+  /**
+   * Replaces the membership filter of this map with a filter sized for {@code capacity} keys holding all its keys, or
+   * removes it if {@code capacity} is not positive. All the segments are write locked meanwhile, so mutations wait for
+   * the filter to be rebuilt while lookups carry on with the previous one.
+   */
+  protected void rebuildMembershipFilter(int capacity) {
+    lockAllSegments();
+    try {
+      if (capacity <= 0) {
+        membershipFilter = null;
+        return;
+      }
+      MembershipFilter filter = new MembershipFilter(capacity);
+      List<HashEntry<K, V>> entries = new ArrayList<HashEntry<K, V>>();
+      for (int i = 0; i < table.segmentCount(); i++) {
+        entries.clear();
+        table.segmentAt(i).snapshot(entries);
+        for (HashEntry<K, V> entry : entries) {
+          filter.add(entry.hash);
+        }
+      }
+      membershipFilter = filter;
+    } finally {
+      unlockAllSegments();
+    }
+  }
+
+  /**
+   * Runs {@code task} while all the segments are write locked, so that no mutation runs meanwhile
+   */
+  protected void runExclusively(Runnable task) {
+    lockAllSegments();
+    try {
+      task.run();
+    } finally {
+      unlockAllSegments();
+    }
+  }
+
+  private void lockAllSegments() {
+    for (int i = 0; i < table.segmentCount(); i++) {
+      table.segmentAt(i).writeLock().lock();
+    }
+  }
+
+  private void unlockAllSegments() {
+    for (int i = table.segmentCount() - 1; i >= 0; i--) {
+      table.segmentAt(i).writeLock().unlock();
+    }
+  }
+
+  private void notifyExpired(List<K> expired) {
+    if (expired == null) { return; }
+    for (K key : expired) {
+      onExpiration(key);
+    }
+  }
+
+  /**
+   * Evicts from the segments following the segment at {@code index}, one segment lock at a time, while the store is
+   * still over the capacity its segments share after a put in that segment, which could not evict enough of its own
+   * entries. A caller still holding the lock of that segment, through a lock of a key, only evicts from the segments
+   * it can lock without waiting, so that two such callers never wait for each other.
+   */
+  private void evictFromOtherSegments(int index) {
+    Segment<K, V> full = table.segmentAt(index);
+    if (!full.isOverCapacity()) { return; }
+    boolean holdsLock = full.isWriteLockedByCurrentThread();
+    int segments = table.segmentCount();
+    for (int i = 1; i < segments && full.isOverCapacity(); i++) {
+      Segment<K, V> segment = table.segmentAt((index + i) % segments);
+      List<HashEntry<K, V>> evicted;
+      if (holdsLock) {
+        if (!segment.writeLock().tryLock()) {
+          continue;
+        }
+      } else {
+        segment.writeLock().lock();
+      }
+      try {
+        while (segment.evictOverCapacity()) {
+          //
+        }
+        evicted = segment.drainEvicted();
+        unlinked(evicted);
+      } finally {
+        segment.writeLock().unlock();
+      }
+      notifyEvicted(evicted);
+    }
+  }
+
+  /**
+   * Notifies the eviction of {@code evicted}, which can be null
+   */
+  protected void notifyEvicted(List<HashEntry<K, V>> evicted) {
+    if (evicted == null) { return; }
+    for (HashEntry<K, V> entry : evicted) {
+      onEviction(entry.key);
+    }
+  }
+
+  /**
+   * Number of mappings, including expired mappings which have not been found expired yet
+   */
+  @Override
+  public int size() {
+    checkDestroyed();
+    return table.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    checkDestroyed();
+    return table.isEmpty();
+  }
+
+  /**
+   * Clears the segments one after the other, or all at once when the map has a membership filter, which is then
+   * emptied, or {@link #clearsExclusively()}
+   */
+  @Override
+  public void clear() {
+    checkDestroyed();
+    if (membershipFilter == null && !clearsExclusively()) {
+      table.clear();
+      return;
+    }
+    lockAllSegments();
+    try {
+      for (int i = 0; i < table.segmentCount(); i++) {
+        table.segmentAt(i).clear();
+      }
+      if (membershipFilter != null) {
+        membershipFilter = new MembershipFilter(membershipFilter.getCapacity());
+      }
+      if (clearsExclusively()) {
+        onCleared();
+      }
+    } finally {
+      unlockAllSegments();
+    }
+  }
+
+  @Override
+  public Set<K> keySet() {
+    checkDestroyed();
+    Set<K> ks = keySet;
+    return ks != null ? ks : (keySet = new KeySet());
+  }
+
+  @Override
+  public Collection<V> values() {
+    checkDestroyed();
+    Collection<V> vs = values;
+    return vs != null ? vs : (values = new Values());
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    checkDestroyed();
+    Set<Map.Entry<K, V>> es = entrySet;
+    return es != null ? es : (entrySet = new EntrySet());
+  }
+
+  @Override
+  protected void doDestroy() {
+    table.clear();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " [name=" + getName() + "]";
+  }
+
+  /**
+   * Looks up the keys of a range of segments for {@link #lookupAll(Collection, boolean, ForkJoinPool)}, splitting the
+   * range in halves while it holds enough keys to be worth the fork
+   */
+  private final class BulkLookup extends RecursiveAction {
+    private static final long serialVersionUID = -2446813092170520738L;
+
+    private final Object[]    keys;
+    private final int[]       hashes;
+    private final int[]       order;
+    private final int[]       bounds;
+    private final Object[]    values;
+    private final boolean     updateAccessTime;
+    private final int         from;
+    private final int         to;
+
+    BulkLookup(Object[] keys, int[] hashes, int[] order, int[] bounds, Object[] values, boolean updateAccessTime,
+               int from, int to) {
+      this.keys = keys;
+      this.hashes = hashes;
+      this.order = order;
+      this.bounds = bounds;
+      this.values = values;
+      this.updateAccessTime = updateAccessTime;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1 && bounds[to] - bounds[from] > MIN_FORKED_KEYS) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new BulkLookup(keys, hashes, order, bounds, values, updateAccessTime, from, middle),
+                  new BulkLookup(keys, hashes, order, bounds, values, updateAccessTime, middle, to));
+      } else {
+        lookupSegments();
+      }
+    }
+
+    void lookupSegments() {
+      for (int s = from; s < to; s++) {
+        if (bounds[s] < bounds[s + 1]) {
+          lookupSegment(table.segmentAt(s), bounds[s], bounds[s + 1]);
+        }
+      }
+    }
+
+    /**
+     * Reads the entries of the keys {@code order[start..end)} under one read lock, then expires the expired ones and
+     * reads the values of the others outside of it
+     */
+    @SuppressWarnings("unchecked")
+    private void lookupSegment(Segment<K, V> segment, int start, int end) {
+      List<HashEntry<K, V>> expired = null;
+      MembershipFilter filter = membershipFilter;
+      segment.readLock().lock();
+      try {
+        long now = 0;
+        for (int i = start; i < end; i++) {
+          int k = order[i];
+          if (filter != null && !filter.mightContain(hashes[k])) {
+            filter.rejected();
+            continue;
+          }
+          HashEntry<K, V> entry = segment.get(keys[k], hashes[k]);
+          if (entry == null) {
+            if (filter != null) {
+              filter.falsePositive();
+            }
+            continue;
+          }
+          if (!entry.canExpire()) {
+            if (updateAccessTime) {
+              segment.recordRead(entry);
+            }
+          } else {
+            if (now == 0) {
+              now = now();
+            }
+            if (entry.isExpired(now)) {
+              if (expired == null) {
+                expired = new ArrayList<HashEntry<K, V>>();
+              }
+              expired.add(entry);
+              continue;
+            }
+            if (updateAccessTime) {
+              segment.accessed(entry, now);
+            }
+          }
+          values[k] = entry;
+        }
+      } finally {
+        segment.readLock().unlock();
+      }
+      if (expired != null) {
+        for (HashEntry<K, V> entry : expired) {
+          expire(segment, entry);
+        }
+      }
+      for (int i = start; i < end; i++) {
+        int k = order[i];
+        if (values[k] != null) {
+          values[k] = valueOf((HashEntry<K, V>) values[k]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Iterates over the live entries of the store
+   */
+  private abstract class StoreIterator<T> implements Iterator<T> {
+    private final Iterator<HashEntry<K, V>> entries = table.entryIterator();
+    private final long                      now     = now();
+    private HashEntry<K, V>                 next;
+    private HashEntry<K, V>                 last;
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && entries.hasNext()) {
+        HashEntry<K, V> candidate = entries.next();
+        if (!candidate.isExpired(now)) {
+          next = candidate;
+        }
+      }
+      return next != null;
+    }
+
+    HashEntry<K, V> nextEntry() {
+      if (!hasNext()) { throw new NoSuchElementException(); }
+      last = next;
+      next = null;
+      return last;
+    }
+
+    @Override
+    public void remove() {
+      if (last == null) { throw new IllegalStateException(); }
+      removeEntry(last.key, null);
+      last = null;
+    }
+  }
+
+  private final class KeySet extends AbstractSet<K> {
+    @Override
+    public Iterator<K> iterator() {
+      return new StoreIterator<K>() {
+        @Override
+        public K next() {
+          return nextEntry().key;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return AbstractSegmentedMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      return AbstractSegmentedMap.this.remove(o) != null;
+    }
+
+    @Override
+    public void clear() {
+      AbstractSegmentedMap.this.clear();
+    }
+  }
+
+  private final class Values extends AbstractCollection<V> {
+    @Override
+    public Iterator<V> iterator() {
+      return new StoreIterator<V>() {
+        @Override
+        public V next() {
+          return valueOf(nextEntry());
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return AbstractSegmentedMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsValue(o);
+    }
+
+    @Override
+    public void clear() {
+      AbstractSegmentedMap.this.clear();
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new StoreIterator<Map.Entry<K, V>>() {
+        @Override
+        public Map.Entry<K, V> next() {
+          HashEntry<K, V> entry = nextEntry();
+          return new WriteThroughEntry(entry.key, valueOf(entry));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return AbstractSegmentedMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Map.Entry)) { return false; }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      V value = get(e.getKey());
+      return value != null && value.equals(e.getValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      if (!(o instanceof Map.Entry)) { return false; }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return AbstractSegmentedMap.this.remove(e.getKey(), e.getValue());
+    }
+
+    @Override
+    public void clear() {
+      AbstractSegmentedMap.this.clear();
+    }
+  }
+
+  private final class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+    private static final long serialVersionUID = 7249069346764182397L;
+
+    WriteThroughEntry(K key, V value) {
+      super(key, value);
+    }
+
+    @Override
+    public V setValue(V value) {
+      V previous = super.setValue(value);
+      put(getKey(), value);
+      return previous;
+    }
+  }
+}
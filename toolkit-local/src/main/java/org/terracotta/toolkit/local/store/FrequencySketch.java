@@ -0,0 +1,119 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+/**
+ * A count-min sketch estimating how often hashes were seen, with 4-bit counters packed sixteen to a long. Each hash is
+ * counted in four counters taken from the same long, which are all halved once the sketch has counted ten times its
+ * capacity, so that estimates follow changes in popularity.
+ * <p>
+ * Not thread safe.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS      = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+      0xcbf29ce484222325L             };
+  private static final long   RESET_MASK = 0x7777777777777777L;
+  private static final long   ONE_MASK   = 0x1111111111111111L;
+
+  private long[]              table;
+  private int                 capacity;
+  private int                 sampleSize;
+  private int                 additions;
+
+  FrequencySketch(int capacity) {
+    resize(capacity);
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Makes room for estimating the frequencies of {@code newCapacity} distinct hashes. The table grows by powers of two,
+   * each new word starting as a copy of the word the same hashes used to select, so that estimates are kept.
+   */
+  void grow(int newCapacity) {
+    if (newCapacity <= capacity) { return; }
+    long[] old = table;
+    resize(newCapacity);
+    for (int i = 0; i < table.length; i++) {
+      table[i] = old[i & (old.length - 1)];
+    }
+  }
+
+  private void resize(int newCapacity) {
+    capacity = Math.max(newCapacity, 8);
+    int length = Integer.highestOneBit(Math.min(capacity, 1 << 29) - 1) << 1;
+    table = new long[Math.max(length, table == null ? 0 : table.length)];
+    sampleSize = 10 * capacity;
+  }
+
+  /**
+   * Returns the estimated number of times {@code hash} was counted, at most 15
+   */
+  int frequency(int hash) {
+    int start = (spread(hash) & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      long word = table[indexOf(hash, i)];
+      frequency = Math.min(frequency, (int) ((word >>> ((start + i) << 2)) & 0xfL));
+    }
+    return frequency;
+  }
+
+  void increment(int hash) {
+    int start = (spread(hash) & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions = (additions >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & (table.length - 1);
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+/**
+ * A mapping held in a {@link Segment} hash chain. The key, value and timestamps of an entry never change: updating a
+ * mapping links a new entry in place of the old one, so an entry handed out by a segment is a stable snapshot of the
+ * mapping. Only the last access time, used for time-to-idle, is updated in place.
+ * <p>
+ * Segments that do not keep entries on the heap hand out copies of their records instead, see
+ * {@link Segment#accessed(HashEntry, long)}.
+ */
+public class HashEntry<K, V> {
+
+  final K              key;
+  final int            hash;
+  final V              value;
+  final long           createTime;
+  final int            maxTTISeconds;
+  final int            maxTTLSeconds;
+  volatile long        lastAccessTime;
+  // heap footprint, only measured when the store is bounded by bytes
+  long                 size;
+  HashEntry<K, V>      next;
+  // links and state maintained by the SegmentEvictor of the segment, if it has one
+  HashEntry<K, V>      prevInPolicy;
+  HashEntry<K, V>      nextInPolicy;
+  int                  policyState;
+  // links and slot plus one in the TimerWheel of the segment, while the entry is scheduled to expire
+  HashEntry<K, V>      prevInWheel;
+  HashEntry<K, V>      nextInWheel;
+  int                  wheelSlot;
+
+  public HashEntry(K key, int hash, V value, long createTime, int maxTTISeconds, int maxTTLSeconds) {
+    this.key = key;
+    this.hash = hash;
+    this.value = value;
+    this.createTime = createTime;
+    this.maxTTISeconds = maxTTISeconds;
+    this.maxTTLSeconds = maxTTLSeconds;
+    this.lastAccessTime = createTime;
+  }
+
+  /**
+   * Creates a copy of a stored entry whose last access time is {@code lastAccessTime}
+   */
+  protected HashEntry(K key, int hash, V value, long createTime, long lastAccessTime, int maxTTISeconds,
+                      int maxTTLSeconds) {
+    this(key, hash, value, createTime, maxTTISeconds, maxTTLSeconds);
+    this.lastAccessTime = lastAccessTime;
+  }
+
+  public K getKey() {
+    return key;
+  }
+
+  public V getValue() {
+    return value;
+  }
+
+  public int getHash() {
+    return hash;
+  }
+
+  /**
+   * Creation time in milliseconds since epoch, only maintained for entries that can expire
+   */
+  public long getCreateTime() {
+    return createTime;
+  }
+
+  public long getLastAccessTime() {
+    return lastAccessTime;
+  }
+
+  public int getMaxTTISeconds() {
+    return maxTTISeconds;
+  }
+
+  public int getMaxTTLSeconds() {
+    return maxTTLSeconds;
+  }
+
+  /**
+   * Returns true if this entry has a time-to-idle or a time-to-live
+   */
+  public boolean canExpire() {
+    return maxTTISeconds > 0 || maxTTLSeconds > 0;
+  }
+
+  /**
+   * Records an access at {@code now}, which only matters for entries with a time-to-idle
+   */
+  public void accessed(long now) {
+    if (maxTTISeconds > 0) {
+      lastAccessTime = now;
+    }
+  }
+
+  /**
+   * Returns the time in milliseconds since epoch at which this entry expires, or {@code Long.MAX_VALUE}
+   */
+  public long expirationTime() {
+    long expiration = Long.MAX_VALUE;
+    if (maxTTLSeconds > 0) {
+      expiration = createTime + maxTTLSeconds * 1000L;
+    }
+    if (maxTTISeconds > 0) {
+      expiration = Math.min(expiration, lastAccessTime + maxTTISeconds * 1000L);
+    }
+    return expiration;
+  }
+
+  public boolean isExpired(long now) {
+    return canExpire() && now >= expirationTime();
+  }
+
+  @Override
+  public String toString() {
+    return key + "=" + value;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.local.sizeof.SizeOfEngine;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The heap budget of a store, shared by its {@link HeapSegment}s. It bounds the number of mappings, by
+ * {@link ToolkitConfigFields#MAX_COUNT_LOCAL_HEAP_FIELD_NAME}, their size as measured by a {@link SizeOfEngine}, by
+ * {@link ToolkitConfigFields#MAX_BYTES_LOCAL_HEAP_FIELD_NAME}, or both, usage being over budget once over either bound. Entries are measured once, before the segment lock is
+ * taken, and keep their size so that puts and removes only add a delta to the two usage counters.
+ * <p>
+ * When eviction is enabled, the segment whose put pushed usage over a bound evicts its own entries until usage is back
+ * under it, and if it runs out of entries, as when the bound is below the number of segments, the store evicts from its
+ * other segments once the lock of the first one is released. Otherwise usage is reserved before the put, which is rejected when it does not fit.
+ */
+final class HeapCapacity {
+
+  private final String       name;
+  private final SizeOfEngine sizeOfEngine;
+  private final AtomicLong   count = new AtomicLong();
+  private final AtomicLong   bytes = new AtomicLong();
+
+  private volatile long      maxCount;
+  private volatile long      maxBytes;
+  private volatile boolean   evictionEnabled;
+
+  HeapCapacity(String name, SizeOfEngine sizeOfEngine) {
+    this.name = name;
+    this.sizeOfEngine = sizeOfEngine;
+  }
+
+  /**
+   * Changes the bounds, 0 meaning unbounded
+   *
+   * @return true if entries were not measured so far and should now be
+   */
+  boolean configure(long newMaxCount, long newMaxBytes, boolean newEvictionEnabled) {
+    boolean startMeasuring = maxBytes <= 0 && newMaxBytes > 0;
+    this.maxCount = newMaxCount;
+    this.maxBytes = newMaxBytes;
+    this.evictionEnabled = newEvictionEnabled;
+    return startMeasuring;
+  }
+
+  boolean isEvictionEnabled() {
+    return evictionEnabled;
+  }
+
+  /**
+   * Records the size of {@code entry} in it if the store is bounded by bytes
+   */
+  void measure(HashEntry<?, ?> entry) {
+    entry.size = maxBytes > 0 ? sizeOfEngine.sizeOf(entry.key, entry.value, entry) : 0;
+  }
+
+  void add(long countDelta, long bytesDelta) {
+    if (countDelta != 0) {
+      count.addAndGet(countDelta);
+    }
+    if (bytesDelta != 0) {
+      bytes.addAndGet(bytesDelta);
+    }
+  }
+
+  /**
+   * Adds the deltas unless that makes usage exceed a bound
+   *
+   * @return false if the deltas were not added
+   */
+  boolean reserve(long countDelta, long bytesDelta) {
+    add(countDelta, bytesDelta);
+    if ((countDelta > 0 || bytesDelta > 0) && isOver()) {
+      add(-countDelta, -bytesDelta);
+      return false;
+    }
+    return true;
+  }
+
+  boolean isOver() {
+    long max = maxCount;
+    if (max > 0 && count.get() > max) { return true; }
+    max = maxBytes;
+    return max > 0 && bytes.get() > max;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  long getCount() {
+    return count.get();
+  }
+
+  long getBytes() {
+    return bytes.get();
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.ToolkitRuntimeException;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link Segment} holding its entries on the Java heap, in a chained hash table. When it shares a
+ * {@link HeapCapacity} with the other segments of its store, it accounts for every entry it adds or removes and, once
+ * the store is over its bounds, evicts its own entries, then the store evicts from its other segments if that was not
+ * enough: in the order chosen by its {@link SegmentEvictor} if it has
+ * one, otherwise in clock order over the buckets. Entries that can expire are scheduled in its {@link TimerWheel}, if it
+ * has one.
+ */
+public final class HeapSegment<K, V> extends Segment<K, V> {
+
+  private static final long  serialVersionUID = 6217364931628457713L;
+  private static final float LOAD_FACTOR      = 0.75f;
+
+  private HashEntry<K, V>[]  table;
+  private int                threshold;
+  private volatile int       count;
+  private int                clockHand;
+  private final HeapCapacity capacity;
+  private final SegmentEvictor<K, V> evictor;
+  private final TimerWheel<K, V> wheel;
+
+  public HeapSegment(int initialCapacity) {
+    this(initialCapacity, null, null, null);
+  }
+
+  HeapSegment(int initialCapacity, HeapCapacity capacity, SegmentEvictor<K, V> evictor, TimerWheel<K, V> wheel) {
+    this.capacity = capacity;
+    this.evictor = evictor;
+    this.wheel = wheel;
+    setTable(newTable(initialCapacity));
+  }
+
+  @Override
+  public HashEntry<K, V> get(Object key, int hash) {
+    HashEntry<K, V>[] tab = table;
+    for (HashEntry<K, V> e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+      if (e.hash == hash && key.equals(e.key)) { return e; }
+    }
+    return null;
+  }
+
+  @Override
+  public void accessed(HashEntry<K, V> entry, long now) {
+    super.accessed(entry, now);
+    if (evictor != null) {
+      evictor.recordAccess(entry);
+    }
+  }
+
+  @Override
+  public void recordRead(HashEntry<K, V> entry) {
+    if (evictor != null) {
+      evictor.recordAccess(entry);
+    }
+  }
+
+  @Override
+  public HashEntry<K, V> put(HashEntry<K, V> entry) {
+    if (evictor != null) {
+      evictor.drainAccesses();
+    }
+    if (capacity == null) { return doPut(entry); }
+    HashEntry<K, V> existing = get(entry.key, entry.hash);
+    long countDelta = existing == null ? 1 : 0;
+    long bytesDelta = existing == null ? entry.size : entry.size - existing.size;
+    if (!capacity.isEvictionEnabled()) {
+      if (!capacity.reserve(countDelta, bytesDelta)) { throw new ToolkitRuntimeException("Local heap of '"
+                                                                                         + capacity.getName()
+                                                                                         + "' is full"); }
+      return doPut(entry);
+    }
+    capacity.add(countDelta, bytesDelta);
+    HashEntry<K, V> replaced = doPut(entry);
+    while (capacity.isOver() && evictOne(entry)) {
+      //
+    }
+    return replaced;
+  }
+
+  private HashEntry<K, V> doPut(HashEntry<K, V> entry) {
+    HashEntry<K, V>[] tab = table;
+    int index = entry.hash & (tab.length - 1);
+    HashEntry<K, V> prev = null;
+    for (HashEntry<K, V> e = tab[index]; e != null; prev = e, e = e.next) {
+      if (e.hash == entry.hash && entry.key.equals(e.key)) {
+        entry.next = e.next;
+        if (prev == null) {
+          tab[index] = entry;
+        } else {
+          prev.next = entry;
+        }
+        if (evictor != null) {
+          evictor.replaced(e, entry);
+        }
+        if (wheel != null) {
+          wheel.remove(e);
+          scheduleExpiry(entry);
+        }
+        return e;
+      }
+    }
+    entry.next = tab[index];
+    tab[index] = entry;
+    if (evictor != null) {
+      evictor.added(entry);
+    }
+    if (wheel != null) {
+      scheduleExpiry(entry);
+    }
+    if (++count > threshold) {
+      rehash();
+    }
+    return null;
+  }
+
+  @Override
+  public HashEntry<K, V> remove(Object key, int hash) {
+    HashEntry<K, V>[] tab = table;
+    int index = hash & (tab.length - 1);
+    HashEntry<K, V> prev = null;
+    for (HashEntry<K, V> e = tab[index]; e != null; prev = e, e = e.next) {
+      if (e.hash == hash && key.equals(e.key)) {
+        unlink(tab, index, prev, e);
+        return e;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean removeEntry(HashEntry<K, V> entry) {
+    HashEntry<K, V>[] tab = table;
+    int index = entry.hash & (tab.length - 1);
+    HashEntry<K, V> prev = null;
+    for (HashEntry<K, V> e = tab[index]; e != null; prev = e, e = e.next) {
+      if (e == entry) {
+        unlink(tab, index, prev, e);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    if (count != 0) {
+      HashEntry<K, V>[] tab = table;
+      for (int i = 0; i < tab.length; i++) {
+        for (HashEntry<K, V> e = tab[i]; capacity != null && e != null; e = e.next) {
+          capacity.add(-1, -e.size);
+        }
+        tab[i] = null;
+      }
+      count = 0;
+      if (evictor != null) {
+        evictor.clear();
+      }
+      if (wheel != null) {
+        wheel.clear();
+      }
+    }
+  }
+
+  /**
+   * Measures again every entry, after the store became bounded by bytes. Called under the write lock.
+   */
+  void measureAll() {
+    for (HashEntry<K, V> head : table) {
+      for (HashEntry<K, V> e = head; e != null; e = e.next) {
+        long previous = e.size;
+        capacity.measure(e);
+        capacity.add(0, e.size - previous);
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  @Override
+  public void snapshot(Collection<? super HashEntry<K, V>> into) {
+    HashEntry<K, V>[] tab = table;
+    for (HashEntry<K, V> head : tab) {
+      for (HashEntry<K, V> e = head; e != null; e = e.next) {
+        into.add(e);
+      }
+    }
+  }
+
+  private void unlink(HashEntry<K, V>[] tab, int index, HashEntry<K, V> prev, HashEntry<K, V> e) {
+    if (prev == null) {
+      tab[index] = e.next;
+    } else {
+      prev.next = e.next;
+    }
+    e.next = null;
+    count--;
+    if (capacity != null) {
+      capacity.add(-1, -e.size);
+    }
+    if (evictor != null) {
+      evictor.removed(e);
+    }
+    if (wheel != null) {
+      wheel.remove(e);
+    }
+  }
+
+  private void scheduleExpiry(HashEntry<K, V> entry) {
+    if (entry.canExpire()) {
+      wheel.schedule(entry);
+    }
+  }
+
+  @Override
+  public boolean hasScheduledExpiries() {
+    return wheel != null && wheel.size() > 0;
+  }
+
+  @Override
+  public List<HashEntry<K, V>> expire(long now) {
+    return wheel == null ? null : wheel.advance(now, this);
+  }
+
+  @Override
+  public boolean isOverCapacity() {
+    return capacity != null && capacity.isEvictionEnabled() && capacity.isOver();
+  }
+
+  @Override
+  public boolean evictOverCapacity() {
+    return isOverCapacity() && evictOne(null);
+  }
+
+  /**
+   * Evicts the victim chosen by the evictor or else the head of the next non empty bucket under the clock hand, other
+   * than {@code keep}
+   */
+  private boolean evictOne(HashEntry<K, V> keep) {
+    if (evictor != null) {
+      HashEntry<K, V> victim = evictor.victim(keep);
+      if (victim == null || !removeEntry(victim)) { return false; }
+      evicted(victim);
+      return true;
+    }
+    HashEntry<K, V>[] tab = table;
+    for (int i = 0; i < tab.length; i++) {
+      int index = clockHand;
+      clockHand = (clockHand + 1) & (tab.length - 1);
+      HashEntry<K, V> prev = null;
+      HashEntry<K, V> e = tab[index];
+      if (e != null && e == keep) {
+        prev = e;
+        e = e.next;
+      }
+      if (e != null) {
+        unlink(tab, index, prev, e);
+        evicted(e);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void rehash() {
+    HashEntry<K, V>[] oldTable = table;
+    if (oldTable.length >= 1 << 30) { return; }
+    HashEntry<K, V>[] newTable = newTable(oldTable.length << 1);
+    int mask = newTable.length - 1;
+    for (HashEntry<K, V> head : oldTable) {
+      HashEntry<K, V> e = head;
+      while (e != null) {
+        HashEntry<K, V> next = e.next;
+        int index = e.hash & mask;
+        e.next = newTable[index];
+        newTable[index] = e;
+        e = next;
+      }
+    }
+    setTable(newTable);
+    clockHand &= newTable.length - 1;
+  }
+
+  private void setTable(HashEntry<K, V>[] newTable) {
+    threshold = (int) (newTable.length * LOAD_FACTOR);
+    table = newTable;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> HashEntry<K, V>[] newTable(int capacity) {
+    return new HashEntry[capacity];
+  }
+}
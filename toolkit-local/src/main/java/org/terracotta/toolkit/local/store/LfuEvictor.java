@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+/**
+ * Evicts the least frequently used entry of its segment, the least recently used one among equally frequent entries.
+ * Entries are kept in one LRU list per access count, counts saturating at {@value #MAX_FREQUENCY}, so that every
+ * operation takes constant time. All counts are halved once the segment has seen {@value #AGING_PERIOD} accesses per
+ * entry, so that entries that were popular long ago do not stay forever.
+ */
+final class LfuEvictor<K, V> extends SegmentEvictor<K, V> {
+
+  private static final int        MAX_FREQUENCY = 15;
+  private static final int        AGING_PERIOD  = 10;
+
+  private final HashEntry<K, V>[] lists;
+  private int                     size;
+  private long                    accesses;
+
+  @SuppressWarnings("unchecked")
+  LfuEvictor() {
+    lists = new HashEntry[MAX_FREQUENCY + 1];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = SegmentEvictor.newList();
+    }
+  }
+
+  // the state of a linked entry is its frequency plus one
+
+  @Override
+  void added(HashEntry<K, V> entry) {
+    entry.policyState = 1;
+    linkLast(lists[0], entry);
+    size++;
+  }
+
+  @Override
+  void removed(HashEntry<K, V> entry) {
+    super.removed(entry);
+    size--;
+  }
+
+  @Override
+  void accessed(HashEntry<K, V> entry) {
+    int frequency = entry.policyState - 1;
+    if (frequency < MAX_FREQUENCY) {
+      frequency++;
+      entry.policyState++;
+    }
+    moveToLast(lists[frequency], entry);
+    if (++accesses >= (long) AGING_PERIOD * size) {
+      age();
+    }
+  }
+
+  @Override
+  HashEntry<K, V> victim(HashEntry<K, V> keep) {
+    for (HashEntry<K, V> list : lists) {
+      HashEntry<K, V> entry = first(list, keep);
+      if (entry != null) { return entry; }
+    }
+    return null;
+  }
+
+  @Override
+  void clear() {
+    super.clear();
+    for (HashEntry<K, V> list : lists) {
+      empty(list);
+    }
+    size = 0;
+    accesses = 0;
+  }
+
+  /**
+   * Halves every frequency. Lists are processed by increasing frequency, so entries only move to lists that have
+   * already been emptied of their own entries.
+   */
+  private void age() {
+    for (int frequency = 1; frequency <= MAX_FREQUENCY; frequency++) {
+      HashEntry<K, V> list = lists[frequency];
+      HashEntry<K, V> target = lists[frequency / 2];
+      for (HashEntry<K, V> e = list.nextInPolicy; e != list;) {
+        HashEntry<K, V> next = e.nextInPolicy;
+        moveToLast(target, e);
+        e.policyState = frequency / 2 + 1;
+        e = next;
+      }
+    }
+    accesses = 0;
+  }
+}
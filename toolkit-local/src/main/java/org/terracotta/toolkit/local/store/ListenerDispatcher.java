@@ -0,0 +1,198 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.cache.ToolkitCacheBatchListener;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitConfigFields.ListenerQueueFullPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers the evictions and expirations of a cache to its {@link ToolkitCacheBatchListener}s from a thread of its own.
+ * Events are queued by the threads causing them and taken by the dispatcher thread in batches of up to
+ * {@link ToolkitConfigFields#LISTENER_BATCH_SIZE_FIELD_NAME} events, a batch being delivered at the latest
+ * {@link ToolkitConfigFields#LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME} after its first event was taken. Each batch
+ * is split into one call per listener for its evictions and one for its expirations, holding only the keys accepted
+ * by the key filter the listener was added with.
+ * <p>
+ * With {@link ListenerQueueFullPolicy#BLOCK}, a thread finding the queue full waits for room, except the dispatcher
+ * thread itself, whose events are then dropped as with {@link ListenerQueueFullPolicy#DROP}.
+ */
+final class ListenerDispatcher<K> implements Runnable {
+
+  private static final Logger                                     LOGGER      = Logger.getLogger(ListenerDispatcher.class
+                                                                                    .getName());
+  private static final long                                       POLL_MILLIS = 100;
+
+  private final CopyOnWriteArrayList<ListenerRegistration<K>>      listeners   = new CopyOnWriteArrayList<ListenerRegistration<K>>();
+  private final BlockingQueue<Event<K>>                           queue;
+  private final int                                               batchSize;
+  private final long                                              maxDelayMillis;
+  private final boolean                                           block;
+  private final AtomicLong                                        dropped     = new AtomicLong();
+  private final Thread                                            thread;
+  private volatile boolean                                        closed;
+
+  ListenerDispatcher(String cacheName, int batchSize, long maxDelayMillis, int queueCapacity,
+                     ListenerQueueFullPolicy fullPolicy, LocalStoreContext context) {
+    this.queue = new ArrayBlockingQueue<Event<K>>(queueCapacity);
+    this.batchSize = batchSize;
+    this.maxDelayMillis = maxDelayMillis;
+    this.block = fullPolicy == ListenerQueueFullPolicy.BLOCK;
+    this.thread = context.newThread("listener-" + cacheName, this);
+    thread.start();
+  }
+
+  synchronized boolean add(ListenerRegistration<K> registration) {
+    if (ListenerRegistration.find(listeners, registration.listener) != null) { return false; }
+    return listeners.add(registration);
+  }
+
+  synchronized boolean remove(Object listener) {
+    ListenerRegistration<K> registration = ListenerRegistration.find(listeners, listener);
+    return registration != null && listeners.remove(registration);
+  }
+
+  void evicted(K key) {
+    enqueue(new Event<K>(key, false));
+  }
+
+  void expired(K key) {
+    enqueue(new Event<K>(key, true));
+  }
+
+  /**
+   * Number of events dropped because the queue was full
+   */
+  long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Stops the dispatcher thread, dropping the events still queued
+   */
+  void close() {
+    closed = true;
+    listeners.clear();
+    thread.interrupt();
+  }
+
+  private void enqueue(Event<K> event) {
+    if (listeners.isEmpty() || closed) { return; }
+    if (queue.offer(event)) { return; }
+    if (block && Thread.currentThread() != thread) {
+      try {
+        while (!closed) {
+          if (queue.offer(event, POLL_MILLIS, TimeUnit.MILLISECONDS)) { return; }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    dropped.incrementAndGet();
+  }
+
+  @Override
+  public void run() {
+    List<Event<K>> batch = new ArrayList<Event<K>>(batchSize);
+    while (!closed) {
+      try {
+        Event<K> first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < batchSize) {
+          if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+            continue;
+          }
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          Event<K> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        deliver(batch);
+      } catch (InterruptedException e) {
+        // closed
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void deliver(List<Event<K>> batch) {
+    List<K> evictions = new ArrayList<K>();
+    List<K> expirations = new ArrayList<K>();
+    for (Event<K> event : batch) {
+      (event.expiration ? expirations : evictions).add(event.key);
+    }
+    evictions = Collections.unmodifiableList(evictions);
+    expirations = Collections.unmodifiableList(expirations);
+    for (ListenerRegistration<K> registration : listeners) {
+      ToolkitCacheBatchListener<K> listener = (ToolkitCacheBatchListener<K>) registration.listener;
+      try {
+        List<K> keys = filter(evictions, registration);
+        if (!keys.isEmpty()) {
+          listener.onEvictions(keys);
+        }
+        keys = filter(expirations, registration);
+        if (!keys.isEmpty()) {
+          listener.onExpirations(keys);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Batch listener " + listener + " failed", e);
+      }
+    }
+  }
+
+  private static <K> List<K> filter(List<K> keys, ListenerRegistration<K> registration) {
+    if (!registration.isFiltered() || keys.isEmpty()) { return keys; }
+    List<K> accepted = new ArrayList<K>(keys.size());
+    for (K key : keys) {
+      if (registration.accepts(key)) {
+        accepted.add(key);
+      }
+    }
+    return Collections.unmodifiableList(accepted);
+  }
+
+  private static final class Event<K> {
+    final K       key;
+    final boolean expiration;
+
+    Event(K key, boolean expiration) {
+      this.key = key;
+      this.expiration = expiration;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.cache.ToolkitCacheBatchListener;
+import org.terracotta.toolkit.cache.ToolkitCacheKeyFilter;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.cache.ToolkitCacheMutationListener;
+
+/**
+ * A listener added to a {@link LocalToolkitCache}, with the filter of the keys it is notified of
+ */
+final class ListenerRegistration<K> {
+
+  final ToolkitCacheListener<K>                  listener;
+  final boolean                                  batch;
+  final boolean                                  mutations;
+  private final ToolkitCacheKeyFilter<? super K> filter;
+
+  ListenerRegistration(ToolkitCacheListener<K> listener, ToolkitCacheKeyFilter<? super K> filter) {
+    this.listener = listener;
+    this.batch = listener instanceof ToolkitCacheBatchListener;
+    this.mutations = listener instanceof ToolkitCacheMutationListener;
+    this.filter = filter;
+  }
+
+  boolean isFiltered() {
+    return filter != null;
+  }
+
+  boolean accepts(K key) {
+    return filter == null || filter.accept(key);
+  }
+
+  /**
+   * Returns the registration of {@code listener} among {@code registrations}, or null
+   */
+  static <K> ListenerRegistration<K> find(Iterable<ListenerRegistration<K>> registrations, Object listener) {
+    for (ListenerRegistration<K> registration : registrations) {
+      if (registration.listener.equals(listener)) { return registration; }
+    }
+    return null;
+  }
+}
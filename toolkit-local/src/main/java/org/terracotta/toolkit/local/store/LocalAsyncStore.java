@@ -0,0 +1,159 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.nonstop.NonStopConfiguration;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationFields;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationFields.NonStopReadTimeoutBehavior;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationFields.NonStopWriteTimeoutBehavior;
+import org.terracotta.toolkit.nonstop.NonStopException;
+import org.terracotta.toolkit.store.AsyncToolkitStore;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@link AsyncToolkitStore} view of a local store or cache. Operations run on the async pool of the toolkit. Each
+ * future is raced against the NonStop timeout that applies to its operation, as found by the
+ * {@link org.terracotta.toolkit.local.feature.LocalNonStopFeature} when the operation is submitted, and defaulting to
+ * {@link NonStopConfigurationFields#DEFAULT_TIMEOUT_MILLIS}. On timeout the operation is not cancelled, but its future
+ * is completed according to the timeout behavior of the configuration: exceptionally with a {@link NonStopException},
+ * or with the result of a no-op.
+ */
+class LocalAsyncStore<K, V> implements AsyncToolkitStore<K, V> {
+
+  private final AbstractLocalStore<K, V> store;
+  private final ToolkitObjectType        type;
+  private final LocalStoreContext        context;
+
+  LocalAsyncStore(AbstractLocalStore<K, V> store, ToolkitObjectType type, LocalStoreContext context) {
+    this.store = store;
+    this.type = type;
+    this.context = context;
+  }
+
+  @Override
+  public CompletableFuture<V> getAsync(final Object key) {
+    return submit("get", true, null, new Callable<V>() {
+      @Override
+      public V call() {
+        return store.get(key);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<V> putAsync(final K key, final V value) {
+    return submit("put", false, null, new Callable<V>() {
+      @Override
+      public V call() {
+        return store.put(key, value);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<V> removeAsync(final Object key) {
+    return submit("remove", false, null, new Callable<V>() {
+      @Override
+      public V call() {
+        return store.remove(key);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Map<K, V>> getAllAsync(final Collection<? extends K> keys) {
+    return submit("getAll", true, Collections.<K, V> emptyMap(), new Callable<Map<K, V>>() {
+      @Override
+      public Map<K, V> call() {
+        return store.getAll(keys);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<V> putIfAbsentAsync(final K key, final V value) {
+    return submit("putIfAbsent", false, null, new Callable<V>() {
+      @Override
+      public V call() {
+        return store.putIfAbsent(key, value);
+      }
+    });
+  }
+
+  /**
+   * @param noOpResult the result of the operation when it times out with a no-op behavior
+   */
+  private <T> CompletableFuture<T> submit(final String methodName, boolean read, final T noOpResult,
+                                          final Callable<T> operation) {
+    final CompletableFuture<T> future = new CompletableFuture<T>();
+    NonStopConfiguration config = context.getNonStopFeature().configFor(methodName, store.getName(), type);
+    try {
+      context.getAsyncExecutor().execute(new Runnable() {
+        @Override
+        public void run() {
+          if (future.isDone()) { return; }
+          try {
+            future.complete(operation.call());
+          } catch (Throwable t) {
+            future.completeExceptionally(t);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+      return future;
+    } catch (IllegalStateException e) {
+      future.completeExceptionally(e);
+      return future;
+    }
+    if (config != null && !config.isEnabled()) { return future; }
+    long timeout = config == null ? NonStopConfigurationFields.DEFAULT_TIMEOUT_MILLIS : config.getTimeoutMillis();
+    final boolean exceptionOnTimeout = config == null || exceptionOnTimeout(config, read);
+    final ScheduledFuture<?> timer = context.getScheduler().schedule(new Runnable() {
+      @Override
+      public void run() {
+        if (exceptionOnTimeout) {
+          future.completeExceptionally(new NonStopException(methodName + " on '" + store.getName() + "' timed out"));
+        } else {
+          future.complete(noOpResult);
+        }
+      }
+    }, timeout, TimeUnit.MILLISECONDS);
+    future.whenComplete(new BiConsumer<T, Throwable>() {
+      @Override
+      public void accept(T result, Throwable failure) {
+        timer.cancel(false);
+      }
+    });
+    return future;
+  }
+
+  private static boolean exceptionOnTimeout(NonStopConfiguration config, boolean read) {
+    if (read) { return config.getReadOpNonStopTimeoutBehavior() == NonStopReadTimeoutBehavior.EXCEPTION; }
+    return config.getWriteOpNonStopTimeoutBehavior() == NonStopWriteTimeoutBehavior.EXCEPTION;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.local.feature.LocalNonStopFeature;
+import org.terracotta.toolkit.local.feature.LocalOffheapFeature;
+import org.terracotta.toolkit.local.feature.LocalStatisticsFeature;
+import org.terracotta.toolkit.local.sizeof.SizeOfEngine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The services of a local toolkit that its stores and caches share. Threads are only started the first time a store
+ * needs them, and are daemon threads stopped by {@link #shutdown()}.
+ */
+public final class LocalStoreContext {
+
+  private final String                 toolkitName;
+  private final LocalOffheapFeature    offheapFeature;
+  private final LocalNonStopFeature    nonStopFeature;
+  private final LocalStatisticsFeature statisticsFeature;
+  private final SizeOfEngine           sizeOfEngine;
+
+  private ExecutorService              asyncExecutor;
+  private ScheduledExecutorService     scheduler;
+  private ForkJoinPool                 forkJoinPool;
+  private boolean                      shutdown;
+
+  public LocalStoreContext(String toolkitName, LocalOffheapFeature offheapFeature, LocalNonStopFeature nonStopFeature,
+                           LocalStatisticsFeature statisticsFeature, SizeOfEngine sizeOfEngine) {
+    this.toolkitName = toolkitName;
+    this.offheapFeature = offheapFeature;
+    this.nonStopFeature = nonStopFeature;
+    this.statisticsFeature = statisticsFeature;
+    this.sizeOfEngine = sizeOfEngine;
+  }
+
+  public LocalOffheapFeature getOffheapFeature() {
+    return offheapFeature;
+  }
+
+  public LocalNonStopFeature getNonStopFeature() {
+    return nonStopFeature;
+  }
+
+  public LocalStatisticsFeature getStatisticsFeature() {
+    return statisticsFeature;
+  }
+
+  public SizeOfEngine getSizeOfEngine() {
+    return sizeOfEngine;
+  }
+
+  /**
+   * Returns the pool running the operations of the asynchronous views, with one thread per processor
+   */
+  public synchronized ExecutorService getAsyncExecutor() {
+    checkNotShutdown();
+    if (asyncExecutor == null) {
+      int threads = Runtime.getRuntime().availableProcessors();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                           new LinkedBlockingQueue<Runnable>(),
+                                                           threadFactory("async"));
+      executor.allowCoreThreadTimeOut(true);
+      asyncExecutor = executor;
+    }
+    return asyncExecutor;
+  }
+
+  /**
+   * Returns the single thread running the timed tasks of the stores, which must be short
+   */
+  public synchronized ScheduledExecutorService getScheduler() {
+    checkNotShutdown();
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory("scheduler"));
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  /**
+   * Returns the pool splitting the bulk operations of the stores across processors
+   */
+  public synchronized ForkJoinPool getForkJoinPool() {
+    checkNotShutdown();
+    if (forkJoinPool == null) {
+      forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), new ForkJoinWorkerThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+          ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("toolkit-local-" + toolkitName + "-bulk-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      }, null, false);
+    }
+    return forkJoinPool;
+  }
+
+  /**
+   * Returns a new, not yet started, daemon thread running {@code task}, named after {@code kind}
+   */
+  public Thread newThread(String kind, Runnable task) {
+    return threadFactory(kind).newThread(task);
+  }
+
+  public synchronized void shutdown() {
+    shutdown = true;
+    if (asyncExecutor != null) {
+      asyncExecutor.shutdownNow();
+    }
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    if (forkJoinPool != null) {
+      forkJoinPool.shutdownNow();
+    }
+  }
+
+  private void checkNotShutdown() {
+    if (shutdown) { throw new IllegalStateException("Toolkit '" + toolkitName + "' has been shut down"); }
+  }
+
+  private ThreadFactory threadFactory(final String kind) {
+    return new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "toolkit-local-" + toolkitName + "-" + kind + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+}
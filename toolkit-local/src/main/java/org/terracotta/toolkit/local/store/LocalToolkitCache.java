@@ -0,0 +1,371 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheBatchListener;
+import org.terracotta.toolkit.cache.ToolkitCacheBulkLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheEntryEvent;
+import org.terracotta.toolkit.cache.ToolkitCacheKeyFilter;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheMutationListener;
+import org.terracotta.toolkit.cache.ToolkitCacheWriter;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitConfigFields.ListenerQueueFullPolicy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link ToolkitCache} held in the local JVM. Entries expire according to the time-to-idle and time-to-live they were
+ * put with, which default to the {@link ToolkitConfigFields#MAX_TTI_SECONDS_FIELD_NAME} and
+ * {@link ToolkitConfigFields#MAX_TTL_SECONDS_FIELD_NAME} of the cache. Listeners are notified in the thread that finds
+ * an entry expired, or that puts the entry whose storage required an eviction, except
+ * {@link ToolkitCacheBatchListener}s which are notified in batches by a {@link ListenerDispatcher}.
+ * <p>
+ * {@link ToolkitCacheMutationListener}s are notified of puts, updates and removals in the thread that made them. No
+ * event is built while none of them is registered, and the values of an event are only read when a listener asks for
+ * them. Listeners are notified once the mutation is applied and its segment unlocked, so that the events of concurrent
+ * mutations of a key may reach them in another order than the one the mutations were applied in. A listener that
+ * throws is logged, and neither fails the mutation nor keeps the other listeners from being notified.
+ * <p>
+ * Misses of {@link #getOrLoad(Object, ToolkitCacheLoader)} and
+ * {@link #getAllOrLoad(Collection, ToolkitCacheBulkLoader)} are coalesced by a {@link SingleFlightLoader}, and their
+ * hits may be reloaded ahead of their expiration by a {@link RefreshAhead}. When
+ * the configuration names a {@link ToolkitCacheWriter}, puts, updates and removals other than the puts of loaded
+ * values are written behind to it by a {@link WriteBehindQueue}.
+ */
+public class LocalToolkitCache<K, V> extends AbstractLocalStore<K, V> implements ToolkitCache<K, V> {
+
+  private static final Logger      LOGGER         = Logger.getLogger(LocalToolkitCache.class.getName());
+  private static final Set<String> DYNAMIC_FIELDS = new HashSet<String>(
+      Arrays.asList(ToolkitConfigFields.MAX_COUNT_LOCAL_HEAP_FIELD_NAME,
+                    ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME,
+                    ToolkitConfigFields.MAX_TTI_SECONDS_FIELD_NAME,
+                    ToolkitConfigFields.MAX_TTL_SECONDS_FIELD_NAME,
+                    ToolkitConfigFields.MAX_TOTAL_COUNT_FIELD_NAME,
+                    ToolkitConfigFields.EVICTION_ENABLED_FIELD_NAME));
+
+  private final CopyOnWriteArrayList<ListenerRegistration<K>> listeners = new CopyOnWriteArrayList<ListenerRegistration<K>>();
+  private final LocalStoreContext                             context;
+  private final ThreadLocal<Boolean>                          loading   = new ThreadLocal<Boolean>();
+  private final RefreshAhead<K, V>                            refreshAhead;
+  private final SingleFlightLoader<K, V>                      loader;
+  private final WriteBehindQueue<K, V>                        writeBehind;
+  private volatile ListenerDispatcher<K>                      dispatcher;
+  private volatile boolean                                    mutationListeners;
+
+  public LocalToolkitCache(String name, LocalConfiguration config, LocalStoreContext context,
+                           ToolkitObjectRegistry<?> registry) {
+    super(name, config, context, registry);
+    this.context = context;
+    this.refreshAhead = RefreshAhead.forConfig(this, config, context);
+    this.loader = new SingleFlightLoader<K, V>(this, refreshAhead);
+    this.writeBehind = WriteBehindQueue.forConfig(this, config, context);
+  }
+
+  @Override
+  protected boolean isDynamicField(String name) {
+    return DYNAMIC_FIELDS.contains(name);
+  }
+
+  @Override
+  protected ToolkitObjectType getObjectType() {
+    return ToolkitObjectType.CACHE;
+  }
+
+  @Override
+  protected boolean isEvictionEnabled() {
+    return config.getBoolean(ToolkitConfigFields.EVICTION_ENABLED_FIELD_NAME);
+  }
+
+  @Override
+  public V getQuiet(Object key) {
+    return doGet(key, false);
+  }
+
+  @Override
+  public Map<K, V> getAllQuiet(Collection<K> keys) {
+    return doGetAll(keys, false);
+  }
+
+  @Override
+  public void putNoReturn(K key, V value, long createTimeInSecs, int maxTTISeconds, int maxTTLSeconds) {
+    doPut(key, value, TimeUnit.SECONDS.toMillis(createTimeInSecs), maxTTISeconds, maxTTLSeconds, false);
+  }
+
+  @Override
+  public void putAllNoReturn(Map<? extends K, ? extends V> map, long createTimeInSecs, int maxTTISeconds,
+                             int maxTTLSeconds) {
+    doPutAll(map, TimeUnit.SECONDS.toMillis(createTimeInSecs), maxTTISeconds, maxTTLSeconds);
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value, long createTimeInSecs, int maxTTISeconds, int maxTTLSeconds) {
+    return doPut(key, value, TimeUnit.SECONDS.toMillis(createTimeInSecs), maxTTISeconds, maxTTLSeconds, true);
+  }
+
+  @Override
+  public V getOrLoad(K key, ToolkitCacheLoader<? super K, ? extends V> cacheLoader) {
+    checkDestroyed();
+    if (cacheLoader == null) { throw new NullPointerException("loader cannot be null"); }
+    return loader.getOrLoad(key, cacheLoader);
+  }
+
+  @Override
+  public Map<K, V> getAllOrLoad(Collection<? extends K> keys, ToolkitCacheBulkLoader<K, ? extends V> bulkLoader) {
+    checkDestroyed();
+    if (bulkLoader == null) { throw new NullPointerException("loader cannot be null"); }
+    return loader.getAllOrLoad(keys, bulkLoader);
+  }
+
+  /**
+   * Puts a value returned by a loader, which is not written behind since it comes from the system of record
+   */
+  V putLoaded(K key, V value) {
+    loading.set(Boolean.TRUE);
+    try {
+      return putIfAbsent(key, value);
+    } finally {
+      loading.remove();
+    }
+  }
+
+  /**
+   * Replaces the value of a mapping refreshed by a loader, which is not written behind either
+   */
+  void replaceLoaded(K key, V value) {
+    loading.set(Boolean.TRUE);
+    try {
+      replace(key, value);
+    } finally {
+      loading.remove();
+    }
+  }
+
+  /**
+   * Returns the write-behind counters of this cache, or null if write-behind is not enabled
+   */
+  public WriteBehindStatistics getWriteBehindStatistics() {
+    return writeBehind == null ? null : writeBehind.getStatistics();
+  }
+
+  @Override
+  public void addListener(ToolkitCacheListener<K> listener) {
+    addListener(listener, null);
+  }
+
+  @Override
+  public synchronized void addListener(ToolkitCacheListener<K> listener, ToolkitCacheKeyFilter<? super K> keyFilter) {
+    checkDestroyed();
+    if (listener == null) { throw new NullPointerException("listener cannot be null"); }
+    if (ListenerRegistration.find(listeners, listener) != null) { return; }
+    ListenerRegistration<K> registration = new ListenerRegistration<K>(listener, keyFilter);
+    if (registration.batch && !getDispatcher().add(registration)) { return; }
+    if (!registration.batch || registration.mutations) {
+      listeners.add(registration);
+      mutationListeners |= registration.mutations;
+    }
+  }
+
+  @Override
+  public synchronized void removeListener(ToolkitCacheListener<K> listener) {
+    checkDestroyed();
+    ListenerRegistration<K> registration = ListenerRegistration.find(listeners, listener);
+    if (registration != null) {
+      listeners.remove(registration);
+      boolean mutations = false;
+      for (ListenerRegistration<K> remaining : listeners) {
+        mutations |= remaining.mutations;
+      }
+      mutationListeners = mutations;
+    }
+    if (dispatcher != null) {
+      dispatcher.remove(listener);
+    }
+  }
+
+  private synchronized ListenerDispatcher<K> getDispatcher() {
+    checkDestroyed();
+    if (dispatcher == null) {
+      dispatcher = new ListenerDispatcher<K>(getName(),
+                                             config.getInt(ToolkitConfigFields.LISTENER_BATCH_SIZE_FIELD_NAME),
+                                             config.getInt(ToolkitConfigFields.LISTENER_BATCH_MAX_DELAY_MILLIS_FIELD_NAME),
+                                             config.getInt(ToolkitConfigFields.LISTENER_QUEUE_CAPACITY_FIELD_NAME),
+                                             ListenerQueueFullPolicy.valueOf(config
+                                                 .getString(ToolkitConfigFields.LISTENER_QUEUE_FULL_POLICY_FIELD_NAME)),
+                                             context);
+    }
+    return dispatcher;
+  }
+
+  /**
+   * Number of events dropped because the queue of the batch listeners was full
+   */
+  public long getDroppedListenerEventCount() {
+    ListenerDispatcher<K> current = dispatcher;
+    return current == null ? 0 : current.getDroppedCount();
+  }
+
+  @Override
+  protected boolean notifiesMutations() {
+    return mutationListeners;
+  }
+
+  @Override
+  protected void onMutationLocked(K key, HashEntry<K, V> previous, HashEntry<K, V> current) {
+    // queued under the segment lock, so that the mutations of a key are coalesced in the order they were applied
+    if (writeBehind != null && loading.get() == null) {
+      writeBehind.enqueue(key, current);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void onMutation(K key, HashEntry<K, V> previous, HashEntry<K, V> current) {
+    if (!mutationListeners) { return; }
+    EntryEvent event = null;
+    for (ListenerRegistration<K> registration : listeners) {
+      if (!registration.mutations || !registration.accepts(key)) {
+        continue;
+      }
+      if (event == null) {
+        event = new EntryEvent(key, previous, current);
+      }
+      ToolkitCacheMutationListener<K, V> listener = (ToolkitCacheMutationListener<K, V>) registration.listener;
+      try {
+        if (previous == null) {
+          listener.onPut(event);
+        } else if (current == null) {
+          listener.onRemove(event);
+        } else {
+          listener.onUpdate(event);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Listener " + listener + " failed", e);
+      }
+    }
+  }
+
+  @Override
+  protected void onExpiration(K key) {
+    super.onExpiration(key);
+    for (ListenerRegistration<K> registration : listeners) {
+      if (!registration.batch && registration.accepts(key)) {
+        try {
+          registration.listener.onExpiration(key);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Listener " + registration.listener + " failed", e);
+        }
+      }
+    }
+    ListenerDispatcher<K> current = dispatcher;
+    if (current != null) {
+      current.expired(key);
+    }
+  }
+
+  @Override
+  protected void onEviction(K key) {
+    super.onEviction(key);
+    for (ListenerRegistration<K> registration : listeners) {
+      if (!registration.batch && registration.accepts(key)) {
+        try {
+          registration.listener.onEviction(key);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Listener " + registration.listener + " failed", e);
+        }
+      }
+    }
+    ListenerDispatcher<K> current = dispatcher;
+    if (current != null) {
+      current.evicted(key);
+    }
+  }
+
+  @Override
+  protected void doDestroy() {
+    listeners.clear();
+    mutationListeners = false;
+    if (refreshAhead != null) {
+      refreshAhead.close();
+    }
+    if (writeBehind != null) {
+      writeBehind.close();
+    }
+    synchronized (this) {
+      if (dispatcher != null) {
+        dispatcher.close();
+      }
+    }
+    super.doDestroy();
+  }
+
+  /**
+   * A mutation whose values are read from its entries on first use, as a get would read them
+   */
+  private final class EntryEvent implements ToolkitCacheEntryEvent<K, V> {
+    private final K               key;
+    private final HashEntry<K, V> previous;
+    private final HashEntry<K, V> current;
+    private V                     oldValue;
+    private V                     newValue;
+
+    EntryEvent(K key, HashEntry<K, V> previous, HashEntry<K, V> current) {
+      this.key = key;
+      this.previous = previous;
+      this.current = current;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getOldValue() {
+      if (oldValue == null && previous != null) {
+        oldValue = valueOf(previous);
+      }
+      return oldValue;
+    }
+
+    @Override
+    public V getNewValue() {
+      if (newValue == null && current != null) {
+        newValue = valueOf(current);
+      }
+      return newValue;
+    }
+
+    @Override
+    public String toString() {
+      return "EntryEvent [key=" + key + "]";
+    }
+  }
+}
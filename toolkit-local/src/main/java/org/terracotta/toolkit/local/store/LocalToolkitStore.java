@@ -0,0 +1,58 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.local.object.ToolkitObjectRegistry;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link ToolkitStore} held in the local JVM. Mappings never expire and are never evicted: a put that does not fit in
+ * the off-heap storage of the store fails.
+ */
+public class LocalToolkitStore<K, V> extends AbstractLocalStore<K, V> implements ToolkitStore<K, V> {
+
+  private static final Set<String> DYNAMIC_FIELDS = new HashSet<String>(
+      Arrays.asList(ToolkitConfigFields.MAX_COUNT_LOCAL_HEAP_FIELD_NAME,
+                    ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME));
+
+  public LocalToolkitStore(String name, LocalConfiguration config, LocalStoreContext context,
+                           ToolkitObjectRegistry<?> registry) {
+    super(name, config, context, registry);
+  }
+
+  @Override
+  protected boolean isDynamicField(String name) {
+    return DYNAMIC_FIELDS.contains(name);
+  }
+
+  @Override
+  protected ToolkitObjectType getObjectType() {
+    return ToolkitObjectType.STORE;
+  }
+
+  @Override
+  protected boolean isEvictionEnabled() {
+    return false;
+  }
+}
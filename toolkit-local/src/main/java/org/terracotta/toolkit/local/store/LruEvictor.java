@@ -0,0 +1,49 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+/**
+ * Evicts the least recently used entry of its segment
+ */
+final class LruEvictor<K, V> extends SegmentEvictor<K, V> {
+
+  private static final int LINKED = 1;
+
+  private final HashEntry<K, V> list = SegmentEvictor.newList();
+
+  @Override
+  void added(HashEntry<K, V> entry) {
+    entry.policyState = LINKED;
+    linkLast(list, entry);
+  }
+
+  @Override
+  void accessed(HashEntry<K, V> entry) {
+    moveToLast(list, entry);
+  }
+
+  @Override
+  HashEntry<K, V> victim(HashEntry<K, V> keep) {
+    return first(list, keep);
+  }
+
+  @Override
+  void clear() {
+    super.clear();
+    empty(list);
+  }
+}
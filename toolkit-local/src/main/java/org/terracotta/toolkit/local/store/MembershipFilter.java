@@ -0,0 +1,152 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counting Bloom filter over the hashes of the keys of a store, answering that a key is definitely absent without
+ * looking it up. Each hash sets {@value #HASHES} of at least {@value #COUNTERS_PER_KEY} times its capacity 4-bit
+ * counters, packed sixteen to a long, for a false positive rate under 1% while the filter holds no more keys than its
+ * capacity.
+ * <p>
+ * Counters are updated with CAS so that the segments of a store update the filter concurrently, each under its own
+ * write lock. A counter that reaches 15 is never decremented again, so that removals cannot make a present key look
+ * absent: such counters only raise the false positive rate until the filter is rebuilt.
+ */
+public final class MembershipFilter {
+
+  private static final int       HASHES           = 7;
+  private static final int       COUNTERS_PER_KEY = 10;
+  private static final long      MAX_COUNTER      = 0xfL;
+
+  private final int              capacity;
+  private final AtomicLongArray  words;
+  private final int              counterMask;
+  private final LongAdder        rejected         = new LongAdder();
+  private final LongAdder        falsePositives   = new LongAdder();
+
+  MembershipFilter(int capacity) {
+    this.capacity = Math.max(capacity, 16);
+    int counters = Integer.highestOneBit(Math.min(this.capacity, 1 << 24) * COUNTERS_PER_KEY - 1) << 1;
+    this.words = new AtomicLongArray(counters >>> 4);
+    this.counterMask = counters - 1;
+  }
+
+  /**
+   * Returns false if no key with {@code hash} was added and not removed since
+   */
+  boolean mightContain(int hash) {
+    long h = spread(hash);
+    int h1 = (int) h;
+    int h2 = (int) (h >>> 32) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int counter = (h1 + i * h2) & counterMask;
+      if ((words.get(counter >>> 4) & (MAX_COUNTER << ((counter & 15) << 2))) == 0) { return false; }
+    }
+    return true;
+  }
+
+  void add(int hash) {
+    update(hash, 1);
+  }
+
+  void remove(int hash) {
+    update(hash, -1);
+  }
+
+  private void update(int hash, long delta) {
+    long h = spread(hash);
+    int h1 = (int) h;
+    int h2 = (int) (h >>> 32) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int counter = (h1 + i * h2) & counterMask;
+      int index = counter >>> 4;
+      int offset = (counter & 15) << 2;
+      for (;;) {
+        long word = words.get(index);
+        long value = (word >>> offset) & MAX_COUNTER;
+        if (value == MAX_COUNTER || (value == 0 && delta < 0)) {
+          break;
+        }
+        if (words.compareAndSet(index, word, word + (delta << offset))) {
+          break;
+        }
+      }
+    }
+  }
+
+  void rejected() {
+    rejected.increment();
+  }
+
+  void falsePositive() {
+    falsePositives.increment();
+  }
+
+  /**
+   * Number of keys the filter was sized for
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Number of lookups answered without looking the key up
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * Number of lookups of absent keys that the filter did not reject
+   */
+  public long getFalsePositiveCount() {
+    return falsePositives.sum();
+  }
+
+  /**
+   * Fraction of the lookups of absent keys that the filter did not reject, 0 if there was none
+   */
+  public double getObservedFalsePositiveRate() {
+    long positives = falsePositives.sum();
+    long negatives = positives + rejected.sum();
+    return negatives == 0 ? 0 : (double) positives / negatives;
+  }
+
+  /**
+   * False positive rate expected from the current fill of the filter: the probability that all the counters of an
+   * absent key are set. Reads every counter.
+   */
+  public double getEstimatedFalsePositiveRate() {
+    long set = 0;
+    for (int i = 0; i < words.length(); i++) {
+      long word = words.get(i);
+      // one bit per non-zero counter
+      word = (word | (word >>> 1)) & 0x5555555555555555L;
+      word = (word | (word >>> 2)) & 0x1111111111111111L;
+      set += Long.bitCount(word);
+    }
+    return Math.pow((double) set / (counterMask + 1), HASHES);
+  }
+
+  private static long spread(int hash) {
+    long h = (hash & 0xffffffffL) * 0x9e3779b97f4a7c15L;
+    return h ^ (h >>> 29);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.local.sizeof.SizeOfEngine;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The memory held by the {@link PinnedSegment}s of a store pinned by
+ * {@link ToolkitConfigFields#PINNED_IN_LOCAL_MEMORY_FIELD_NAME}. Pinned entries are never evicted, so their usage is
+ * only accounted for, to be reported: every entry is measured by a {@link SizeOfEngine} before the segment lock is
+ * taken.
+ */
+final class PinnedMemory {
+
+  private final SizeOfEngine sizeOfEngine;
+  private final AtomicLong   count = new AtomicLong();
+  private final AtomicLong   bytes = new AtomicLong();
+
+  PinnedMemory(SizeOfEngine sizeOfEngine) {
+    this.sizeOfEngine = sizeOfEngine;
+  }
+
+  void measure(HashEntry<?, ?> entry) {
+    entry.size = sizeOfEngine.sizeOf(entry.key, entry.value, entry);
+  }
+
+  void add(long countDelta, long bytesDelta) {
+    if (countDelta != 0) {
+      count.addAndGet(countDelta);
+    }
+    if (bytesDelta != 0) {
+      bytes.addAndGet(bytesDelta);
+    }
+  }
+
+  long getCount() {
+    return count.get();
+  }
+
+  long getBytes() {
+    return bytes.get();
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link Segment} for pinned stores, whose entries are never evicted. Lookups are the hot path: entries live in an
+ * open addressing table probed linearly, next to a parallel array of their hashes, so that a lookup scans a few
+ * adjacent ints and dereferences a single entry, without chain nodes to follow. Removals shift the following entries
+ * back rather than leaving tombstones, which keeps probe sequences short under churn.
+ */
+final class PinnedSegment<K, V> extends Segment<K, V> {
+
+  private static final long  serialVersionUID = -1925032916227473851L;
+  // kept low so that probe sequences stay short
+  private static final float LOAD_FACTOR      = 0.5f;
+
+  private HashEntry<K, V>[]  entries;
+  private int[]              hashes;
+  private int                threshold;
+  private volatile int       count;
+  private final PinnedMemory memory;
+  private final TimerWheel<K, V> wheel;
+
+  PinnedSegment(int initialCapacity, PinnedMemory memory, TimerWheel<K, V> wheel) {
+    this.memory = memory;
+    this.wheel = wheel;
+    setTable(newTable(initialCapacity), new int[initialCapacity]);
+  }
+
+  @Override
+  public HashEntry<K, V> get(Object key, int hash) {
+    HashEntry<K, V>[] tab = entries;
+    int[] hs = hashes;
+    int mask = tab.length - 1;
+    for (int i = hash & mask;; i = (i + 1) & mask) {
+      HashEntry<K, V> e = tab[i];
+      if (e == null) { return null; }
+      if (hs[i] == hash && key.equals(e.key)) { return e; }
+    }
+  }
+
+  @Override
+  public HashEntry<K, V> put(HashEntry<K, V> entry) {
+    HashEntry<K, V>[] tab = entries;
+    int mask = tab.length - 1;
+    int i = entry.hash & mask;
+    for (HashEntry<K, V> e = tab[i]; e != null; i = (i + 1) & mask, e = tab[i]) {
+      if (hashes[i] == entry.hash && entry.key.equals(e.key)) {
+        tab[i] = entry;
+        memory.add(0, entry.size - e.size);
+        if (wheel != null) {
+          wheel.remove(e);
+          scheduleExpiry(entry);
+        }
+        return e;
+      }
+    }
+    tab[i] = entry;
+    hashes[i] = entry.hash;
+    memory.add(1, entry.size);
+    if (wheel != null) {
+      scheduleExpiry(entry);
+    }
+    if (++count > threshold) {
+      rehash();
+    }
+    return null;
+  }
+
+  @Override
+  public HashEntry<K, V> remove(Object key, int hash) {
+    HashEntry<K, V> e = get(key, hash);
+    if (e != null) {
+      delete(indexOf(e));
+    }
+    return e;
+  }
+
+  @Override
+  public boolean removeEntry(HashEntry<K, V> entry) {
+    int index = indexOf(entry);
+    if (index < 0) { return false; }
+    delete(index);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    if (count != 0) {
+      HashEntry<K, V>[] tab = entries;
+      for (int i = 0; i < tab.length; i++) {
+        if (tab[i] != null) {
+          memory.add(-1, -tab[i].size);
+          tab[i] = null;
+        }
+      }
+      count = 0;
+      if (wheel != null) {
+        wheel.clear();
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return count;
+  }
+
+  @Override
+  public void snapshot(Collection<? super HashEntry<K, V>> into) {
+    for (HashEntry<K, V> e : entries) {
+      if (e != null) {
+        into.add(e);
+      }
+    }
+  }
+
+  private int indexOf(HashEntry<K, V> entry) {
+    HashEntry<K, V>[] tab = entries;
+    int mask = tab.length - 1;
+    for (int i = entry.hash & mask; tab[i] != null; i = (i + 1) & mask) {
+      if (tab[i] == entry) { return i; }
+    }
+    return -1;
+  }
+
+  /**
+   * Empties slot {@code index}, moving back the entries of the same probe run that could no longer be found otherwise
+   */
+  private void delete(int index) {
+    HashEntry<K, V>[] tab = entries;
+    int[] hs = hashes;
+    int mask = tab.length - 1;
+    HashEntry<K, V> removed = tab[index];
+    int hole = index;
+    for (int i = (hole + 1) & mask; tab[i] != null; i = (i + 1) & mask) {
+      int home = hs[i] & mask;
+      // the entry at i may fill the hole if its home slot is not within (hole, i], cyclically
+      boolean reachable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+      if (reachable) {
+        tab[hole] = tab[i];
+        hs[hole] = hs[i];
+        hole = i;
+      }
+    }
+    tab[hole] = null;
+    count--;
+    memory.add(-1, -removed.size);
+    if (wheel != null) {
+      wheel.remove(removed);
+    }
+  }
+
+  private void scheduleExpiry(HashEntry<K, V> entry) {
+    if (entry.canExpire()) {
+      wheel.schedule(entry);
+    }
+  }
+
+  @Override
+  public boolean hasScheduledExpiries() {
+    return wheel != null && wheel.size() > 0;
+  }
+
+  @Override
+  public List<HashEntry<K, V>> expire(long now) {
+    return wheel == null ? null : wheel.advance(now, this);
+  }
+
+  private void rehash() {
+    HashEntry<K, V>[] oldTable = entries;
+    if (oldTable.length >= 1 << 30) { return; }
+    HashEntry<K, V>[] newTable = newTable(oldTable.length << 1);
+    int[] newHashes = new int[newTable.length];
+    int mask = newTable.length - 1;
+    for (HashEntry<K, V> e : oldTable) {
+      if (e != null) {
+        int i = e.hash & mask;
+        while (newTable[i] != null) {
+          i = (i + 1) & mask;
+        }
+        newTable[i] = e;
+        newHashes[i] = e.hash;
+      }
+    }
+    setTable(newTable, newHashes);
+  }
+
+  private void setTable(HashEntry<K, V>[] newTable, int[] newHashes) {
+    threshold = (int) (newTable.length * LOAD_FACTOR);
+    hashes = newHashes;
+    entries = newTable;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> HashEntry<K, V>[] newTable(int capacity) {
+    return new HashEntry[capacity];
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.cache.ToolkitCacheBulkLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reloads the entries of a cache read through a loader once they have lived
+ * {@link ToolkitConfigFields#REFRESH_AHEAD_PERCENT_FIELD_NAME} percent of their time-to-live, so that they are replaced
+ * before they expire. Refreshes run on a fixed number of threads behind a bounded queue, a refresh that does not fit
+ * being skipped, and a key is never queued again while its refresh is pending. A refreshed value only replaces a
+ * mapping that still exists.
+ */
+final class RefreshAhead<K, V> {
+
+  private static final Logger           LOGGER         = Logger.getLogger(RefreshAhead.class.getName());
+  private static final int              QUEUE_CAPACITY = 1024;
+
+  private final LocalToolkitCache<K, V> cache;
+  private final int                     percent;
+  private final Set<K>                  refreshing     = Collections
+                                                           .newSetFromMap(new ConcurrentHashMap<K, Boolean>());
+  private final ThreadPoolExecutor      executor;
+
+  private RefreshAhead(final LocalToolkitCache<K, V> cache, int percent, int threads,
+                       final LocalStoreContext context) {
+    this.cache = cache;
+    this.percent = percent;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+                                             @Override
+                                             public Thread newThread(Runnable task) {
+                                               return context.newThread("refresh-" + cache.getName(), task);
+                                             }
+                                           });
+  }
+
+  /**
+   * Returns the refresh-ahead of {@code cache}, or null if its configuration does not enable it
+   */
+  static <K, V> RefreshAhead<K, V> forConfig(LocalToolkitCache<K, V> cache, LocalConfiguration config,
+                                             LocalStoreContext context) {
+    int percent = config.getInt(ToolkitConfigFields.REFRESH_AHEAD_PERCENT_FIELD_NAME);
+    if (percent == 0) { return null; }
+    return new RefreshAhead<K, V>(cache, percent, config.getInt(ToolkitConfigFields.REFRESH_AHEAD_THREADS_FIELD_NAME),
+                                  context);
+  }
+
+  /**
+   * Whether {@code entry} lived long enough to be refreshed
+   */
+  boolean isDue(HashEntry<K, V> entry, long now) {
+    int ttl = entry.getMaxTTLSeconds();
+    return ttl > 0 && now - entry.getCreateTime() >= ttl * 10L * percent;
+  }
+
+  void refresh(final K key, final ToolkitCacheLoader<? super K, ? extends V> loader) {
+    if (!refreshing.add(key)) { return; }
+    submit(Collections.singletonList(key), new Runnable() {
+      @Override
+      public void run() {
+        try {
+          V value = loader.load(key);
+          if (value != null) {
+            cache.replaceLoaded(key, value);
+          }
+        } catch (Exception e) {
+          LOGGER.log(Level.WARNING, "Refreshing key " + key + " of cache '" + cache.getName() + "' failed", e);
+        } finally {
+          refreshing.remove(key);
+        }
+      }
+    });
+  }
+
+  void refreshAll(Collection<K> keys, final ToolkitCacheBulkLoader<K, ? extends V> loader) {
+    final List<K> claimed = new ArrayList<K>(keys.size());
+    for (K key : keys) {
+      if (refreshing.add(key)) {
+        claimed.add(key);
+      }
+    }
+    if (claimed.isEmpty()) { return; }
+    submit(claimed, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Map<K, ? extends V> loaded = loader.loadAll(Collections.unmodifiableList(claimed));
+          if (loaded == null) { return; }
+          for (K key : claimed) {
+            V value = loaded.get(key);
+            if (value != null) {
+              cache.replaceLoaded(key, value);
+            }
+          }
+        } catch (Exception e) {
+          LOGGER.log(Level.WARNING, "Refreshing " + claimed.size() + " keys of cache '" + cache.getName()
+                                    + "' failed", e);
+        } finally {
+          refreshing.removeAll(claimed);
+        }
+      }
+    });
+  }
+
+  private void submit(List<K> keys, Runnable refresh) {
+    try {
+      executor.execute(refresh);
+    } catch (RejectedExecutionException e) {
+      refreshing.removeAll(keys);
+    }
+  }
+
+  void close() {
+    executor.shutdownNow();
+  }
+}
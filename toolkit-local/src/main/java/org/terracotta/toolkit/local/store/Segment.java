@@ -0,0 +1,145 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One lock stripe of a {@link SegmentedTable}: a hash table guarded by its own read-write lock. The segment does not
+ * lock by itself, callers hold the read lock of the segment for lookups and its write lock for mutations.
+ * <p>
+ * A segment may evict entries to make room for a new one. Evicted entries are kept until the caller, still holding the
+ * write lock, collects them with {@link #drainEvicted()}.
+ */
+public abstract class Segment<K, V> extends ReentrantReadWriteLock {
+
+  private static final long serialVersionUID = -3470893187064306402L;
+
+  /**
+   * Creates the segments of a {@link SegmentedTable}
+   */
+  public interface Factory<K, V> {
+    Segment<K, V> create();
+  }
+
+  private List<HashEntry<K, V>> evicted;
+
+  /**
+   * Returns the entry mapped to {@code key}, or null
+   */
+  public abstract HashEntry<K, V> get(Object key, int hash);
+
+  /**
+   * Maps the key of {@code entry} to it, returning the entry it replaced or null
+   */
+  public abstract HashEntry<K, V> put(HashEntry<K, V> entry);
+
+  /**
+   * Removes the mapping for {@code key}, returning the removed entry or null
+   */
+  public abstract HashEntry<K, V> remove(Object key, int hash);
+
+  /**
+   * Removes {@code entry}, as returned by {@link #get(Object, int)} under the same write lock, if it is still the
+   * current mapping of its key
+   */
+  public abstract boolean removeEntry(HashEntry<K, V> entry);
+
+  public abstract void clear();
+
+  /**
+   * Number of mappings, readable without holding the lock
+   */
+  public abstract int size();
+
+  /**
+   * Adds all the entries of this segment to {@code into}
+   */
+  public abstract void snapshot(Collection<? super HashEntry<K, V>> into);
+
+  /**
+   * Records an access to {@code entry}, as returned by {@link #get(Object, int)} under the same lock
+   */
+  public void accessed(HashEntry<K, V> entry, long now) {
+    entry.accessed(now);
+  }
+
+  /**
+   * Records a read of {@code entry}, an entry that cannot expire, as returned by {@link #get(Object, int)} under the
+   * same lock. Only segments that evict by usage keep track of such reads.
+   */
+  public void recordRead(HashEntry<K, V> entry) {
+    //
+  }
+
+  /**
+   * Returns true if entries of this segment are scheduled to expire, readable without holding the lock
+   */
+  public boolean hasScheduledExpiries() {
+    return false;
+  }
+
+  /**
+   * Removes the entries that expired by {@code now}, under the write lock. Segments that do not schedule expirations
+   * leave their entries to be found expired by the operations on them.
+   *
+   * @return the removed entries, or null if there are none
+   */
+  public List<HashEntry<K, V>> expire(long now) {
+    return null;
+  }
+
+  /**
+   * Returns true if the store holding this segment is over the capacity its segments share and evicts to stay under,
+   * readable without holding the lock
+   */
+  public boolean isOverCapacity() {
+    return false;
+  }
+
+  /**
+   * Evicts one entry of this segment if the store is over its capacity, under the write lock. Called on the other
+   * segments of the store when the segment that took a put had nothing left to evict.
+   *
+   * @return true if an entry was evicted
+   */
+  public boolean evictOverCapacity() {
+    return false;
+  }
+
+  /**
+   * Returns the entries evicted since the last call, or null if there were none
+   */
+  public List<HashEntry<K, V>> drainEvicted() {
+    List<HashEntry<K, V>> drained = evicted;
+    evicted = null;
+    return drained;
+  }
+
+  /**
+   * Called by implementations when they evict {@code entry}
+   */
+  protected void evicted(HashEntry<K, V> entry) {
+    if (evicted == null) {
+      evicted = new ArrayList<HashEntry<K, V>>(2);
+    }
+    evicted.add(entry);
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bookkeeping behind an {@link EvictionPolicy} other than {@link EvictionPolicy#CLOCK}, for one
+ * {@link HeapSegment}. Evictors order the entries of their segment in doubly linked lists threaded through the entries
+ * themselves, and are only called under the write lock of the segment.
+ * <p>
+ * Reads only hold the read lock, so they cannot reorder the lists: {@link #recordAccess(HashEntry)} samples them into a
+ * small buffer instead, which the segment drains into {@link #accessed(HashEntry)} on its next write. Once the buffer is
+ * full, reads replace buffered ones at random so that the buffer stays a uniform sample of the reads since the last
+ * drain.
+ */
+abstract class SegmentEvictor<K, V> {
+
+  private static final int      READ_BUFFER_SIZE = 64;
+
+  private final HashEntry<?, ?>[] reads          = new HashEntry<?, ?>[READ_BUFFER_SIZE];
+  private final AtomicInteger   readCount        = new AtomicInteger();
+
+  /**
+   * Returns a new evictor for {@code policy}, or null for {@link EvictionPolicy#CLOCK} which needs none
+   */
+  static <K, V> SegmentEvictor<K, V> create(EvictionPolicy policy) {
+    switch (policy) {
+      case LRU:
+        return new LruEvictor<K, V>();
+      case LFU:
+        return new LfuEvictor<K, V>();
+      case W_TINY_LFU:
+        return new TinyLfuEvictor<K, V>();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Called for an entry added to the segment
+   */
+  abstract void added(HashEntry<K, V> entry);
+
+  /**
+   * Called when {@code entry} replaces {@code old} as the mapping of its key. The new entry takes the place of the old
+   * one.
+   */
+  void replaced(HashEntry<K, V> old, HashEntry<K, V> entry) {
+    entry.prevInPolicy = old.prevInPolicy;
+    entry.nextInPolicy = old.nextInPolicy;
+    entry.prevInPolicy.nextInPolicy = entry;
+    entry.nextInPolicy.prevInPolicy = entry;
+    entry.policyState = old.policyState;
+    old.prevInPolicy = null;
+    old.nextInPolicy = null;
+    old.policyState = 0;
+  }
+
+  /**
+   * Called for an entry removed from the segment, evicted or not
+   */
+  void removed(HashEntry<K, V> entry) {
+    unlink(entry);
+    entry.policyState = 0;
+  }
+
+  /**
+   * Called for an access to {@code entry}, while it is still in the segment
+   */
+  abstract void accessed(HashEntry<K, V> entry);
+
+  /**
+   * Returns the next entry to evict, other than {@code keep}, or null if there is none
+   */
+  abstract HashEntry<K, V> victim(HashEntry<K, V> keep);
+
+  void clear() {
+    for (int i = 0; i < reads.length; i++) {
+      reads[i] = null;
+    }
+    readCount.set(0);
+  }
+
+  /**
+   * Records a read of {@code entry}, under the read lock of the segment
+   */
+  final void recordAccess(HashEntry<K, V> entry) {
+    int n = readCount.getAndIncrement();
+    if (n >= 0 && n < READ_BUFFER_SIZE) {
+      reads[n] = entry;
+    } else {
+      int slot = ThreadLocalRandom.current().nextInt(n < 0 ? Integer.MAX_VALUE : n + 1);
+      if (slot < READ_BUFFER_SIZE) {
+        reads[slot] = entry;
+      }
+    }
+  }
+
+  /**
+   * Replays the buffered reads, under the write lock of the segment
+   */
+  @SuppressWarnings("unchecked")
+  final void drainAccesses() {
+    if (readCount.get() == 0) { return; }
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      HashEntry<K, V> entry = (HashEntry<K, V>) reads[i];
+      if (entry != null) {
+        reads[i] = null;
+        // entries removed since they were read are no longer linked
+        if (entry.policyState != 0) {
+          accessed(entry);
+        }
+      }
+    }
+    readCount.set(0);
+  }
+
+  /**
+   * Returns the sentinel of a new empty list, whose first entry is the least recently linked
+   */
+  static <K, V> HashEntry<K, V> newList() {
+    HashEntry<K, V> sentinel = new HashEntry<K, V>(null, 0, null, 0, 0, 0);
+    empty(sentinel);
+    return sentinel;
+  }
+
+  /**
+   * Empties {@code list}. Its entries are left as they are, as they are being discarded.
+   */
+  static <K, V> void empty(HashEntry<K, V> list) {
+    list.prevInPolicy = list;
+    list.nextInPolicy = list;
+  }
+
+  static <K, V> void linkLast(HashEntry<K, V> list, HashEntry<K, V> entry) {
+    entry.prevInPolicy = list.prevInPolicy;
+    entry.nextInPolicy = list;
+    list.prevInPolicy.nextInPolicy = entry;
+    list.prevInPolicy = entry;
+  }
+
+  static <K, V> void unlink(HashEntry<K, V> entry) {
+    entry.prevInPolicy.nextInPolicy = entry.nextInPolicy;
+    entry.nextInPolicy.prevInPolicy = entry.prevInPolicy;
+    entry.prevInPolicy = null;
+    entry.nextInPolicy = null;
+  }
+
+  static <K, V> void moveToLast(HashEntry<K, V> list, HashEntry<K, V> entry) {
+    unlink(entry);
+    linkLast(list, entry);
+  }
+
+  /**
+   * Returns the least recent entry of {@code list} other than {@code keep}, or null
+   */
+  static <K, V> HashEntry<K, V> first(HashEntry<K, V> list, HashEntry<K, V> keep) {
+    HashEntry<K, V> entry = list.nextInPolicy;
+    if (entry == keep) {
+      entry = entry.nextInPolicy;
+    }
+    return entry == list ? null : entry;
+  }
+}
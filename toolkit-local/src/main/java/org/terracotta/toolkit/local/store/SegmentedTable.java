@@ -0,0 +1,231 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.local.concurrent.LocalToolkitReadWriteLock;
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash table split into a power of two number of {@link Segment}s, each guarded by its own read-write lock. Writers
+ * to different segments never contend, so the number of segments bounds the write concurrency of the table.
+ */
+public final class SegmentedTable<K, V> {
+
+  private static final int   MAX_SEGMENTS             = 1 << 16;
+  private static final int   SEGMENT_INITIAL_CAPACITY = 4;
+
+  private final Segment<K, V>[] segments;
+  private final int             segmentShift;
+  private final int             segmentMask;
+
+  /**
+   * @param concurrency the requested number of segments, rounded up to the next power of two
+   */
+  public SegmentedTable(int concurrency) {
+    this(concurrency, SegmentedTable.<K, V> heapSegments());
+  }
+
+  /**
+   * @param concurrency the requested number of segments, rounded up to the next power of two
+   * @param factory creates the segments
+   */
+  @SuppressWarnings("unchecked")
+  public SegmentedTable(int concurrency, Segment.Factory<K, V> factory) {
+    if (concurrency <= 0) { throw new IllegalArgumentException("concurrency should be positive: " + concurrency); }
+    int shift = 0;
+    int size = 1;
+    while (size < concurrency && size < MAX_SEGMENTS) {
+      ++shift;
+      size <<= 1;
+    }
+    this.segmentShift = 32 - shift;
+    this.segmentMask = size - 1;
+    this.segments = new Segment[size];
+    for (int i = 0; i < size; i++) {
+      segments[i] = factory.create();
+    }
+  }
+
+  /**
+   * Returns a factory of {@link HeapSegment}s
+   */
+  public static <K, V> Segment.Factory<K, V> heapSegments() {
+    return new Segment.Factory<K, V>() {
+      @Override
+      public Segment<K, V> create() {
+        return new HeapSegment<K, V>(SEGMENT_INITIAL_CAPACITY);
+      }
+    };
+  }
+
+  /**
+   * Returns a factory of heap segments sharing {@code capacity}, each evicting according to {@code policy}, and
+   * scheduling the expiration of their entries in a {@link TimerWheel} if {@code timed}
+   */
+  static <K, V> Segment.Factory<K, V> heapSegments(final HeapCapacity capacity, final EvictionPolicy policy,
+                                                   final boolean timed) {
+    return new Segment.Factory<K, V>() {
+      @Override
+      public Segment<K, V> create() {
+        return new HeapSegment<K, V>(SEGMENT_INITIAL_CAPACITY, capacity, SegmentEvictor.<K, V> create(policy),
+                                     SegmentedTable.<K, V> timerWheel(timed));
+      }
+    };
+  }
+
+  /**
+   * Returns a factory of pinned segments accounting their entries in {@code memory}, and scheduling the expiration of
+   * their entries in a {@link TimerWheel} if {@code timed}
+   */
+  static <K, V> Segment.Factory<K, V> pinnedSegments(final PinnedMemory memory, final boolean timed) {
+    return new Segment.Factory<K, V>() {
+      @Override
+      public Segment<K, V> create() {
+        return new PinnedSegment<K, V>(SEGMENT_INITIAL_CAPACITY, memory, SegmentedTable.<K, V> timerWheel(timed));
+      }
+    };
+  }
+
+  private static <K, V> TimerWheel<K, V> timerWheel(boolean timed) {
+    return timed ? new TimerWheel<K, V>(System.currentTimeMillis()) : null;
+  }
+
+  /**
+   * Spreads the hash code of {@code key} so that both the high bits, which select the segment, and the low bits, which
+   * select the bucket within a segment, are well distributed.
+   */
+  public static int hash(Object key) {
+    int h = key.hashCode();
+    h += (h << 15) ^ 0xffffcd7d;
+    h ^= (h >>> 10);
+    h += (h << 3);
+    h ^= (h >>> 6);
+    h += (h << 2) + (h << 14);
+    return h ^ (h >>> 16);
+  }
+
+  public int segmentIndex(int hash) {
+    return (hash >>> segmentShift) & segmentMask;
+  }
+
+  public Segment<K, V> segmentFor(int hash) {
+    return segments[segmentIndex(hash)];
+  }
+
+  public Segment<K, V> segmentAt(int index) {
+    return segments[index];
+  }
+
+  public int segmentCount() {
+    return segments.length;
+  }
+
+  public int size() {
+    long size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  public boolean isEmpty() {
+    for (Segment<K, V> segment : segments) {
+      if (segment.size() != 0) { return false; }
+    }
+    return true;
+  }
+
+  /**
+   * Clears the segments one after the other, each under its write lock
+   */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      segment.writeLock().lock();
+      try {
+        segment.clear();
+      } finally {
+        segment.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns the lock of the segment {@code key} lives in. Locking it excludes all the reads and writes to the keys of
+   * that segment.
+   */
+  public ToolkitReadWriteLock createLockForKey(Object key) {
+    return new LocalToolkitReadWriteLock(null, segmentFor(hash(key)));
+  }
+
+  /**
+   * Returns a lock that spans every segment of the table
+   */
+  public ToolkitReadWriteLock createTableLock() {
+    return new StripedToolkitReadWriteLock(segments);
+  }
+
+  /**
+   * Returns a weakly consistent iterator over the entries of the table. Each segment is copied under its read lock
+   * when the iteration reaches it.
+   */
+  public Iterator<HashEntry<K, V>> entryIterator() {
+    return new EntryIterator();
+  }
+
+  private final class EntryIterator implements Iterator<HashEntry<K, V>> {
+    private final List<HashEntry<K, V>> batch        = new ArrayList<HashEntry<K, V>>();
+    private int                         nextSegment  = 0;
+    private int                         batchIndex   = 0;
+
+    @Override
+    public boolean hasNext() {
+      while (batchIndex >= batch.size()) {
+        if (nextSegment >= segments.length) { return false; }
+        batch.clear();
+        batchIndex = 0;
+        Segment<K, V> segment = segments[nextSegment++];
+        if (segment.size() == 0) {
+          continue;
+        }
+        segment.readLock().lock();
+        try {
+          segment.snapshot(batch);
+        } finally {
+          segment.readLock().unlock();
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public HashEntry<K, V> next() {
+      if (!hasNext()) { throw new NoSuchElementException(); }
+      return batch.get(batchIndex++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.cache.ToolkitCacheBulkLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheLoaderException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Loads the missing keys of a {@link LocalToolkitCache}, making sure a key is loaded by a single thread at a time: the
+ * first thread missing a key registers a {@link PendingLoad} for it, and the threads missing the same key meanwhile
+ * wait for that load instead of starting their own. Loaded values are put only if the key is still absent, so that a
+ * value put during the load wins. Hits due for a refresh are handed to the {@link RefreshAhead} of the cache, if any.
+ */
+final class SingleFlightLoader<K, V> {
+
+  private final LocalToolkitCache<K, V>          cache;
+  private final RefreshAhead<K, V>               refreshAhead;
+  private final ConcurrentMap<K, PendingLoad<V>> loads = new ConcurrentHashMap<K, PendingLoad<V>>();
+
+  SingleFlightLoader(LocalToolkitCache<K, V> cache, RefreshAhead<K, V> refreshAhead) {
+    this.cache = cache;
+    this.refreshAhead = refreshAhead;
+  }
+
+  V getOrLoad(K key, ToolkitCacheLoader<? super K, ? extends V> loader) {
+    HashEntry<K, V> entry = cache.getEntry(key, true);
+    if (entry != null) {
+      if (refreshAhead != null && refreshAhead.isDue(entry, cache.now())) {
+        refreshAhead.refresh(key, loader);
+      }
+      return cache.valueOf(entry);
+    }
+    PendingLoad<V> load = new PendingLoad<V>();
+    PendingLoad<V> pending = loads.putIfAbsent(key, load);
+    if (pending != null) { return pending.await(key); }
+    try {
+      V value = cache.getQuiet(key);
+      if (value == null) {
+        value = store(key, loader.load(key));
+      }
+      load.complete(value);
+      return value;
+    } catch (Throwable t) {
+      load.fail(t);
+      throw PendingLoad.rethrow(key, t);
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  Map<K, V> getAllOrLoad(Collection<? extends K> keys, ToolkitCacheBulkLoader<K, ? extends V> bulkLoader) {
+    Map<K, V> result = new HashMap<K, V>((int) (keys.size() / 0.75f) + 1);
+    Map<K, PendingLoad<V>> claimed = null;
+    Map<K, PendingLoad<V>> awaited = null;
+    List<K> due = null;
+    for (K key : keys) {
+      HashEntry<K, V> entry = cache.getEntry(key, true);
+      if (entry != null) {
+        if (refreshAhead != null && refreshAhead.isDue(entry, cache.now())) {
+          if (due == null) {
+            due = new ArrayList<K>();
+          }
+          due.add(key);
+        }
+        result.put(key, cache.valueOf(entry));
+        continue;
+      }
+      PendingLoad<V> load = new PendingLoad<V>();
+      PendingLoad<V> pending = loads.putIfAbsent(key, load);
+      if (pending == null) {
+        if (claimed == null) {
+          claimed = new HashMap<K, PendingLoad<V>>();
+        }
+        claimed.put(key, load);
+      } else {
+        if (awaited == null) {
+          awaited = new HashMap<K, PendingLoad<V>>();
+        }
+        awaited.put(key, pending);
+      }
+    }
+    if (due != null) {
+      refreshAhead.refreshAll(due, bulkLoader);
+    }
+    if (claimed != null) {
+      load(claimed, bulkLoader, result);
+    }
+    if (awaited != null) {
+      for (Map.Entry<K, PendingLoad<V>> e : awaited.entrySet()) {
+        result.put(e.getKey(), e.getValue().await(e.getKey()));
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Loads the keys of {@code claimed} with a single call of the loader, completing their pending loads
+   */
+  private void load(Map<K, PendingLoad<V>> claimed, ToolkitCacheBulkLoader<K, ? extends V> bulkLoader,
+                    Map<K, V> result) {
+    try {
+      List<K> missing = new ArrayList<K>(claimed.size());
+      for (Map.Entry<K, PendingLoad<V>> e : claimed.entrySet()) {
+        V value = cache.getQuiet(e.getKey());
+        if (value == null) {
+          missing.add(e.getKey());
+        } else {
+          e.getValue().complete(value);
+          result.put(e.getKey(), value);
+        }
+      }
+      if (!missing.isEmpty()) {
+        Map<K, ? extends V> loaded = bulkLoader.loadAll(Collections.unmodifiableList(missing));
+        for (K key : missing) {
+          V value = loaded == null ? null : store(key, loaded.get(key));
+          claimed.get(key).complete(value);
+          result.put(key, value);
+        }
+      }
+    } catch (Throwable t) {
+      for (PendingLoad<V> load : claimed.values()) {
+        load.fail(t);
+      }
+      throw PendingLoad.rethrow(claimed.keySet(), t);
+    } finally {
+      for (Map.Entry<K, PendingLoad<V>> e : claimed.entrySet()) {
+        loads.remove(e.getKey(), e.getValue());
+      }
+    }
+  }
+
+  private V store(K key, V loaded) {
+    if (loaded == null) { return null; }
+    V previous = cache.putLoaded(key, loaded);
+    return previous == null ? loaded : previous;
+  }
+
+  /**
+   * The outcome of the load of a key, awaited by the threads that missed the key while it was being loaded
+   */
+  private static final class PendingLoad<V> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private V                    value;
+    private Throwable            failure;
+
+    void complete(V loaded) {
+      if (done.getCount() == 0) { return; }
+      value = loaded;
+      done.countDown();
+    }
+
+    void fail(Throwable t) {
+      if (done.getCount() == 0) { return; }
+      failure = t;
+      done.countDown();
+    }
+
+    V await(Object key) {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          done.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) { throw rethrow(key, failure); }
+      return value;
+    }
+
+    /**
+     * Throws {@code t} if it is an error, or returns the exception to throw for the failed load of {@code key}
+     */
+    static RuntimeException rethrow(Object key, Throwable t) {
+      if (t instanceof Error) { throw (Error) t; }
+      if (t instanceof ToolkitCacheLoaderException) { return (ToolkitCacheLoaderException) t; }
+      return new ToolkitCacheLoaderException("Loading key " + key + " failed", t);
+    }
+  }
+}
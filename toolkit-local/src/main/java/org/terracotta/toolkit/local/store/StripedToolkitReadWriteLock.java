@@ -0,0 +1,163 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.concurrent.locks.ToolkitLock;
+import org.terracotta.toolkit.concurrent.locks.ToolkitLockType;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link ToolkitReadWriteLock} made of the locks of all the segments of a {@link SegmentedTable}. Taking it takes the
+ * corresponding lock of every segment, always in segment order, which gives whole-table exclusion to external callers
+ * while the operations of the table itself only ever lock the one segment they touch.
+ */
+class StripedToolkitReadWriteLock implements ToolkitReadWriteLock {
+
+  private final StripedLock readLock;
+  private final StripedLock writeLock;
+
+  StripedToolkitReadWriteLock(ReentrantReadWriteLock[] stripes) {
+    this.readLock = new StripedLock(stripes, ToolkitLockType.READ);
+    this.writeLock = new StripedLock(stripes, ToolkitLockType.WRITE);
+  }
+
+  @Override
+  public String getName() {
+    return null;
+  }
+
+  @Override
+  public ToolkitLock readLock() {
+    return readLock;
+  }
+
+  @Override
+  public ToolkitLock writeLock() {
+    return writeLock;
+  }
+
+  private static final class StripedLock implements ToolkitLock {
+    private final ReentrantReadWriteLock[] stripes;
+    private final Lock[]                   locks;
+    private final ToolkitLockType          type;
+
+    StripedLock(ReentrantReadWriteLock[] stripes, ToolkitLockType type) {
+      this.stripes = stripes;
+      this.type = type;
+      this.locks = new Lock[stripes.length];
+      for (int i = 0; i < stripes.length; i++) {
+        locks[i] = type == ToolkitLockType.WRITE ? stripes[i].writeLock() : stripes[i].readLock();
+      }
+    }
+
+    @Override
+    public String getName() {
+      return null;
+    }
+
+    @Override
+    public void lock() {
+      for (Lock lock : locks) {
+        lock.lock();
+      }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+      int acquired = 0;
+      try {
+        for (Lock lock : locks) {
+          lock.lockInterruptibly();
+          acquired++;
+        }
+      } finally {
+        if (acquired < locks.length) {
+          unlock(acquired);
+        }
+      }
+    }
+
+    @Override
+    public boolean tryLock() {
+      for (int i = 0; i < locks.length; i++) {
+        if (!locks[i].tryLock()) {
+          unlock(i);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(time);
+      int acquired = 0;
+      try {
+        for (Lock lock : locks) {
+          if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) { return false; }
+          acquired++;
+        }
+        return true;
+      } finally {
+        if (acquired < locks.length) {
+          unlock(acquired);
+        }
+      }
+    }
+
+    @Override
+    public void unlock() {
+      unlock(locks.length);
+    }
+
+    private void unlock(int count) {
+      for (int i = count - 1; i >= 0; i--) {
+        locks[i].unlock();
+      }
+    }
+
+    @Override
+    public Condition newCondition() throws UnsupportedOperationException {
+      throw new UnsupportedOperationException("Use getCondition() instead");
+    }
+
+    @Override
+    public Condition getCondition() {
+      throw new UnsupportedOperationException("Conditions are not supported on striped locks");
+    }
+
+    @Override
+    public ToolkitLockType getLockType() {
+      return type;
+    }
+
+    @Override
+    public boolean isHeldByCurrentThread() {
+      for (ReentrantReadWriteLock stripe : stripes) {
+        boolean held = type == ToolkitLockType.WRITE ? stripe.isWriteLockedByCurrentThread() : stripe
+            .getReadHoldCount() > 0;
+        if (!held) { return false; }
+      }
+      return true;
+    }
+  }
+}
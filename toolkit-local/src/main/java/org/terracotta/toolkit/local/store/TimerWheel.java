@@ -0,0 +1,152 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timer wheel holding the entries of a segment that can expire, so that they can be expired as their
+ * time comes rather than when they are next read. Time is in milliseconds: the first level has 64 buckets of about a
+ * second, each following level buckets as much time as the whole previous level, and entries due in more than about
+ * 50 days wait in a last overflow bucket.
+ * <p>
+ * An entry is scheduled once, at the expiration time it had when it was stored. When {@link #advance(long, Segment)}
+ * reaches its bucket, the entry is either expired, or, if it was accessed since and its time-to-idle pushed its
+ * expiration back, or if it sat in a coarser level, scheduled again at its current expiration time. Scheduling and
+ * removing an entry take constant time, advancing takes time proportional to the buckets passed and the entries found
+ * in them.
+ * <p>
+ * Only used under the write lock of the segment.
+ */
+final class TimerWheel<K, V> {
+
+  private static final int[] BUCKETS = { 64, 64, 32, 32, 1 };
+  private static final int[] SHIFTS  = { 10, 16, 22, 27, 32 };
+  private static final int[] OFFSETS = { 0, 64, 128, 160, 192 };
+  private static final int   SLOTS   = 193;
+
+  private HashEntry<K, V>[]  heads;
+  private long               time;
+  private volatile int       size;
+
+  TimerWheel(long time) {
+    this.time = time;
+  }
+
+  /**
+   * Number of scheduled entries, readable without the lock
+   */
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  void schedule(HashEntry<K, V> entry) {
+    if (heads == null) {
+      heads = new HashEntry[SLOTS];
+    }
+    int slot = slotFor(Math.max(entry.expirationTime(), time));
+    HashEntry<K, V> head = heads[slot];
+    entry.prevInWheel = null;
+    entry.nextInWheel = head;
+    if (head != null) {
+      head.prevInWheel = entry;
+    }
+    heads[slot] = entry;
+    entry.wheelSlot = slot + 1;
+    size++;
+  }
+
+  /**
+   * Unschedules {@code entry}, if it is scheduled
+   */
+  void remove(HashEntry<K, V> entry) {
+    if (entry.wheelSlot == 0) { return; }
+    if (entry.prevInWheel == null) {
+      heads[entry.wheelSlot - 1] = entry.nextInWheel;
+    } else {
+      entry.prevInWheel.nextInWheel = entry.nextInWheel;
+    }
+    if (entry.nextInWheel != null) {
+      entry.nextInWheel.prevInWheel = entry.prevInWheel;
+    }
+    unlinked(entry);
+  }
+
+  /**
+   * Moves the wheel to {@code now}, removing from {@code segment} the entries that expired
+   *
+   * @return the removed entries, or null if there are none
+   */
+  List<HashEntry<K, V>> advance(long now, Segment<K, V> segment) {
+    long previous = time;
+    if (now <= previous) { return null; }
+    time = now;
+    if (size == 0) { return null; }
+    List<HashEntry<K, V>> expired = null;
+    for (int level = 0; level < BUCKETS.length; level++) {
+      long previousTicks = previous >>> SHIFTS[level];
+      long delta = (now >>> SHIFTS[level]) - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      int steps = (int) Math.min(delta + 1, BUCKETS[level]);
+      int mask = BUCKETS[level] - 1;
+      for (int i = 0; i < steps; i++) {
+        int slot = OFFSETS[level] + (int) ((previousTicks + i) & mask);
+        HashEntry<K, V> e = heads[slot];
+        heads[slot] = null;
+        while (e != null) {
+          HashEntry<K, V> next = e.nextInWheel;
+          unlinked(e);
+          if (!e.isExpired(now)) {
+            schedule(e);
+          } else if (segment.removeEntry(e)) {
+            if (expired == null) {
+              expired = new ArrayList<HashEntry<K, V>>();
+            }
+            expired.add(e);
+          }
+          e = next;
+        }
+      }
+    }
+    return expired;
+  }
+
+  void clear() {
+    heads = null;
+    size = 0;
+  }
+
+  private void unlinked(HashEntry<K, V> entry) {
+    entry.prevInWheel = null;
+    entry.nextInWheel = null;
+    entry.wheelSlot = 0;
+    size--;
+  }
+
+  private int slotFor(long expiration) {
+    long delay = expiration - time;
+    for (int level = 0; level < BUCKETS.length - 1; level++) {
+      if (delay < 1L << SHIFTS[level + 1]) { return OFFSETS[level]
+                                                     + (int) ((expiration >>> SHIFTS[level]) & (BUCKETS[level] - 1)); }
+    }
+    return OFFSETS[BUCKETS.length - 1];
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+/**
+ * W-TinyLFU for one segment. New entries enter a small LRU window, about one percent of the segment. Entries
+ * overflowing the window become candidates for the main space, a segmented LRU made of a probation and a protected
+ * list: a candidate evicts the least recent probation entry only if a {@link FrequencySketch} of the recent accesses
+ * estimates it is the more frequently used of the two, otherwise the candidate itself is evicted. Probation entries
+ * accessed again are promoted to the protected list, which holds up to 80 percent of the main space.
+ * <p>
+ * A one-off scan thus only churns the window, while entries with a history of accesses keep their place.
+ */
+final class TinyLfuEvictor<K, V> extends SegmentEvictor<K, V> {
+
+  private static final int      WINDOW    = 1;
+  private static final int      PROBATION = 2;
+  private static final int      PROTECTED = 3;
+
+  private final HashEntry<K, V> window    = SegmentEvictor.newList();
+  private final HashEntry<K, V> probation = SegmentEvictor.newList();
+  private final HashEntry<K, V> protect   = SegmentEvictor.newList();
+  private final FrequencySketch sketch    = new FrequencySketch(16);
+  private int                   size;
+  private int                   windowSize;
+  private int                   protectedSize;
+
+  @Override
+  void added(HashEntry<K, V> entry) {
+    if (++size > sketch.capacity()) {
+      sketch.grow(size * 2);
+    }
+    sketch.increment(entry.hash);
+    entry.policyState = WINDOW;
+    linkLast(window, entry);
+    windowSize++;
+    int maxWindow = Math.max(1, size / 100);
+    while (windowSize > maxWindow) {
+      // the least recent window entry becomes the candidate for the main space
+      HashEntry<K, V> candidate = window.nextInPolicy;
+      candidate.policyState = PROBATION;
+      moveToLast(probation, candidate);
+      windowSize--;
+    }
+  }
+
+  @Override
+  void replaced(HashEntry<K, V> old, HashEntry<K, V> entry) {
+    super.replaced(old, entry);
+    sketch.increment(entry.hash);
+  }
+
+  @Override
+  void removed(HashEntry<K, V> entry) {
+    if (entry.policyState == WINDOW) {
+      windowSize--;
+    } else if (entry.policyState == PROTECTED) {
+      protectedSize--;
+    }
+    size--;
+    super.removed(entry);
+  }
+
+  @Override
+  void accessed(HashEntry<K, V> entry) {
+    sketch.increment(entry.hash);
+    switch (entry.policyState) {
+      case WINDOW:
+        moveToLast(window, entry);
+        break;
+      case PROBATION:
+        entry.policyState = PROTECTED;
+        moveToLast(protect, entry);
+        protectedSize++;
+        int maxProtected = (size - windowSize) * 4 / 5;
+        while (protectedSize > maxProtected) {
+          // demote the least recent protected entry, which the loop bound guarantees exists
+          HashEntry<K, V> demoted = protect.nextInPolicy;
+          demoted.policyState = PROBATION;
+          moveToLast(probation, demoted);
+          protectedSize--;
+        }
+        break;
+      default:
+        moveToLast(protect, entry);
+        break;
+    }
+  }
+
+  @Override
+  HashEntry<K, V> victim(HashEntry<K, V> keep) {
+    HashEntry<K, V> victim = first(probation, keep);
+    if (victim == null) {
+      victim = first(window, keep);
+      return victim != null ? victim : first(protect, keep);
+    }
+    // the most recent candidate faces the least recent probation entry
+    HashEntry<K, V> candidate = probation.prevInPolicy;
+    if (candidate == victim || candidate == keep) { return victim; }
+    return sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate;
+  }
+
+  @Override
+  void clear() {
+    super.clear();
+    empty(window);
+    empty(probation);
+    empty(protect);
+    size = 0;
+    windowSize = 0;
+    protectedSize = 0;
+  }
+}
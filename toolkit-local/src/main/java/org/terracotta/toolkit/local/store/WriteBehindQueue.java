@@ -0,0 +1,239 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.terracotta.toolkit.cache.ToolkitCacheWriter;
+import org.terracotta.toolkit.local.config.LocalConfiguration;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the mutations of a cache to its {@link ToolkitCacheWriter} from a thread of its own. Mutations wait in a
+ * queue holding at most one pending mutation per key, in the order the keys were first queued: mutating a queued key
+ * again only replaces its pending entry. A batch of up to {@link ToolkitConfigFields#WRITE_BEHIND_BATCH_SIZE_FIELD_NAME}
+ * keys is flushed once that many keys are queued or its oldest key waited
+ * {@link ToolkitConfigFields#WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME}.
+ * <p>
+ * Values are read from the queued entries when their batch is flushed. A failed batch is retried
+ * {@link ToolkitConfigFields#WRITE_BEHIND_MAX_RETRIES_FIELD_NAME} times, then dropped with a warning, and so is a batch
+ * whose values cannot be read.
+ */
+final class WriteBehindQueue<K, V> implements Runnable {
+
+  private static final Logger               LOGGER               = Logger.getLogger(WriteBehindQueue.class.getName());
+  private static final long                 CLOSE_TIMEOUT_MILLIS = 30000;
+
+  private final LocalToolkitCache<K, V>     cache;
+  private final ToolkitCacheWriter<K, V>    writer;
+  private final int                         batchSize;
+  private final long                        intervalNanos;
+  private final int                         maxRetries;
+  private final long                        retryDelayMillis;
+  private final WriteBehindStatistics       statistics           = new WriteBehindStatistics();
+  private final Map<K, Pending<K, V>>       pending              = new LinkedHashMap<K, Pending<K, V>>();
+  private final Thread                      thread;
+  private boolean                           closed;
+
+  private WriteBehindQueue(LocalToolkitCache<K, V> cache, ToolkitCacheWriter<K, V> writer, LocalConfiguration config,
+                           LocalStoreContext context) {
+    this.cache = cache;
+    this.writer = writer;
+    this.batchSize = config.getInt(ToolkitConfigFields.WRITE_BEHIND_BATCH_SIZE_FIELD_NAME);
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(config
+        .getInt(ToolkitConfigFields.WRITE_BEHIND_INTERVAL_MILLIS_FIELD_NAME));
+    this.maxRetries = config.getInt(ToolkitConfigFields.WRITE_BEHIND_MAX_RETRIES_FIELD_NAME);
+    this.retryDelayMillis = config.getInt(ToolkitConfigFields.WRITE_BEHIND_RETRY_DELAY_MILLIS_FIELD_NAME);
+    this.thread = context.newThread("write-behind-" + cache.getName(), this);
+    thread.start();
+  }
+
+  /**
+   * Returns the write-behind queue of {@code cache}, or null if its configuration names no writer
+   *
+   * @throws IllegalArgumentException if the writer cannot be created
+   */
+  static <K, V> WriteBehindQueue<K, V> forConfig(LocalToolkitCache<K, V> cache, LocalConfiguration config,
+                                                 LocalStoreContext context) {
+    String className = config.getString(ToolkitConfigFields.WRITE_BEHIND_WRITER_FIELD_NAME);
+    if (className.length() == 0) { return null; }
+    return new WriteBehindQueue<K, V>(cache, WriteBehindQueue.<K, V> createWriter(className), config, context);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> ToolkitCacheWriter<K, V> createWriter(String className) {
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      if (loader == null) {
+        loader = WriteBehindQueue.class.getClassLoader();
+      }
+      return Class.forName(className, true, loader).asSubclass(ToolkitCacheWriter.class).newInstance();
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot create the cache writer '" + className + "'", e);
+    }
+  }
+
+  WriteBehindStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Queues the mutation of {@code key} to {@code entry}, or its removal if {@code entry} is null. Called under the write
+   * lock of the segment of the key, so that a queued entry is only ever replaced by a newer one.
+   */
+  synchronized void enqueue(K key, HashEntry<K, V> entry) {
+    if (closed) { return; }
+    Pending<K, V> queued = pending.get(key);
+    if (queued != null) {
+      queued.entry = entry;
+      statistics.queued(true, pending.size());
+      return;
+    }
+    pending.put(key, new Pending<K, V>(key, entry, System.nanoTime()));
+    statistics.queued(false, pending.size());
+    if (pending.size() == 1 || pending.size() == batchSize) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Stops queuing mutations and waits for the ones already queued to be written
+   */
+  void close() {
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+    }
+    if (Thread.currentThread() == thread) { return; }
+    try {
+      thread.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      LOGGER.warning("Cache '" + cache.getName() + "' was destroyed with " + statistics.getQueueSize()
+                     + " mutations not written behind yet");
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      List<Pending<K, V>> batch;
+      while ((batch = take()) != null) {
+        flush(batch);
+      }
+    } catch (InterruptedException e) {
+      // the toolkit is shutting down
+    }
+  }
+
+  /**
+   * Waits for the next batch to be due and removes it from the queue, returns null once closed and drained
+   */
+  private synchronized List<Pending<K, V>> take() throws InterruptedException {
+    while (true) {
+      if (pending.isEmpty()) {
+        if (closed) { return null; }
+        wait();
+        continue;
+      }
+      if (closed || pending.size() >= batchSize) {
+        break;
+      }
+      long remaining = pending.values().iterator().next().queuedNanos + intervalNanos - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    List<Pending<K, V>> batch = new ArrayList<Pending<K, V>>(Math.min(batchSize, pending.size()));
+    for (Iterator<Pending<K, V>> it = pending.values().iterator(); it.hasNext() && batch.size() < batchSize;) {
+      batch.add(it.next());
+      it.remove();
+    }
+    statistics.dequeued(pending.size());
+    return batch;
+  }
+
+  private void flush(List<Pending<K, V>> batch) throws InterruptedException {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      Map<K, V> writes = new LinkedHashMap<K, V>();
+      List<K> deletes = new ArrayList<K>();
+      for (Pending<K, V> mutation : batch) {
+        if (mutation.entry == null) {
+          deletes.add(mutation.key);
+        } else {
+          writes.put(mutation.key, cache.valueOf(mutation.entry));
+        }
+      }
+      success = write(writes, deletes);
+    } catch (RuntimeException e) {
+      // e.g. a value that cannot be decompressed or copied, the writer thread must survive it
+      LOGGER.log(Level.WARNING, "Cannot read the mutations of cache '" + cache.getName() + "', dropping "
+                                + batch.size() + " mutations", e);
+    } finally {
+      statistics.flushed(batch.size(), success, System.nanoTime() - start);
+    }
+  }
+
+  private boolean write(Map<K, V> writes, Collection<K> deletes) throws InterruptedException {
+    for (int attempt = 0;; attempt++) {
+      try {
+        if (!writes.isEmpty()) {
+          writer.writeAll(Collections.unmodifiableMap(writes));
+          writes = Collections.emptyMap();
+        }
+        if (!deletes.isEmpty()) {
+          writer.deleteAll(Collections.unmodifiableCollection(deletes));
+        }
+        return true;
+      } catch (Exception e) {
+        if (attempt >= maxRetries) {
+          LOGGER.log(Level.WARNING, "Cache writer of '" + cache.getName() + "' failed " + (attempt + 1)
+                                    + " times, dropping " + (writes.size() + deletes.size()) + " mutations", e);
+          return false;
+        }
+        statistics.retried();
+        Thread.sleep(retryDelayMillis);
+      }
+    }
+  }
+
+  private static final class Pending<K, V> {
+    final K               key;
+    final long            queuedNanos;
+    HashEntry<K, V>       entry;
+
+    Pending(K key, HashEntry<K, V> entry, long queuedNanos) {
+      this.key = key;
+      this.entry = entry;
+      this.queuedNanos = queuedNanos;
+    }
+  }
+}
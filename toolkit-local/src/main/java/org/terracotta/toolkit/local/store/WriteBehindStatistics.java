@@ -0,0 +1,130 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the {@link WriteBehindQueue} of a cache. Flush times are measured around the writer calls of a batch,
+ * retries included.
+ */
+public final class WriteBehindStatistics {
+
+  private final LongAdder queued         = new LongAdder();
+  private final LongAdder coalesced      = new LongAdder();
+  private final LongAdder written        = new LongAdder();
+  private final LongAdder failed         = new LongAdder();
+  private final LongAdder retries        = new LongAdder();
+  private final LongAdder flushes        = new LongAdder();
+  private final LongAdder flushNanos     = new LongAdder();
+  private volatile long   maxFlushNanos;
+  private volatile int    queueSize;
+
+  void queued(boolean coalescedWithPending, int size) {
+    queued.increment();
+    if (coalescedWithPending) {
+      coalesced.increment();
+    }
+    queueSize = size;
+  }
+
+  void dequeued(int size) {
+    queueSize = size;
+  }
+
+  void retried() {
+    retries.increment();
+  }
+
+  /**
+   * Called by the single flushing thread once a batch of {@code count} keys was written or dropped
+   */
+  void flushed(int count, boolean success, long nanos) {
+    flushes.increment();
+    flushNanos.add(nanos);
+    if (nanos > maxFlushNanos) {
+      maxFlushNanos = nanos;
+    }
+    (success ? written : failed).add(count);
+  }
+
+  /**
+   * Number of keys waiting to be written
+   */
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * Number of mutations queued, including the ones coalesced with a pending mutation of the same key
+   */
+  public long getQueuedCount() {
+    return queued.sum();
+  }
+
+  /**
+   * Number of mutations that replaced a pending mutation of the same key instead of being written on their own
+   */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Number of keys written or deleted by the writer
+   */
+  public long getWrittenCount() {
+    return written.sum();
+  }
+
+  /**
+   * Number of keys dropped because the writer kept failing
+   */
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  public long getFlushCount() {
+    return flushes.sum();
+  }
+
+  public long getFlushTimeNanos() {
+    return flushNanos.sum();
+  }
+
+  public long getMaxFlushTimeNanos() {
+    return maxFlushNanos;
+  }
+
+  /**
+   * Average time taken to flush a batch, 0 if none was flushed
+   */
+  public long getAverageFlushTimeNanos() {
+    long count = flushes.sum();
+    return count == 0 ? 0 : flushNanos.sum() / count;
+  }
+
+  @Override
+  public String toString() {
+    return "WriteBehindStatistics [queueSize=" + getQueueSize() + ", queued=" + getQueuedCount() + ", coalesced="
+           + getCoalescedCount() + ", written=" + getWrittenCount() + ", failed=" + getFailedCount() + ", retries="
+           + getRetryCount() + ", averageFlushTimeNanos=" + getAverageFlushTimeNanos() + "]";
+  }
+}
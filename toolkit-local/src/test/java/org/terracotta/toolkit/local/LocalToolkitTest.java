@@ -0,0 +1,195 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFactory;
+import org.terracotta.toolkit.ToolkitInstantiationException;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.collections.ToolkitMap;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocalToolkitTest {
+
+  private Toolkit toolkit;
+
+  @Before
+  public void setUp() throws Exception {
+    toolkit = ToolkitFactory.createToolkit("toolkit:local:test");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testCreatedThroughToolkitFactory() {
+    assertTrue(toolkit instanceof LocalToolkit);
+  }
+
+  @Test
+  public void testPinnedFactoryService() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(ToolkitFactory.TOOLKIT_FACTORY_SERVICE_PROPERTY, LocalToolkitFactoryService.class.getName());
+    Toolkit pinned = ToolkitFactory.createToolkit("toolkit:local:pinned", properties);
+    assertTrue(pinned instanceof LocalToolkit);
+    pinned.shutdown();
+
+    properties.setProperty(ToolkitFactory.TOOLKIT_FACTORY_SERVICE_PROPERTY, "com.example.NoSuchFactoryService");
+    try {
+      ToolkitFactory.createToolkit("toolkit:local:pinned", properties);
+      fail();
+    } catch (ToolkitInstantiationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testStoreOperations() {
+    ToolkitStore<String, String> store = toolkit.getStore("store", String.class);
+    assertNull(store.put("a", "1"));
+    assertEquals("1", store.put("a", "2"));
+    store.putNoReturn("b", "3");
+    assertEquals(2, store.size());
+    Map<String, String> all = store.getAll(Arrays.asList("a", "b", "c"));
+    assertEquals("2", all.get("a"));
+    assertEquals("3", all.get("b"));
+    assertNull(all.get("c"));
+    store.removeNoReturn("a");
+    assertNull(store.get("a"));
+    assertSame(store, toolkit.getStore("store", String.class));
+  }
+
+  @Test
+  public void testConcurrencyIsHonoredAndChecked() {
+    ToolkitStore<String, String> store = toolkit.getStore("striped", new ToolkitStoreConfigBuilder().concurrency(16)
+        .build(), String.class);
+    assertEquals(16, store.getConfiguration().getInt(ToolkitConfigFields.CONCURRENCY_FIELD_NAME));
+    try {
+      toolkit.getStore("striped", new ToolkitStoreConfigBuilder().concurrency(32).build(), String.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCacheEntryExpires() throws Exception {
+    ToolkitCache<String, String> cache = toolkit.getCache("cache", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    cache.putNoReturn("a", "1", System.currentTimeMillis() / 1000 - 10, 0, 1);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testBulkMutations() {
+    ToolkitStore<String, String> store = toolkit.getStore("bulk", new ToolkitStoreConfigBuilder().concurrency(8)
+        .build(), String.class);
+    Map<String, String> values = new HashMap<String, String>();
+    for (int i = 0; i < 100; i++) {
+      values.put("k" + i, "v" + i);
+    }
+    store.putAllNoReturn(values);
+    assertEquals(100, store.size());
+    assertEquals("v42", store.get("k42"));
+    store.removeAllNoReturn(Arrays.asList("k1", "k2", "k42", "missing"));
+    assertEquals(97, store.size());
+    assertNull(store.get("k42"));
+
+    ToolkitCache<String, String> cache = toolkit.getCache("bulkCache", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    cache.putAllNoReturn(values, System.currentTimeMillis() / 1000 - 10, 0, 1);
+    assertNull(cache.get("k42"));
+    cache.putAllNoReturn(values, System.currentTimeMillis() / 1000, 0, 0);
+    assertEquals("v42", cache.get("k42"));
+  }
+
+  @Test
+  public void testParallelGetAll() {
+    ToolkitCache<String, String> cache = toolkit.getCache("parallel", new ToolkitCacheConfigBuilder().concurrency(16)
+        .configField(LocalConfigFields.PARALLEL_GET_ALL_THRESHOLD_FIELD_NAME, 100).build(), String.class);
+    List<String> keys = new ArrayList<String>();
+    for (int i = 0; i < 5000; i++) {
+      keys.add("k" + i);
+      cache.put("k" + i, "v" + i);
+    }
+    cache.putNoReturn("expired", "v", System.currentTimeMillis() / 1000 - 10, 0, 1);
+    keys.add("expired");
+    keys.add("missing");
+    Map<String, String> all = cache.getAllQuiet(keys);
+    assertEquals(5002, all.size());
+    assertEquals("v4999", all.get("k4999"));
+    assertNull(all.get("expired"));
+    assertTrue(all.containsKey("missing"));
+    assertNull(all.get("missing"));
+    assertEquals(5000, cache.size());
+  }
+
+  @Test
+  public void testMapLockExcludesOperations() throws Exception {
+    final ToolkitMap<String, String> map = toolkit.getMap("map", String.class, String.class);
+    map.getReadWriteLock().writeLock().lock();
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        map.put("a", "1");
+      }
+    };
+    try {
+      writer.start();
+      writer.join(200);
+      assertTrue(writer.isAlive());
+    } finally {
+      map.getReadWriteLock().writeLock().unlock();
+    }
+    writer.join();
+    assertEquals("1", map.get("a"));
+  }
+
+  @Test
+  public void testDestroyReleasesName() {
+    ToolkitStore<String, String> store = toolkit.getStore("destroyed", String.class);
+    store.put("a", "1");
+    store.destroy();
+    assertTrue(store.isDestroyed());
+    ToolkitStore<String, String> recreated = toolkit.getStore("destroyed", String.class);
+    assertTrue(recreated != store);
+    assertEquals(0, recreated.size());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.compress;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.store.LocalToolkitCache;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private LocalToolkit         toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("compression");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testCodecsRoundTrip() {
+    byte[] dictionary = "{\"name\":\"\",\"address\":\"\",\"country\":\"\"}".getBytes(UTF_8);
+    byte[] text = json(50).getBytes(UTF_8);
+    byte[] random = new byte[4096];
+    new Random(42).nextBytes(random);
+    byte[] runs = new byte[100000];
+    for (CompressionCodec codec : new CompressionCodec[] { new LzCodec(), new DeflateCodec() }) {
+      for (byte[] dict : new byte[][] { null, dictionary }) {
+        byte[] compressed = codec.compress(text, dict);
+        assertTrue(compressed.length * 3 < text.length);
+        assertArrayEquals(text, codec.decompress(compressed, text.length, dict));
+        compressed = codec.compress(runs, dict);
+        assertArrayEquals(runs, codec.decompress(compressed, runs.length, dict));
+        assertNull(codec.compress(random, dict));
+      }
+    }
+  }
+
+  @Test
+  public void testCompressedCache() {
+    for (String codec : new String[] { LzCodec.NAME, DeflateCodec.NAME }) {
+      ToolkitCache<String, String> cache = toolkit.getCache(codec, new ToolkitCacheConfigBuilder()
+          .compressionEnabled(true).compressionCodec(codec).compressionMinSize(64).build(), String.class);
+      String large = json(20);
+      cache.put("large", large);
+      cache.put("small", "small");
+      assertEquals(large, cache.get("large"));
+      assertEquals("small", cache.get("small"));
+      assertTrue(cache.containsValue(large));
+      assertTrue(cache.remove("large", large));
+      CompressionStatistics statistics = ((LocalToolkitCache<String, String>) cache).getCompressionStatistics();
+      assertEquals(1, statistics.getCompressedCount());
+      assertEquals(1, statistics.getSkippedCount());
+      assertTrue(statistics.getCompressionRatio() > 3);
+    }
+  }
+
+  @Test
+  public void testCompressedOffheapCache() {
+    ToolkitCache<String, String> cache = toolkit.getCache("offheap", new ToolkitCacheConfigBuilder()
+        .offheapEnabled(true).maxBytesLocalOffheap(1024 * 1024).compressionEnabled(true).build(), String.class);
+    String large = json(20);
+    cache.put("large", large);
+    assertEquals(large, cache.get("large"));
+  }
+
+  private static String json(int records) {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < records; i++) {
+      sb.append("{\"name\":\"user").append(i).append("\",\"address\":\"").append(i).append(" Main Street\",")
+          .append("\"country\":\"Canada\"},");
+    }
+    return sb.append("]").toString();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.copy;
+
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CopierTest {
+
+  @Test
+  public void testImmutablesAreNotCopied() {
+    DefaultCopier copier = new DefaultCopier(Arrays.asList(Mutable.class.getName()));
+    String string = new String("value");
+    assertSame(string, copier.copy(string));
+    Long number = Long.valueOf(123456789L);
+    assertSame(number, copier.copy(number));
+    Point point = new Point(1, 2);
+    assertSame(point, copier.copy(point));
+    Marked marked = new Marked();
+    assertSame(marked, copier.copy(marked));
+    Mutable declared = new Mutable();
+    assertSame(declared, copier.copy(declared));
+  }
+
+  @Test
+  public void testBeansAreCopiedFieldByField() {
+    DefaultCopier copier = new DefaultCopier();
+    Bean bean = new Bean();
+    bean.name = "bean";
+    bean.count = 3;
+    bean.tags = new ArrayList<String>(Arrays.asList("a", "b"));
+    bean.self = bean;
+    bean.bytes = new byte[] { 1, 2 };
+    Bean copy = (Bean) copier.copy(bean);
+    assertNotSame(bean, copy);
+    assertSame(bean.name, copy.name);
+    assertEquals(3, copy.count);
+    assertEquals(bean.tags, copy.tags);
+    assertNotSame(bean.tags, copy.tags);
+    assertSame(copy, copy.self);
+    assertArrayEquals(bean.bytes, copy.bytes);
+    assertNotSame(bean.bytes, copy.bytes);
+  }
+
+  @Test
+  public void testCopyOnReadStore() {
+    LocalToolkit toolkit = new LocalToolkit("copy");
+    try {
+      ToolkitStore<String, Mutable> store = toolkit.getStore("store", new ToolkitStoreConfigBuilder()
+          .copyOnReadEnabled(true).build(), Mutable.class);
+      Mutable value = new Mutable();
+      value.value = 1;
+      store.put("key", value);
+      Mutable read = store.get("key");
+      assertNotSame(value, read);
+      read.value = 2;
+      assertEquals(1, store.get("key").value);
+
+      ToolkitStore<String, Mutable> declared = toolkit.getStore("declared", new ToolkitStoreConfigBuilder()
+          .copyOnReadEnabled(true).configField(LocalConfigFields.IMMUTABLE_CLASSES_FIELD_NAME, Mutable.class.getName())
+          .build(), Mutable.class);
+      declared.put("key", value);
+      assertSame(value, declared.get("key"));
+    } finally {
+      toolkit.shutdown();
+    }
+  }
+
+  static final class Point implements Serializable {
+    private static final long serialVersionUID = 1L;
+    final int                 x;
+    final int                 y;
+    final String              label = "point";
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  @Immutable
+  static class Marked implements Serializable {
+    private static final long serialVersionUID = 1L;
+    int[]                     values           = new int[1];
+  }
+
+  static class Mutable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    int                       value;
+  }
+
+  static class Bean implements Serializable {
+    private static final long serialVersionUID = 1L;
+    String                    name;
+    int                       count;
+    List<String>              tags;
+    Bean                      self;
+    byte[]                    bytes;
+  }
+}
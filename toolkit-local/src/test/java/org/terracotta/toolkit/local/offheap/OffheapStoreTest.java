@@ -0,0 +1,292 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.offheap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFactory;
+import org.terracotta.toolkit.ToolkitFeatureType;
+import org.terracotta.toolkit.ToolkitRuntimeException;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.feature.OffheapFeature;
+import org.terracotta.toolkit.local.store.HashEntry;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffheapStoreTest {
+
+  private Toolkit toolkit;
+
+  @Before
+  public void setUp() throws Exception {
+    toolkit = ToolkitFactory.createToolkit("toolkit:local:offheap");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testMappingsSurviveTableGrowthAndRemovals() {
+    ToolkitStore<String, Integer> store = toolkit.getStore("store", new ToolkitStoreConfigBuilder().concurrency(4)
+        .offheapEnabled(true).maxBytesLocalOffheap(16 * 1024 * 1024).build(), Integer.class);
+    Map<String, Integer> expected = new HashMap<String, Integer>();
+    for (int i = 0; i < 10000; i++) {
+      store.put("key-" + i, i);
+      expected.put("key-" + i, i);
+    }
+    for (int i = 0; i < 10000; i += 3) {
+      assertEquals(Integer.valueOf(i), store.remove("key-" + i));
+      expected.remove("key-" + i);
+    }
+    for (int i = 1; i < 10000; i += 3) {
+      assertEquals(Integer.valueOf(i), store.put("key-" + i, -i));
+      expected.put("key-" + i, -i);
+    }
+    assertEquals(expected.size(), store.size());
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(expected.get("key-" + i), store.get("key-" + i));
+    }
+  }
+
+  @Test
+  public void testFeatureReportsMemory() {
+    OffheapFeature feature = toolkit.getFeature(ToolkitFeatureType.OFFHEAP);
+    assertTrue(feature.isEnabled());
+    ToolkitStore<String, byte[]> store = toolkit.getStore("stats", new ToolkitStoreConfigBuilder().concurrency(1)
+        .offheapEnabled(true).maxBytesLocalOffheap(1024 * 1024).build(), byte[].class);
+    for (int i = 0; i < 100; i++) {
+      store.put("key-" + i, new byte[100]);
+    }
+    for (int i = 0; i < 100; i += 2) {
+      store.remove("key-" + i);
+    }
+    assertTrue(feature.getOccupiedBytes() > 50 * 100);
+    assertTrue(feature.getAllocatedBytes() >= feature.getOccupiedBytes());
+    assertTrue(feature.getLargestFreeChunk() > 0);
+    assertTrue(feature.getFragmentation() > 0 && feature.getFragmentation() < 1);
+
+    store.destroy();
+    assertEquals(0, feature.getAllocatedBytes());
+    assertEquals(0, feature.getOccupiedBytes());
+  }
+
+  @Test
+  public void testFullStoreRejectsPuts() {
+    ToolkitStore<String, byte[]> store = toolkit.getStore("full", new ToolkitStoreConfigBuilder().concurrency(1)
+        .offheapEnabled(true).maxBytesLocalOffheap(64 * 1024).build(), byte[].class);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        store.put("key-" + i, new byte[1024]);
+      }
+      fail();
+    } catch (ToolkitRuntimeException e) {
+      // expected
+    }
+    assertEquals(1024, store.get("key-0").length);
+  }
+
+  @Test
+  public void testFullTableDoesNotLeakRecords() {
+    // room for one page and a table of 16 slots, which cannot grow
+    OffheapMemory memory = new OffheapMemory(null, "table", 4096 + 16 * 12 + 128, 1);
+    OffheapSegment<String, Integer> segment = new OffheapSegment<String, Integer>(memory);
+    int stored = 0;
+    try {
+      for (; stored < 100; stored++) {
+        segment.put(new HashEntry<String, Integer>("key-" + stored, stored, stored, 0, 0, 0));
+      }
+      fail();
+    } catch (ToolkitRuntimeException e) {
+      // expected
+    }
+    assertTrue(stored > 12 && stored < 16);
+    long occupied = memory.getOccupiedBytes();
+    for (int i = 0; i < 10; i++) {
+      try {
+        segment.put(new HashEntry<String, Integer>("other-" + i, 100 + i, i, 0, 0, 0));
+        fail();
+      } catch (ToolkitRuntimeException e) {
+        // expected
+      }
+    }
+    assertEquals(occupied, memory.getOccupiedBytes());
+    assertEquals(stored, segment.size());
+    segment.remove("key-0", 0);
+    segment.put(new HashEntry<String, Integer>("other-0", 100, 0, 0, 0, 0));
+    assertEquals(Integer.valueOf(0), segment.get("other-0", 100).getValue());
+  }
+
+  @Test
+  public void testLookupsCompareSerializedKeys() {
+    OffheapMemory memory = new OffheapMemory(null, "keys", 1024 * 1024, 1);
+    OffheapSegment<Key, Integer> segment = new OffheapSegment<Key, Integer>(memory);
+    for (int i = 0; i < 100; i++) {
+      segment.put(new HashEntry<Key, Integer>(new Key(i, 0), i, i, 0, 0, 0));
+    }
+    Key.DESERIALIZED.set(0);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Integer.valueOf(i), segment.get(new Key(i, 0), i).getValue());
+    }
+    assertEquals(0, Key.DESERIALIZED.get());
+    // equal keys serialized differently are found by deserializing the stored key
+    assertEquals(Integer.valueOf(7), segment.get(new Key(7, 1), 7).getValue());
+    assertEquals(1, Key.DESERIALIZED.get());
+    assertNull(segment.get(new Key(7, 1), 8));
+    assertEquals(Integer.valueOf(7), segment.remove(new Key(7, 1), 7).getValue());
+    assertNull(segment.get(new Key(7, 0), 7));
+  }
+
+  @Test
+  public void testRecordsExpireWhenTheirBucketIsReached() {
+    long start = 1000000000000L;
+    OffheapMemory memory = new OffheapMemory(null, "wheel", 1024 * 1024, 1);
+    OffheapSegment<String, Integer> segment = new OffheapSegment<String, Integer>(memory, start);
+    segment.put(new HashEntry<String, Integer>("never", 1, 0, start, 0, 0));
+    long occupied = memory.getOccupiedBytes();
+    segment.put(new HashEntry<String, Integer>("second", 2, 0, start, 0, 1));
+    segment.put(new HashEntry<String, Integer>("minute", 3, 0, start, 0, 90));
+    segment.put(new HashEntry<String, Integer>("idle", 4, 0, start, 2, 0));
+    segment.put(new HashEntry<String, Integer>("removed", 5, 0, start, 0, 1));
+    segment.remove("removed", 5);
+    segment.accessed(segment.get("idle", 4), start + 1500);
+
+    assertNull(segment.expire(start + 500));
+    assertEquals("[second]", keys(segment.expire(start + 3000)));
+    assertEquals("[idle]", keys(segment.expire(start + 5000)));
+    assertNull(segment.expire(start + 60000));
+    assertEquals("[minute]", keys(segment.expire(start + 95000)));
+    assertEquals(1, segment.size());
+    assertEquals(Integer.valueOf(0), segment.get("never", 1).getValue());
+    assertTrue(!segment.hasScheduledExpiries());
+    assertEquals(occupied, memory.getOccupiedBytes());
+  }
+
+  @Test
+  public void testCacheExpiresRecordsProactively() throws Exception {
+    ToolkitCache<String, byte[]> cache = toolkit.getCache("expiring", new ToolkitCacheConfigBuilder().concurrency(4)
+        .offheapEnabled(true).maxBytesLocalOffheap(1024 * 1024).maxTTLSeconds(1).build(), byte[].class);
+    final CountDownLatch expired = new CountDownLatch(100);
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        //
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        expired.countDown();
+      }
+    });
+    for (int i = 0; i < 100; i++) {
+      cache.put("key-" + i, new byte[1024]);
+    }
+    OffheapFeature feature = toolkit.getFeature(ToolkitFeatureType.OFFHEAP);
+    assertTrue(feature.getOccupiedBytes() > 100 * 1024);
+    assertTrue(expired.await(10, TimeUnit.SECONDS));
+    assertEquals(0, cache.size());
+    assertEquals(0, feature.getOccupiedBytes());
+  }
+
+  @Test
+  public void testFullCacheEvicts() {
+    ToolkitCache<String, byte[]> cache = toolkit.getCache("evicting", new ToolkitCacheConfigBuilder().concurrency(1)
+        .offheapEnabled(true).maxBytesLocalOffheap(64 * 1024).build(), byte[].class);
+    final AtomicInteger evictions = new AtomicInteger();
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        evictions.incrementAndGet();
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        //
+      }
+    });
+    for (int i = 0; i < 1000; i++) {
+      cache.put("key-" + i, new byte[1024]);
+    }
+    assertEquals(1024, cache.get("key-999").length);
+    assertEquals(1000 - cache.size(), evictions.get());
+    assertNull(cache.get("key-0"));
+  }
+
+  private static String keys(List<HashEntry<String, Integer>> entries) {
+    if (entries == null) { return null; }
+    List<String> keys = new ArrayList<String>();
+    for (HashEntry<String, Integer> entry : entries) {
+      keys.add(entry.getKey());
+    }
+    return keys.toString();
+  }
+
+  private static final class Key implements Serializable {
+    private static final long  serialVersionUID = 1L;
+    static final AtomicInteger DESERIALIZED     = new AtomicInteger();
+
+    private final int          id;
+    // left out of equals
+    private final int          salt;
+
+    Key(int id, int salt) {
+      this.id = id;
+      this.salt = salt;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      DESERIALIZED.incrementAndGet();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && ((Key) obj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+
+    @Override
+    public String toString() {
+      return id + "/" + salt;
+    }
+  }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.search;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.search.Attribute;
+import org.terracotta.toolkit.search.QueryBuilder;
+import org.terracotta.toolkit.search.ResultsUnavailableException;
+import org.terracotta.toolkit.search.SearchException;
+import org.terracotta.toolkit.search.SearchQueryResultSet;
+import org.terracotta.toolkit.search.SearchResult;
+import org.terracotta.toolkit.search.SortDirection;
+import org.terracotta.toolkit.search.attribute.ToolkitAttributeExtractor;
+import org.terracotta.toolkit.search.expression.Always;
+import org.terracotta.toolkit.search.expression.BooleanClause;
+import org.terracotta.toolkit.search.expression.Clause;
+import org.terracotta.toolkit.search.expression.Equals;
+import org.terracotta.toolkit.search.expression.Matches;
+import org.terracotta.toolkit.search.expression.OneOf;
+import org.terracotta.toolkit.search.expression.Range;
+import org.terracotta.toolkit.search.expression.RelationalClause;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SearchEngineTest {
+
+  private static final Attribute<Integer> AGE  = new Attribute<Integer>("age");
+  private static final Attribute<String>  NAME = new Attribute<String>("name");
+  private static final Attribute<String>  CITY = new Attribute<String>("city");
+
+  // values are "name,age,city", the city being left out when empty
+  private static final ToolkitAttributeExtractor<String, String> EXTRACTOR =
+      new ToolkitAttributeExtractor<String, String>() {
+    @Override
+    public Map<String, Object> attributesFor(String key, String value) {
+      if (value.startsWith("hidden")) { return DO_NOT_INDEX; }
+      String[] fields = value.split(",", -1);
+      Map<String, Object> attributes = new HashMap<String, Object>();
+      attributes.put("name", fields[0]);
+      attributes.put("age", Integer.valueOf(fields[1]));
+      attributes.put("city", fields[2].isEmpty() ? null : fields[2]);
+      return attributes;
+    }
+  };
+
+  private static final String[] CITIES = { "Paris", "London", "Montreal", "" };
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("search");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  private static String person(int i) {
+    return "user" + i + "," + (i % 100) + "," + CITIES[i % CITIES.length];
+  }
+
+  private static Set<String> keys(QueryBuilder builder) {
+    Set<String> keys = new HashSet<String>();
+    for (SearchResult result : builder.includeKeys(true).build().execute().getResults()) {
+      keys.add(result.getKey());
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the keys of the indexed mappings of {@code mappings} accepted by {@code predicate}
+   */
+  private static Set<String> expected(Map<String, String> mappings, Predicate predicate) {
+    Set<String> keys = new HashSet<String>();
+    for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+      Map<String, Object> attributes = EXTRACTOR.attributesFor(mapping.getKey(), mapping.getValue());
+      if (attributes != ToolkitAttributeExtractor.DO_NOT_INDEX
+          && predicate.test((String) attributes.get("name"), (Integer) attributes.get("age"),
+                            (String) attributes.get("city"))) {
+        keys.add(mapping.getKey());
+      }
+    }
+    return keys;
+  }
+
+  private interface Predicate {
+    boolean test(String name, int age, String city);
+  }
+
+  @Test
+  public void testClausesAreEvaluatedAgainstTheIndexes() {
+    ToolkitStore<String, String> store = toolkit.getStore("people", new ToolkitStoreConfigBuilder().concurrency(8)
+        .build(), String.class);
+    store.setAttributeExtractor(EXTRACTOR);
+    Map<String, String> mappings = new HashMap<String, String>();
+    for (int i = 0; i < 1000; i++) {
+      mappings.put("k" + i, person(i));
+    }
+    store.putAll(mappings);
+    for (int i = 0; i < 1000; i += 7) {
+      store.remove("k" + i);
+      mappings.remove("k" + i);
+    }
+    store.put("k1", "user1,42,Paris");
+    mappings.put("k1", "user1,42,Paris");
+    store.replace("k2", "hidden");
+    mappings.put("k2", "hidden");
+
+    Clause[] clauses = { AGE.eq(42), AGE.range(10, 20), AGE.range(10, 20, false, false), AGE.lt(5), AGE.le(5),
+        AGE.gt(95), AGE.ge(95), CITY.oneOf(Arrays.asList("Paris", "London")), CITY.exists(), NAME.matches("USER1*"),
+        NAME.matches("user?"), AGE.lt(50).and(CITY.eq("Paris")).or(AGE.eq(99)), AGE.ne(42), CITY.exists().not() };
+    Predicate[] predicates = { new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age == 42;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age >= 10 && age <= 20;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age > 10 && age < 20;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age < 5;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age <= 5;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age > 95;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age >= 95;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return "Paris".equals(city) || "London".equals(city);
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return city != null;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return name.startsWith("user1");
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return name.length() == 5;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age < 50 && "Paris".equals(city) || age == 99;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age != 42;
+      }
+    }, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return city == null;
+      }
+    } };
+    for (int c = 0; c < clauses.length; c++) {
+      assertEquals(clauses[c].toString(), expected(mappings, predicates[c]),
+                   keys(store.createQueryBuilder().addClause(clauses[c])));
+    }
+    assertEquals(expected(mappings, new Predicate() {
+      public boolean test(String name, int age, String city) {
+        return age >= 10 && age <= 20 && "Montreal".equals(city);
+      }
+    }), keys(store.createQueryBuilder().addClause(AGE.range(10, 20)).addClause(CITY.eq("Montreal"))));
+
+    assertEquals(store.size() - 1, store.createQueryBuilder().build().execute().getResults().size());
+    store.clear();
+    assertFalse(store.createQueryBuilder().addClause(AGE.ge(0)).build().execute().anyCriteriaMatched());
+    store.put("k1", person(1));
+    assertEquals(Collections.singleton("k1"), keys(store.createQueryBuilder().addClause(AGE.eq(1))));
+  }
+
+  @Test
+  public void testResultsAreGroupedSortedAndAggregated() {
+    ToolkitStore<String, String> store = toolkit.getStore("people", String.class);
+    for (int i = 0; i < 100; i++) {
+      store.put("k" + i, person(i));
+    }
+    // indexes the mappings already there
+    store.setAttributeExtractor(EXTRACTOR);
+
+    List<SearchResult> sorted = store.createQueryBuilder().addClause(CITY.eq("Paris")).includeValues(true)
+        .includeAttribute(AGE).addOrderBy(AGE, SortDirection.DESCENDING).maxResults(3).build().execute()
+        .getResults();
+    assertEquals(3, sorted.size());
+    assertEquals(96, sorted.get(0).getAttributes().get("age"));
+    assertEquals(person(88), sorted.get(2).getValue());
+
+    SearchQueryResultSet aggregated = store.createQueryBuilder().addClause(AGE.lt(10))
+        .includeAggregator(AGE.count(), AGE.min(), AGE.max(), AGE.sum(), AGE.average()).build().execute();
+    assertTrue(aggregated.getResults().isEmpty());
+    assertEquals(Arrays.<Object> asList(10, 0, 9, 45L, 4.5), aggregated.getAggregatorResults());
+
+    List<SearchResult> groups = store.createQueryBuilder().addClause(CITY.exists()).addGroupBy(CITY)
+        .includeAttribute(CITY).addOrderBy(CITY, SortDirection.ASCENDING).includeAggregator(AGE.count(), AGE.max())
+        .build().execute().getResults();
+    assertEquals(3, groups.size());
+    assertEquals("London", groups.get(0).getGroupByValues().get("city"));
+    assertEquals(Arrays.<Object> asList(25, 97), groups.get(0).getAggregatorResults());
+    assertEquals("Paris", groups.get(2).getAttributes().get("city"));
+
+    SearchQueryResultSet closed = store.createQueryBuilder().build().execute();
+    closed.close();
+    try {
+      closed.getResults();
+      fail();
+    } catch (ResultsUnavailableException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRangesAreAnsweredInOrder() {
+    final Attribute<Long> time = new Attribute<Long>("time");
+    final Attribute<Date> day = new Attribute<Date>("day");
+    ToolkitStore<String, String> events = toolkit.getStore("events", String.class);
+    events.setAttributeExtractor(new ToolkitAttributeExtractor<String, String>() {
+      @Override
+      public Map<String, Object> attributesFor(String key, String value) {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        long t = Long.parseLong(key);
+        // a negative time is reported as an int, which the index rejects
+        attributes.put("time", t < 0 ? (Object) (int) t : t);
+        attributes.put("day", new Date(t / 1000 * 1000));
+        attributes.put("kind", value);
+        return attributes;
+      }
+    });
+    for (long t = 0; t < 10000; t += 3) {
+      events.put(String.valueOf(t), t % 2 == 0 ? "even" : "odd");
+    }
+    assertEquals(334, count(events.createQueryBuilder().addClause(time.range(5000L, 6000L))));
+    assertEquals(332, count(events.createQueryBuilder().addClause(time.range(4998L, 5997L, false, false))));
+    assertEquals(0, count(events.createQueryBuilder().addClause(time.range(6000L, 5000L))));
+    assertEquals(2, count(events.createQueryBuilder().addClause(time.lt(6L))));
+    assertEquals(3, count(events.createQueryBuilder().addClause(time.le(6L))));
+    assertEquals(1, count(events.createQueryBuilder().addClause(time.gt(9996L))));
+    assertEquals(2, count(events.createQueryBuilder().addClause(time.ge(9996L))));
+    assertEquals(334, count(events.createQueryBuilder().addClause(day.range(new Date(3000), new Date(3000)))));
+    assertEquals(167, count(events.createQueryBuilder().addClause(time.lt(1000L))
+        .addClause(new Attribute<String>("kind").eq("even"))));
+
+    try {
+      events.createQueryBuilder().addClause(new Attribute<Integer>("time").lt(1000)).build().execute();
+      fail();
+    } catch (SearchException e) {
+      // expected, the time is a Long
+    }
+    try {
+      events.put("-1", "odd");
+      fail();
+    } catch (SearchException e) {
+      assertFalse(events.containsKey("-1"));
+    }
+  }
+
+  @Test
+  public void testAttributeTypeRaceFailsThePut() throws Exception {
+    final ToolkitStore<String, String> store = toolkit.getStore("codes", String.class);
+    store.setAttributeExtractor(new ToolkitAttributeExtractor<String, String>() {
+      @Override
+      public Map<String, Object> attributesFor(String key, String value) {
+        // the code of a value is an int if it starts with a digit, a string otherwise
+        Object code = Character.isDigit(value.charAt(0)) ? (Object) Integer.valueOf(value) : value;
+        return Collections.singletonMap("code", code);
+      }
+    });
+    final int threads = 8;
+    final CyclicBarrier barrier = new CyclicBarrier(threads);
+    final AtomicInteger failed = new AtomicInteger();
+    Thread[] writers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      writers[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            barrier.await();
+          } catch (Exception e) {
+            throw new AssertionError(e);
+          }
+          for (int i = 0; i < 100; i++) {
+            try {
+              store.put(thread + "-" + i, thread % 2 == 0 ? String.valueOf(i) : "c" + i);
+            } catch (SearchException e) {
+              failed.incrementAndGet();
+            }
+          }
+        }
+      };
+      writers[t].start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    assertEquals(threads * 100, store.size() + failed.get());
+    assertEquals(threads * 100 / 2, failed.get());
+    // every stored mapping is indexed with the type that won the race
+    assertEquals(store.size(), count(store.createQueryBuilder().addClause(new Attribute<Object>("code").exists())));
+  }
+
+  private static int count(QueryBuilder builder) {
+    return builder.build().execute().getResults().size();
+  }
+
+  @Test
+  public void testCompressedBitmapsMatchBitSets() {
+    Random random = new Random(42);
+    CompressedBitmap[] bitmaps = new CompressedBitmap[3];
+    BitSet[] expected = new BitSet[3];
+    for (int b = 0; b < bitmaps.length; b++) {
+      bitmaps[b] = new CompressedBitmap();
+      expected[b] = new BitSet();
+      // dense then sparse chunks, some turning back to arrays
+      int bound = b == 0 ? 1 << 17 : 1 << 19;
+      for (int i = 0; i < 40000; i++) {
+        int ordinal = random.nextInt(bound);
+        bitmaps[b].add(ordinal);
+        expected[b].set(ordinal);
+      }
+      for (int i = 0; i < 60000; i++) {
+        int ordinal = random.nextInt(1 << 16);
+        bitmaps[b].remove(ordinal);
+        expected[b].clear(ordinal);
+      }
+      assertEquals(expected[b].cardinality(), bitmaps[b].size());
+      assertEquals(expected[b], bits(bitmaps[b]));
+    }
+    for (int b = 1; b < bitmaps.length; b++) {
+      BitSet and = (BitSet) expected[0].clone();
+      and.and(expected[b]);
+      assertEquals(and, bits(bitmaps[0].and(bitmaps[b])));
+      BitSet or = (BitSet) expected[0].clone();
+      or.or(expected[b]);
+      assertEquals(or, bits(bitmaps[0].or(bitmaps[b])));
+      BitSet andNot = (BitSet) expected[b].clone();
+      andNot.andNot(expected[0]);
+      assertEquals(andNot, bits(bitmaps[b].andNot(bitmaps[0])));
+    }
+  }
+
+  private static BitSet bits(CompressedBitmap bitmap) {
+    BitSet bits = new BitSet();
+    bitmap.addTo(bits);
+    return bits;
+  }
+
+  @Test
+  public void testBitmapIndexedAttributes() {
+    ToolkitStore<String, String> bitmapped = toolkit.getStore("bitmapped", new ToolkitStoreConfigBuilder()
+        .configField(LocalConfigFields.BITMAP_INDEXED_ATTRIBUTES_FIELD_NAME, "city, age").build(), String.class);
+    ToolkitStore<String, String> hashed = toolkit.getStore("hashed", String.class);
+    bitmapped.setAttributeExtractor(EXTRACTOR);
+    hashed.setAttributeExtractor(EXTRACTOR);
+    for (int i = 0; i < 20000; i++) {
+      bitmapped.put("k" + i, person(i));
+      hashed.put("k" + i, person(i));
+    }
+    for (int i = 0; i < 20000; i += 3) {
+      bitmapped.remove("k" + i);
+      hashed.remove("k" + i);
+    }
+    Clause[] clauses = { CITY.eq("Paris"), CITY.oneOf(Arrays.asList("London", "Montreal")),
+        CITY.eq("Paris").and(AGE.oneOf(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8))).and(AGE.ne(4)),
+        CITY.eq("London").or(AGE.eq(3)).and(AGE.eq(42).not()), CITY.eq("Paris").not().and(AGE.lt(10)),
+        CITY.eq("Paris").and(NAME.matches("user1*")), CITY.eq("Nowhere").and(AGE.eq(1)) };
+    for (Clause clause : clauses) {
+      assertEquals(clause.toString(), keys(hashed.createQueryBuilder().addClause(clause)),
+                   keys(bitmapped.createQueryBuilder().addClause(clause)));
+    }
+  }
+
+  @Test
+  public void testQueriesAreOptimized() {
+    Clause ages = AGE.eq(2).or(AGE.oneOf(Arrays.asList(3, 1)));
+    Clause oneOf = QueryOptimizer.optimize(AGE.eq(1).or(CITY.eq("Paris")).or(ages));
+    assertEquals(2, ((BooleanClause) oneOf).getMembers().length);
+    assertEquals(new HashSet<Object>(Arrays.asList(1, 2, 3)),
+                 new HashSet<Object>(((OneOf) ((BooleanClause) oneOf).getMembers()[0]).values()));
+    Range range = (Range) QueryOptimizer.optimize(AGE.gt(10).and(new Always()).and(AGE.le(20).and(AGE.ge(12))));
+    assertEquals(12, range.getMin());
+    assertEquals(20, range.getMax());
+    assertTrue(range.isMinInclusive() && range.isMaxInclusive());
+    assertTrue(QueryOptimizer.optimize(AGE.lt(10).and(AGE.lt(5)).and(AGE.le(5))) instanceof RelationalClause.LessThan);
+    assertTrue(QueryOptimizer.optimize(AGE.eq(1).not().not()) instanceof Equals);
+    BooleanClause negated = (BooleanClause) QueryOptimizer.optimize(AGE.eq(1).and(CITY.eq("Paris").not()).not());
+    assertEquals(BooleanClause.Operator.OR, negated.type());
+    assertTrue(negated.getMembers()[1] instanceof Equals);
+    assertTrue(QueryOptimizer.optimize(new Always().or(AGE.eq(1))) instanceof Always);
+
+    SearchIndex<String> index = new SearchIndex<String>(4, Collections.<String> emptyList(),
+                                                        Collections.<String> emptyList());
+    for (int i = 0; i < 2000; i++) {
+      index.update(i % 4, "k" + i, index.extract(EXTRACTOR, "k" + i, person(i)));
+    }
+    Clause[] clauses = { AGE.gt(10).and(AGE.lt(30)).and(AGE.ge(20)).and(CITY.eq("Paris")),
+        AGE.gt(50).and(AGE.lt(10)), NAME.matches("user1*").and(AGE.eq(42)).and(CITY.exists()),
+        NAME.matches("*3").not().and(AGE.lt(20)), AGE.eq(1).or(AGE.eq(2)).or(CITY.eq("Paris")).not(),
+        CITY.exists().not().or(AGE.ne(3).and(AGE.le(3))).not(), new Always().not().or(AGE.eq(7)),
+        NAME.matches("user1?").and(CITY.eq("London").or(CITY.eq("Montreal"))) };
+    for (Clause clause : clauses) {
+      Clause optimized = QueryOptimizer.optimize(clause);
+      assertEquals(clause + " -> " + optimized, matchingKeys(index.search(clause)),
+                   matchingKeys(index.search(optimized)));
+    }
+  }
+
+  private static Set<Object> matchingKeys(List<SearchIndex.Match> matches) {
+    Set<Object> keys = new HashSet<Object>();
+    for (SearchIndex.Match match : matches) {
+      keys.add(match.key);
+    }
+    return keys;
+  }
+
+  @Test
+  public void testMatchesAreAnsweredFromPrefixIndexes() {
+    // expressions followed by a value they match, then by a value they do not match
+    String[] cases = { "abc*", "ABCdef", "xabc", "*DEF", "abcdef", "abcde", "*c\\*d*", "abC*Def", "abcd", "abc*def",
+        "abcXdef", "abdef", "a?c", "aBc", "ac", "", "", "a", "*", "", null, "a*b*c", "aXbYc", "abcd", "\\?", "?", "x" };
+    for (int i = 0; i < cases.length; i += 3) {
+      Matches matches = new Matches("name", cases[i]);
+      assertTrue(cases[i], matches.matches(cases[i + 1]));
+      assertTrue(cases[i], cases[i + 2] == null || !matches.matches(cases[i + 2]));
+    }
+    assertEquals("ab*c", new Matches("name", "ab\\*c?d*").getPrefix());
+
+    ToolkitStore<String, String> prefixed = toolkit.getStore("prefixed", new ToolkitStoreConfigBuilder()
+        .configField(LocalConfigFields.PREFIX_INDEXED_ATTRIBUTES_FIELD_NAME, "name").build(), String.class);
+    ToolkitStore<String, String> scanned = toolkit.getStore("scanned", String.class);
+    prefixed.setAttributeExtractor(EXTRACTOR);
+    scanned.setAttributeExtractor(EXTRACTOR);
+    for (int i = 0; i < 5000; i++) {
+      String value = (i % 3 == 0 ? "USER" : i % 3 == 1 ? "User" : "user") + i + "," + (i % 100) + ",Paris";
+      prefixed.put("k" + i, value);
+      scanned.put("k" + i, value);
+    }
+    for (int i = 0; i < 5000; i += 7) {
+      prefixed.remove("k" + i);
+      scanned.remove("k" + i);
+    }
+    Clause[] clauses = { NAME.matches("user12*"), NAME.matches("USER4?"), NAME.matches("user1*9"),
+        NAME.matches("uSeR1234"), NAME.matches("*99"), NAME.matches("user1*").and(AGE.eq(12)),
+        NAME.matches("user2*").not().and(AGE.lt(3)), NAME.matches("nobody*") };
+    for (Clause clause : clauses) {
+      assertEquals(clause.toString(), keys(scanned.createQueryBuilder().addClause(clause)),
+                   keys(prefixed.createQueryBuilder().addClause(clause)));
+    }
+    assertFalse(keys(prefixed.createQueryBuilder().addClause(NAME.matches("user12*"))).isEmpty());
+  }
+
+  @Test
+  public void testExpiredEntriesAreLeftOut() {
+    ToolkitCache<String, String> cache = toolkit.getCache("cache", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    cache.setAttributeExtractor(EXTRACTOR);
+    cache.put("live", person(1));
+    cache.putNoReturn("expired", person(2), System.currentTimeMillis() / 1000 - 10, 0, 1);
+    assertEquals(Collections.singleton("live"), keys(cache.createQueryBuilder().addClause(NAME.matches("user*"))));
+    assertNull(cache.get("expired"));
+
+    try {
+      toolkit.getStore("unsearchable", String.class).createQueryBuilder().build().execute();
+      fail();
+    } catch (SearchException e) {
+      // expected
+    }
+  }
+}
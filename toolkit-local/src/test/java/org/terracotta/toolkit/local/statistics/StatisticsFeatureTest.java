@@ -0,0 +1,131 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.statistics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.Toolkit;
+import org.terracotta.toolkit.ToolkitFactory;
+import org.terracotta.toolkit.ToolkitFeatureType;
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.feature.LatencySnapshot;
+import org.terracotta.toolkit.feature.StatisticsFeature;
+import org.terracotta.toolkit.feature.StatisticsSnapshot;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatisticsFeatureTest {
+
+  private Toolkit           toolkit;
+  private StatisticsFeature feature;
+
+  @Before
+  public void setUp() throws Exception {
+    toolkit = ToolkitFactory.createToolkit("toolkit:local:statistics");
+    feature = toolkit.getFeature(ToolkitFeatureType.STATISTICS);
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testOperationsAreCounted() {
+    ToolkitCache<String, String> cache = toolkit.getCache("cache", new ToolkitCacheConfigBuilder().concurrency(1)
+        .maxTotalCount(10).build(), String.class);
+    cache.put("a", "1");
+    cache.put("a", "2");
+    cache.putIfAbsent("a", "3");
+    assertEquals("2", cache.get("a"));
+    assertNull(cache.get("b"));
+    cache.getAll(Arrays.asList("a", "b", "c"));
+    cache.remove("a");
+    cache.remove("a");
+    Map<String, String> values = new HashMap<String, String>();
+    for (int i = 0; i < 20; i++) {
+      values.put("k" + i, "v" + i);
+    }
+    cache.putAllNoReturn(values);
+    cache.removeAllNoReturn(Arrays.asList("k0", "k1", "k2", "k3", "k4", "k5", "k6", "k7", "k8", "k9", "k10"));
+    int live = cache.size();
+    cache.putNoReturn("expired", "v", System.currentTimeMillis() / 1000 - 10, 0, 1);
+    assertNull(cache.get("expired"));
+
+    StatisticsSnapshot statistics = feature.getStatistics(ToolkitObjectType.CACHE, "cache");
+    assertEquals(2, statistics.getHitCount());
+    assertEquals(4, statistics.getMissCount());
+    assertEquals(23, statistics.getPutCount());
+    assertEquals(10, statistics.getEvictionCount());
+    // "a" and the mappings of the bulk removal that were not evicted
+    assertEquals(1 + 10 - live, statistics.getRemoveCount());
+    assertEquals(1, statistics.getExpirationCount());
+    assertEquals(3, statistics.getGetLatency().getCount());
+    assertEquals(4, statistics.getPutLatency().getCount());
+    assertEquals(0, statistics.getSearchLatency().getCount());
+    assertEquals(2.0 / 6, statistics.getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void testObjectsAreReportedUntilDestroyed() {
+    ToolkitStore<String, String> store = toolkit.getStore("store", String.class);
+    toolkit.getStore("quiet", new ToolkitStoreConfigBuilder()
+        .configField(LocalConfigFields.STATISTICS_ENABLED_FIELD_NAME, false).build(), String.class);
+    assertTrue(feature.getObjectNames(ToolkitObjectType.STORE).contains("store"));
+    assertFalse(feature.getObjectNames(ToolkitObjectType.STORE).contains("quiet"));
+    assertNull(feature.getStatistics(ToolkitObjectType.CACHE, "store"));
+    store.destroy();
+    assertNull(feature.getStatistics(ToolkitObjectType.STORE, "store"));
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 100000; nanos++) {
+      histogram.record(nanos * 1000);
+    }
+    LatencySnapshot snapshot = histogram.snapshot();
+    assertEquals(100000, snapshot.getCount());
+    assertEquals(100000000, snapshot.getMaxNanos());
+    assertEquals(100000000, snapshot.getValueAtPercentile(100));
+    assertEquals(50000000, snapshot.getValueAtPercentile(50), 50000000 / 16);
+    assertEquals(99000000, snapshot.getValueAtPercentile(99), 99000000 / 16);
+    assertEquals(50000500, snapshot.getMeanNanos());
+  }
+
+  @Test
+  public void testBucketsCoverValuesContiguously() {
+    for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+      long upper = LatencyHistogram.upperBound(i);
+      assertEquals(i, LatencyHistogram.bucketIndex(upper));
+      assertEquals(i + 1, LatencyHistogram.bucketIndex(upper + 1));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.ToolkitFeatureType;
+import org.terracotta.toolkit.ToolkitObjectType;
+import org.terracotta.toolkit.builder.NonStopConfigurationBuilder;
+import org.terracotta.toolkit.concurrent.locks.ToolkitReadWriteLock;
+import org.terracotta.toolkit.feature.NonStopFeature;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.nonstop.NonStopConfigurationFields.NonStopReadTimeoutBehavior;
+import org.terracotta.toolkit.nonstop.NonStopException;
+import org.terracotta.toolkit.store.AsyncToolkitStore;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncStoreTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("async");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testOperations() throws Exception {
+    ToolkitStore<String, Integer> store = toolkit.getStore("store", Integer.class);
+    AsyncToolkitStore<String, Integer> async = store.async();
+    assertNull(async.putAsync("a", 1).get());
+    assertEquals(Integer.valueOf(1), async.putIfAbsentAsync("a", 2).get());
+    assertNull(async.putIfAbsentAsync("b", 2).get());
+    assertEquals(Integer.valueOf(2), async.getAsync("b").get());
+    Map<String, Integer> all = async.getAllAsync(Arrays.asList("a", "b", "c")).get();
+    assertEquals(Integer.valueOf(1), all.get("a"));
+    assertTrue(all.containsKey("c"));
+    assertEquals(Integer.valueOf(1), async.removeAsync("a").get());
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  public void testTimeoutCompletesFuture() throws Exception {
+    ToolkitStore<String, Integer> store = toolkit.getStore("timeout", Integer.class);
+    NonStopFeature nonStop = toolkit.getFeature(ToolkitFeatureType.NONSTOP);
+    nonStop.getNonStopConfigurationRegistry()
+        .registerForInstance(new NonStopConfigurationBuilder().timeoutMillis(100).build(), "timeout",
+                             ToolkitObjectType.STORE);
+    nonStop.getNonStopConfigurationRegistry()
+        .registerForInstanceMethod(new NonStopConfigurationBuilder().timeoutMillis(100)
+                                       .nonStopReadTimeoutBehavior(NonStopReadTimeoutBehavior.NO_OP).build(),
+                                   "getAll", "timeout", ToolkitObjectType.STORE);
+    store.put("key", 1);
+    ToolkitReadWriteLock lock = store.createLockForKey("key");
+    lock.writeLock().lock();
+    try {
+      CompletableFuture<Integer> get = store.async().getAsync("key");
+      try {
+        get.get();
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof NonStopException);
+      }
+      assertTrue(store.async().getAllAsync(Arrays.asList("key")).get().isEmpty());
+    } finally {
+      lock.writeLock().unlock();
+    }
+    assertEquals(Integer.valueOf(1), store.async().getAsync("key").get());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheBatchListener;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.store.ToolkitConfigFields.ListenerQueueFullPolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchListenerTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("batch");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testEvictionsAreDeliveredInBatchesFromTheDispatcher() throws Exception {
+    ToolkitCache<String, String> cache = toolkit.getCache("batched", new ToolkitCacheConfigBuilder().concurrency(1)
+        .maxTotalCount(10).listenerBatchSize(16).listenerBatchMaxDelayMillis(50).build(), String.class);
+    RecordingListener listener = new RecordingListener(90, null);
+    cache.addListener(listener);
+    for (int i = 0; i < 100; i++) {
+      cache.put("k" + i, "v");
+    }
+    assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+    synchronized (listener) {
+      assertEquals(90, listener.keys.size());
+      for (int size : listener.batchSizes) {
+        assertTrue(size <= 16);
+      }
+      assertTrue(listener.threads.size() > 0);
+      assertTrue(!listener.threads.contains(Thread.currentThread()));
+    }
+  }
+
+  @Test
+  public void testFullQueueDropsEvents() throws Exception {
+    LocalToolkitCache<String, String> cache = (LocalToolkitCache<String, String>) toolkit
+        .getCache("dropping", new ToolkitCacheConfigBuilder().concurrency(1).maxTotalCount(1).listenerBatchSize(1)
+            .listenerQueueCapacity(1).listenerQueueFullPolicy(ListenerQueueFullPolicy.DROP).build(), String.class);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingListener listener = new RecordingListener(1, release);
+    cache.addListener(listener);
+    for (int i = 0; i < 10; i++) {
+      cache.put("k" + i, "v");
+    }
+    assertTrue(cache.getDroppedListenerEventCount() > 0);
+    release.countDown();
+  }
+
+  private static final class RecordingListener implements ToolkitCacheBatchListener<String> {
+
+    final List<String>   keys       = new ArrayList<String>();
+    final List<Integer>  batchSizes = new ArrayList<Integer>();
+    final List<Thread>   threads    = new ArrayList<Thread>();
+    final CountDownLatch done;
+    final CountDownLatch release;
+    final int            expected;
+
+    RecordingListener(int expected, CountDownLatch release) {
+      this.expected = expected;
+      this.done = new CountDownLatch(1);
+      this.release = release;
+    }
+
+    @Override
+    public void onEvictions(Collection<String> evicted) {
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      synchronized (this) {
+        keys.addAll(evicted);
+        batchSizes.add(evicted.size());
+        threads.add(Thread.currentThread());
+        if (keys.size() >= expected) {
+          done.countDown();
+        }
+      }
+    }
+
+    @Override
+    public void onExpirations(Collection<String> expired) {
+      //
+    }
+
+    @Override
+    public void onEviction(String key) {
+      throw new AssertionError("batch listeners are not notified key by key");
+    }
+
+    @Override
+    public void onExpiration(String key) {
+      throw new AssertionError("batch listeners are not notified key by key");
+    }
+  }
+}
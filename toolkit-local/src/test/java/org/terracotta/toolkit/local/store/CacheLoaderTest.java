@@ -0,0 +1,144 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCacheBulkLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheLoaderException;
+import org.terracotta.toolkit.local.LocalToolkit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CacheLoaderTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("loader");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testConcurrentMissesShareOneLoad() throws Exception {
+    final LocalToolkitCache<String, String> cache = cache("single-flight", 0);
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+    final ToolkitCacheLoader<String, String> loader = new ToolkitCacheLoader<String, String>() {
+      @Override
+      public String load(String key) throws Exception {
+        loads.incrementAndGet();
+        release.await(10, TimeUnit.SECONDS);
+        return "v-" + key;
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<Future<String>>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() {
+            return cache.getOrLoad("k", loader);
+          }
+        }));
+      }
+      Thread.sleep(200);
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("v-k", result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, loads.get());
+    assertEquals("v-k", cache.get("k"));
+  }
+
+  @Test
+  public void testBulkMissesAreLoadedInOneCall() {
+    LocalToolkitCache<String, String> cache = cache("bulk", 60);
+    cache.put("a", "cached");
+    final List<Collection<String>> calls = new ArrayList<Collection<String>>();
+    ToolkitCacheBulkLoader<String, String> loader = new ToolkitCacheBulkLoader<String, String>() {
+      @Override
+      public Map<String, String> loadAll(Collection<String> keys) {
+        calls.add(new ArrayList<String>(keys));
+        Map<String, String> loaded = new HashMap<String, String>();
+        loaded.put("b", "loaded");
+        return loaded;
+      }
+    };
+    Map<String, String> values = cache.getAllOrLoad(Arrays.asList("a", "b", "c"), loader);
+    assertEquals(1, calls.size());
+    assertEquals(2, calls.get(0).size());
+    assertEquals("cached", values.get("a"));
+    assertEquals("loaded", values.get("b"));
+    assertTrue(values.containsKey("c"));
+    assertNull(values.get("c"));
+    assertEquals(60, cache.getEntry("b", false).getMaxTTLSeconds());
+    assertNull(cache.get("c"));
+  }
+
+  @Test
+  public void testLoaderFailureIsWrapped() {
+    LocalToolkitCache<String, String> cache = cache("failing", 0);
+    try {
+      cache.getOrLoad("k", new ToolkitCacheLoader<String, String>() {
+        @Override
+        public String load(String key) throws Exception {
+          throw new IOException("unavailable");
+        }
+      });
+      fail();
+    } catch (ToolkitCacheLoaderException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+    assertNull(cache.get("k"));
+  }
+
+  private LocalToolkitCache<String, String> cache(String name, int ttlSeconds) {
+    return (LocalToolkitCache<String, String>) toolkit.getCache(name, new ToolkitCacheConfigBuilder()
+        .maxTTLSeconds(ttlSeconds).build(), String.class);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.store.ToolkitConfigFields.EvictionPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EvictionPolicyTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("eviction");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testLruEvictsLeastRecentlyUsed() {
+    ToolkitCache<String, String> cache = cache("lru", EvictionPolicy.LRU, 3);
+    List<String> evicted = recordEvictions(cache);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    cache.get("a");
+    cache.put("d", "4");
+    assertEquals(Arrays.asList("b"), evicted);
+    assertNull(cache.get("b"));
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void testLfuEvictsLeastFrequentlyUsed() {
+    ToolkitCache<String, String> cache = cache("lfu", EvictionPolicy.LFU, 3);
+    List<String> evicted = recordEvictions(cache);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+    cache.get("c");
+    cache.get("c");
+    cache.put("d", "4");
+    assertEquals(Arrays.asList("b"), evicted);
+  }
+
+  @Test
+  public void testTinyLfuResistsScans() {
+    assertTrue(hotKeysSurvivingScan(EvictionPolicy.W_TINY_LFU) >= 45);
+    assertTrue(hotKeysSurvivingScan(EvictionPolicy.LRU) < 5);
+  }
+
+  private int hotKeysSurvivingScan(EvictionPolicy policy) {
+    ToolkitCache<String, String> cache = cache("scan-" + policy, policy, 100);
+    for (int i = 0; i < 50; i++) {
+      cache.put("hot" + i, "v");
+    }
+    for (int round = 0; round < 20; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.get("hot" + i);
+      }
+      cache.put("filler" + round, "v");
+    }
+    for (int i = 0; i < 1000; i++) {
+      cache.put("scan" + i, "v");
+    }
+    assertTrue(cache.size() <= 100);
+    int hot = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.containsKey("hot" + i)) {
+        hot++;
+      }
+    }
+    return hot;
+  }
+
+  private ToolkitCache<String, String> cache(String name, EvictionPolicy policy, int maxTotalCount) {
+    return toolkit.getCache(name, new ToolkitCacheConfigBuilder().concurrency(1).evictionPolicy(policy)
+        .maxTotalCount(maxTotalCount).build(), String.class);
+  }
+
+  private static List<String> recordEvictions(ToolkitCache<String, String> cache) {
+    final List<String> evicted = new ArrayList<String>();
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        evicted.add(key);
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        //
+      }
+    });
+    return evicted;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.ToolkitRuntimeException;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.sizeof.LayoutSizeOfEngine;
+import org.terracotta.toolkit.store.ToolkitConfigFields;
+import org.terracotta.toolkit.store.ToolkitStore;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HeapBoundsTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("heap");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testSizeOfEngineCountsDeepAndSharedObjectsOnce() {
+    LayoutSizeOfEngine engine = new LayoutSizeOfEngine();
+    long small = engine.sizeOf("k", new byte[10], null);
+    long large = engine.sizeOf("k", new byte[1000], null);
+    assertTrue(large - small >= 960);
+    ArrayList<byte[]> list = new ArrayList<byte[]>();
+    byte[] shared = new byte[1000];
+    list.add(shared);
+    list.add(shared);
+    assertTrue(engine.sizeOf(list, null, null) < 2000);
+    assertEquals(engine.sizeOf(list, null, null), engine.sizeOf(list, list, null));
+  }
+
+  @Test
+  public void testCountBoundedCacheEvicts() {
+    ToolkitCache<String, Integer> cache = toolkit.getCache("count", new ToolkitCacheConfigBuilder().concurrency(4)
+        .maxCountLocalHeap(100).build(), Integer.class);
+    final AtomicInteger evictions = new AtomicInteger();
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        evictions.incrementAndGet();
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        //
+      }
+    });
+    for (int i = 0; i < 1000; i++) {
+      cache.put("key-" + i, i);
+      assertTrue(cache.size() <= 100);
+    }
+    assertEquals(1000 - cache.size(), evictions.get());
+    assertEquals(cache.size(), ((LocalToolkitCache<String, Integer>) cache).getLocalHeapCount());
+  }
+
+  @Test
+  public void testCountBoundBelowSegmentCountEvictsFromOtherSegments() {
+    ToolkitCache<String, Integer> total = toolkit.getCache("total", new ToolkitCacheConfigBuilder().maxTotalCount(100)
+        .build(), Integer.class);
+    ToolkitCache<String, Integer> local = toolkit.getCache("local", new ToolkitCacheConfigBuilder()
+        .maxCountLocalHeap(100).build(), Integer.class);
+    for (int i = 0; i < 10000; i++) {
+      total.put("key-" + i, i);
+      local.put("key-" + i, i);
+    }
+    assertTrue(total.size() <= 100);
+    assertTrue(local.size() <= 100);
+    assertEquals(local.size(), ((LocalToolkitCache<String, Integer>) local).getLocalHeapCount());
+    assertTrue(local.containsKey("key-9999"));
+  }
+
+  @Test
+  public void testBytesBoundedCacheStaysUnderBound() {
+    ToolkitCache<String, byte[]> cache = toolkit.getCache("bytes", new ToolkitCacheConfigBuilder().concurrency(1)
+        .maxBytesLocalHeap(64 * 1024).build(), byte[].class);
+    LocalToolkitCache<String, byte[]> local = (LocalToolkitCache<String, byte[]>) cache;
+    for (int i = 0; i < 1000; i++) {
+      cache.put("key-" + i, new byte[1024]);
+      assertTrue(local.getLocalHeapBytes() <= 64 * 1024);
+    }
+    assertTrue(cache.size() > 30 && cache.size() < 64);
+    cache.clear();
+    assertEquals(0, local.getLocalHeapBytes());
+  }
+
+  @Test
+  public void testCountAndBytesBoundsAreEnforcedTogether() {
+    ToolkitCache<String, byte[]> cache = toolkit.getCache("both", new ToolkitCacheConfigBuilder().concurrency(1)
+        .maxCountLocalHeap(50).maxBytesLocalHeap(32 * 1024).build(), byte[].class);
+    LocalToolkitCache<String, byte[]> local = (LocalToolkitCache<String, byte[]>) cache;
+    for (int i = 0; i < 1000; i++) {
+      cache.put("small-" + i, new byte[1]);
+      assertTrue(cache.size() <= 50);
+    }
+    assertEquals(50, cache.size());
+    for (int i = 0; i < 1000; i++) {
+      cache.put("large-" + i, new byte[1024]);
+      assertTrue(cache.size() <= 50);
+      assertTrue(local.getLocalHeapBytes() <= 32 * 1024);
+    }
+    assertTrue(cache.size() < 32);
+  }
+
+  @Test
+  public void testBoundSetAtRuntimeMeasuresExistingEntries() {
+    ToolkitCache<String, byte[]> cache = toolkit.getCache("dynamic", byte[].class);
+    for (int i = 0; i < 10; i++) {
+      cache.put("key-" + i, new byte[1024]);
+    }
+    LocalToolkitCache<String, byte[]> local = (LocalToolkitCache<String, byte[]>) cache;
+    assertEquals(0, local.getLocalHeapBytes());
+    cache.setConfigField(ToolkitConfigFields.MAX_BYTES_LOCAL_HEAP_FIELD_NAME, 1024L * 1024);
+    assertTrue(local.getLocalHeapBytes() > 10 * 1024);
+  }
+
+  @Test
+  public void testStoreRejectsPutsOverBound() {
+    ToolkitStore<String, Integer> store = toolkit.getStore("store", new ToolkitStoreConfigBuilder()
+        .maxCountLocalHeap(10).build(), Integer.class);
+    for (int i = 0; i < 10; i++) {
+      store.put("key-" + i, i);
+    }
+    store.put("key-0", -1);
+    try {
+      store.put("key-10", 10);
+      fail();
+    } catch (ToolkitRuntimeException e) {
+      // expected
+    }
+    assertEquals(10, store.size());
+    store.remove("key-0");
+    store.put("key-10", 10);
+  }
+}
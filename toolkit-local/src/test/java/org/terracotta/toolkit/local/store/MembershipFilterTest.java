@@ -0,0 +1,131 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitStoreConfigBuilder;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MembershipFilterTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("filter");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @SuppressWarnings("unchecked")
+  private LocalToolkitStore<String, String> store(String name, int capacity) {
+    return (LocalToolkitStore<String, String>) toolkit.getStore(name, new ToolkitStoreConfigBuilder().concurrency(8)
+        .configField(LocalConfigFields.MEMBERSHIP_FILTER_CAPACITY_FIELD_NAME, capacity).build(), String.class);
+  }
+
+  @Test
+  public void testAbsentKeysAreRejected() {
+    LocalToolkitStore<String, String> store = store("store", 1000);
+    for (int i = 0; i < 1000; i++) {
+      store.put("k" + i, "v" + i);
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      store.remove("k" + i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 0 ? null : "v" + i, store.get("k" + i));
+    }
+    for (int i = 0; i < 10000; i++) {
+      assertFalse(store.containsKey("missing" + i));
+    }
+    MembershipFilter filter = store.getMembershipFilter();
+    assertTrue(filter.getRejectedCount() > 10000);
+    assertTrue(filter.getObservedFalsePositiveRate() < 0.02);
+    assertTrue(filter.getEstimatedFalsePositiveRate() < 0.02);
+
+    store.clear();
+    assertNull(store.get("k1"));
+    assertTrue(store.getMembershipFilter().getEstimatedFalsePositiveRate() == 0);
+    assertNull(toolkit.getStore("plain", String.class).get("k1"));
+  }
+
+  @Test
+  public void testFilterIsRebuiltForBulkLoads() {
+    LocalToolkitStore<String, String> store = store("bulk", 100);
+    store.setNodeBulkLoadEnabled(true);
+    Map<String, String> values = new HashMap<String, String>();
+    for (int i = 0; i < 10000; i++) {
+      values.put("k" + i, "v" + i);
+    }
+    store.putAll(values);
+    assertTrue(store.getMembershipFilter().getEstimatedFalsePositiveRate() > 0.5);
+    store.setNodeBulkLoadEnabled(false);
+    assertEquals(10000, store.getMembershipFilter().getCapacity());
+    assertTrue(store.getMembershipFilter().getEstimatedFalsePositiveRate() < 0.02);
+    assertEquals("v42", store.get("k42"));
+  }
+
+  @Test
+  public void testLiveKeysAreNeverRejected() throws Exception {
+    final LocalToolkitStore<String, String> store = store("concurrent", 64);
+    final AtomicBoolean stop = new AtomicBoolean();
+    final AtomicReference<String> failure = new AtomicReference<String>();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int id = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; !stop.get(); i++) {
+            String key = id + "-" + (i & 127);
+            store.put(key, "v");
+            if (store.get(key) == null) {
+              failure.set(key);
+            }
+            store.remove(key);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (int i = 0; i < 50; i++) {
+      store.rebuildMembershipFilter();
+      Thread.sleep(2);
+    }
+    stop.set(true);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheEntryEvent;
+import org.terracotta.toolkit.cache.ToolkitCacheKeyFilter;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.cache.ToolkitCacheMutationListener;
+import org.terracotta.toolkit.local.LocalToolkit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MutationListenerTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("mutations");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testPutUpdateAndRemoveEventsCarryValues() {
+    ToolkitCache<String, String> cache = toolkit.getCache("events", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    RecordingListener listener = new RecordingListener();
+    cache.addListener(listener);
+    cache.put("a", "1");
+    cache.put("a", "2");
+    cache.replace("a", "3");
+    cache.remove("a");
+    cache.putIfAbsent("b", "1");
+    cache.putIfAbsent("b", "2");
+    cache.putAllNoReturn(Collections.singletonMap("c", "1"));
+    cache.removeAllNoReturn(Arrays.asList("c", "d"));
+    assertEquals(Arrays.asList("put a null 1", "update a 1 2", "update a 2 3", "remove a 3 null", "put b null 1",
+                               "put c null 1", "remove c 1 null"), listener.events);
+  }
+
+  @Test
+  public void testKeyFilterSelectsEvents() {
+    ToolkitCache<String, String> cache = toolkit.getCache("filtered", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    RecordingListener listener = new RecordingListener();
+    cache.addListener(listener, new ToolkitCacheKeyFilter<String>() {
+      @Override
+      public boolean accept(String key) {
+        return key.startsWith("x");
+      }
+    });
+    cache.put("a", "1");
+    cache.put("x1", "1");
+    cache.remove("a");
+    cache.remove("x1");
+    assertEquals(Arrays.asList("put x1 null 1", "remove x1 1 null"), listener.events);
+  }
+
+  @Test
+  public void testFailingListenerDoesNotStopTheOthers() {
+    ToolkitCache<String, String> cache = toolkit.getCache("failing", new ToolkitCacheConfigBuilder().build(),
+                                                          String.class);
+    cache.addListener(new RecordingListener() {
+      @Override
+      public void onPut(ToolkitCacheEntryEvent<String, String> event) {
+        throw new IllegalStateException("listener failure");
+      }
+    });
+    RecordingListener listener = new RecordingListener();
+    cache.addListener(listener);
+    Map<String, String> batch = new TreeMap<String, String>();
+    batch.put("a", "1");
+    batch.put("b", "1");
+    cache.putAllNoReturn(batch);
+    cache.put("c", "1");
+    cache.remove("c");
+    assertEquals(2, cache.size());
+    Collections.sort(listener.events);
+    assertEquals(Arrays.asList("put a null 1", "put b null 1", "put c null 1", "remove c 1 null"), listener.events);
+  }
+
+  @Test
+  public void testMutationsAreOnlyNotifiedToMutationListeners() {
+    LocalToolkitCache<String, String> cache = (LocalToolkitCache<String, String>) toolkit
+        .getCache("fast", new ToolkitCacheConfigBuilder().build(), String.class);
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        //
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        //
+      }
+    });
+    assertFalse(cache.notifiesMutations());
+    RecordingListener listener = new RecordingListener();
+    cache.addListener(listener);
+    assertTrue(cache.notifiesMutations());
+    cache.removeListener(listener);
+    assertFalse(cache.notifiesMutations());
+  }
+
+  private static class RecordingListener implements ToolkitCacheMutationListener<String, String> {
+
+    final List<String> events = new ArrayList<String>();
+
+    @Override
+    public void onPut(ToolkitCacheEntryEvent<String, String> event) {
+      record("put", event);
+    }
+
+    @Override
+    public void onUpdate(ToolkitCacheEntryEvent<String, String> event) {
+      record("update", event);
+    }
+
+    @Override
+    public void onRemove(ToolkitCacheEntryEvent<String, String> event) {
+      record("remove", event);
+    }
+
+    @Override
+    public void onEviction(String key) {
+      //
+    }
+
+    @Override
+    public void onExpiration(String key) {
+      //
+    }
+
+    private void record(String type, ToolkitCacheEntryEvent<String, String> event) {
+      events.add(type + " " + event.getKey() + " " + event.getOldValue() + " " + event.getNewValue());
+    }
+  }
+}
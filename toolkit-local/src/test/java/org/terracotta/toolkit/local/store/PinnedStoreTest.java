@@ -0,0 +1,88 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PinnedStoreTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("pinned");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testPinnedCacheNeverEvictsAndReportsMemory() {
+    ToolkitCache<String, String> cache = toolkit.getCache("pinned", new ToolkitCacheConfigBuilder().concurrency(4)
+        .maxCountLocalHeap(10).pinnedInLocalMemory(true).build(), String.class);
+    for (int i = 0; i < 1000; i++) {
+      cache.put("k" + i, "v" + i);
+    }
+    assertEquals(1000, cache.size());
+    assertEquals(1000L, cache.getConfiguration().getLong(LocalConfigFields.PINNED_LOCAL_COUNT_FIELD_NAME));
+    assertTrue(cache.getConfiguration().getLong(LocalConfigFields.PINNED_LOCAL_BYTES_FIELD_NAME) > 1000 * 16);
+    try {
+      cache.setConfigField(LocalConfigFields.PINNED_LOCAL_COUNT_FIELD_NAME, 0L);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    cache.clear();
+    assertEquals(0L, cache.getConfiguration().getLong(LocalConfigFields.PINNED_LOCAL_BYTES_FIELD_NAME));
+  }
+
+  @Test
+  public void testRemovalsKeepProbeRunsReachable() {
+    ToolkitCache<String, Integer> cache = toolkit.getCache("churn", new ToolkitCacheConfigBuilder().concurrency(1)
+        .pinnedInLocalMemory(true).build(), Integer.class);
+    Map<String, Integer> expected = new HashMap<String, Integer>();
+    Random random = new Random(7);
+    for (int i = 0; i < 20000; i++) {
+      String key = "k" + random.nextInt(500);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), cache.remove(key));
+      } else {
+        assertEquals(expected.put(key, i), cache.put(key, i));
+      }
+    }
+    assertEquals(expected.size(), cache.size());
+    for (int i = 0; i < 500; i++) {
+      assertEquals(expected.get("k" + i), cache.get("k" + i));
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.local.LocalToolkit;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RefreshAheadTest {
+
+  private LocalToolkit toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("refresh");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testAgedEntriesAreRefreshedOnceInTheBackground() throws Exception {
+    LocalToolkitCache<String, String> cache = (LocalToolkitCache<String, String>) toolkit
+        .getCache("pricing", new ToolkitCacheConfigBuilder().maxTTLSeconds(10).refreshAheadPercent(50).build(),
+                  String.class);
+    long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    cache.putNoReturn("young", "old", nowSeconds, 0, 10);
+    cache.putNoReturn("aged", "old", nowSeconds - 8, 0, 10);
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+    ToolkitCacheLoader<String, String> loader = new ToolkitCacheLoader<String, String>() {
+      @Override
+      public String load(String key) throws Exception {
+        loads.incrementAndGet();
+        release.await(10, TimeUnit.SECONDS);
+        return "new";
+      }
+    };
+    for (int i = 0; i < 10; i++) {
+      assertEquals("old", cache.getOrLoad("aged", loader));
+      assertEquals("old", cache.getOrLoad("young", loader));
+    }
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!"new".equals(cache.get("aged")) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("new", cache.get("aged"));
+    assertEquals("old", cache.get("young"));
+    assertEquals(1, loads.get());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCache;
+import org.terracotta.toolkit.cache.ToolkitCacheListener;
+import org.terracotta.toolkit.local.LocalToolkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+
+  private static final long START = 1000000000000L;
+
+  private LocalToolkit      toolkit;
+
+  @Before
+  public void setUp() {
+    toolkit = new LocalToolkit("timer");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testEntriesExpireWhenTheirBucketIsReached() {
+    HeapSegment<String, String> segment = new HeapSegment<String, String>(4, null, null,
+                                                                          new TimerWheel<String, String>(START));
+    put(segment, "never", 0, 0);
+    put(segment, "second", 0, 1);
+    put(segment, "minute", 0, 90);
+    put(segment, "day", 0, 86400);
+    assertTrue(segment.hasScheduledExpiries());
+
+    assertNull(segment.expire(START + 500));
+    assertEquals("[second]", keys(segment.expire(START + 3000)));
+    assertNull(segment.expire(START + 60000));
+    assertEquals("[minute]", keys(segment.expire(START + 95000)));
+    assertNull(segment.expire(START + 86000000));
+    assertEquals("[day]", keys(segment.expire(START + 87000000)));
+    assertEquals(1, segment.size());
+    assertTrue(!segment.hasScheduledExpiries());
+  }
+
+  @Test
+  public void testAccessedEntriesAreRescheduled() {
+    HeapSegment<String, String> segment = new HeapSegment<String, String>(4, null, null,
+                                                                          new TimerWheel<String, String>(START));
+    HashEntry<String, String> idle = put(segment, "idle", 2, 0);
+    segment.accessed(idle, START + 1500);
+    assertNull(segment.expire(START + 2500));
+    assertEquals("[idle]", keys(segment.expire(START + 5000)));
+  }
+
+  @Test
+  public void testRemovedEntriesAreUnscheduled() {
+    HeapSegment<String, String> segment = new HeapSegment<String, String>(4, null, null,
+                                                                          new TimerWheel<String, String>(START));
+    put(segment, "a", 0, 1);
+    put(segment, "a", 0, 10);
+    segment.remove("a", SegmentedTable.hash("a"));
+    assertTrue(!segment.hasScheduledExpiries());
+    assertNull(segment.expire(START + 20000));
+  }
+
+  @Test
+  public void testCacheExpiresEntriesProactively() throws Exception {
+    ToolkitCache<String, String> cache = toolkit.getCache("proactive", new ToolkitCacheConfigBuilder()
+        .maxTTLSeconds(1).build(), String.class);
+    final CountDownLatch expired = new CountDownLatch(2);
+    cache.addListener(new ToolkitCacheListener<String>() {
+      @Override
+      public void onEviction(String key) {
+        //
+      }
+
+      @Override
+      public void onExpiration(String key) {
+        expired.countDown();
+      }
+    });
+    cache.put("a", "1");
+    cache.put("b", "2");
+    assertTrue(expired.await(10, TimeUnit.SECONDS));
+    assertEquals(0, cache.size());
+  }
+
+  private static HashEntry<String, String> put(HeapSegment<String, String> segment, String key, int tti, int ttl) {
+    HashEntry<String, String> entry = new HashEntry<String, String>(key, SegmentedTable.hash(key), "v", START, tti,
+                                                                    ttl);
+    segment.put(entry);
+    return entry;
+  }
+
+  private static String keys(List<HashEntry<String, String>> entries) {
+    if (entries == null) { return null; }
+    List<String> keys = new ArrayList<String>();
+    for (HashEntry<String, String> entry : entries) {
+      keys.add(entry.key);
+    }
+    return keys.toString();
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright Terracotta, Inc.
+ * Copyright IBM Corp. 2024, 2025
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terracotta.toolkit.local.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.terracotta.toolkit.builder.ToolkitCacheConfigBuilder;
+import org.terracotta.toolkit.cache.ToolkitCacheLoader;
+import org.terracotta.toolkit.cache.ToolkitCacheWriter;
+import org.terracotta.toolkit.local.LocalToolkit;
+import org.terracotta.toolkit.local.config.LocalConfigFields;
+import org.terracotta.toolkit.local.copy.Copier;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class WriteBehindTest {
+
+  private static final BlockingQueue<String> CALLS    = new LinkedBlockingQueue<String>();
+  private static final AtomicInteger         FAILURES = new AtomicInteger();
+  private static final Map<String, String>   WRITTEN  = new ConcurrentHashMap<String, String>();
+
+  private LocalToolkit                       toolkit;
+
+  @Before
+  public void setUp() {
+    CALLS.clear();
+    FAILURES.set(0);
+    WRITTEN.clear();
+    toolkit = new LocalToolkit("write-behind");
+  }
+
+  @After
+  public void tearDown() {
+    toolkit.shutdown();
+  }
+
+  @Test
+  public void testMutationsAreCoalescedAndWrittenInBatches() throws Exception {
+    LocalToolkitCache<String, String> cache = cache("batched", 3, 60000);
+    cache.put("a", "1");
+    cache.put("a", "2");
+    cache.put("b", "1");
+    cache.getOrLoad("loaded", new ToolkitCacheLoader<String, String>() {
+      @Override
+      public String load(String key) {
+        return "from the database";
+      }
+    });
+    cache.put("c", "1");
+    assertEquals("write {a=2, b=1, c=1}", CALLS.poll(10, TimeUnit.SECONDS));
+    cache.remove("a");
+    assertNull(CALLS.poll(100, TimeUnit.MILLISECONDS));
+    WriteBehindStatistics statistics = cache.getWriteBehindStatistics();
+    assertEquals(1, statistics.getQueueSize());
+    assertEquals(1, statistics.getCoalescedCount());
+    cache.destroy();
+    assertEquals("delete [a]", CALLS.poll());
+    assertNull(CALLS.poll());
+    assertEquals(4, statistics.getWrittenCount());
+  }
+
+  @Test
+  public void testFailedWritesAreRetried() throws Exception {
+    FAILURES.set(2);
+    LocalToolkitCache<String, String> cache = cache("retried", 100, 0);
+    cache.put("a", "1");
+    assertEquals("write {a=1}", CALLS.poll(10, TimeUnit.SECONDS));
+    assertEquals(2, cache.getWriteBehindStatistics().getRetryCount());
+  }
+
+  @Test
+  public void testUnreadableValuesAreDropped() throws Exception {
+    LocalToolkitCache<String, String> cache = (LocalToolkitCache<String, String>) toolkit
+        .getCache("unreadable", new ToolkitCacheConfigBuilder().writeBehindWriter(RecordingWriter.class.getName())
+            .writeBehindBatchSize(1).writeBehindIntervalMillis(0).copyOnReadEnabled(true)
+            .configField(LocalConfigFields.COPIER_FIELD_NAME, FailingCopier.class.getName()).build(), String.class);
+    cache.put("a", FailingCopier.UNREADABLE);
+    cache.put("b", "1");
+    assertEquals("write {b=1}", CALLS.poll(10, TimeUnit.SECONDS));
+    assertEquals(1, cache.getWriteBehindStatistics().getFailedCount());
+  }
+
+  @Test
+  public void testConcurrentUpdatesOfAKeyAreWrittenInOrder() throws Exception {
+    for (int round = 0; round < 20; round++) {
+      final LocalToolkitCache<String, String> cache = cache("ordered" + round, 1, 0);
+      Thread[] writers = new Thread[16];
+      for (int t = 0; t < writers.length; t++) {
+        final int thread = t;
+        writers[t] = new Thread() {
+          @Override
+          public void run() {
+            for (int i = 0; i < 500; i++) {
+              cache.put("k", thread + "-" + i);
+            }
+          }
+        };
+        writers[t].start();
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+      String expected = cache.get("k");
+      cache.destroy();
+      assertEquals(expected, WRITTEN.get("k"));
+    }
+  }
+
+  private LocalToolkitCache<String, String> cache(String name, int batchSize, int intervalMillis) {
+    return (LocalToolkitCache<String, String>) toolkit.getCache(name, new ToolkitCacheConfigBuilder()
+        .writeBehindWriter(RecordingWriter.class.getName()).writeBehindBatchSize(batchSize)
+        .writeBehindIntervalMillis(intervalMillis).writeBehindRetryDelayMillis(10).build(), String.class);
+  }
+
+  public static final class FailingCopier implements Copier {
+    static final String UNREADABLE = "unreadable";
+
+    @Override
+    public Object copy(Object value) {
+      if (UNREADABLE.equals(value)) { throw new IllegalStateException("cannot copy " + value); }
+      return value;
+    }
+  }
+
+  public static final class RecordingWriter implements ToolkitCacheWriter<String, String> {
+
+    @Override
+    public void writeAll(Map<String, String> entries) throws Exception {
+      if (FAILURES.getAndDecrement() > 0) { throw new IOException("unavailable"); }
+      CALLS.add("write " + new TreeMap<String, String>(entries));
+      WRITTEN.putAll(entries);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+      CALLS.add("delete " + keys);
+    }
+  }
+}